@@ -0,0 +1,63 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.messages.AcceptRequest;
+import server.messages.AcceptResponse;
+import server.messages.PrepareRequest;
+import server.messages.PromiseResponse;
+import server.roles.Acceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link Acceptor#receivePrepare} and {@link Acceptor#receiveAccept} on one acceptor
+ * shared by every benchmark thread, so higher thread counts and skewed keys measure contention.
+ * Every request is for the first instance of its key with an ever higher proposal number, so
+ * every request is granted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AcceptorBenchmark {
+  @Param({"uniform", "zipfian"})
+  public String keyDistribution;
+
+  @Param({"1000"})
+  public int keyCount;
+
+  private BenchmarkSupport support;
+  private Acceptor acceptor;
+  private final AtomicLong proposalNumbers = new AtomicLong();
+
+  @Setup
+  public void setUp() {
+    support = new BenchmarkSupport(keyDistribution, keyCount);
+    acceptor = new Acceptor(0);
+  }
+
+  @Benchmark
+  public PromiseResponse receivePrepare() {
+    String key = support.key(support.nextIndex());
+    return acceptor.receivePrepare(new PrepareRequest(proposalNumbers.incrementAndGet(), key, 1, 0));
+  }
+
+  @Benchmark
+  public AcceptResponse receiveAccept() {
+    return acceptor.receiveAccept(new AcceptRequest(proposalNumbers.incrementAndGet(), 1, 0,
+            support.action(support.nextIndex())));
+  }
+}
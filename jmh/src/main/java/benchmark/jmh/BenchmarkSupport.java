@@ -0,0 +1,53 @@
+package benchmark.jmh;
+
+import server.actions.PutAction;
+import util.KeyDistribution;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared setup for the JMH benchmarks: pre-built keys and actions, so the measured code does not
+ * pay for string building, and quieter server logging, so it does not pay for console output.
+ */
+final class BenchmarkSupport {
+  // Held strongly so the level stays in effect for every server logger
+  private static final Logger SERVER_LOGGER = Logger.getLogger("server");
+
+  private final KeyDistribution distribution;
+  private final String[] keys;
+  private final PutAction[] actions;
+
+  /**
+   * Builds keys "key-0" to "key-(keyCount - 1)" and one PUT per key.
+   *
+   * @param distribution "uniform" or "zipfian".
+   * @param keyCount     The number of keys.
+   */
+  BenchmarkSupport(String distribution, int keyCount) {
+    SERVER_LOGGER.setLevel(Level.WARNING);
+    this.distribution = KeyDistribution.fromName(distribution, keyCount);
+    this.keys = new String[keyCount];
+    this.actions = new PutAction[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = "key-" + i;
+      actions[i] = new PutAction(keys[i], "value-" + i);
+    }
+  }
+
+  /**
+   * Picks the index of the next key according to the configured skew.
+   */
+  int nextIndex() {
+    return (int) distribution.next(ThreadLocalRandom.current());
+  }
+
+  String key(int index) {
+    return keys[index];
+  }
+
+  PutAction action(int index) {
+    return actions[index];
+  }
+}
@@ -0,0 +1,63 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.messages.LearnMessage;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how fast one {@link Learner} applies decisions, including gap tracking, decision
+ * history and the Merkle tree update. Every thread feeds the same learner, as every proposer does.
+ * Each key's decisions carry consecutive instances, so threads racing on a key also exercise
+ * holding back a decision until the one before it arrives.
+ * The learner thread itself is not started, so no catch-up runs during the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearnerBenchmark {
+  @Param({"uniform", "zipfian"})
+  public String keyDistribution;
+
+  @Param({"1000"})
+  public int keyCount;
+
+  private BenchmarkSupport support;
+  private Learner learner;
+  private final AtomicLong sequence = new AtomicLong();
+  private AtomicLong[] instances;
+
+  @Setup
+  public void setUp() {
+    support = new BenchmarkSupport(keyDistribution, keyCount);
+    learner = new Learner(0, new ConcurrentHashMap<>(), new AcceptorSupervisor(0));
+    instances = new AtomicLong[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      instances[i] = new AtomicLong();
+    }
+  }
+
+  @Benchmark
+  public void learn() {
+    int index = support.nextIndex();
+    long decision = sequence.incrementAndGet();
+    learner.learn(new LearnMessage(decision, 1, decision, instances[index].incrementAndGet(), support.action(index)));
+  }
+}
@@ -0,0 +1,130 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.IKeyValueServer;
+import server.LoadBalancer;
+import server.ServerConfig;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the LoadBalancer's own overhead: picking a replica and forwarding the call.
+ * The replicas are stubs that answer immediately, so only routing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancerBenchmark {
+  @Param({"uniform", "zipfian"})
+  public String keyDistribution;
+
+  @Param({"1000"})
+  public int keyCount;
+
+  @Param({"5"})
+  public int replicaCount;
+
+  @Param({"round-robin", "p2c"})
+  public String policy;
+
+  private BenchmarkSupport support;
+  private LoadBalancer loadBalancer;
+
+  @Setup
+  public void setUp() throws RemoteException {
+    support = new BenchmarkSupport(keyDistribution, keyCount);
+    List<IKeyValueServer> replicas = new ArrayList<>();
+    for (int i = 0; i < replicaCount; i++) {
+      replicas.add(new StubReplica(i));
+    }
+    loadBalancer = new LoadBalancer(replicas, ServerConfig.fromOptions(Collections.singletonMap("balancer", policy)));
+  }
+
+  @TearDown
+  public void tearDown() throws NoSuchObjectException {
+    UnicastRemoteObject.unexportObject(loadBalancer, true);
+  }
+
+  @Benchmark
+  public String get() throws RemoteException {
+    return loadBalancer.get(support.key(support.nextIndex()));
+  }
+
+  @Benchmark
+  public boolean put() throws RemoteException {
+    int index = support.nextIndex();
+    return loadBalancer.put(support.key(index), support.action(index).getValue());
+  }
+
+  /**
+   * A replica that answers every request immediately.
+   */
+  private static final class StubReplica implements IKeyValueServer {
+    private final String id;
+
+    private StubReplica(int id) {
+      this.id = String.valueOf(id);
+    }
+
+    @Override
+    public String get(String key) {
+      return key;
+    }
+
+    @Override
+    public boolean put(String key, String value) {
+      return true;
+    }
+
+    @Override
+    public boolean delete(String key) {
+      return true;
+    }
+
+    @Override
+    public String getServerID() {
+      return id;
+    }
+
+    @Override
+    public AcceptorSupervisor getAcceptorSupervisor() {
+      return null;
+    }
+
+    @Override
+    public Learner getLearner() {
+      return null;
+    }
+
+    @Override
+    public boolean isVoter() {
+      return true;
+    }
+
+    @Override
+    public void setAllReplicas(List<IKeyValueServer> replicas) {
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ProposalNumberGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ProposalNumberGenerator#next()} with every thread sharing one generator,
+ * as the client threads of one replica do. Proposal numbers do not depend on the key, so this
+ * benchmark is only parameterized by thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProposalNumberGeneratorBenchmark {
+  private final ProposalNumberGenerator generator = new ProposalNumberGenerator(0);
+
+  @Benchmark
+  public long next() {
+    return generator.next();
+  }
+}
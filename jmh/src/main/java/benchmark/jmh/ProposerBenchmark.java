@@ -0,0 +1,59 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.IKeyValueServer;
+import server.ReplicationEngine;
+import server.ServerConfig;
+import server.roles.Proposer;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Proposer#propose} end to end: Prepare and Accept on every acceptor of an
+ * in-process five-replica Paxos cluster, then Learn on every learner. The proposer runs outside
+ * the cluster, so no replica's own request handling is included. Threads proposing for the same
+ * key compete, which zipfian skew makes much more likely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProposerBenchmark {
+  private static final int PROPOSER_ID = 15;
+
+  @Param({"uniform", "zipfian"})
+  public String keyDistribution;
+
+  @Param({"1000"})
+  public int keyCount;
+
+  private BenchmarkSupport support;
+  private Proposer proposer;
+
+  @Setup
+  public void setUp() throws RemoteException {
+    support = new BenchmarkSupport(keyDistribution, keyCount);
+    List<IKeyValueServer> cluster = ReplicationEngine.PAXOS.createCluster(ServerConfig.defaults());
+    proposer = new Proposer(PROPOSER_ID);
+    proposer.setAllReplicas(cluster);
+  }
+
+  @Benchmark
+  public boolean propose() {
+    return proposer.propose(support.action(support.nextIndex()));
+  }
+}
@@ -0,0 +1,32 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import util.ValidationUtil;
+
+import java.util.Map;
+
+/**
+ * Runs the selected benchmarks once per thread count, since JMH takes a single thread count per run.
+ *
+ * <p>Usage: {@code java -cp benchmarks.jar benchmark.jmh.ThreadSweep [--include=Acceptor]
+ * [--threads=1,2,4,8] [--keyDistribution=uniform,zipfian]}.
+ */
+public class ThreadSweep {
+  public static void main(String[] args) throws RunnerException {
+    Map<String, String> options = ValidationUtil.parseOptions(args, 0);
+    String include = options.getOrDefault("include", "benchmark.jmh.*");
+    String[] distributions = options.getOrDefault("keyDistribution", "uniform,zipfian").split(",");
+
+    for (String threads : options.getOrDefault("threads", "1,2,4,8").split(",")) {
+      Options run = new OptionsBuilder()
+              .include(include)
+              .threads(Integer.parseInt(threads.trim()))
+              .param("keyDistribution", distributions)
+              .build();
+      new Runner(run).run();
+    }
+  }
+}
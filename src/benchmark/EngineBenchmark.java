@@ -0,0 +1,163 @@
+package benchmark;
+
+import remote.KeyValueService;
+import server.IKeyValueServer;
+import server.LoadBalancer;
+import server.ReplicationEngine;
+import server.ServerConfig;
+import server.fault.FaultInjector;
+import server.fault.ScheduledFaultInjector;
+import util.LatencyHistogram;
+import util.ValidationUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the same in-process workload against each replication engine and reports
+ * throughput and latency percentiles, so Paxos and Raft can be compared on equal terms.
+ * Requests go through the LoadBalancer exactly as client requests do, minus the RMI hop.
+ *
+ * <p>Usage: {@code java benchmark.EngineBenchmark [--engines=paxos,raft] [--replicas=5]
+ * [--threads=8] [--ops=2000] [--writes=0.5] [--keys=1000]}. Other options, such as
+ * {@code --readReplicas} or {@code --crdt}, configure the replicas as they would in {@link server.Main}.
+ *
+ * <p>With {@code --faults=<schedule>} (and optionally {@code --faultSeed}), the fault schedule starts
+ * when measurement starts, and a timeline of throughput and p99 latency per 250 ms window is printed
+ * next to the faults applied in it. {@code --duration=ms} runs for a fixed time instead of a fixed
+ * number of operations, which suits schedules that include recovery.
+ */
+public class EngineBenchmark {
+  // Held strongly so the level stays in effect for every server logger
+  private static final Logger SERVER_LOGGER = Logger.getLogger("server");
+  private static final long TIMELINE_WINDOW_MS = 250;
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = ValidationUtil.parseOptions(args, 0);
+    String[] engines = options.getOrDefault("engines", "paxos,raft").split(",");
+    int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+    int opsPerThread = Integer.parseInt(options.getOrDefault("ops", "2000"));
+    double writeRatio = Double.parseDouble(options.getOrDefault("writes", "0.5"));
+    int keyCount = Integer.parseInt(options.getOrDefault("keys", "1000"));
+    long durationMillis = Long.parseLong(options.getOrDefault("duration", "0"));
+
+    SERVER_LOGGER.setLevel(Level.WARNING); // per-request logging would dominate the numbers
+
+    ServerConfig config = ServerConfig.fromOptions(options);
+    System.out.printf("replicas=%d+%d threads=%d ops/thread=%d writes=%.2f keys=%d%n",
+            config.getReplicaCount(), config.getReadReplicaCount(), threads, opsPerThread, writeRatio, keyCount);
+    for (String name : engines) {
+      ReplicationEngine engine = ReplicationEngine.fromName(name.trim());
+      run(engine, config, threads, opsPerThread, writeRatio, keyCount, durationMillis);
+    }
+    System.exit(0);
+  }
+
+  private static void run(ReplicationEngine engine, ServerConfig config, int threads,
+                          int opsPerThread, double writeRatio, int keyCount, long durationMillis) throws Exception {
+    ScheduledFaultInjector faultInjector = null;
+    if (config.hasFaultSchedule()) {
+      faultInjector = new ScheduledFaultInjector(config.getFaultSchedule());
+      System.out.println(faultInjector.getSchedule());
+    }
+    List<IKeyValueServer> replicas = engine.createCluster(config,
+            faultInjector != null ? faultInjector : FaultInjector.NONE);
+    KeyValueService service = new LoadBalancer(replicas, config);
+
+    // Warm up, which also waits out leader election for Raft
+    for (int i = 0; i < 50; i++) {
+      service.put("warmup-" + i, "v");
+    }
+
+    LatencyHistogram readLatency = new LatencyHistogram();
+    LatencyHistogram writeLatency = new LatencyHistogram();
+    LatencyHistogram windowLatency = new LatencyHistogram();
+    AtomicLong failedWrites = new AtomicLong();
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+          start.await();
+          long deadline = System.currentTimeMillis() + durationMillis;
+          for (int i = 0; durationMillis > 0 ? System.currentTimeMillis() < deadline : i < opsPerThread; i++) {
+            String key = "key-" + random.nextInt(keyCount);
+            long begin = System.nanoTime();
+            if (random.nextDouble() < writeRatio) {
+              if (!service.put(key, "value-" + i)) {
+                failedWrites.incrementAndGet();
+              }
+              writeLatency.record(System.nanoTime() - begin);
+            } else {
+              service.get(key);
+              readLatency.record(System.nanoTime() - begin);
+            }
+            windowLatency.record(System.nanoTime() - begin);
+          }
+        } catch (Exception e) {
+          System.err.println("Worker failed: " + e.getMessage());
+        } finally {
+          done.countDown();
+        }
+      }, "bench-" + engine + "-" + t);
+      worker.start();
+    }
+
+    long begin = System.nanoTime();
+    if (faultInjector != null) {
+      faultInjector.start();
+    }
+    start.countDown();
+    if (faultInjector != null) {
+      printTimeline(faultInjector, windowLatency, done);
+    }
+    done.await();
+    double seconds = (System.nanoTime() - begin) / 1e9;
+
+    long totalOps = readLatency.getCount() + writeLatency.getCount();
+    System.out.printf("%n[%s] %d ops in %.2fs -> %.0f ops/s (failed writes: %d)%n",
+            engine, totalOps, seconds, totalOps / seconds, failedWrites.get());
+    report("GET", readLatency);
+    report("PUT", writeLatency);
+  }
+
+  /**
+   * Prints throughput and p99 latency per window, with the faults applied during each window,
+   * until the workers finish.
+   */
+  private static void printTimeline(ScheduledFaultInjector faultInjector, LatencyHistogram windowLatency,
+                                    CountDownLatch done) throws InterruptedException {
+    System.out.printf("%n  %8s %10s %10s  %s%n", "t(ms)", "ops/s", "p99(us)", "faults");
+    int reportedEvents = 0;
+    long elapsed = 0;
+    while (!done.await(TIMELINE_WINDOW_MS, TimeUnit.MILLISECONDS)) {
+      elapsed += TIMELINE_WINDOW_MS;
+      long ops = windowLatency.getCount();
+      long p99 = windowLatency.getValueAtPercentile(99);
+      windowLatency.reset();
+      List<String> events = faultInjector.getAppliedEvents();
+      String faults = String.join("; ", events.subList(reportedEvents, events.size()));
+      reportedEvents = events.size();
+      System.out.printf("  %8d %10.0f %10.1f  %s%n", elapsed, ops * 1000.0 / TIMELINE_WINDOW_MS, p99 / 1000.0, faults);
+    }
+  }
+
+  private static void report(String label, LatencyHistogram histogram) {
+    System.out.printf("  %-4s n=%-8d mean=%8.1fus p50=%8.1fus p95=%8.1fus p99=%8.1fus max=%8.1fus%n",
+            label,
+            histogram.getCount(),
+            histogram.getMean() / 1000.0,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(95) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getMax() / 1000.0);
+  }
+}
@@ -0,0 +1,306 @@
+package client;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import client.util.Workload;
+import remote.KeyValueService;
+import util.LatencyHistogram;
+import util.LoggerUtil;
+import util.ValidationUtil;
+
+/**
+ * LoadGenerator is a non-interactive client that replays a configurable workload against the
+ * {@code KeyValueService} RMI endpoint from many threads and reports latency percentiles and
+ * throughput over time.
+ *
+ * <p>Usage: {@code java client.LoadGenerator <host> <port> [--workload=a] [--reads=0.5]
+ * [--distribution=zipfian] [--keys=10000] [--valueSize=100|64-1024] [--threads=16]
+ * [--mode=closed|open] [--rate=ops/s] [--duration=30000] [--warmup=0] [--preload=true]
+ * [--interval=1000] [--smartClient=true]}.
+ *
+ * <p>In closed-loop mode each thread sends its next request as soon as the previous one
+ * returns, so latency is the service time of each request. In open-loop mode requests are
+ * scheduled at a fixed total {@code --rate}, spread over the threads, and latency is measured
+ * from when each request was meant to be sent. A stall therefore shows up in every request
+ * that queued behind it instead of in one slow sample, which corrects for coordinated omission;
+ * the service time is still reported alongside for comparison.
+ *
+ * <p>With {@code --smartClient=true}, requests go straight to the replicas through a
+ * {@link SmartClient} instead of through the LoadBalancer.
+ */
+public class LoadGenerator {
+  private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private static final int PRELOAD_BATCH = 100;
+
+  private final KeyValueService service;
+  private final Workload workload;
+  private final int threads;
+  private final boolean openLoop;
+  private final double rate;
+  private final long durationMillis;
+  private final long warmupMillis;
+  private final long intervalMillis;
+
+  private final LatencyHistogram readLatency = new LatencyHistogram();
+  private final LatencyHistogram writeLatency = new LatencyHistogram();
+  private final LatencyHistogram serviceTime = new LatencyHistogram();
+  private final LatencyHistogram windowLatency = new LatencyHistogram();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong failedWrites = new AtomicLong();
+
+  /**
+   * Constructs a {@code LoadGenerator}.
+   *
+   * @param service        The key-value service to load.
+   * @param workload       The operations to send.
+   * @param threads        The number of client threads.
+   * @param openLoop       True to send at a fixed rate, false to send back-to-back.
+   * @param rate           The total target rate in operations per second (open loop only).
+   * @param durationMillis How long to measure for.
+   * @param warmupMillis   How long to run before measuring.
+   * @param intervalMillis How often to print a throughput line.
+   */
+  public LoadGenerator(KeyValueService service, Workload workload, int threads, boolean openLoop, double rate,
+                       long durationMillis, long warmupMillis, long intervalMillis) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive: " + threads);
+    }
+    if (openLoop && rate <= 0) {
+      throw new IllegalArgumentException("Open-loop mode needs --rate=<ops/s>");
+    }
+    this.service = service;
+    this.workload = workload;
+    this.threads = threads;
+    this.openLoop = openLoop;
+    this.rate = rate;
+    this.durationMillis = durationMillis;
+    this.warmupMillis = warmupMillis;
+    this.intervalMillis = intervalMillis;
+  }
+
+  /**
+   * Main method to start the load generator.
+   *
+   * @param args Command-line arguments: [0] - Server hostname, [1] - Server port, then options.
+   */
+  public static void main(String[] args) throws Exception {
+    ValidationUtil.validateLoadGeneratorArgs(args);
+    String hostname = args[0];
+    int port = Integer.parseInt(args[1]);
+    Map<String, String> options = ValidationUtil.parseOptions(args, 2);
+
+    LoadGenerator generator;
+    try {
+      KeyValueService keyValueService;
+      if (Boolean.parseBoolean(options.getOrDefault("smartClient", "false"))) {
+        keyValueService = SmartClient.connect(hostname, port);
+      } else {
+        Registry registry = LocateRegistry.getRegistry(hostname, port);
+        keyValueService = (KeyValueService) registry.lookup("KeyValueService");
+      }
+      LOGGER.info("Connected to server on " + hostname + ":" + port);
+
+      String mode = options.getOrDefault("mode", "closed");
+      if (!mode.equals("closed") && !mode.equals("open")) {
+        throw new IllegalArgumentException("Unknown mode: " + mode + " (expected closed or open)");
+      }
+      generator = new LoadGenerator(keyValueService,
+              Workload.fromOptions(options),
+              Integer.parseInt(options.getOrDefault("threads", "16")),
+              mode.equals("open"),
+              Double.parseDouble(options.getOrDefault("rate", "0")),
+              Long.parseLong(options.getOrDefault("duration", "30000")),
+              Long.parseLong(options.getOrDefault("warmup", "0")),
+              Long.parseLong(options.getOrDefault("interval", "1000")));
+    } catch (IllegalArgumentException e) {
+      System.err.println("ERROR: " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+
+    if (Boolean.parseBoolean(options.getOrDefault("preload", "true"))) {
+      generator.preload();
+    }
+    generator.run();
+    System.exit(0);
+  }
+
+  /**
+   * Writes every key once, split across the client threads and sent in batches of
+   * {@value #PRELOAD_BATCH}, so reads find values.
+   */
+  public void preload() throws InterruptedException {
+    long begin = System.nanoTime();
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      int first = t;
+      new Thread(() -> {
+        Random random = ThreadLocalRandom.current();
+        try {
+          Map<String, String> batch = new LinkedHashMap<>();
+          for (long i = first; i < workload.getKeyCount(); i += threads) {
+            batch.put(workload.key(i), workload.nextValue(random));
+            if (batch.size() == PRELOAD_BATCH) {
+              service.multiPut(batch);
+              batch = new LinkedHashMap<>();
+            }
+          }
+          if (!batch.isEmpty()) {
+            service.multiPut(batch);
+          }
+        } catch (Exception e) {
+          LOGGER.warning("Preload failed: " + e.getMessage());
+        } finally {
+          done.countDown();
+        }
+      }, "preload-" + t).start();
+    }
+    done.await();
+    System.out.printf("Preloaded %d keys in %.2fs%n", workload.getKeyCount(), (System.nanoTime() - begin) / 1e9);
+  }
+
+  /**
+   * Runs the warm-up and measurement phases, printing a throughput line every interval
+   * and a latency summary at the end.
+   */
+  public void run() throws InterruptedException {
+    System.out.println(workload);
+    System.out.printf("threads=%d mode=%s%s duration=%dms warmup=%dms%n", threads,
+            openLoop ? "open" : "closed", openLoop ? String.format(" rate=%.0f/s", rate) : "",
+            durationMillis, warmupMillis);
+
+    long start = System.nanoTime();
+    long measureStart = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+    long end = measureStart + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      int index = t;
+      new Thread(() -> {
+        try {
+          runWorker(index, start, measureStart, end);
+        } finally {
+          done.countDown();
+        }
+      }, "load-" + t).start();
+    }
+
+    printTimeline(measureStart, done);
+    report((System.nanoTime() - measureStart) / 1e9);
+  }
+
+  /**
+   * Sends operations until the end time. In open-loop mode each thread owns every
+   * {@code threads}-th slot of the global schedule, so the threads together send at the
+   * target rate; a thread that falls behind sends immediately until it catches up.
+   */
+  private void runWorker(int index, long start, long measureStart, long end) {
+    Random random = ThreadLocalRandom.current();
+    long periodNanos = openLoop ? (long) (threads * 1e9 / rate) : 0;
+    long intended = start + (openLoop ? periodNanos * index / threads : 0);
+
+    while (true) {
+      if (openLoop) {
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+      }
+      long sent = System.nanoTime();
+      if (sent >= end) {
+        return;
+      }
+      long scheduled = openLoop ? intended : sent;
+      intended += periodNanos;
+
+      boolean read = workload.nextIsRead(random);
+      try {
+        if (read) {
+          service.get(workload.nextKey(random));
+        } else if (!service.put(workload.nextKey(random), workload.nextValue(random))) {
+          failedWrites.incrementAndGet();
+        }
+      } catch (Exception e) {
+        if (scheduled >= measureStart) {
+          errors.incrementAndGet();
+        }
+        continue;
+      }
+
+      long finished = System.nanoTime();
+      if (scheduled >= measureStart) {
+        long latency = finished - scheduled;
+        (read ? readLatency : writeLatency).record(latency);
+        windowLatency.record(latency);
+        serviceTime.record(finished - sent);
+      }
+    }
+  }
+
+  /**
+   * Prints throughput and latency per interval until the workers finish.
+   */
+  private void printTimeline(long measureStart, CountDownLatch done) throws InterruptedException {
+    long warmupNanos = measureStart - System.nanoTime();
+    if (warmupNanos > 0 && done.await(warmupNanos, TimeUnit.NANOSECONDS)) {
+      return;
+    }
+    windowLatency.reset();
+    System.out.printf("%n  %8s %10s %10s %10s %10s %8s%n", "t(ms)", "ops/s", "p50(us)", "p99(us)", "p99.9(us)", "errors");
+    long elapsed = 0;
+    long reportedErrors = 0;
+    while (!done.await(intervalMillis, TimeUnit.MILLISECONDS)) {
+      elapsed += intervalMillis;
+      long ops = windowLatency.getCount();
+      long p50 = windowLatency.getValueAtPercentile(50);
+      long p99 = windowLatency.getValueAtPercentile(99);
+      long p999 = windowLatency.getValueAtPercentile(99.9);
+      windowLatency.reset();
+      long totalErrors = errors.get();
+      System.out.printf("  %8d %10.0f %10.1f %10.1f %10.1f %8d%n", elapsed, ops * 1000.0 / intervalMillis,
+              p50 / 1000.0, p99 / 1000.0, p999 / 1000.0, totalErrors - reportedErrors);
+      reportedErrors = totalErrors;
+    }
+  }
+
+  private void report(double seconds) {
+    long totalOps = readLatency.getCount() + writeLatency.getCount();
+    System.out.printf("%n%d ops in %.2fs -> %.0f ops/s%s (errors: %d, failed writes: %d)%n",
+            totalOps, seconds, totalOps / seconds,
+            openLoop ? String.format(" of %.0f/s target", rate) : "", errors.get(), failedWrites.get());
+    System.out.printf("  %-8s %9s %10s %10s %10s %10s %10s %10s %10s%n",
+            "", "n", "mean(us)", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+    report("GET", readLatency);
+    report("PUT", writeLatency);
+    if (openLoop) {
+      report("service", serviceTime);
+    }
+  }
+
+  private static void report(String label, LatencyHistogram histogram) {
+    System.out.printf("  %-8s %9d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            label,
+            histogram.getCount(),
+            histogram.getMean() / 1000.0,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getValueAtPercentile(99.99) / 1000.0,
+            histogram.getMax() / 1000.0);
+  }
+}
@@ -0,0 +1,469 @@
+package client;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.logging.Logger;
+
+import remote.KeyValueService;
+import remote.Topology;
+import remote.TopologyService;
+import remote.VersionedValue;
+import server.routing.ConsistentHashRing;
+import util.LoggerUtil;
+
+/**
+ * A client library that sends each request straight to a replica, skipping the LoadBalancer hop.
+ * It fetches the cluster topology from the {@code Topology} RMI binding and caches it. Writes go to
+ * the voting replica that owns the key on the same consistent-hash ring the LoadBalancer uses, so
+ * concurrent writes to one key still meet at one proposer. Reads rotate over every replica.
+ * Batch writes are split by owner, and each part goes to the owner of its keys.
+ *
+ * <p>A replica that fails a request is skipped for a second. The topology is then refreshed and
+ * the request is retried on another replica, up to {@value #MAX_ATTEMPTS} attempts in all;
+ * compare-and-set, which is not idempotent, is never retried. The
+ * topology is also refreshed every few seconds, so replicas the server suspects are avoided.
+ *
+ * <p>A {@code SmartClient} is thread-safe. Use {@link #connect(String, int)} to create one.
+ */
+public class SmartClient implements KeyValueService {
+  private static final Logger LOGGER = Logger.getLogger(SmartClient.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  static final int MAX_ATTEMPTS = 3;
+  private static final long SUSPECT_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(5);
+  private static final long MIN_REFRESH_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final TopologyService topologyService;
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private final AtomicInteger roundRobinIndex = new AtomicInteger();
+  private volatile Routing routing;
+  private volatile long lastRefresh;
+
+  /**
+   * Constructs a client over a topology service and fetches the topology.
+   *
+   * @param topologyService The topology service of the cluster.
+   * @throws RemoteException If the topology cannot be fetched.
+   */
+  public SmartClient(TopologyService topologyService) throws RemoteException {
+    this.topologyService = topologyService;
+    this.routing = new Routing(topologyService.getTopology());
+    this.lastRefresh = System.nanoTime();
+    LOGGER.info("Fetched topology: " + routing.topology);
+  }
+
+  /**
+   * Connects to the cluster registered at a host and port.
+   *
+   * @param hostname The RMI registry host.
+   * @param port     The RMI registry port.
+   * @return The client.
+   * @throws RemoteException   If the registry or topology cannot be reached.
+   * @throws NotBoundException If the server does not publish a topology.
+   */
+  public static SmartClient connect(String hostname, int port) throws RemoteException, NotBoundException {
+    Registry registry = LocateRegistry.getRegistry(hostname, port);
+    return new SmartClient((TopologyService) registry.lookup("Topology"));
+  }
+
+  /**
+   * Returns the cached topology.
+   *
+   * @return The topology last fetched.
+   */
+  public Topology getTopology() {
+    return routing.topology;
+  }
+
+  /**
+   * Sends a GET request straight to a replica, rotating over the available replicas.
+   *
+   * @param key The key to retrieve from the key-value store.
+   * @return The value associated with the key.
+   * @throws RemoteException If every attempt fails.
+   */
+  @Override
+  public String get(String key) throws RemoteException {
+    return send("GET", key, this::nextReadable, endpoint -> endpoint.get(key));
+  }
+
+  /**
+   * Sends a PUT request straight to the available voting replica that owns the key.
+   *
+   * @param key   The key to store in the key-value store.
+   * @param value The value to associate with the key.
+   * @return True if the PUT operation was successful, false otherwise.
+   * @throws RemoteException If every attempt fails.
+   */
+  @Override
+  public boolean put(String key, String value) throws RemoteException {
+    return send("PUT", key, routing -> routing.owner(key), endpoint -> endpoint.put(key, value));
+  }
+
+  /**
+   * Sends a DELETE request straight to the available voting replica that owns the key.
+   *
+   * @param key The key to delete from the key-value store.
+   * @return True if the DELETE operation was successful, false otherwise.
+   * @throws RemoteException If every attempt fails.
+   */
+  @Override
+  public boolean delete(String key) throws RemoteException {
+    return send("DELETE", key, routing -> routing.owner(key), endpoint -> endpoint.delete(key));
+  }
+
+  /**
+   * Sends a batch GET request straight to one replica, rotating over the available replicas.
+   *
+   * @param keys The keys to retrieve from the key-value store.
+   * @return Each key's value, or null for a key with no value, in the order of {@code keys}.
+   * @throws RemoteException If every attempt fails.
+   */
+  @Override
+  public Map<String, String> multiGet(List<String> keys) throws RemoteException {
+    if (keys.isEmpty()) {
+      return new LinkedHashMap<>();
+    }
+    return send("MULTIGET", keys.get(0), this::nextReadable, endpoint -> endpoint.multiGet(keys));
+  }
+
+  /**
+   * Splits a batch PUT request by key owner and sends each part straight to the available voting
+   * replica that owns its keys. The parts are sent one after another and are not atomic together:
+   * if one fails, the parts already sent stay written.
+   *
+   * @param entries The key-value pairs to store in the key-value store.
+   * @return Each key's success status, in the iteration order of {@code entries}.
+   * @throws RemoteException If every attempt for a part fails.
+   */
+  @Override
+  public Map<String, Boolean> multiPut(Map<String, String> entries) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    entries.keySet().forEach(key -> results.put(key, false));
+    results.putAll(sendBatch("MULTIPUT", entries.keySet(), keys -> {
+      Map<String, String> part = new LinkedHashMap<>();
+      keys.forEach(key -> part.put(key, entries.get(key)));
+      return endpoint -> endpoint.multiPut(part);
+    }, MAX_ATTEMPTS));
+    return results;
+  }
+
+  /**
+   * Splits a batch DELETE request by key owner and sends each part straight to the available
+   * voting replica that owns its keys. Like {@link #multiPut(Map)}, it is not atomic.
+   *
+   * @param keys The keys to delete from the key-value store.
+   * @return Each key's success status, in the order of {@code keys}.
+   * @throws RemoteException If every attempt for a part fails.
+   */
+  @Override
+  public Map<String, Boolean> multiDelete(List<String> keys) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    keys.forEach(key -> results.put(key, false));
+    results.putAll(sendBatch("MULTIDELETE", keys, part -> endpoint -> endpoint.multiDelete(part), MAX_ATTEMPTS));
+    return results;
+  }
+
+  /**
+   * Splits a batch write by key owner and sends each part to its owner. A part that fails is split
+   * again after the failed replica is skipped, since each of its keys has its own next owner, up to
+   * the given number of attempts in all.
+   */
+  private Map<String, Boolean> sendBatch(String operation, Collection<String> keys,
+                                         Function<List<String>, EndpointCall<Map<String, Boolean>>> callFor,
+                                         int attempts) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    Routing current = currentRouting();
+    for (Map.Entry<Integer, List<String>> part : splitByOwner(current, keys).entrySet()) {
+      int index = part.getKey();
+      List<String> partKeys = part.getValue();
+      try {
+        results.putAll(callFor.apply(partKeys).call(current.endpoint(index)));
+      } catch (RemoteException e) {
+        failed(current, index, operation, partKeys.get(0), e);
+        if (attempts <= 1) {
+          throw e;
+        }
+        results.putAll(sendBatch(operation, partKeys, callFor, attempts - 1));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Groups a batch's keys by the voting replica that owns them in the current routing, keeping
+   * their order.
+   */
+  private static Map<Integer, List<String>> splitByOwner(Routing current, Collection<String> keys) {
+    Map<Integer, List<String>> parts = new LinkedHashMap<>();
+    for (String key : keys) {
+      parts.computeIfAbsent(current.owner(key), owner -> new ArrayList<>()).add(key);
+    }
+    return parts;
+  }
+
+  /**
+   * Sends a versioned GET request straight to a replica, rotating over the available replicas.
+   *
+   * @param key The key to retrieve from the key-value store.
+   * @return The value and version associated with the key.
+   * @throws RemoteException If every attempt fails.
+   */
+  @Override
+  public VersionedValue getWithVersion(String key) throws RemoteException {
+    return send("GETVERSION", key, this::nextReadable, endpoint -> endpoint.getWithVersion(key));
+  }
+
+  /**
+   * Sends a compare-and-set request straight to the available voting replica that owns the key.
+   * It is sent only once: the replica may have applied it before failing, so a retry could
+   * report a mismatch for a swap that happened.
+   *
+   * @param key             The key to store or update.
+   * @param expectedVersion The version the key must have.
+   * @param newValue        The value to store, or null to delete the key.
+   * @return True if the version matched and the value was stored, false otherwise.
+   * @throws RemoteException If the request fails.
+   */
+  @Override
+  public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+    return send("CAS", key, routing -> routing.owner(key),
+            endpoint -> endpoint.compareAndSet(key, expectedVersion, newValue), 1);
+  }
+
+  /**
+   * Sends an atomic increment straight to the available voting replica that owns the key. Like
+   * every atomic operation, it is sent only once: a retry could apply it twice.
+   *
+   * @param key   The key holding the counter.
+   * @param delta The amount to add.
+   * @return The key's new value.
+   * @throws RemoteException If the request fails.
+   */
+  @Override
+  public long increment(String key, long delta) throws RemoteException {
+    return send("INCR", key, routing -> routing.owner(key), endpoint -> endpoint.increment(key, delta), 1);
+  }
+
+  /**
+   * Sends an atomic append straight to the available voting replica that owns the key.
+   *
+   * @param key    The key to append to.
+   * @param suffix The text to append.
+   * @return The key's new value.
+   * @throws RemoteException If the request fails.
+   */
+  @Override
+  public String append(String key, String suffix) throws RemoteException {
+    return send("APPEND", key, routing -> routing.owner(key), endpoint -> endpoint.append(key, suffix), 1);
+  }
+
+  /**
+   * Sends an atomic get-and-set straight to the available voting replica that owns the key.
+   *
+   * @param key   The key to store or update.
+   * @param value The value to store.
+   * @return The previous value, or null if the key had none.
+   * @throws RemoteException If the request fails.
+   */
+  @Override
+  public String getAndSet(String key, String value) throws RemoteException {
+    return send("GETSET", key, routing -> routing.owner(key), endpoint -> endpoint.getAndSet(key, value), 1);
+  }
+
+  /**
+   * Sends an atomic put-if-absent straight to the available voting replica that owns the key.
+   *
+   * @param key   The key to insert.
+   * @param value The value to store.
+   * @return Null if the value was stored, otherwise the key's existing value.
+   * @throws RemoteException If the request fails.
+   */
+  @Override
+  public String putIfAbsent(String key, String value) throws RemoteException {
+    return send("PUTNX", key, routing -> routing.owner(key), endpoint -> endpoint.putIfAbsent(key, value), 1);
+  }
+
+  /**
+   * Sends a request to the replica chosen from the current routing, failing over to another
+   * replica on errors, up to {@value #MAX_ATTEMPTS} attempts in all.
+   */
+  private <T> T send(String operation, String key, ToIntFunction<Routing> select, EndpointCall<T> call)
+          throws RemoteException {
+    return send(operation, key, select, call, MAX_ATTEMPTS);
+  }
+
+  /**
+   * Sends a request to the replica chosen from the current routing, failing over to another
+   * replica on errors, up to the given number of attempts in all.
+   */
+  private <T> T send(String operation, String key, ToIntFunction<Routing> select, EndpointCall<T> call,
+                     int attempts) throws RemoteException {
+    RemoteException failure = null;
+    for (int attempt = 0; attempt < attempts; attempt++) {
+      Routing current = currentRouting();
+      int index = select.applyAsInt(current);
+      try {
+        return call.call(current.endpoint(index));
+      } catch (RemoteException e) {
+        failure = e;
+        failed(current, index, operation, key, e);
+      }
+    }
+    throw failure;
+  }
+
+  private int nextReadable(Routing routing) {
+    return routing.nextReadable(roundRobinIndex.getAndIncrement());
+  }
+
+  /**
+   * Returns the cached routing, refreshing it first if it is older than the refresh interval.
+   */
+  private Routing currentRouting() {
+    if (System.nanoTime() - lastRefresh > REFRESH_NANOS) {
+      refresh(false);
+    }
+    return routing;
+  }
+
+  /**
+   * Skips a replica that failed a request, then refreshes the topology.
+   */
+  private void failed(Routing current, int index, String operation, String key, RemoteException e) {
+    LOGGER.warning(operation + " for key " + key + " failed on replica " + current.id(index) + ": " + e.getMessage());
+    current.suspect(index);
+    refresh(true);
+  }
+
+  /**
+   * Fetches the topology again. Only one thread refreshes at a time; the others keep using the
+   * cached topology. Refreshes after a failure are spaced at least 100 ms apart.
+   */
+  private void refresh(boolean afterFailure) {
+    if (!refreshLock.tryLock()) {
+      return;
+    }
+    try {
+      long now = System.nanoTime();
+      if (now - lastRefresh < (afterFailure ? MIN_REFRESH_GAP_NANOS : REFRESH_NANOS)) {
+        return;
+      }
+      lastRefresh = now;
+      routing = routing.update(topologyService.getTopology());
+    } catch (RemoteException e) {
+      LOGGER.warning("Could not refresh topology, keeping the cached one: " + e.getMessage());
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * A request sent to one replica's endpoint.
+   */
+  @FunctionalInterface
+  private interface EndpointCall<T> {
+    T call(KeyValueService endpoint) throws RemoteException;
+  }
+
+  /**
+   * An immutable view of one topology: the replicas, the write ring over the voting replicas, and
+   * when each replica stops being skipped after a failure.
+   */
+  private static final class Routing {
+    private final Topology topology;
+    private final List<Topology.Replica> replicas;
+    private final ConsistentHashRing<Integer> writeRing;
+    private final AtomicLongArray suspectUntil;
+
+    Routing(Topology topology) {
+      this(topology, new AtomicLongArray(topology.getReplicas().size()));
+    }
+
+    private Routing(Topology topology, AtomicLongArray suspectUntil) {
+      this.topology = topology;
+      this.replicas = topology.getReplicas();
+      this.suspectUntil = suspectUntil;
+      List<Integer> voters = new ArrayList<>();
+      for (int i = 0; i < replicas.size(); i++) {
+        if (replicas.get(i).isVoter()) {
+          voters.add(i);
+        }
+      }
+      if (voters.isEmpty()) {
+        throw new IllegalStateException("Topology has no voting replicas: " + topology);
+      }
+      this.writeRing = new ConsistentHashRing<>(voters, this::id);
+    }
+
+    /**
+     * Builds the routing for a newer topology, keeping the skipped replicas if the replicas are
+     * unchanged.
+     */
+    Routing update(Topology newer) {
+      List<Topology.Replica> next = newer.getReplicas();
+      boolean sameReplicas = next.size() == replicas.size();
+      for (int i = 0; sameReplicas && i < next.size(); i++) {
+        sameReplicas = next.get(i).getId().equals(replicas.get(i).getId());
+      }
+      return sameReplicas ? new Routing(newer, suspectUntil) : new Routing(newer);
+    }
+
+    KeyValueService endpoint(int index) {
+      return replicas.get(index).getEndpoint();
+    }
+
+    String id(int index) {
+      return replicas.get(index).getId();
+    }
+
+    void suspect(int index) {
+      suspectUntil.set(index, System.nanoTime() + SUSPECT_NANOS);
+    }
+
+    private boolean usable(int index, long now) {
+      long until = suspectUntil.get(index);
+      return replicas.get(index).isAvailable() && (until == 0 || now - until >= 0);
+    }
+
+    /**
+     * Returns the next usable replica in rotation, or the rotation's replica if none is usable.
+     */
+    int nextReadable(int rotation) {
+      int start = Math.floorMod(rotation, replicas.size());
+      long now = System.nanoTime();
+      for (int i = 0; i < replicas.size(); i++) {
+        int index = (start + i) % replicas.size();
+        if (usable(index, now)) {
+          return index;
+        }
+      }
+      return start;
+    }
+
+    /**
+     * Returns the index of the usable voting replica that owns a key.
+     */
+    int owner(String key) {
+      long now = System.nanoTime();
+      return writeRing.owner(key, index -> usable(index, now));
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package client.util;
+
+import util.KeyDistribution;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Describes the operations a load generator sends: the read/write mix, which keys are
+ * picked and how large written values are. Named presets follow the YCSB core workloads:
+ * {@code a} (50% reads, zipfian), {@code b} (95% reads, zipfian), {@code c} (read only, zipfian)
+ * and {@code w} (write only, uniform). Instances are immutable and shared between client threads;
+ * each thread passes its own {@link Random}.
+ */
+public class Workload {
+  private static final String KEY_PREFIX = "user";
+
+  private final String name;
+  private final double readProportion;
+  private final KeyDistribution keys;
+  private final int minValueSize;
+  private final int maxValueSize;
+  private final String valuePool;
+
+  /**
+   * Constructs a {@code Workload}.
+   *
+   * @param name           A label for reports.
+   * @param readProportion The fraction of operations that are GETs; the rest are PUTs.
+   * @param keys           The distribution keys are picked from.
+   * @param minValueSize   The smallest value written, in characters.
+   * @param maxValueSize   The largest value written, in characters.
+   */
+  public Workload(String name, double readProportion, KeyDistribution keys, int minValueSize, int maxValueSize) {
+    if (readProportion < 0 || readProportion > 1) {
+      throw new IllegalArgumentException("Read proportion must be between 0 and 1: " + readProportion);
+    }
+    if (minValueSize < 1 || maxValueSize < minValueSize) {
+      throw new IllegalArgumentException("Invalid value size range: " + minValueSize + "-" + maxValueSize);
+    }
+    this.name = name;
+    this.readProportion = readProportion;
+    this.keys = keys;
+    this.minValueSize = minValueSize;
+    this.maxValueSize = maxValueSize;
+    this.valuePool = buildValuePool(Math.max(4096, maxValueSize * 2));
+  }
+
+  /**
+   * Builds a workload from {@code --name=value} options. {@code --workload} picks a preset,
+   * and {@code --reads}, {@code --distribution}, {@code --keys} and {@code --valueSize}
+   * (either {@code 100} or a range such as {@code 64-1024}) override parts of it.
+   *
+   * @param options The parsed options.
+   * @return The workload.
+   * @throws IllegalArgumentException If an option is invalid.
+   */
+  public static Workload fromOptions(Map<String, String> options) {
+    String preset = options.getOrDefault("workload", "a").toLowerCase();
+    double reads;
+    String distribution;
+    switch (preset) {
+      case "a":
+        reads = 0.5;
+        distribution = "zipfian";
+        break;
+      case "b":
+        reads = 0.95;
+        distribution = "zipfian";
+        break;
+      case "c":
+        reads = 1.0;
+        distribution = "zipfian";
+        break;
+      case "w":
+        reads = 0.0;
+        distribution = "uniform";
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown workload: " + preset + " (expected a, b, c or w)");
+    }
+    reads = Double.parseDouble(options.getOrDefault("reads", String.valueOf(reads)));
+    distribution = options.getOrDefault("distribution", distribution);
+    int keyCount = Integer.parseInt(options.getOrDefault("keys", "10000"));
+
+    String valueSize = options.getOrDefault("valueSize", "100");
+    int separator = valueSize.indexOf('-');
+    int minValueSize = Integer.parseInt(separator < 0 ? valueSize : valueSize.substring(0, separator));
+    int maxValueSize = separator < 0 ? minValueSize : Integer.parseInt(valueSize.substring(separator + 1));
+
+    return new Workload(preset, reads, KeyDistribution.fromName(distribution, keyCount), minValueSize, maxValueSize);
+  }
+
+  /**
+   * Decides whether the next operation is a GET.
+   *
+   * @param random The calling thread's random source.
+   * @return True for a GET, false for a PUT.
+   */
+  public boolean nextIsRead(Random random) {
+    return random.nextDouble() < readProportion;
+  }
+
+  /**
+   * Picks the key for the next operation.
+   *
+   * @param random The calling thread's random source.
+   * @return The key.
+   */
+  public String nextKey(Random random) {
+    return key(keys.next(random));
+  }
+
+  /**
+   * Returns the key with the given index, as used when preloading every key.
+   *
+   * @param index The key index in [0, key count).
+   * @return The key.
+   */
+  public String key(long index) {
+    return KEY_PREFIX + index;
+  }
+
+  /**
+   * Builds a value for a PUT, with a size picked uniformly from the configured range.
+   * Values are slices of a shared random pool, so building one costs a single copy.
+   *
+   * @param random The calling thread's random source.
+   * @return The value.
+   */
+  public String nextValue(Random random) {
+    int size = minValueSize + random.nextInt(maxValueSize - minValueSize + 1);
+    int offset = random.nextInt(valuePool.length() - size + 1);
+    return valuePool.substring(offset, offset + size);
+  }
+
+  /**
+   * Returns the number of distinct keys.
+   *
+   * @return The key count.
+   */
+  public long getKeyCount() {
+    return keys.getKeyCount();
+  }
+
+  /**
+   * Returns the fraction of operations that are GETs.
+   *
+   * @return The read proportion.
+   */
+  public double getReadProportion() {
+    return readProportion;
+  }
+
+  private static String buildValuePool(int length) {
+    Random random = new Random(42);
+    StringBuilder pool = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      pool.append((char) ('a' + random.nextInt(26)));
+    }
+    return pool.toString();
+  }
+
+  @Override
+  public String toString() {
+    return "Workload [name=" + name + ", reads=" + readProportion + ", keys=" + keys
+            + ", valueSize=" + (minValueSize == maxValueSize ? minValueSize : minValueSize + "-" + maxValueSize) + "]";
+  }
+}
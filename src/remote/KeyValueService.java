@@ -2,12 +2,17 @@ package remote;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This interface defines a remote key-value store
  * that supports basic operations over Java RMI.
  * Clients can interact with this service to perform GET, PUT, and DELETE operations
- * on a distributed key-value store.
+ * on a distributed key-value store, one key at a time or in batches that travel as one request.
+ * The batch operations default to one request per key; implementations override them to batch.
+ * Versioned reads and compare-and-set are only supported where values carry versions.
  */
 public interface KeyValueService extends Remote {
 
@@ -38,4 +43,156 @@ public interface KeyValueService extends Remote {
    * @throws RemoteException If an RMI communication error occurs or is key does not exist.
    */
   boolean delete(String key) throws RemoteException;
+
+  /**
+   * Retrieves the values associated with several keys in one request.
+   *
+   * @param keys The keys whose values are to be returned.
+   * @return Each key's value, or null for a key with no value, in the order of {@code keys}.
+   * @throws RemoteException If an RMI communication error occurs.
+   */
+  default Map<String, String> multiGet(List<String> keys) throws RemoteException {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String key : keys) {
+      values.put(key, get(key));
+    }
+    return values;
+  }
+
+  /**
+   * Stores or updates several key-value pairs in one request. The writes are not atomic together:
+   * each key's write succeeds or fails on its own.
+   *
+   * @param entries The key-value pairs to store.
+   * @return The success status of each key's write, in the iteration order of {@code entries}.
+   * @throws RemoteException If an RMI communication error occurs.
+   */
+  default Map<String, Boolean> multiPut(Map<String, String> entries) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : entries.entrySet()) {
+      results.put(entry.getKey(), put(entry.getKey(), entry.getValue()));
+    }
+    return results;
+  }
+
+  /**
+   * Removes several keys in one request. Like {@link #multiPut(Map)}, the removals are not atomic
+   * together.
+   *
+   * @param keys The keys to be removed.
+   * @return The success status of each key's removal, in the order of {@code keys}.
+   * @throws RemoteException If an RMI communication error occurs.
+   */
+  default Map<String, Boolean> multiDelete(List<String> keys) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    for (String key : keys) {
+      results.put(key, delete(key));
+    }
+    return results;
+  }
+
+  /**
+   * Retrieves the value associated with the given key together with its version.
+   *
+   * @param key The key whose value and version are to be returned.
+   * @return The value and version.
+   * @throws RemoteException If an RMI communication error occurs, or the store does not keep versions.
+   * @throws IllegalArgumentException If the key is a CRDT key, which has no version.
+   */
+  default VersionedValue getWithVersion(String key) throws RemoteException {
+    throw new RemoteException("Versioned reads are not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Stores a value for a key only if the key's version is still the expected one. The check and
+   * the write happen atomically when the write is applied on each replica.
+   *
+   * @param key             The key to store or update.
+   * @param expectedVersion The version the key must have, as returned by {@link #getWithVersion(String)};
+   *                        0 for a key that was never written.
+   * @param newValue        The value to store, or null to delete the key.
+   * @return True if the version matched and the value was stored, false otherwise.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not keep versions.
+   * @throws IllegalArgumentException If the key is a CRDT key, which has no version.
+   */
+  default boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+    throw new RemoteException("Compare-and-set is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Atomically adds a delta to a key whose value is a decimal integer (INCR, or DECR with a
+   * negative delta). A missing key counts as 0.
+   *
+   * @param key   The key holding the counter.
+   * @param delta The amount to add.
+   * @return The key's new value.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not support atomic operations.
+   * @throws IllegalArgumentException If the key's value is not an integer, the sum would overflow,
+   *                                  or the key is a CRDT key.
+   */
+  default long increment(String key, long delta) throws RemoteException {
+    throw new RemoteException("Atomic increment is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Atomically subtracts a delta from a key whose value is a decimal integer (DECR).
+   *
+   * @param key   The key holding the counter.
+   * @param delta The amount to subtract.
+   * @return The key's new value.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not support atomic operations.
+   * @throws IllegalArgumentException If the key's value is not an integer, the difference would
+   *                                  overflow, or the key is a CRDT key.
+   */
+  default long decrement(String key, long delta) throws RemoteException {
+    if (delta == Long.MIN_VALUE) {
+      throw new IllegalArgumentException("Delta out of range: " + delta);
+    }
+    return increment(key, -delta);
+  }
+
+  /**
+   * Atomically appends text to a key's value. A missing key counts as empty.
+   *
+   * @param key    The key to append to.
+   * @param suffix The text to append.
+   * @return The key's new value.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not support atomic operations.
+   * @throws IllegalArgumentException If the key's value is erasure coded or the key is a CRDT key.
+   */
+  default String append(String key, String suffix) throws RemoteException {
+    throw new RemoteException("Atomic append is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Atomically stores a value and returns the one it replaced (GETSET).
+   *
+   * @param key   The key to store or update.
+   * @param value The value to store.
+   * @return The previous value, or null if the key had none.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not support atomic operations.
+   * @throws IllegalArgumentException If the key's value is erasure coded or the key is a CRDT key.
+   */
+  default String getAndSet(String key, String value) throws RemoteException {
+    throw new RemoteException("Atomic get-and-set is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Atomically stores a value only if the key has none.
+   *
+   * @param key   The key to insert.
+   * @param value The value to store.
+   * @return Null if the value was stored, otherwise the key's existing value.
+   * @throws RemoteException If an RMI communication error occurs, the outcome is unknown, or the
+   *                         store does not support atomic operations.
+   * @throws IllegalArgumentException If the key is a CRDT key.
+   */
+  default String putIfAbsent(String key, String value) throws RemoteException {
+    throw new RemoteException("Atomic put-if-absent is not supported by " + getClass().getSimpleName());
+  }
 }
@@ -0,0 +1,87 @@
+package remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the cluster: every replica with its role, whether it was reachable when the
+ * snapshot was taken, and the RMI endpoint that serves its requests.
+ */
+public class Topology implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final List<Replica> replicas;
+
+  /**
+   * Constructs a topology.
+   *
+   * @param replicas The replicas, in replica order.
+   */
+  public Topology(List<Replica> replicas) {
+    this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+  }
+
+  /**
+   * Returns the replicas, in replica order.
+   *
+   * @return The replicas.
+   */
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public String toString() {
+    return "Topology{replicas=" + replicas + '}';
+  }
+
+  /**
+   * One replica in a {@link Topology}.
+   */
+  public static class Replica implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final boolean voter;
+    private final boolean available;
+    private final KeyValueService endpoint;
+
+    /**
+     * Constructs a replica entry.
+     *
+     * @param id        The replica ID.
+     * @param voter     True for voting replicas, false for learner-only replicas.
+     * @param available False if the replica was suspected when the snapshot was taken.
+     * @param endpoint  The RMI endpoint that serves the replica's requests.
+     */
+    public Replica(String id, boolean voter, boolean available, KeyValueService endpoint) {
+      this.id = id;
+      this.voter = voter;
+      this.available = available;
+      this.endpoint = endpoint;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public boolean isVoter() {
+      return voter;
+    }
+
+    public boolean isAvailable() {
+      return available;
+    }
+
+    public KeyValueService getEndpoint() {
+      return endpoint;
+    }
+
+    @Override
+    public String toString() {
+      return "Replica{id=" + id + ", voter=" + voter + ", available=" + available + '}';
+    }
+  }
+}
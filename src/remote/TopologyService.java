@@ -0,0 +1,19 @@
+package remote;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * This interface lets clients discover the replicas of the key-value store, so they can send
+ * requests straight to a replica instead of through the LoadBalancer.
+ */
+public interface TopologyService extends Remote {
+
+  /**
+   * Returns the current cluster topology.
+   *
+   * @return Every replica with its role, availability and RMI endpoint.
+   * @throws RemoteException If an RMI communication error occurs.
+   */
+  Topology getTopology() throws RemoteException;
+}
@@ -0,0 +1,50 @@
+package remote;
+
+import java.io.Serializable;
+
+/**
+ * A value read together with its version. Every write to a key raises the key's version by one,
+ * starting from 0 for a key that was never written, so a client can pass the version to
+ * {@link KeyValueService#compareAndSet(String, long, String)} to update the key only if no one
+ * else has written it since the read.
+ */
+public class VersionedValue implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final String value;
+  private final long version;
+
+  /**
+   * Constructs a VersionedValue.
+   *
+   * @param value   The value, or null if the key has no value.
+   * @param version The key's version.
+   */
+  public VersionedValue(String value, long version) {
+    this.value = value;
+    this.version = version;
+  }
+
+  /**
+   * Returns the value.
+   *
+   * @return The value, or null if the key has no value.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the key's version.
+   *
+   * @return The number of writes applied to the key.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public String toString() {
+    return "VersionedValue{value=" + value + ", version=" + version + '}';
+  }
+}
@@ -0,0 +1,406 @@
+package server;
+
+import remote.VersionedValue;
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.AppendAction;
+import server.actions.CompareAndSetAction;
+import server.actions.DeleteAction;
+import server.actions.GetSetAction;
+import server.actions.IncrementAction;
+import server.actions.PutAction;
+import server.actions.PutIfAbsentAction;
+import server.actions.ReadModifyWriteAction;
+import server.chain.ChainConfiguration;
+import server.chain.ChainMonitor;
+import server.chain.ChainNode;
+import server.failure.HeartbeatSender;
+import server.failure.PhiAccrualFailureDetector;
+import server.roles.*;
+
+import util.LoggerUtil;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Represents a replica node in a chain-replicated key-value store.
+ * Writes enter at the head and flow down the chain; reads are served at the tail.
+ * Read-modify-write requests, compare-and-set and the atomic operations, flow down the chain
+ * like any write; every node evaluates them in the head's order, and the replica returns the
+ * head's outcome.
+ * The chain layout itself is agreed on through this replica's Paxos roles, which are
+ * used for nothing else. Replicas exchange heartbeats, and a replica whose predecessor or
+ * successor is suspected by its failure detector proposes a chain without it.
+ */
+public class ChainReplicaServer implements IKeyValueServer {
+    private static final Logger LOGGER = Logger.getLogger(ChainReplicaServer.class.getName());
+
+    static {
+        LoggerUtil.setupCustomLogger(LOGGER);
+    }
+
+    static final String CONFIG_KEY = "__chain_config__";
+    private static final long WRITE_TIMEOUT_MS = 2000;
+    private static final long RECONFIGURATION_TIMEOUT_MS = 5_000;
+    private static final long BASE_BACKOFF_MS = 8;
+
+    private final int serverId;
+    private final AcceptorSupervisor acceptorSupervisor;
+    private final Learner learner;
+    private final Proposer proposer;
+    private final Map<String, String> configStore;
+    private final ChainNode chainNode;
+    private final PhiAccrualFailureDetector failureDetector;
+    private final HeartbeatSender heartbeatSender;
+    private final ChainMonitor chainMonitor;
+
+    private final Map<Integer, ChainReplicaServer> chainReplicas = new HashMap<>();
+    private final AtomicLong requestIds = new AtomicLong();
+    private volatile String appliedConfiguration;
+    private volatile ChainConfiguration configuration;
+
+    /**
+     * Constructs a new ChainReplicaServer with the given ID.
+     *
+     * @param serverId Unique ID of this replica.
+     */
+    public ChainReplicaServer(int serverId) throws RemoteException {
+        this.serverId = serverId;
+        this.acceptorSupervisor = new AcceptorSupervisor(serverId);
+        this.configStore = new ConcurrentHashMap<>();
+        this.learner = new Learner(serverId, configStore, acceptorSupervisor);
+        this.proposer = new Proposer(serverId);
+        this.chainNode = new ChainNode(serverId, new ConcurrentHashMap<>(), this::removeReplica);
+        this.failureDetector = new PhiAccrualFailureDetector(serverId);
+        this.heartbeatSender = new HeartbeatSender(serverId, acceptorSupervisor::isAcceptorUp);
+        this.chainMonitor = new ChainMonitor(chainNode, failureDetector, acceptorSupervisor::isAcceptorUp);
+        this.proposer.setFailureDetector(failureDetector);
+
+        this.learner.start();
+        this.proposer.start();
+
+        LOGGER.info("ChainReplicaServer " + serverId + " Initialized.");
+    }
+
+    /**
+     * Serves a strongly consistent read from the tail of the chain.
+     */
+    @Override
+    public String get(String key) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET request for key: " + key);
+        }
+        if (key == null) {
+            LOGGER.warning("[Replica " + serverId + "] GET failed: key is null.");
+            return null;
+        }
+
+        String value = replica(currentConfiguration().getTail()).getChainNode().read(key);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET response for key [" + key + "] -> " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Handles a PUT request by sending it to the head of the chain.
+     */
+    @Override
+    public boolean put(String key, String value) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT request: [" + key + "] = " + value);
+        }
+        boolean result = writeAtHead(new PutAction(key, value));
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT result: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Handles a DELETE request by sending it to the head of the chain.
+     */
+    @Override
+    public boolean delete(String key) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE request for key: " + key);
+        }
+        boolean result = writeAtHead(new DeleteAction(key));
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE result: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Serves a strongly consistent versioned read from the tail of the chain.
+     */
+    @Override
+    public VersionedValue getWithVersion(String key) {
+        return replica(currentConfiguration().getTail()).getChainNode().readVersioned(key);
+    }
+
+    /**
+     * Handles a compare-and-set by sending it down the chain, which evaluates it at every node.
+     */
+    @Override
+    public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+        ActionResult result = writeReadModifyWrite("CAS",
+                new CompareAndSetAction(key, expectedVersion, newValue, nextRequestId(), serverId));
+        return result.isWritten();
+    }
+
+    /**
+     * Handles an atomic increment by sending it down the chain.
+     */
+    @Override
+    public long increment(String key, long delta) throws RemoteException {
+        ActionResult result = writeReadModifyWrite("INCR", new IncrementAction(key, delta, nextRequestId(), serverId));
+        if (!result.isWritten()) {
+            throw new IllegalArgumentException("Cannot add " + delta + " to key [" + key + "]: value ["
+                    + result.getValue() + "] is not an integer or the sum would overflow");
+        }
+        return Long.parseLong(result.getValue());
+    }
+
+    /**
+     * Handles an atomic append by sending it down the chain.
+     */
+    @Override
+    public String append(String key, String suffix) throws RemoteException {
+        return writeReadModifyWrite("APPEND", new AppendAction(key, suffix, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Handles an atomic get-and-set by sending it down the chain.
+     */
+    @Override
+    public String getAndSet(String key, String value) throws RemoteException {
+        return writeReadModifyWrite("GETSET", new GetSetAction(key, value, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Handles an atomic put-if-absent by sending it down the chain.
+     */
+    @Override
+    public String putIfAbsent(String key, String value) throws RemoteException {
+        return writeReadModifyWrite("PUTNX", new PutIfAbsentAction(key, value, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Submits a read-modify-write action at the head, waits for the tail's acknowledgement and
+     * returns the outcome the head computed when it applied the action.
+     *
+     * @throws RemoteException If the tail did not acknowledge the action in time, so its outcome is unknown.
+     */
+    private ActionResult writeReadModifyWrite(String operation, ReadModifyWriteAction action)
+            throws RemoteException {
+        ChainNode head = replica(currentConfiguration().getHead()).getChainNode();
+        ActionResult result = writeAtHead(head, action) ? head.getResult(action.getRequestId()) : null;
+        if (result == null) {
+            throw new RemoteException(operation + " [" + action.getKey() + "] was not acknowledged in time;"
+                    + " it may still be applied");
+        }
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] " + operation + " [" + action.getKey() + "] → "
+                    + (result.isWritten() ? "set" : "unchanged"));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a request ID unique across replicas: the replica ID in the top bits, a counter below.
+     */
+    private long nextRequestId() {
+        return ReadModifyWriteAction.requestId(serverId, requestIds.incrementAndGet());
+    }
+
+    /**
+     * Submits the action at the head and waits for the tail's acknowledgement.
+     *
+     * @param action PUT/DELETE of a certain key value pair
+     * @return true if the tail acknowledged the write in time, false otherwise
+     */
+    private boolean writeAtHead(Action action) {
+        return writeAtHead(replica(currentConfiguration().getHead()).getChainNode(), action);
+    }
+
+    /**
+     * Submits the action at the given head and waits for the tail's acknowledgement.
+     */
+    private boolean writeAtHead(ChainNode head, Action action) {
+        try {
+            return head.write(action).get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            LOGGER.warning("[Replica " + serverId + "] chain write failed for " + action + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes a replica from the chain by agreeing on the new layout through Paxos,
+     * then has every replica adopt it. The new layout is built from the chosen one and swapped in
+     * with a compare-and-set on the layout's version, so concurrent removals never overwrite each
+     * other: a removal that loses is rebuilt from the layout that won and proposed again.
+     *
+     * @param replicaId The ID of the replica to remove.
+     * @return true if this call removed the replica, false otherwise
+     */
+    public boolean removeReplica(int replicaId) {
+        long deadline = System.currentTimeMillis() + RECONFIGURATION_TIMEOUT_MS;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                VersionedValue stored = learner.getVersioned(CONFIG_KEY);
+                ChainConfiguration current = ChainConfiguration.decode(stored.getValue());
+                if (!current.getMembers().contains(replicaId) || current.getMembers().size() == 1) {
+                    currentConfiguration();
+                    return false;
+                }
+                ChainConfiguration next = current.without(replicaId);
+                LOGGER.warning("[Replica " + serverId + "] proposing chain reconfiguration: " + next);
+
+                CompareAndSetAction swap = new CompareAndSetAction(CONFIG_KEY, stored.getVersion(), next.encode(),
+                        nextRequestId(), serverId);
+                ActionResult result = awaitDecision(swap, deadline);
+                if (result != null && result.isWritten()) {
+                    for (ChainReplicaServer replica : chainReplicas.values()) {
+                        replica.currentConfiguration();
+                    }
+                    return true;
+                }
+                // Another layout was chosen first; rebuild from it
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.severe("[Replica " + serverId + "] chain reconfiguration failed: removing " + replicaId);
+        return false;
+    }
+
+    /**
+     * Proposes a layout swap until its request is decided. A proposal that is not chosen may still
+     * be chosen later, so the same request is proposed again after a short random backoff; the
+     * learner applies it once however many instances decide it.
+     *
+     * @return The swap's outcome, or null if it was not decided by the deadline.
+     */
+    private ActionResult awaitDecision(CompareAndSetAction swap, long deadline) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            boolean chosen = proposer.propose(swap);
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return learner.awaitResult(swap.getRequestId(), 0);
+            }
+            long wait = chosen ? remaining
+                    : Math.min(remaining, ThreadLocalRandom.current().nextLong(1, BASE_BACKOFF_MS << Math.min(attempt, 3)));
+            ActionResult result = learner.awaitResult(swap.getRequestId(), wait);
+            if (result != null || chosen) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Returns the chain layout most recently chosen through Paxos, adopting it first
+     * if it changed since the last call.
+     *
+     * @return The current chain configuration.
+     */
+    public ChainConfiguration currentConfiguration() {
+        String encoded = configStore.get(CONFIG_KEY);
+        if (encoded != null && !encoded.equals(appliedConfiguration)) {
+            synchronized (this) {
+                if (!encoded.equals(appliedConfiguration)) {
+                    ChainConfiguration chosen = ChainConfiguration.decode(encoded);
+                    if (configuration == null || chosen.getEpoch() > configuration.getEpoch()) {
+                        configuration = chosen;
+                        chainNode.reconfigure(chosen);
+                        LOGGER.info("[Replica " + serverId + "] adopted " + chosen);
+                    }
+                    appliedConfiguration = encoded;
+                }
+            }
+        }
+        return configuration;
+    }
+
+    /**
+     * Get the chain node backing this replica.
+     * @return ChainNode
+     */
+    public ChainNode getChainNode() {
+        return chainNode;
+    }
+
+    private ChainReplicaServer replica(int replicaId) {
+        return chainReplicas.get(replicaId);
+    }
+
+    @Override
+    public AcceptorSupervisor getAcceptorSupervisor() {
+        return acceptorSupervisor;
+    }
+
+    @Override
+    public Learner getLearner() {
+        return learner;
+    }
+
+    @Override
+    public void addFailureDetector(PhiAccrualFailureDetector detector) {
+        heartbeatSender.addDetector(detector);
+    }
+
+    @Override
+    public boolean isVoter() {
+        return true;
+    }
+
+    @Override
+    public String getServerID() {
+        return String.valueOf(serverId);
+    }
+
+    /**
+     * Wires the replica with its peers and bootstraps the initial chain in replica order.
+     */
+    @Override
+    public void setAllReplicas(List<IKeyValueServer> replicas) {
+        this.proposer.setAllReplicas(replicas);
+
+        Map<Integer, ChainNode> directory = new HashMap<>();
+        List<Integer> members = new ArrayList<>();
+        for (IKeyValueServer replica : replicas) {
+            if (replica instanceof ChainReplicaServer) {
+                ChainReplicaServer chainReplica = (ChainReplicaServer) replica;
+                int id = Integer.parseInt(chainReplica.getServerID());
+                chainReplicas.put(id, chainReplica);
+                directory.put(id, chainReplica.getChainNode());
+                members.add(id);
+            }
+        }
+        chainNode.setDirectory(directory);
+        configStore.putIfAbsent(CONFIG_KEY, new ChainConfiguration(0, members).encode());
+        currentConfiguration();
+        for (IKeyValueServer replica : replicas) {
+            if (replica != this) {
+                replica.addFailureDetector(failureDetector);
+            }
+        }
+        this.heartbeatSender.start();
+        this.chainMonitor.start();
+        LOGGER.info("[Replica " + serverId + "] wired with " + replicas.size() + " peer replicas.");
+    }
+}
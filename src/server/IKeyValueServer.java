@@ -1,8 +1,11 @@
 package server;
 
+import java.rmi.RemoteException;
 import java.util.List;
 
 import remote.KeyValueService;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
 import server.roles.AcceptorSupervisor;
 import server.roles.Learner;
 
@@ -30,8 +33,73 @@ public interface IKeyValueServer extends KeyValueService {
    */
   Learner getLearner();
 
+  /**
+   * Get the number of shards the keyspace is split into, each with its own Paxos group.
+   * @return The shard count; 1 if the keyspace is not sharded.
+   */
+  default int getShardCount() {
+    return 1;
+  }
+
+  /**
+   * Get the acceptor supervisor of one shard.
+   * @param shard The shard index.
+   * @return AcceptorSupervisor
+   */
+  default AcceptorSupervisor getAcceptorSupervisor(int shard) {
+    return getAcceptorSupervisor();
+  }
+
+  /**
+   * Get the learner of one shard.
+   * @param shard The shard index.
+   * @return Learner
+   */
+  default Learner getLearner(int shard) {
+    return getLearner();
+  }
+
+  /**
+   * Returns whether this replica is repairing a gap and may serve stale reads.
+   * @return true while any of its learners is catching up.
+   */
+  default boolean isCatchingUp() {
+    return getLearner() != null && getLearner().isCatchingUp();
+  }
+
+  /**
+   * Answers a health probe from the LoadBalancer. Returns normally if the replica can serve
+   * requests; over RMI, a replica that is down or unreachable fails the call.
+   * @throws RemoteException If the replica cannot serve requests.
+   */
+  default void ping() throws RemoteException {
+  }
+
+  /**
+   * Returns whether this replica votes in consensus. Learner-only replicas apply decided
+   * commands and serve reads but never take part in Prepare/Accept.
+   * @return true for voting replicas, false for learner-only replicas.
+   */
+  boolean isVoter();
+
   /**
    * Sets the list of all other replicas in the cluster.
    */
   void setAllReplicas(List<IKeyValueServer> replicas);
+
+  /**
+   * Registers a failure detector that should receive this replica's heartbeats.
+   * Replicas that do not send heartbeats are never suspected.
+   * @param detector The failure detector watching this replica.
+   */
+  default void addFailureDetector(PhiAccrualFailureDetector detector) {
+  }
+
+  /**
+   * Sets the fault injector consulted before this replica sends a message.
+   * Replicas that do not support fault injection ignore it.
+   * @param faultInjector The fault injector.
+   */
+  default void setFaultInjector(FaultInjector faultInjector) {
+  }
 }
@@ -1,51 +1,205 @@
 package server;
 
 import remote.KeyValueService;
+import remote.VersionedValue;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
+import server.jfr.ForwardEvent;
+import server.metrics.MetricsRegistry;
+import server.routing.BalancingPolicy;
+import server.routing.CircuitBreaker;
+import server.routing.ConsistentHashRing;
+import server.routing.HealthProber;
+import server.routing.ReadHedger;
+import server.routing.ReplicaStats;
+import server.tracing.Tracer;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 import util.LoggerUtil;
 
 /**
  * The LoadBalancer class distributes incoming client requests across multiple
- * key-value store replicas using a round-robin strategy.
+ * key-value store replicas. Writes go to the voting replica that owns the key on a
+ * {@link ConsistentHashRing}, and reads to a replica chosen by a {@link BalancingPolicy}.
  */
 public class LoadBalancer extends UnicastRemoteObject implements KeyValueService {
   private static final Logger LOGGER = Logger.getLogger(LoadBalancer.class.getName());
   private final List<? extends IKeyValueServer> replicas;
+  private final List<IKeyValueServer> voters;
   private final AtomicInteger roundRobinIndex = new AtomicInteger(0);
+  private final ConsistentHashRing<IKeyValueServer> writeRing;
+  private final BalancingPolicy policy;
+  private final ReplicaStats[] stats;
+  private final Map<IKeyValueServer, ReplicaStats> statsByReplica = new IdentityHashMap<>();
+  private final IntPredicate readable = this::isReadable;
+  private final ReadHedger hedger;
+  private final ExecutorService hedgeExecutor;
+  private final CircuitBreaker[] breakers;
+  private final Map<IKeyValueServer, CircuitBreaker> breakerByReplica = new IdentityHashMap<>();
+  private final PhiAccrualFailureDetector failureDetector = new PhiAccrualFailureDetector(FaultInjector.LOAD_BALANCER_ID);
 
   static {
     LoggerUtil.setupCustomLogger(LOGGER);
   }
 
   /**
-   * Constructs a LoadBalancer with the given list of key-value store replicas.
+   * Constructs a LoadBalancer with the given list of key-value store replicas that spreads
+   * reads round-robin, without hedging.
    *
    * @param replicas The list of replicas that handle key-value store requests.
    * @throws RemoteException If an error occurs during RMI object export.
    */
   public LoadBalancer(List<? extends IKeyValueServer> replicas) throws RemoteException {
+    this(replicas, ServerConfig.defaults());
+  }
+
+  /**
+   * Constructs a LoadBalancer with the given list of key-value store replicas.
+   *
+   * @param replicas The list of replicas that handle key-value store requests.
+   * @param config   The configuration holding the balancing policy, hedging and health check settings.
+   * @throws RemoteException If an error occurs during RMI object export.
+   */
+  public LoadBalancer(List<? extends IKeyValueServer> replicas, ServerConfig config) throws RemoteException {
     super();
     this.replicas = replicas;
+    this.policy = config.getBalancingPolicy();
+    this.voters = new ArrayList<>();
+    this.stats = new ReplicaStats[replicas.size()];
+    for (int i = 0; i < replicas.size(); i++) {
+      IKeyValueServer replica = replicas.get(i);
+      if (replica.isVoter()) {
+        voters.add(replica);
+      }
+      replica.addFailureDetector(failureDetector);
+      stats[i] = new ReplicaStats(replica.getServerID());
+      statsByReplica.put(replica, stats[i]);
+      MetricsRegistry.register("LoadBalancer", Integer.parseInt(replica.getServerID()), stats[i]);
+    }
+    if (config.isHealthChecking()) {
+      this.breakers = new CircuitBreaker[replicas.size()];
+      for (int i = 0; i < replicas.size(); i++) {
+        IKeyValueServer replica = replicas.get(i);
+        breakers[i] = new CircuitBreaker(replica.getServerID());
+        breakerByReplica.put(replica, breakers[i]);
+        MetricsRegistry.register("CircuitBreaker", Integer.parseInt(replica.getServerID()), breakers[i]);
+      }
+      new HealthProber(replicas, breakers).start();
+    } else {
+      this.breakers = null;
+    }
+    this.writeRing = new ConsistentHashRing<>(voters, IKeyValueServer::getServerID);
+    if (config.isHedging()) {
+      this.hedger = new ReadHedger(config.getHedgePercentile(), config.getHedgeBudget());
+      this.hedgeExecutor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "hedged-read");
+        thread.setDaemon(true);
+        return thread;
+      });
+      MetricsRegistry.register("Hedging", hedger);
+    } else {
+      this.hedger = null;
+      this.hedgeExecutor = null;
+    }
   }
 
   /**
-   * Selects the next replica in a round-robin fashion.
+   * Returns what the LoadBalancer has seen of each replica, in replica order.
    *
-   * @return The next replica server to handle a request.
+   * @return The per-replica statistics.
+   */
+  public List<ReplicaStats> getReplicaStats() {
+    return Collections.unmodifiableList(Arrays.asList(stats));
+  }
+
+  /**
+   * Selects a replica for a read using the balancing policy.
+   *
+   * @return The replica server to handle a read.
    */
   private IKeyValueServer getNextReplica() {
-    int index = roundRobinIndex.getAndUpdate(i -> (i + 1) % replicas.size());
-    IKeyValueServer selectedReplica = replicas.get(index);
-    LOGGER.info("Forwarding request to replica: " +  selectedReplica.getServerID());
-    return selectedReplica;
+    int start = roundRobinIndex.getAndUpdate(i -> (i + 1) % replicas.size());
+    int index = policy.select(stats, readable, start);
+    return replicas.get(index >= 0 ? index : start);
+  }
+
+  /**
+   * Selects a replica other than the given one for a hedged or retried read.
+   *
+   * @param excluded The replica already serving the read.
+   * @return The other replica, or null if no other replica may serve reads.
+   */
+  private IKeyValueServer getOtherReplica(IKeyValueServer excluded) {
+    int start = roundRobinIndex.getAndUpdate(i -> (i + 1) % replicas.size());
+    int index = policy.select(stats, i -> replicas.get(i) != excluded && isReadable(i), start);
+    return index >= 0 ? replicas.get(index) : null;
+  }
+
+  /**
+   * Returns whether a replica may serve reads: it is not suspected, not catching up, and its
+   * circuit breaker admits the read.
+   */
+  private boolean isReadable(int index) {
+    IKeyValueServer candidate = replicas.get(index);
+    return !candidate.isCatchingUp() && failureDetector.isAvailable(candidate.getServerID())
+            && (breakers == null || breakers[index].admits());
+  }
+
+  /**
+   * Returns whether a voting replica may take writes for the keys it owns: it is not suspected
+   * and its circuit breaker is not open.
+   */
+  private boolean isWritable(IKeyValueServer replica) {
+    if (!failureDetector.isAvailable(replica.getServerID())) {
+      return false;
+    }
+    return breakers == null || breakerByReplica.get(replica).isAvailable();
+  }
+
+  /**
+   * Selects the voting replica that owns a key, skipping unavailable replicas.
+   *
+   * @param key The key being written.
+   * @return The replica server to handle the write.
+   */
+  private IKeyValueServer getOwner(String key) {
+    return writeRing.owner(key, this::isWritable);
+  }
+
+  /**
+   * Selects the next voting replica on the ring for a key, after the one a write failed on.
+   *
+   * @return The replica to retry on, or null if no other voting replica is available.
+   */
+  private IKeyValueServer getFailoverOwner(String key, IKeyValueServer failed) {
+    IKeyValueServer owner = writeRing.owner(key, replica -> replica != failed && isWritable(replica));
+    return owner != failed && isWritable(owner) ? owner : null;
   }
 
   /**
-   * Handles a GET request by forwarding it to the next available replica.
+   * Handles a GET request by forwarding it to the available replica chosen by the balancing policy.
    *
    * @param key The key to retrieve from the key-value store.
    * @return The value associated with the key.
@@ -53,12 +207,104 @@ public class LoadBalancer extends UnicastRemoteObject implements KeyValueService
    */
   @Override
   public String get(String key) throws RemoteException {
-    LOGGER.info("LoadBalancer received GET request for key: " + key);
-    return getNextReplica().get(key);
+    if (hedger != null) {
+      return hedgedGet(key);
+    }
+    return forwardWithFailover("GET", getNextReplica(), key, replica -> replica.get(key), this::getOtherReplica);
   }
 
   /**
-   * Handles a PUT request by forwarding it to the next available replica.
+   * Reads from one replica and, if it has not answered within the hedge delay and the budget
+   * allows, from a second one too. The first successful answer is returned; the read fails only
+   * if every replica asked fails.
+   */
+  private String hedgedGet(String key) throws RemoteException {
+    hedger.recordRead();
+    IKeyValueServer primary = getNextReplica();
+    CompletableFuture<String> first = readAsync(primary, key);
+    try {
+      return first.get(hedger.getDelayNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // too slow: hedge below
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RemoteException("Interrupted while reading key " + key, e);
+    }
+
+    IKeyValueServer backup = hedger.tryAcquire() ? getOtherReplica(primary) : null;
+    if (backup == null) {
+      return await(first, key);
+    }
+    CompletableFuture<String> second = readAsync(backup, key);
+    CompletableFuture<String> winner = new CompletableFuture<>();
+    AtomicInteger failures = new AtomicInteger();
+    first.whenComplete((value, error) -> {
+      if (error == null) {
+        winner.complete(value);
+      } else if (failures.incrementAndGet() == 2) {
+        winner.completeExceptionally(error);
+      }
+    });
+    second.whenComplete((value, error) -> {
+      if (error == null) {
+        if (winner.complete(value)) {
+          hedger.recordHedgeWin();
+        }
+      } else if (failures.incrementAndGet() == 2) {
+        winner.completeExceptionally(error);
+      }
+    });
+    return await(winner, key);
+  }
+
+  /**
+   * Starts a GET to one replica on the hedging executor, timing its answer for the hedge delay.
+   */
+  private CompletableFuture<String> readAsync(IKeyValueServer replica, String key) {
+    return CompletableFuture.supplyAsync(() -> {
+      long start = System.nanoTime();
+      try {
+        return forward("GET", replica, key, r -> r.get(key));
+      } catch (RemoteException e) {
+        throw new CompletionException(e);
+      } finally {
+        hedger.recordLatency(System.nanoTime() - start);
+      }
+    }, hedgeExecutor);
+  }
+
+  private static String await(CompletableFuture<String> future, String key) throws RemoteException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RemoteException("Interrupted while reading key " + key, e);
+    }
+  }
+
+  /**
+   * Rethrows what a replica threw during an asynchronous read.
+   */
+  private static RemoteException unwrap(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof RemoteException) {
+      return (RemoteException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new RemoteException("Read failed", cause);
+  }
+
+  /**
+   * Handles a PUT request by forwarding it to the available voting replica that owns the key.
    *
    * @param key   The key to store in the key-value store.
    * @param value The value to associate with the key.
@@ -67,12 +313,12 @@ public class LoadBalancer extends UnicastRemoteObject implements KeyValueService
    */
   @Override
   public boolean put(String key, String value) throws RemoteException {
-    LOGGER.info("LoadBalancer received PUT request for key: " + key);
-    return getNextReplica().put(key, value);
+    return forwardWithFailover("PUT", getOwner(key), key, replica -> replica.put(key, value),
+            failed -> getFailoverOwner(key, failed));
   }
 
   /**
-   * Handles a DELETE request by forwarding it to the next available replica.
+   * Handles a DELETE request by forwarding it to the available voting replica that owns the key.
    *
    * @param key The key to delete from the key-value store.
    * @return True if the DELETE operation was successful, false otherwise.
@@ -80,7 +326,291 @@ public class LoadBalancer extends UnicastRemoteObject implements KeyValueService
    */
   @Override
   public boolean delete(String key) throws RemoteException {
-    LOGGER.info("LoadBalancer received DELETE request for key: " + key);
-    return getNextReplica().delete(key);
+    return forwardWithFailover("DELETE", getOwner(key), key, replica -> replica.delete(key),
+            failed -> getFailoverOwner(key, failed));
+  }
+
+  /**
+   * Handles a batch GET request by forwarding it to one replica chosen by the balancing policy.
+   *
+   * @param keys The keys to retrieve from the key-value store.
+   * @return Each key's value, or null for a key with no value, in the order of {@code keys}.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public Map<String, String> multiGet(List<String> keys) throws RemoteException {
+    if (keys.isEmpty()) {
+      return new LinkedHashMap<>();
+    }
+    return forwardWithFailover("MULTIGET", getNextReplica(), batchLabel(keys), replica -> replica.multiGet(keys),
+            this::getOtherReplica);
+  }
+
+  /**
+   * Handles a batch PUT request by splitting it by key owner and forwarding each part to the
+   * available voting replica that owns its keys. The parts are sent one after another and are not
+   * atomic together: if one fails, the parts already sent stay written.
+   *
+   * @param entries The key-value pairs to store in the key-value store.
+   * @return Each key's success status, in the iteration order of {@code entries}.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public Map<String, Boolean> multiPut(Map<String, String> entries) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    entries.keySet().forEach(key -> results.put(key, false));
+    for (Map.Entry<IKeyValueServer, List<String>> part : splitByOwner(entries.keySet()).entrySet()) {
+      results.putAll(forwardBatchWithFailover("MULTIPUT", part.getKey(), part.getValue(), keys -> {
+        Map<String, String> partEntries = new LinkedHashMap<>();
+        keys.forEach(key -> partEntries.put(key, entries.get(key)));
+        return replica -> replica.multiPut(partEntries);
+      }));
+    }
+    return results;
+  }
+
+  /**
+   * Handles a batch DELETE request by splitting it by key owner and forwarding each part to the
+   * available voting replica that owns its keys. Like {@link #multiPut(Map)}, it is not atomic.
+   *
+   * @param keys The keys to delete from the key-value store.
+   * @return Each key's success status, in the order of {@code keys}.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public Map<String, Boolean> multiDelete(List<String> keys) throws RemoteException {
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    keys.forEach(key -> results.put(key, false));
+    for (Map.Entry<IKeyValueServer, List<String>> part : splitByOwner(keys).entrySet()) {
+      results.putAll(forwardBatchWithFailover("MULTIDELETE", part.getKey(), part.getValue(),
+              partKeys -> replica -> replica.multiDelete(partKeys)));
+    }
+    return results;
+  }
+
+  /**
+   * Groups a batch's keys by the available voting replica that owns them, keeping their order.
+   */
+  private Map<IKeyValueServer, List<String>> splitByOwner(Collection<String> keys) {
+    Map<IKeyValueServer, List<String>> parts = new LinkedHashMap<>();
+    for (String key : keys) {
+      parts.computeIfAbsent(getOwner(key), owner -> new ArrayList<>()).add(key);
+    }
+    return parts;
+  }
+
+  /**
+   * Handles a versioned GET request by forwarding it to the available replica chosen by the
+   * balancing policy.
+   *
+   * @param key The key to retrieve from the key-value store.
+   * @return The value and version associated with the key.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public VersionedValue getWithVersion(String key) throws RemoteException {
+    return forwardWithFailover("GETVERSION", getNextReplica(), key, replica -> replica.getWithVersion(key),
+            this::getOtherReplica);
+  }
+
+  /**
+   * Handles a compare-and-set request by forwarding it to the available voting replica that owns
+   * the key. It is not retried elsewhere: the first replica may have applied it before failing.
+   *
+   * @param key             The key to store or update.
+   * @param expectedVersion The version the key must have.
+   * @param newValue        The value to store, or null to delete the key.
+   * @return True if the version matched and the value was stored, false otherwise.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+    return forward("CAS", getOwner(key), key, replica -> replica.compareAndSet(key, expectedVersion, newValue));
+  }
+
+  /**
+   * Handles an atomic increment by forwarding it to the available voting replica that owns the
+   * key. Like every atomic operation, it is not retried elsewhere: the first replica may have
+   * applied it before failing.
+   *
+   * @param key   The key holding the counter.
+   * @param delta The amount to add.
+   * @return The key's new value.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public long increment(String key, long delta) throws RemoteException {
+    return forward("INCR", getOwner(key), key, replica -> replica.increment(key, delta));
+  }
+
+  /**
+   * Handles an atomic append by forwarding it to the available voting replica that owns the key.
+   * Like {@link #increment(String, long)}, it is not retried elsewhere.
+   *
+   * @param key    The key to append to.
+   * @param suffix The text to append.
+   * @return The key's new value.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public String append(String key, String suffix) throws RemoteException {
+    return forward("APPEND", getOwner(key), key, replica -> replica.append(key, suffix));
+  }
+
+  /**
+   * Handles an atomic get-and-set by forwarding it to the available voting replica that owns the key.
+   * Like {@link #increment(String, long)}, it is not retried elsewhere.
+   *
+   * @param key   The key to store or update.
+   * @param value The value to store.
+   * @return The previous value, or null if the key had none.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public String getAndSet(String key, String value) throws RemoteException {
+    return forward("GETSET", getOwner(key), key, replica -> replica.getAndSet(key, value));
+  }
+
+  /**
+   * Handles an atomic put-if-absent by forwarding it to the available voting replica that owns the key.
+   * Like {@link #increment(String, long)}, it is not retried elsewhere.
+   *
+   * @param key   The key to insert.
+   * @param value The value to store.
+   * @return Null if the value was stored, otherwise the key's existing value.
+   * @throws RemoteException If an error occurs during remote communication.
+   */
+  @Override
+  public String putIfAbsent(String key, String value) throws RemoteException {
+    return forward("PUTNX", getOwner(key), key, replica -> replica.putIfAbsent(key, value));
+  }
+
+  /**
+   * Describes a batch's keys for logs and traces without listing them all.
+   */
+  private static String batchLabel(List<String> keys) {
+    return keys.size() == 1 ? keys.get(0) : keys.get(0) + " (+" + (keys.size() - 1) + " more)";
+  }
+
+  /**
+   * Forwards a request to a replica and, with health checks on, retries it once on another
+   * replica if the first one could not be reached. Only idempotent requests may be retried: a
+   * RemoteException does not tell whether the first replica applied the request, so compare-and-set
+   * and the atomic operations are only forwarded once.
+   */
+  private <T> T forwardWithFailover(String operation, IKeyValueServer replica, String key, ReplicaCall<T> call,
+                                    UnaryOperator<IKeyValueServer> alternative) throws RemoteException {
+    try {
+      return forward(operation, replica, key, call);
+    } catch (RemoteException e) {
+      IKeyValueServer next = breakers != null ? alternative.apply(replica) : null;
+      if (next == null) {
+        throw e;
+      }
+      LOGGER.warning(operation + " for key " + key + " failed on replica " + replica.getServerID()
+              + ", retrying on replica " + next.getServerID() + ": " + e.getMessage());
+      return forward(operation, next, key, call);
+    }
+  }
+
+  /**
+   * Forwards one part of a batch write to the replica that owns its keys and, with health checks
+   * on, retries it once if that replica could not be reached. The keys of a failed owner move to
+   * different replicas on the ring, so the retry regroups them by each key's next owner.
+   */
+  private Map<String, Boolean> forwardBatchWithFailover(
+          String operation, IKeyValueServer owner, List<String> keys,
+          Function<List<String>, ReplicaCall<Map<String, Boolean>>> callFor) throws RemoteException {
+    try {
+      return forward(operation, owner, batchLabel(keys), callFor.apply(keys));
+    } catch (RemoteException e) {
+      if (breakers == null) {
+        throw e;
+      }
+      Map<IKeyValueServer, List<String>> parts = new LinkedHashMap<>();
+      for (String key : keys) {
+        IKeyValueServer next = getFailoverOwner(key, owner);
+        if (next == null) {
+          throw e;
+        }
+        parts.computeIfAbsent(next, replica -> new ArrayList<>()).add(key);
+      }
+      LOGGER.warning(operation + " for keys " + batchLabel(keys) + " failed on replica " + owner.getServerID()
+              + ", retrying on " + parts.size() + " other replica(s): " + e.getMessage());
+      Map<String, Boolean> results = new LinkedHashMap<>();
+      for (Map.Entry<IKeyValueServer, List<String>> part : parts.entrySet()) {
+        results.putAll(forward(operation, part.getKey(), batchLabel(part.getValue()), callFor.apply(part.getValue())));
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Forwards a request to a replica, recording the replica's statistics and circuit breaker
+   * outcome, a trace span for sampled requests and a Flight Recorder event when those are enabled.
+   */
+  private <T> T forward(String operation, IKeyValueServer replica, String key, ReplicaCall<T> call)
+          throws RemoteException {
+    if (LoggerUtil.isRequestLoggable(LOGGER)) {
+      LOGGER.info("LoadBalancer forwarding " + operation + " request for key: " + key + " to replica: " + replica.getServerID());
+    }
+    ForwardEvent event = new ForwardEvent();
+    event.begin();
+    long traceId = Tracer.startTrace();
+    ReplicaStats replicaStats = statsByReplica.get(replica);
+    long start = replicaStats.begin();
+    boolean failed = true;
+    boolean unreachable = false;
+    try {
+      T result = call.call(replica);
+      failed = false;
+      return result;
+    } catch (RemoteException e) {
+      unreachable = true;
+      throw e;
+    } finally {
+      replicaStats.end(start, failed);
+      if (breakers != null) {
+        recordOutcome(breakerByReplica.get(replica), failed, unreachable);
+      }
+      if (traceId != 0) {
+        Tracer.record(traceId, "lb." + operation.toLowerCase(Locale.ROOT), Tracer.LOAD_BALANCER, start,
+                System.nanoTime(), key + " -> replica " + replica.getServerID());
+        Tracer.endTrace();
+      }
+      commitForward(event, operation, replica, key);
+    }
+  }
+
+  /**
+   * Feeds a request's outcome to a circuit breaker. Only a failure to reach the replica counts
+   * against it; a request the replica rejected still shows it is up.
+   */
+  private static void recordOutcome(CircuitBreaker breaker, boolean failed, boolean unreachable) {
+    if (unreachable) {
+      breaker.recordFailure();
+    } else if (!failed) {
+      breaker.recordSuccess();
+    }
+  }
+
+  /**
+   * Commits a Flight Recorder event for a forwarded request, if the event is enabled.
+   */
+  private static void commitForward(ForwardEvent event, String operation, IKeyValueServer replica, String key) {
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.replica = replica.getServerID();
+      event.keyHash = Objects.hashCode(key);
+      event.commit();
+    }
+  }
+
+  /**
+   * A request forwarded to one replica.
+   */
+  @FunctionalInterface
+  private interface ReplicaCall<T> {
+    T call(IKeyValueServer replica) throws RemoteException;
   }
 }
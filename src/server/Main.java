@@ -2,16 +2,23 @@ package server;
 
 import remote.KeyValueService;
 
-import java.rmi.Naming;
 import java.rmi.registry.LocateRegistry;
-import java.util.ArrayList;
+import java.rmi.registry.Registry;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import util.LoggerUtil;
 import util.ValidationUtil;
 
 /**
- * Starts 5 Paxos-based replica servers and registers a LoadBalancer with RMI.
+ * Starts 5 replica servers (or {@code --replicas=N}) and registers a LoadBalancer with RMI.
+ * Replicas run Paxos by default; pass {@code --engine=raft} to run Raft, or
+ * {@code --engine=chain} for chain replication with Paxos-managed reconfiguration.
+ * With Paxos, {@code --crdt=prefix=type,...} stores matching keys as CRDTs that skip consensus,
+ * {@code --readReplicas=N} adds learner-only replicas that serve reads without voting, and
+ * {@code --shards=N} splits the keyspace into N independent Paxos groups.
+ * The cluster topology is also registered as {@code Topology}, for clients that send requests
+ * straight to the replicas.
  * Avoids static lists of Acceptors/Learners, as those are managed via supervisors.
  */
 public class Main {
@@ -23,36 +30,29 @@ public class Main {
 
     public static void main(String[] args) {
         int port = ValidationUtil.validateServerArgs(args);
+        Map<String, String> options = ValidationUtil.parseServerOptions(args);
         try {
-            int replicaCount = 5;
+            ServerConfig config = ServerConfig.fromOptions(options);
+            ReplicationEngine engine = config.getEngine();
 
-            List<IKeyValueServer> allReplicas = new ArrayList<>();
+            LOGGER.info("Initializing " + config.getReplicaCount() + " " + engine + " replicas and "
+                    + config.getReadReplicaCount() + " read replicas...");
 
-            LOGGER.info("Initializing Paxos replicas...");
+            // Initialize all replicas and set all replicas list in each replica
+            List<IKeyValueServer> allReplicas = engine.createCluster(config);
 
-            // Step 1: Initialize all replicas
-            for (int i = 0; i < replicaCount; i++) {
-                ReplicaServer replica = new ReplicaServer(i);
-                allReplicas.add(replica);
-            }
+            LOGGER.info("Starting LoadBalancer with key-affinity writes and " + config.getBalancingPolicy() + " reads...");
 
-            // Step 2: set all replicas list in each replica
-            for (int i = 0; i < replicaCount; i++) {
-               allReplicas.get(i).setAllReplicas(allReplicas);
-            }
+            KeyValueService loadBalancer = new LoadBalancer(allReplicas, config);
 
+            Registry registry = LocateRegistry.createRegistry(port);
+            registry.rebind("KeyValueService", loadBalancer);
+            registry.rebind("Topology", new TopologyServer(allReplicas));
 
-            LOGGER.info("Starting LoadBalancer with round-robin strategy...");
-
-            KeyValueService loadBalancer = new LoadBalancer(allReplicas);
-
-            LocateRegistry.createRegistry(port);
-            Naming.rebind("KeyValueService", loadBalancer);
-
-            LOGGER.info("Load Balancer registered with RMI and ready.");
+            LOGGER.info("Load Balancer and topology registered with RMI and ready.");
             LOGGER.info("System is UP! Port: " + port);
         } catch (Exception e) {
-            LOGGER.severe("Error starting Paxos system: " + e.getMessage());
+            LOGGER.severe("Error starting replicated system: " + e.getMessage());
         }
     }
 }
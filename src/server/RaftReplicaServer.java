@@ -0,0 +1,275 @@
+package server;
+
+import remote.VersionedValue;
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.AppendAction;
+import server.actions.CompareAndSetAction;
+import server.actions.DeleteAction;
+import server.actions.GetSetAction;
+import server.actions.IncrementAction;
+import server.actions.PutAction;
+import server.actions.PutIfAbsentAction;
+import server.actions.ReadModifyWriteAction;
+import server.raft.RaftNode;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+
+import util.LoggerUtil;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Represents a replica node in the Raft-based distributed key-value store.
+ * Serves reads from its local store and routes writes through the current Raft leader.
+ * Read-modify-write requests, compare-and-set and the atomic operations, are log entries too;
+ * every node evaluates them when it applies them, and the replica returns the leader's outcome.
+ */
+public class RaftReplicaServer implements IKeyValueServer {
+    private static final Logger LOGGER = Logger.getLogger(RaftReplicaServer.class.getName());
+
+    static {
+        LoggerUtil.setupCustomLogger(LOGGER);
+    }
+
+    private static final long LEADER_WAIT_MS = 2000;
+    private static final long LEADER_POLL_MS = 10;
+
+    private final int serverId;
+    private final RaftNode raftNode;
+    private final Map<String, String> keyValueStore;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    /**
+     * Constructs a new RaftReplicaServer with the given ID.
+     * The Raft node starts once the replica is wired with its peers.
+     *
+     * @param serverId Unique ID of this replica.
+     */
+    public RaftReplicaServer(int serverId) {
+        this.serverId = serverId;
+        this.keyValueStore = new ConcurrentHashMap<>();
+        this.raftNode = new RaftNode(serverId, keyValueStore);
+
+        LOGGER.info("RaftReplicaServer " + serverId + " Initialized.");
+    }
+
+    /**
+     * Retrieves the value for a given key from this replica's local key-value store.
+     */
+    @Override
+    public String get(String key) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET request for key: " + key);
+        }
+        if (key == null) {
+            LOGGER.warning("[Replica " + serverId + "] GET failed: key is null.");
+            return null;
+        }
+
+        String value = keyValueStore.get(key);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET response for key [" + key + "] -> " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Handles a PUT request by replicating it through the Raft leader.
+     */
+    @Override
+    public boolean put(String key, String value) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT request: [" + key + "] = " + value);
+        }
+        boolean result = submitToLeader(new PutAction(key, value)) != null;
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT result: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Handles a DELETE request by replicating it through the Raft leader.
+     */
+    @Override
+    public boolean delete(String key) {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE request for key: " + key);
+        }
+        boolean result = submitToLeader(new DeleteAction(key)) != null;
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE result: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a key's value and version from this replica's local store.
+     */
+    @Override
+    public VersionedValue getWithVersion(String key) {
+        return raftNode.getVersioned(key);
+    }
+
+    /**
+     * Handles a compare-and-set by replicating it through the Raft leader, which evaluates it
+     * when the entry is applied.
+     */
+    @Override
+    public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+        ActionResult result = submitReadModifyWrite("CAS",
+                new CompareAndSetAction(key, expectedVersion, newValue, nextRequestId(), serverId));
+        return result.isWritten();
+    }
+
+    /**
+     * Handles an atomic increment by replicating it through the Raft leader.
+     */
+    @Override
+    public long increment(String key, long delta) throws RemoteException {
+        ActionResult result = submitReadModifyWrite("INCR", new IncrementAction(key, delta, nextRequestId(), serverId));
+        if (!result.isWritten()) {
+            throw new IllegalArgumentException("Cannot add " + delta + " to key [" + key + "]: value ["
+                    + result.getValue() + "] is not an integer or the sum would overflow");
+        }
+        return Long.parseLong(result.getValue());
+    }
+
+    /**
+     * Handles an atomic append by replicating it through the Raft leader.
+     */
+    @Override
+    public String append(String key, String suffix) throws RemoteException {
+        return submitReadModifyWrite("APPEND", new AppendAction(key, suffix, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Handles an atomic get-and-set by replicating it through the Raft leader.
+     */
+    @Override
+    public String getAndSet(String key, String value) throws RemoteException {
+        return submitReadModifyWrite("GETSET", new GetSetAction(key, value, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Handles an atomic put-if-absent by replicating it through the Raft leader.
+     */
+    @Override
+    public String putIfAbsent(String key, String value) throws RemoteException {
+        return submitReadModifyWrite("PUTNX", new PutIfAbsentAction(key, value, nextRequestId(), serverId)).getValue();
+    }
+
+    /**
+     * Replicates a read-modify-write action through the Raft leader and returns the outcome the
+     * leader computed when it applied the entry. The action may be submitted again after a
+     * leader change; nodes apply each request at most once and return its first outcome.
+     *
+     * @throws RemoteException If no leader committed the action in time, so its outcome is unknown.
+     */
+    private ActionResult submitReadModifyWrite(String operation, ReadModifyWriteAction action)
+            throws RemoteException {
+        RaftNode leader = submitToLeader(action);
+        ActionResult result = leader != null ? leader.getResult(action.getRequestId()) : null;
+        if (result == null) {
+            throw new RemoteException(operation + " [" + action.getKey() + "] was not committed in time;"
+                    + " it may still be applied");
+        }
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] " + operation + " [" + action.getKey() + "] → "
+                    + (result.isWritten() ? "set" : "unchanged"));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a request ID unique across replicas: the replica ID in the top bits, a counter below.
+     */
+    private long nextRequestId() {
+        return ReadModifyWriteAction.requestId(serverId, requestIds.incrementAndGet());
+    }
+
+    /**
+     * Forwards the action to the known leader, waiting briefly if an election is in progress.
+     *
+     * @param action PUT/DELETE of a certain key value pair, or a read-modify-write action
+     * @return the leader that committed and applied the action, or null if none did
+     */
+    private RaftNode submitToLeader(Action action) {
+        long deadline = System.currentTimeMillis() + LEADER_WAIT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            RaftNode leader = raftNode.getKnownLeader();
+            if (leader != null && leader.submit(action)) {
+                return leader;
+            }
+            try {
+                Thread.sleep(LEADER_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        LOGGER.warning("[Replica " + serverId + "] no leader committed " + action);
+        return null;
+    }
+
+    /**
+     * Raft replicas do not run Paxos roles.
+     *
+     * @return null
+     */
+    @Override
+    public AcceptorSupervisor getAcceptorSupervisor() {
+        return null;
+    }
+
+    /**
+     * Raft replicas do not run Paxos roles.
+     *
+     * @return null
+     */
+    @Override
+    public Learner getLearner() {
+        return null;
+    }
+
+    /**
+     * Get the Raft node backing this replica.
+     * @return RaftNode
+     */
+    public RaftNode getRaftNode() {
+        return raftNode;
+    }
+
+    @Override
+    public boolean isVoter() {
+        return true;
+    }
+
+    @Override
+    public String getServerID() {
+        return String.valueOf(serverId);
+    }
+
+    @Override
+    public void setAllReplicas(List<IKeyValueServer> replicas) {
+        List<RaftNode> peers = new ArrayList<>();
+        for (IKeyValueServer replica : replicas) {
+            if (replica instanceof RaftReplicaServer && replica != this) {
+                peers.add(((RaftReplicaServer) replica).getRaftNode());
+            }
+        }
+        raftNode.setPeers(peers);
+        raftNode.start();
+        LOGGER.info("[Replica " + serverId + "] wired with " + replicas.size() + " peer replicas.");
+    }
+}
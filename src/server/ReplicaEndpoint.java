@@ -0,0 +1,103 @@
+package server;
+
+import remote.KeyValueService;
+import remote.VersionedValue;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports one replica's client-facing operations over RMI, so smart clients can reach it without
+ * going through the LoadBalancer. The replica itself is not exported: its other methods are for
+ * in-process wiring and do not throw {@link RemoteException}. Every request first checks
+ * {@link IKeyValueServer#ping()}, so a replica that is down refuses requests, as a crashed
+ * replica process would.
+ */
+public class ReplicaEndpoint extends UnicastRemoteObject implements KeyValueService {
+  private final IKeyValueServer replica;
+
+  /**
+   * Constructs and exports an endpoint.
+   *
+   * @param replica The replica whose requests it serves.
+   * @throws RemoteException If an error occurs during RMI object export.
+   */
+  public ReplicaEndpoint(IKeyValueServer replica) throws RemoteException {
+    super();
+    this.replica = replica;
+  }
+
+  @Override
+  public String get(String key) throws RemoteException {
+    replica.ping();
+    return replica.get(key);
+  }
+
+  @Override
+  public boolean put(String key, String value) throws RemoteException {
+    replica.ping();
+    return replica.put(key, value);
+  }
+
+  @Override
+  public boolean delete(String key) throws RemoteException {
+    replica.ping();
+    return replica.delete(key);
+  }
+
+  @Override
+  public Map<String, String> multiGet(List<String> keys) throws RemoteException {
+    replica.ping();
+    return replica.multiGet(keys);
+  }
+
+  @Override
+  public Map<String, Boolean> multiPut(Map<String, String> entries) throws RemoteException {
+    replica.ping();
+    return replica.multiPut(entries);
+  }
+
+  @Override
+  public Map<String, Boolean> multiDelete(List<String> keys) throws RemoteException {
+    replica.ping();
+    return replica.multiDelete(keys);
+  }
+
+  @Override
+  public VersionedValue getWithVersion(String key) throws RemoteException {
+    replica.ping();
+    return replica.getWithVersion(key);
+  }
+
+  @Override
+  public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+    replica.ping();
+    return replica.compareAndSet(key, expectedVersion, newValue);
+  }
+
+  @Override
+  public long increment(String key, long delta) throws RemoteException {
+    replica.ping();
+    return replica.increment(key, delta);
+  }
+
+  @Override
+  public String append(String key, String suffix) throws RemoteException {
+    replica.ping();
+    return replica.append(key, suffix);
+  }
+
+  @Override
+  public String getAndSet(String key, String value) throws RemoteException {
+    replica.ping();
+    return replica.getAndSet(key, value);
+  }
+
+  @Override
+  public String putIfAbsent(String key, String value) throws RemoteException {
+    replica.ping();
+    return replica.putIfAbsent(key, value);
+  }
+}
@@ -1,20 +1,48 @@
 package server;
 
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.AppendAction;
+import server.actions.CompareAndSetAction;
+import server.actions.GetSetAction;
+import server.actions.IncrementAction;
+import server.actions.PutIfAbsentAction;
 import server.actions.PutAction;
 import server.actions.DeleteAction;
-import server.roles.*;
+import server.actions.FragmentPutAction;
+import server.actions.ReadModifyWriteAction;
+import server.antientropy.AntiEntropyService;
+import server.crdt.CrdtGossiper;
+import server.crdt.CrdtNamespaces;
+import server.crdt.CrdtStore;
+import server.crdt.CrdtType;
+import server.failure.HeartbeatSender;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+import server.shard.ShardGroup;
+import server.tracing.Tracer;
 
+import remote.VersionedValue;
 import util.LoggerUtil;
+import util.ReedSolomon;
 
+import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * Represents a replica node in the Paxos-based distributed key-value store.
- * Manages its own acceptor, proposer, and learner components, and handles client requests.
+ * Manages its own acceptor, proposer, and learner components, one set per shard, and handles
+ * client requests.
  */
 public class ReplicaServer implements IKeyValueServer {
     private static final Logger LOGGER = Logger.getLogger(ReplicaServer.class.getName());
@@ -23,28 +51,63 @@ public class ReplicaServer implements IKeyValueServer {
         LoggerUtil.setupCustomLogger(LOGGER);
     }
 
+    private static final long REQUEST_TIMEOUT_MS = 5_000;
+    private static final long BASE_BACKOFF_MS = 8;
+
     private final int serverId;
-    private final AcceptorSupervisor acceptorSupervisor;
-    private final Learner learner;
-    private final Proposer proposer;
-    private final Map<String, String> keyValueStore;
+    private final boolean voting;
+    private final ShardGroup[] shards;
+    private final CrdtNamespaces crdtNamespaces;
+    private final CrdtStore crdtStore;
+    private final CrdtGossiper crdtGossiper;
+    private final PhiAccrualFailureDetector failureDetector;
+    private final HeartbeatSender heartbeatSender;
+    private final AtomicLong requestIds = new AtomicLong();
+    private List<IKeyValueServer> allReplicas = new ArrayList<>();
+    private List<IKeyValueServer> voters = new ArrayList<>();
 
     /**
-     * Constructs a new ReplicaServer with the given ID.
+     * Constructs a new ReplicaServer with the given ID where every key goes through Paxos.
      *
      * @param serverId Unique ID of this replica.
      */
     public ReplicaServer(int serverId) throws RemoteException {
-        this.serverId = serverId;
-        this.acceptorSupervisor = new AcceptorSupervisor(serverId);
-        this.keyValueStore = new ConcurrentHashMap<>();
-        this.learner = new Learner(serverId, keyValueStore, acceptorSupervisor);
-        this.proposer = new Proposer(serverId);
+        this(serverId, ServerConfig.defaults());
+    }
 
-        this.learner.start();
-        this.proposer.start();
+    /**
+     * Constructs a new voting ReplicaServer with the given ID.
+     *
+     * @param serverId Unique ID of this replica.
+     * @param config   The cluster configuration (CRDT namespaces, erasure coding).
+     */
+    public ReplicaServer(int serverId, ServerConfig config) throws RemoteException {
+        this(serverId, config, true);
+    }
+
+    /**
+     * Constructs a new ReplicaServer with the given ID.
+     *
+     * @param serverId Unique ID of this replica.
+     * @param config   The cluster configuration (CRDT namespaces, erasure coding).
+     * @param voting   False for a learner-only replica that never takes part in Prepare/Accept.
+     */
+    public ReplicaServer(int serverId, ServerConfig config, boolean voting) throws RemoteException {
+        this.serverId = serverId;
+        this.voting = voting;
+        this.crdtNamespaces = config.getCrdtNamespaces();
+        this.crdtStore = new CrdtStore(serverId);
+        this.crdtGossiper = new CrdtGossiper(serverId, crdtStore);
+        this.failureDetector = new PhiAccrualFailureDetector(serverId);
+        this.shards = new ShardGroup[config.getShardCount()];
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard] = new ShardGroup(serverId, shard, config, failureDetector);
+            shards[shard].registerMetrics();
+        }
+        this.heartbeatSender = new HeartbeatSender(serverId, this::isAcceptorUp);
 
-        LOGGER.info("ReplicaServer " + serverId + " Initialized.");
+        LOGGER.info("ReplicaServer " + serverId + (voting ? "" : " (learner-only)")
+                + (shards.length > 1 ? " with " + shards.length + " shards" : "") + " Initialized.");
     }
 
     /**
@@ -52,14 +115,28 @@ public class ReplicaServer implements IKeyValueServer {
      */
     @Override
     public String get(String key) {
-        LOGGER.info("[Replica " + serverId + "] GET request for key: " + key);
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET request for key: " + key);
+        }
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
         if (key == null) {
             LOGGER.warning("[Replica " + serverId + "] GET failed: key is null.");
             return null;
         }
 
-        String value = keyValueStore.get(key);
-        LOGGER.info("[Replica " + serverId + "] GET response for key [" + key + "] → " + value);
+        CrdtType crdtType = crdtNamespaces.typeOf(key);
+        String value = crdtType != null ? crdtStore.get(key) : shardOf(key).get(key);
+        if (FragmentPutAction.isFragment(value)) {
+            value = reconstructValue(key);
+        }
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica.get", serverId, start, System.nanoTime(), key);
+        }
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] GET response for key [" + key + "] → " + value);
+        }
         return value;
     }
 
@@ -67,10 +144,33 @@ public class ReplicaServer implements IKeyValueServer {
      * Handles a PUT request by proposing a value using Paxos.
      */
     @Override
-    public boolean put(String key, String value) {
-        LOGGER.info("[Replica " + serverId + "] PUT request: [" + key + "] = " + value);
-        boolean result = proposer.propose(new PutAction(key, value));
-        LOGGER.info("[Replica " + serverId + "] PUT result: " + result);
+    public boolean put(String key, String value) throws RemoteException {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT request: [" + key + "] = " + value);
+        }
+        CrdtType crdtType = crdtNamespaces.typeOf(key);
+        if (crdtType != null) {
+            try {
+                crdtStore.put(key, crdtType, value);
+                return true;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("[Replica " + serverId + "] PUT failed: " + e.getMessage());
+                return false;
+            }
+        }
+        if (!voting) {
+            return forwardingVoter().put(key, value);
+        }
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
+        boolean result = shardOf(key).getProposer().propose(new PutAction(key, value));
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica.put", serverId, start, System.nanoTime(), key);
+        }
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] PUT result: " + result);
+        }
         return result;
     }
 
@@ -78,21 +178,474 @@ public class ReplicaServer implements IKeyValueServer {
      * Handles a DELETE request by proposing a deletion using Paxos.
      */
     @Override
-    public boolean delete(String key) {
-        LOGGER.info("[Replica " + serverId + "] DELETE request for key: " + key);
-        boolean result = proposer.propose(new DeleteAction(key));
-        LOGGER.info("[Replica " + serverId + "] DELETE result: " + result);
+    public boolean delete(String key) throws RemoteException {
+        boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE request for key: " + key);
+        }
+        CrdtType crdtType = crdtNamespaces.typeOf(key);
+        if (crdtType != null) {
+            crdtStore.delete(key, crdtType);
+            return true;
+        }
+        if (!voting) {
+            return forwardingVoter().delete(key);
+        }
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
+        boolean result = shardOf(key).getProposer().propose(new DeleteAction(key));
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica.delete", serverId, start, System.nanoTime(), key);
+        }
+        if (logged) {
+            LOGGER.info("[Replica " + serverId + "] DELETE result: " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves several keys from this replica's local stores. Erasure-coded values, which are
+     * rebuilt from fragments held across the replicas, are rebuilt in parallel.
+     */
+    @Override
+    public Map<String, String> multiGet(List<String> keys) {
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> fragmented = new ArrayList<>();
+        for (String key : keys) {
+            if (key == null) {
+                values.put(null, null);
+                continue;
+            }
+            String value = crdtNamespaces.typeOf(key) != null ? crdtStore.get(key) : shardOf(key).get(key);
+            if (FragmentPutAction.isFragment(value)) {
+                fragmented.add(key);
+            }
+            values.put(key, value);
+        }
+        if (!fragmented.isEmpty()) {
+            fragmented.parallelStream().forEach(key -> {
+                String value = reconstructValue(key);
+                synchronized (values) {
+                    values.put(key, value);
+                }
+            });
+        }
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica.multiGet", serverId, start, System.nanoTime(), keys.size() + " keys");
+        }
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] MULTIGET of " + keys.size() + " keys");
+        }
+        return values;
+    }
+
+    /**
+     * Handles a batch of PUTs by proposing them together, one batch per shard.
+     */
+    @Override
+    public Map<String, Boolean> multiPut(Map<String, String> entries) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().multiPut(entries);
+        }
+        List<Action> actions = new ArrayList<>(entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            actions.add(new PutAction(entry.getKey(), entry.getValue()));
+        }
+        return proposeBatch("multiPut", actions);
+    }
+
+    /**
+     * Handles a batch of DELETEs by proposing them together, one batch per shard.
+     */
+    @Override
+    public Map<String, Boolean> multiDelete(List<String> keys) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().multiDelete(keys);
+        }
+        List<Action> actions = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            actions.add(new DeleteAction(key));
+        }
+        return proposeBatch("multiDelete", actions);
+    }
+
+    /**
+     * Proposes a batch of writes: CRDT keys are written locally, the rest are grouped by shard
+     * and each group goes to its shard's proposer, which decides every key in its own Paxos
+     * instance but shares the message exchanges between them. The batch is not atomic.
+     *
+     * @return Each key's result, in the order of {@code actions}.
+     */
+    private Map<String, Boolean> proposeBatch(String operation, List<Action> actions) throws RemoteException {
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        List<List<Action>> byShard = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (Action action : actions) {
+            String key = action.getKey();
+            if (crdtNamespaces.typeOf(key) != null) {
+                results.put(key, action instanceof PutAction ? put(key, ((PutAction) action).getValue()) : delete(key));
+                continue;
+            }
+            results.put(key, false);
+            byShard.get(ShardGroup.shardOf(key, shards.length)).add(action);
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<Action> batch = byShard.get(shard);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            boolean[] chosen = shards[shard].getProposer().proposeBatch(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                results.put(batch.get(i).getKey(), chosen[i]);
+            }
+        }
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica." + operation, serverId, start, System.nanoTime(), actions.size() + " keys");
+        }
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] " + operation + " of " + actions.size() + " keys: " + results);
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves a key's value and version from this replica's local store.
+     */
+    @Override
+    public VersionedValue getWithVersion(String key) {
+        if (crdtNamespaces.typeOf(key) != null) {
+            throw new IllegalArgumentException("CRDT keys have no versions: " + key);
+        }
+        VersionedValue stored = shardOf(key).getLearner().getVersioned(key);
+        if (FragmentPutAction.isFragment(stored.getValue())) {
+            return new VersionedValue(reconstructValue(key), stored.getVersion());
+        }
+        return stored;
+    }
+
+    /**
+     * Handles a compare-and-set by proposing it using Paxos, then waiting for this replica's
+     * learner to evaluate it.
+     */
+    @Override
+    public boolean compareAndSet(String key, long expectedVersion, String newValue) throws RemoteException {
+        if (crdtNamespaces.typeOf(key) != null) {
+            throw new IllegalArgumentException("CRDT keys have no versions: " + key);
+        }
+        if (!voting) {
+            return forwardingVoter().compareAndSet(key, expectedVersion, newValue);
+        }
+        long requestId = nextRequestId();
+        ActionResult result = proposeReadModifyWrite(key,
+                new CompareAndSetAction(key, expectedVersion, newValue, requestId, serverId));
+        boolean swapped = result.isWritten();
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] CAS [" + key + "] expecting version " + expectedVersion
+                    + " → " + (swapped ? "set" : "unchanged"));
+        }
+        return swapped;
+    }
+
+    /**
+     * Handles an atomic increment by proposing it using Paxos; this replica's learner computes the
+     * new value when it applies the decision.
+     */
+    @Override
+    public long increment(String key, long delta) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().increment(key, delta);
+        }
+        ActionResult result = applyAtomically("INCR", key, new IncrementAction(key, delta, nextRequestId(), serverId));
+        if (!result.isWritten()) {
+            throw new IllegalArgumentException("Cannot add " + delta + " to key [" + key + "]: value "
+                    + describe(result.getValue()) + " is not an integer or the sum would overflow");
+        }
+        return Long.parseLong(result.getValue());
+    }
+
+    /**
+     * Handles an atomic append by proposing it using Paxos.
+     */
+    @Override
+    public String append(String key, String suffix) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().append(key, suffix);
+        }
+        ActionResult result = applyAtomically("APPEND", key, new AppendAction(key, suffix, nextRequestId(), serverId));
+        if (!result.isWritten()) {
+            throw new IllegalArgumentException("Cannot append to erasure-coded key: " + key);
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Handles an atomic get-and-set by proposing it using Paxos.
+     */
+    @Override
+    public String getAndSet(String key, String value) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().getAndSet(key, value);
+        }
+        ActionResult result = applyAtomically("GETSET", key, new GetSetAction(key, value, nextRequestId(), serverId));
+        if (!result.isWritten()) {
+            throw new IllegalArgumentException("Cannot get-and-set erasure-coded key: " + key);
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Handles an atomic put-if-absent by proposing it using Paxos. An existing erasure-coded value
+     * is left in place and reconstructed for the reply.
+     */
+    @Override
+    public String putIfAbsent(String key, String value) throws RemoteException {
+        if (!voting) {
+            return forwardingVoter().putIfAbsent(key, value);
+        }
+        ActionResult result = applyAtomically("PUTNX", key, new PutIfAbsentAction(key, value, nextRequestId(), serverId));
+        if (FragmentPutAction.isFragment(result.getValue())) {
+            return reconstructValue(key);
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Proposes an atomic operation on a replicated key and returns its outcome.
+     *
+     * @throws RemoteException If the operation's outcome is unknown.
+     */
+    private ActionResult applyAtomically(String operation, String key, ReadModifyWriteAction action)
+            throws RemoteException {
+        if (crdtNamespaces.typeOf(key) != null) {
+            throw new IllegalArgumentException("Atomic operations are not supported on CRDT key: " + key);
+        }
+        ActionResult result = proposeReadModifyWrite(key, action);
+        if (LoggerUtil.isRequestLoggable(LOGGER)) {
+            LOGGER.info("[Replica " + serverId + "] " + operation + " [" + key + "] → "
+                    + (result.isWritten() ? "set" : "unchanged"));
+        }
         return result;
     }
 
+    /**
+     * Describes a stored value for an error message, hiding erasure-coded fragments.
+     */
+    private static String describe(String value) {
+        return FragmentPutAction.isFragment(value) ? "(erasure coded)" : "[" + value + "]";
+    }
+
+    /**
+     * Returns a request ID unique across replicas: the replica ID in the top bits, a counter below.
+     */
+    private long nextRequestId() {
+        return ReadModifyWriteAction.requestId(serverId, requestIds.incrementAndGet());
+    }
+
+    /**
+     * Proposes a read-modify-write action until its request is decided, then returns the outcome
+     * this replica's learner computed when applying it. A proposal that is not chosen may still have
+     * been accepted by some acceptors and be chosen later, so the action is proposed again, in a later
+     * instance if need be, after a short random backoff. Learners apply each request ID once, so the
+     * request takes effect once however many instances decide it.
+     *
+     * @return The action's outcome.
+     * @throws RemoteException If the request was not decided and applied here in time, so its outcome is unknown.
+     */
+    private ActionResult proposeReadModifyWrite(String key, ReadModifyWriteAction action)
+            throws RemoteException {
+        long traceId = Tracer.currentTraceId();
+        long start = traceId != 0 ? System.nanoTime() : 0;
+        ShardGroup shard = shardOf(key);
+        long deadline = System.currentTimeMillis() + REQUEST_TIMEOUT_MS;
+        ActionResult result = null;
+        try {
+            for (int attempt = 0; result == null; attempt++) {
+                boolean chosen = shard.getProposer().propose(action);
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    result = shard.getLearner().awaitResult(action.getRequestId(), 0);
+                    break;
+                }
+                long wait = chosen ? remaining
+                        : Math.min(remaining, ThreadLocalRandom.current().nextLong(1, BASE_BACKOFF_MS << Math.min(attempt, 3)));
+                result = shard.getLearner().awaitResult(action.getRequestId(), wait);
+                if (chosen) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted waiting for " + action, e);
+        }
+        if (traceId != 0) {
+            Tracer.record(traceId, "replica.readModifyWrite", serverId, start, System.nanoTime(), key);
+        }
+        if (result == null) {
+            throw new RemoteException("Outcome of " + action + " unknown: not decided and applied on replica "
+                    + serverId + " within " + REQUEST_TIMEOUT_MS + " ms");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the shard, and so the Paxos group, responsible for a key.
+     */
+    private ShardGroup shardOf(String key) {
+        return shards[ShardGroup.shardOf(key, shards.length)];
+    }
+
+    /**
+     * Returns whether any shard's acceptor is up; the replica's heartbeats stop only when none is.
+     */
+    private boolean isAcceptorUp() {
+        for (ShardGroup shard : shards) {
+            if (shard.getAcceptorSupervisor().isAcceptorUp()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the voting replica a learner-only replica forwards its writes to.
+     */
+    private IKeyValueServer forwardingVoter() {
+        return voters.get(serverId % voters.size());
+    }
+
+    /**
+     * Rebuilds an erasure-coded value from the fragments held across the replicas.
+     * Fragments are grouped by the proposal that wrote them, and the newest proposal with
+     * at least k fragments wins.
+     *
+     * @param key The key to read.
+     * @return The rebuilt value, or null if too few fragments are available.
+     */
+    private String reconstructValue(String key) {
+        Map<Long, Map<Integer, byte[]>> fragmentsByProposal = new HashMap<>();
+        Map<Long, FragmentPutAction> samples = new HashMap<>();
+        for (IKeyValueServer replica : allReplicas) {
+            String stored = replica instanceof ReplicaServer ? ((ReplicaServer) replica).getLocalValue(key) : null;
+            if (!FragmentPutAction.isFragment(stored)) {
+                continue;
+            }
+            FragmentPutAction fragment = FragmentPutAction.parse(key, stored);
+            fragmentsByProposal.computeIfAbsent(fragment.getProposalNumber(), p -> new HashMap<>())
+                    .put(fragment.getFragmentIndex(), fragment.getFragment());
+            samples.putIfAbsent(fragment.getProposalNumber(), fragment);
+        }
+
+        FragmentPutAction newest = null;
+        for (FragmentPutAction sample : samples.values()) {
+            boolean complete = fragmentsByProposal.get(sample.getProposalNumber()).size() >= sample.getDataShards();
+            if (complete && (newest == null || sample.getProposalNumber() > newest.getProposalNumber())) {
+                newest = sample;
+            }
+        }
+        if (newest == null) {
+            LOGGER.warning("[Replica " + serverId + "] not enough fragments to rebuild key: " + key);
+            return null;
+        }
+        ReedSolomon coder = new ReedSolomon(newest.getDataShards(), voters.size());
+        byte[] value = coder.decode(fragmentsByProposal.get(newest.getProposalNumber()), newest.getValueLength());
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the raw value this replica stores for a key, which may be an erasure-coded fragment.
+     *
+     * @param key The key.
+     * @return The locally stored value, or null if absent.
+     */
+    public String getLocalValue(String key) {
+        return shardOf(key).get(key);
+    }
+
     @Override
     public AcceptorSupervisor getAcceptorSupervisor() {
-        return acceptorSupervisor;
+        return shards[0].getAcceptorSupervisor();
     }
 
     @Override
     public Learner getLearner() {
-        return learner;
+        return shards[0].getLearner();
+    }
+
+    @Override
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public AcceptorSupervisor getAcceptorSupervisor(int shard) {
+        return shards[shard].getAcceptorSupervisor();
+    }
+
+    @Override
+    public Learner getLearner(int shard) {
+        return shards[shard].getLearner();
+    }
+
+    @Override
+    public boolean isCatchingUp() {
+        for (ShardGroup shard : shards) {
+            if (shard.getLearner().isCatchingUp()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the anti-entropy task that repairs one shard of this replica's store against its peers.
+     * @param shard The shard index.
+     * @return AntiEntropyService
+     */
+    public AntiEntropyService getAntiEntropyService(int shard) {
+        return shards[shard].getAntiEntropyService();
+    }
+
+    /**
+     * Get the CRDT store holding this replica's CRDT-backed keys.
+     * @return CrdtStore
+     */
+    public CrdtStore getCrdtStore() {
+        return crdtStore;
+    }
+
+    @Override
+    public void addFailureDetector(PhiAccrualFailureDetector detector) {
+        heartbeatSender.addDetector(detector);
+    }
+
+    @Override
+    public void setFaultInjector(FaultInjector faultInjector) {
+        for (ShardGroup shard : shards) {
+            shard.setFaultInjector(faultInjector);
+        }
+        heartbeatSender.setFaultInjector(faultInjector);
+    }
+
+    /**
+     * Fails the LoadBalancer's health probe while every shard's acceptor is crashed, as the
+     * replica's heartbeats do.
+     */
+    @Override
+    public void ping() throws RemoteException {
+        if (!isAcceptorUp()) {
+            throw new RemoteException("Replica " + serverId + " is down");
+        }
+    }
+
+    @Override
+    public boolean isVoter() {
+        return voting;
     }
 
     @Override
@@ -102,7 +655,38 @@ public class ReplicaServer implements IKeyValueServer {
 
     @Override
     public void setAllReplicas(List<IKeyValueServer> replicas) {
-      this.proposer.setAllReplicas(replicas);
+        this.allReplicas = replicas;
+        this.voters = new ArrayList<>();
+        for (IKeyValueServer replica : replicas) {
+            if (replica.isVoter()) {
+                voters.add(replica);
+            }
+        }
+        for (IKeyValueServer replica : replicas) {
+            if (replica.getShardCount() != shards.length) {
+                throw new IllegalStateException("Replica " + replica.getServerID() + " has "
+                        + replica.getShardCount() + " shards, expected " + shards.length);
+            }
+        }
+        for (ShardGroup shard : shards) {
+            shard.setAllReplicas(this, replicas);
+        }
+        for (IKeyValueServer replica : replicas) {
+            if (replica != this) {
+                replica.addFailureDetector(failureDetector);
+            }
+        }
+        this.heartbeatSender.start();
+        if (!crdtNamespaces.isEmpty()) {
+            List<CrdtStore> peers = new ArrayList<>();
+            for (IKeyValueServer replica : replicas) {
+                if (replica instanceof ReplicaServer && replica != this) {
+                    peers.add(((ReplicaServer) replica).getCrdtStore());
+                }
+            }
+            crdtGossiper.setPeers(peers);
+            crdtGossiper.start();
+        }
         LOGGER.info("[Replica " + serverId + "] wired with " + replicas.size() + " peer replicas.");
     }
 }
@@ -0,0 +1,131 @@
+package server;
+
+import server.fault.FaultInjector;
+import server.fault.ScheduledFaultInjector;
+import server.tracing.Tracer;
+
+import java.nio.file.Paths;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The replication engines a cluster can be started with.
+ * Every engine produces replicas behind the same {@link IKeyValueServer} surface,
+ * so the LoadBalancer and clients do not depend on the protocol in use.
+ */
+public enum ReplicationEngine {
+  PAXOS {
+    @Override
+    public IKeyValueServer createReplica(int serverId, ServerConfig config) throws RemoteException {
+      return new ReplicaServer(serverId, config);
+    }
+
+    @Override
+    public IKeyValueServer createReadReplica(int serverId, ServerConfig config) throws RemoteException {
+      return new ReplicaServer(serverId, config, false);
+    }
+  },
+  RAFT {
+    @Override
+    public IKeyValueServer createReplica(int serverId, ServerConfig config) {
+      return new RaftReplicaServer(serverId);
+    }
+  },
+  CHAIN {
+    @Override
+    public IKeyValueServer createReplica(int serverId, ServerConfig config) throws RemoteException {
+      return new ChainReplicaServer(serverId);
+    }
+  };
+
+  /**
+   * Creates a replica server running this engine.
+   *
+   * @param serverId Unique ID of the replica.
+   * @param config   The cluster configuration.
+   * @return The new replica.
+   * @throws RemoteException If the replica cannot be initialized.
+   */
+  public abstract IKeyValueServer createReplica(int serverId, ServerConfig config) throws RemoteException;
+
+  /**
+   * Creates a learner-only replica that applies decided commands and serves reads
+   * but never votes.
+   *
+   * @param serverId Unique ID of the replica.
+   * @param config   The cluster configuration.
+   * @return The new replica.
+   * @throws RemoteException If the replica cannot be initialized.
+   * @throws UnsupportedOperationException If this engine has no learner-only replicas.
+   */
+  public IKeyValueServer createReadReplica(int serverId, ServerConfig config) throws RemoteException {
+    throw new UnsupportedOperationException(this + " does not support read replicas");
+  }
+
+  /**
+   * Creates the voting replicas and read replicas described by the configuration
+   * and wires every replica with the full list. A configured fault schedule starts right away.
+   *
+   * @param config The cluster configuration.
+   * @return All replicas, voting replicas first.
+   * @throws RemoteException If a replica cannot be initialized.
+   */
+  public List<IKeyValueServer> createCluster(ServerConfig config) throws RemoteException {
+    if (!config.hasFaultSchedule()) {
+      return createCluster(config, FaultInjector.NONE);
+    }
+    ScheduledFaultInjector faultInjector = new ScheduledFaultInjector(config.getFaultSchedule());
+    List<IKeyValueServer> replicas = createCluster(config, faultInjector);
+    faultInjector.start();
+    return replicas;
+  }
+
+  /**
+   * Creates the voting replicas and read replicas described by the configuration,
+   * routes their messages through a fault injector and wires every replica with the full list.
+   * A {@link ScheduledFaultInjector} is attached to the replicas but left for the caller to start.
+   * If the configuration asks for tracing, the {@link Tracer} is enabled first.
+   *
+   * @param config        The cluster configuration.
+   * @param faultInjector The fault injector the replicas consult before sending a message.
+   * @return All replicas, voting replicas first.
+   * @throws RemoteException If a replica cannot be initialized.
+   */
+  public List<IKeyValueServer> createCluster(ServerConfig config, FaultInjector faultInjector) throws RemoteException {
+    if (config.isTracing()) {
+      Tracer.enable(Paths.get(config.getTraceFile()), config.getTraceSampleRate());
+    }
+    List<IKeyValueServer> replicas = new ArrayList<>();
+    for (int i = 0; i < config.getReplicaCount(); i++) {
+      replicas.add(createReplica(i, config));
+    }
+    for (int i = 0; i < config.getReadReplicaCount(); i++) {
+      replicas.add(createReadReplica(config.getReplicaCount() + i, config));
+    }
+    for (IKeyValueServer replica : replicas) {
+      replica.setFaultInjector(faultInjector);
+      replica.setAllReplicas(replicas);
+    }
+    if (faultInjector instanceof ScheduledFaultInjector) {
+      ((ScheduledFaultInjector) faultInjector).attach(replicas);
+    }
+    return replicas;
+  }
+
+  /**
+   * Looks up an engine by its case-insensitive name.
+   *
+   * @param name The engine name, e.g. "paxos", "raft" or "chain".
+   * @return The matching engine.
+   * @throws IllegalArgumentException If no engine has that name.
+   */
+  public static ReplicationEngine fromName(String name) {
+    for (ReplicationEngine engine : values()) {
+      if (engine.name().equalsIgnoreCase(name)) {
+        return engine;
+      }
+    }
+    throw new IllegalArgumentException("Unknown replication engine: " + name);
+  }
+}
@@ -0,0 +1,340 @@
+package server;
+
+import server.crdt.CrdtNamespaces;
+import server.fault.FaultSchedule;
+import server.routing.BalancingPolicy;
+import util.ProposalNumberGenerator;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Startup settings for a cluster, parsed from the {@code --name=value} options given to
+ * {@link Main}. Unset options fall back to defaults that reproduce the original behaviour.
+ */
+public class ServerConfig {
+  private final ReplicationEngine engine;
+  private final int replicaCount;
+  private final int readReplicaCount;
+  private final int shardCount;
+  private final CrdtNamespaces crdtNamespaces;
+  private final int erasureDataShards;
+  private final int erasureThresholdBytes;
+  private final boolean simulateFailures;
+  private final String faults;
+  private final long faultSeed;
+  private final String traceFile;
+  private final double traceSampleRate;
+  private final BalancingPolicy balancingPolicy;
+  private final double hedgePercentile;
+  private final double hedgeBudget;
+  private final boolean healthChecks;
+
+  private ServerConfig(ReplicationEngine engine, int replicaCount, int readReplicaCount, int shardCount,
+                       CrdtNamespaces crdtNamespaces, int erasureDataShards, int erasureThresholdBytes,
+                       boolean simulateFailures, String faults, long faultSeed,
+                       String traceFile, double traceSampleRate, BalancingPolicy balancingPolicy,
+                       double hedgePercentile, double hedgeBudget, boolean healthChecks) {
+    this.engine = engine;
+    this.replicaCount = replicaCount;
+    this.readReplicaCount = readReplicaCount;
+    this.shardCount = shardCount;
+    this.crdtNamespaces = crdtNamespaces;
+    this.erasureDataShards = erasureDataShards;
+    this.erasureThresholdBytes = erasureThresholdBytes;
+    this.simulateFailures = simulateFailures;
+    this.faults = faults;
+    this.faultSeed = faultSeed;
+    this.traceFile = traceFile;
+    this.traceSampleRate = traceSampleRate;
+    this.balancingPolicy = balancingPolicy;
+    this.hedgePercentile = hedgePercentile;
+    this.hedgeBudget = hedgeBudget;
+    this.healthChecks = healthChecks;
+  }
+
+  /**
+   * Builds a configuration from parsed command-line options.
+   * Recognized options: {@code engine}, {@code replicas}, {@code readReplicas}, {@code shards}, {@code crdt},
+   * {@code ecThreshold}, {@code ecDataShards}, {@code simulateFailures}, {@code faults},
+   * {@code faultSeed}, {@code traceFile}, {@code traceSample}, {@code balancer}, {@code hedgePercentile},
+   * {@code hedgeBudget} and {@code healthChecks}.
+   *
+   * @param options The options keyed by name.
+   * @return The configuration.
+   * @throws IllegalArgumentException If an option value is invalid.
+   */
+  public static ServerConfig fromOptions(Map<String, String> options) {
+    int replicas = Integer.parseInt(options.getOrDefault("replicas", "5"));
+    int readReplicas = Integer.parseInt(options.getOrDefault("readReplicas", "0"));
+    checkReplicaCounts(replicas, readReplicas);
+    int ecDataShards = Integer.parseInt(options.getOrDefault("ecDataShards", "3"));
+    int ecThreshold = Integer.parseInt(options.getOrDefault("ecThreshold", "0"));
+    if (ecThreshold > 0) {
+      checkErasureCoding(replicas, ecDataShards);
+    }
+    return new ServerConfig(
+            ReplicationEngine.fromName(options.getOrDefault("engine", "paxos")),
+            replicas,
+            readReplicas,
+            parseShardCount(options.getOrDefault("shards", "1")),
+            CrdtNamespaces.parse(options.get("crdt")),
+            ecDataShards,
+            ecThreshold,
+            Boolean.parseBoolean(options.getOrDefault("simulateFailures", "false")),
+            options.get("faults"),
+            Long.parseLong(options.getOrDefault("faultSeed", "1")),
+            options.get("traceFile"),
+            Double.parseDouble(options.getOrDefault("traceSample", "0.01")),
+            BalancingPolicy.fromName(options.getOrDefault("balancer", "round-robin")),
+            Double.parseDouble(options.getOrDefault("hedgePercentile", "0")),
+            Double.parseDouble(options.getOrDefault("hedgeBudget", "0.05")),
+            Boolean.parseBoolean(options.getOrDefault("healthChecks", "false")));
+  }
+
+  /**
+   * Every replica, voting or read-only, needs a server ID that fits in the low bits of a
+   * proposal number, so larger clusters would hand out colliding proposal numbers.
+   */
+  private static void checkReplicaCounts(int replicas, int readReplicas) {
+    if (replicas < 1) {
+      throw new IllegalArgumentException("replicas must be at least 1: " + replicas);
+    }
+    if (readReplicas < 0) {
+      throw new IllegalArgumentException("readReplicas must not be negative: " + readReplicas);
+    }
+    if (replicas + readReplicas > ProposalNumberGenerator.MAX_SERVERS) {
+      throw new IllegalArgumentException("replicas + readReplicas must be at most "
+              + ProposalNumberGenerator.MAX_SERVERS + ": " + (replicas + readReplicas));
+    }
+  }
+
+  /**
+   * Each voter stores one of n fragments and any k rebuild the value, so k cannot exceed n. An
+   * erasure-coded write needs ceil((n + k) / 2) voters, which must leave room for a failed voter.
+   */
+  private static void checkErasureCoding(int replicas, int dataShards) {
+    if (dataShards < 1 || dataShards > replicas) {
+      throw new IllegalArgumentException("ecDataShards must be between 1 and replicas (" + replicas + "): "
+              + dataShards);
+    }
+    int quorum = (replicas + dataShards + 1) / 2;
+    if (quorum >= replicas) {
+      throw new IllegalArgumentException("ecDataShards " + dataShards + " needs a quorum of " + quorum + " of "
+              + replicas + " replicas, so one failed replica would block erasure-coded writes");
+    }
+  }
+
+  private static int parseShardCount(String value) {
+    int shards = Integer.parseInt(value);
+    if (shards < 1) {
+      throw new IllegalArgumentException("shards must be at least 1: " + value);
+    }
+    return shards;
+  }
+
+  /**
+   * Returns the default configuration: Paxos with every key going through consensus.
+   *
+   * @return The default configuration.
+   */
+  public static ServerConfig defaults() {
+    return fromOptions(Collections.emptyMap());
+  }
+
+  /**
+   * Returns the replication engine to run.
+   *
+   * @return The engine.
+   */
+  public ReplicationEngine getEngine() {
+    return engine;
+  }
+
+  /**
+   * Returns the number of voting replicas.
+   *
+   * @return The voting replica count.
+   */
+  public int getReplicaCount() {
+    return replicaCount;
+  }
+
+  /**
+   * Returns the number of learner-only read replicas (Paxos engine only).
+   *
+   * @return The read replica count.
+   */
+  public int getReadReplicaCount() {
+    return readReplicaCount;
+  }
+
+  /**
+   * Returns the number of shards the keyspace is hash-partitioned into, each running its own
+   * Paxos group on every replica (Paxos engine only).
+   *
+   * @return The shard count; 1 if the keyspace is not sharded.
+   */
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  /**
+   * Returns the keys stored as CRDTs instead of going through consensus.
+   *
+   * @return The CRDT namespaces.
+   */
+  public CrdtNamespaces getCrdtNamespaces() {
+    return crdtNamespaces;
+  }
+
+  /**
+   * Returns whether large values are erasure coded (Paxos engine only).
+   *
+   * @return True if an erasure coding threshold is set.
+   */
+  public boolean isErasureCodingEnabled() {
+    return erasureThresholdBytes > 0;
+  }
+
+  /**
+   * Returns the number of fragments needed to rebuild an erasure-coded value (k).
+   *
+   * @return The data shard count.
+   */
+  public int getErasureDataShards() {
+    return erasureDataShards;
+  }
+
+  /**
+   * Returns the value size from which PUTs are erasure coded.
+   *
+   * @return The threshold in characters, or 0 if erasure coding is disabled.
+   */
+  public int getErasureThresholdBytes() {
+    return erasureThresholdBytes;
+  }
+
+  /**
+   * Returns whether acceptors fail and restart at random, a test mode for exercising
+   * proposal retries (Paxos engine only).
+   *
+   * @return True if acceptor failures are simulated.
+   */
+  public boolean isSimulatingFailures() {
+    return simulateFailures;
+  }
+
+  /**
+   * Returns whether a fault injection schedule is configured (Paxos engine only).
+   *
+   * @return True if {@code --faults} was given.
+   */
+  public boolean hasFaultSchedule() {
+    return faults != null;
+  }
+
+  /**
+   * Resolves the configured fault injection schedule.
+   *
+   * @return The schedule, or null if none is configured.
+   * @throws IllegalArgumentException If the schedule spec is malformed.
+   */
+  public FaultSchedule getFaultSchedule() {
+    return faults == null ? null : FaultSchedule.parse(faults, faultSeed, replicaCount);
+  }
+
+  /**
+   * Returns whether request tracing is configured (Paxos engine only).
+   *
+   * @return True if {@code --traceFile} was given.
+   */
+  public boolean isTracing() {
+    return traceFile != null;
+  }
+
+  /**
+   * Returns where the Chrome trace-event JSON is written.
+   *
+   * @return The trace file, or null if tracing is off.
+   */
+  public String getTraceFile() {
+    return traceFile;
+  }
+
+  /**
+   * Returns the fraction of client requests that are traced.
+   *
+   * @return The sample rate between 0 and 1.
+   */
+  public double getTraceSampleRate() {
+    return traceSampleRate;
+  }
+
+  /**
+   * Returns how the LoadBalancer picks a replica for each read.
+   *
+   * @return The balancing policy.
+   */
+  public BalancingPolicy getBalancingPolicy() {
+    return balancingPolicy;
+  }
+
+  /**
+   * Returns whether slow GETs are hedged with a second read to another replica.
+   *
+   * @return True if {@code --hedgePercentile} was given.
+   */
+  public boolean isHedging() {
+    return hedgePercentile > 0;
+  }
+
+  /**
+   * Returns the percentile of recent read latency after which a GET is hedged.
+   *
+   * @return The percentile, e.g. 95, or 0 if hedging is off.
+   */
+  public double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  /**
+   * Returns the largest fraction of GETs that may be hedged.
+   *
+   * @return The budget between 0 and 1.
+   */
+  public double getHedgeBudget() {
+    return hedgeBudget;
+  }
+
+  /**
+   * Returns whether the LoadBalancer probes replicas and guards each with a circuit breaker.
+   *
+   * @return True if {@code --healthChecks=true} was given.
+   */
+  public boolean isHealthChecking() {
+    return healthChecks;
+  }
+
+  @Override
+  public String toString() {
+    return "ServerConfig{" +
+            "engine=" + engine +
+            ", replicaCount=" + replicaCount +
+            ", readReplicaCount=" + readReplicaCount +
+            ", shardCount=" + shardCount +
+            ", crdtNamespaces=" + crdtNamespaces +
+            ", erasureDataShards=" + erasureDataShards +
+            ", erasureThresholdBytes=" + erasureThresholdBytes +
+            ", simulateFailures=" + simulateFailures +
+            ", faults=" + faults +
+            ", faultSeed=" + faultSeed +
+            ", traceFile=" + traceFile +
+            ", traceSampleRate=" + traceSampleRate +
+            ", balancingPolicy=" + balancingPolicy +
+            ", hedgePercentile=" + hedgePercentile +
+            ", hedgeBudget=" + hedgeBudget +
+            ", healthChecks=" + healthChecks +
+            '}';
+  }
+}
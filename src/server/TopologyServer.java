@@ -0,0 +1,63 @@
+package server;
+
+import remote.KeyValueService;
+import remote.Topology;
+import remote.TopologyService;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
+import util.LoggerUtil;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the cluster topology to smart clients. Every replica is exported over RMI through a
+ * {@link ReplicaEndpoint}, and each topology snapshot carries those endpoints along with the
+ * replicas' roles and whether this server's failure detector currently suspects them.
+ */
+public class TopologyServer extends UnicastRemoteObject implements TopologyService {
+  private static final Logger LOGGER = Logger.getLogger(TopologyServer.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final List<? extends IKeyValueServer> replicas;
+  private final List<KeyValueService> endpoints = new ArrayList<>();
+  private final PhiAccrualFailureDetector failureDetector = new PhiAccrualFailureDetector(FaultInjector.LOAD_BALANCER_ID);
+
+  /**
+   * Constructs a TopologyServer and exports an endpoint for every replica.
+   *
+   * @param replicas The replicas to publish.
+   * @throws RemoteException If an error occurs during RMI object export.
+   */
+  public TopologyServer(List<? extends IKeyValueServer> replicas) throws RemoteException {
+    super();
+    this.replicas = replicas;
+    for (IKeyValueServer replica : replicas) {
+      endpoints.add(new ReplicaEndpoint(replica));
+      replica.addFailureDetector(failureDetector);
+    }
+    LOGGER.info("Exported endpoints for " + replicas.size() + " replicas");
+  }
+
+  /**
+   * Returns the current cluster topology.
+   *
+   * @return Every replica with its role, availability and RMI endpoint.
+   */
+  @Override
+  public Topology getTopology() {
+    List<Topology.Replica> entries = new ArrayList<>(replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      IKeyValueServer replica = replicas.get(i);
+      entries.add(new Topology.Replica(replica.getServerID(), replica.isVoter(),
+              failureDetector.isAvailable(replica.getServerID()), endpoints.get(i)));
+    }
+    return new Topology(entries);
+  }
+}
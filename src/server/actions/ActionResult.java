@@ -0,0 +1,60 @@
+package server.actions;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of a {@link ReadModifyWriteAction} on one replica: whether it wrote the key, and the
+ * value reported back to the client.
+ */
+public class ActionResult implements Serializable {
+  private final boolean written;
+  private final String value;
+
+  private ActionResult(boolean written, String value) {
+    this.written = written;
+    this.value = value;
+  }
+
+  /**
+   * Returns the outcome of an action that wrote the key.
+   *
+   * @param value The value reported to the client.
+   * @return The outcome.
+   */
+  public static ActionResult written(String value) {
+    return new ActionResult(true, value);
+  }
+
+  /**
+   * Returns the outcome of an action that left the key unchanged.
+   *
+   * @param value The value reported to the client.
+   * @return The outcome.
+   */
+  public static ActionResult unchanged(String value) {
+    return new ActionResult(false, value);
+  }
+
+  /**
+   * Returns whether the action wrote the key.
+   *
+   * @return True if the key was written.
+   */
+  public boolean isWritten() {
+    return written;
+  }
+
+  /**
+   * Returns the value reported to the client.
+   *
+   * @return The value, which depends on the action.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "ActionResult [written=" + written + ", value=" + value + "]";
+  }
+}
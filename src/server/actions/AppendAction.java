@@ -0,0 +1,76 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * Represents an atomic APPEND of a suffix to a key's value. A missing key counts as empty.
+ * An erasure-coded value is left unchanged, since a learner holds only its own fragment.
+ */
+public class AppendAction implements ReadModifyWriteAction {
+  private final String key;
+  private final String suffix;
+  private final long requestId;
+  private final int originId;
+
+  /**
+   * Constructs an {@code AppendAction}.
+   *
+   * @param key       The key to append to.
+   * @param suffix    The text to append.
+   * @param requestId The ID of the client request.
+   * @param originId  The ID of the replica that reports the outcome.
+   */
+  public AppendAction(String key, String suffix, long requestId, int originId) {
+    this.key = key;
+    this.suffix = suffix;
+    this.requestId = requestId;
+    this.originId = originId;
+  }
+
+  /**
+   * Appends the suffix to the key's value.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return A written outcome holding the new value, or an unchanged outcome holding the current value.
+   */
+  @Override
+  public ActionResult apply(Map<String, String> keyValueStore, long version) {
+    String current = keyValueStore.get(key);
+    if (FragmentPutAction.isFragment(current)) {
+      return ActionResult.unchanged(current);
+    }
+    String value = current == null ? suffix : current + suffix;
+    keyValueStore.put(key, value);
+    return ActionResult.written(value);
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the text to append.
+   *
+   * @return The suffix.
+   */
+  public String getSuffix() {
+    return suffix;
+  }
+
+  @Override
+  public long getRequestId() {
+    return requestId;
+  }
+
+  @Override
+  public int getOriginId() {
+    return originId;
+  }
+
+  @Override
+  public String toString() {
+    return "AppendAction [key=" + key + ", suffix=" + suffix + ", request=" + requestId + "]";
+  }
+}
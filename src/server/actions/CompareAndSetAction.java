@@ -0,0 +1,91 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * Represents a compare-and-set: the value is stored only if the key's version, when the decision
+ * is applied, is still the expected one. A null value deletes the key.
+ */
+public class CompareAndSetAction implements ReadModifyWriteAction {
+  private final String key;
+  private final long expectedVersion;
+  private final String value;
+  private final long requestId;
+  private final int originId;
+
+  /**
+   * Constructs a {@code CompareAndSetAction}.
+   *
+   * @param key             The key to be updated.
+   * @param expectedVersion The version the key must have.
+   * @param value           The value to store, or null to delete the key.
+   * @param requestId       The ID of the client request.
+   * @param originId        The ID of the replica that reports the outcome.
+   */
+  public CompareAndSetAction(String key, long expectedVersion, String value, long requestId, int originId) {
+    this.key = key;
+    this.expectedVersion = expectedVersion;
+    this.value = value;
+    this.requestId = requestId;
+    this.originId = originId;
+  }
+
+  /**
+   * Stores the value if the key's version matches.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return A written outcome holding the new value, or an unchanged outcome holding the current value.
+   */
+  @Override
+  public ActionResult apply(Map<String, String> keyValueStore, long version) {
+    if (version != expectedVersion) {
+      return ActionResult.unchanged(keyValueStore.get(key));
+    }
+    if (value == null) {
+      keyValueStore.remove(key);
+    } else {
+      keyValueStore.put(key, value);
+    }
+    return ActionResult.written(value);
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the version the key must have.
+   *
+   * @return The expected version.
+   */
+  public long getExpectedVersion() {
+    return expectedVersion;
+  }
+
+  /**
+   * Retrieves the value to store.
+   *
+   * @return The value, or null to delete the key.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  @Override
+  public long getRequestId() {
+    return requestId;
+  }
+
+  @Override
+  public int getOriginId() {
+    return originId;
+  }
+
+  @Override
+  public String toString() {
+    return "CompareAndSetAction [key=" + key + ", expectedVersion=" + expectedVersion + ", value=" + value
+            + ", request=" + requestId + "]";
+  }
+}
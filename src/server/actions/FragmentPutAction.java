@@ -0,0 +1,136 @@
+package server.actions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Represents one Reed-Solomon fragment of a large PUT, as used by erasure-coded (RS-Paxos) writes.
+ * Each acceptor and learner receives only its own fragment. Applying the action stores the
+ * fragment, tagged with its proposal number, as the key's local value, and a read rebuilds the
+ * full value from fragments of the same proposal held by any k replicas.
+ */
+public class FragmentPutAction implements Action {
+  private static final String MARKER = "\u0000EC|";
+
+  private final String key;
+  private final long proposalNumber;
+  private final int fragmentIndex;
+  private final int dataShards;
+  private final int valueLength;
+  private final byte[] fragment;
+
+  /**
+   * Constructs a {@code FragmentPutAction}.
+   *
+   * @param key            The key being written.
+   * @param proposalNumber The proposal number the fragments were encoded for.
+   * @param fragmentIndex  The index of this fragment among all fragments.
+   * @param dataShards     The number of fragments needed to rebuild the value (k).
+   * @param valueLength    The length in bytes of the UTF-8 encoded value.
+   * @param fragment       The fragment bytes.
+   */
+  public FragmentPutAction(String key, long proposalNumber, int fragmentIndex, int dataShards,
+                           int valueLength, byte[] fragment) {
+    this.key = key;
+    this.proposalNumber = proposalNumber;
+    this.fragmentIndex = fragmentIndex;
+    this.dataShards = dataShards;
+    this.valueLength = valueLength;
+    this.fragment = fragment;
+  }
+
+  /**
+   * Stores the fragment as the key's local value.
+   * ISO-8859-1 maps each byte to one char, which the JVM stores compactly at one byte per char.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   */
+  @Override
+  public void execute(Map<String, String> keyValueStore) {
+    keyValueStore.put(key, MARKER + proposalNumber + "|" + fragmentIndex + "|" + dataShards + "|"
+            + valueLength + "|" + new String(fragment, StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * Returns whether a stored value is a fragment rather than a plain value.
+   *
+   * @param storedValue The value held in a replica's store.
+   * @return True if the value was written by a FragmentPutAction.
+   */
+  public static boolean isFragment(String storedValue) {
+    return storedValue != null && storedValue.startsWith(MARKER);
+  }
+
+  /**
+   * Parses a stored fragment back into an action.
+   *
+   * @param key         The key the value is stored under.
+   * @param storedValue A value for which {@link #isFragment(String)} is true.
+   * @return The fragment action.
+   */
+  public static FragmentPutAction parse(String key, String storedValue) {
+    String[] header = storedValue.substring(MARKER.length()).split("\\|", 5);
+    return new FragmentPutAction(key,
+            Long.parseLong(header[0]),
+            Integer.parseInt(header[1]),
+            Integer.parseInt(header[2]),
+            Integer.parseInt(header[3]),
+            header[4].getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the proposal number the fragments were encoded for.
+   *
+   * @return The proposal number.
+   */
+  public long getProposalNumber() {
+    return proposalNumber;
+  }
+
+  /**
+   * Returns the index of this fragment.
+   *
+   * @return The fragment index.
+   */
+  public int getFragmentIndex() {
+    return fragmentIndex;
+  }
+
+  /**
+   * Returns the number of fragments needed to rebuild the value.
+   *
+   * @return k
+   */
+  public int getDataShards() {
+    return dataShards;
+  }
+
+  /**
+   * Returns the length of the UTF-8 encoded value.
+   *
+   * @return The value length in bytes.
+   */
+  public int getValueLength() {
+    return valueLength;
+  }
+
+  /**
+   * Returns the fragment bytes.
+   *
+   * @return The fragment.
+   */
+  public byte[] getFragment() {
+    return fragment;
+  }
+
+  @Override
+  public String toString() {
+    return "FragmentPutAction [key=" + key + ", proposal=" + proposalNumber + ", fragment=" + fragmentIndex
+            + ", k=" + dataShards + ", bytes=" + fragment.length + "/" + valueLength + "]";
+  }
+}
@@ -0,0 +1,75 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * Represents an atomic GETSET: stores a value and reports the value it replaced. An erasure-coded
+ * value is left unchanged, since a learner holds only its own fragment and could not report it.
+ */
+public class GetSetAction implements ReadModifyWriteAction {
+  private final String key;
+  private final String value;
+  private final long requestId;
+  private final int originId;
+
+  /**
+   * Constructs a {@code GetSetAction}.
+   *
+   * @param key       The key to be updated.
+   * @param value     The value to store.
+   * @param requestId The ID of the client request.
+   * @param originId  The ID of the replica that reports the outcome.
+   */
+  public GetSetAction(String key, String value, long requestId, int originId) {
+    this.key = key;
+    this.value = value;
+    this.requestId = requestId;
+    this.originId = originId;
+  }
+
+  /**
+   * Stores the value.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return A written outcome holding the replaced value, or null if the key had none.
+   */
+  @Override
+  public ActionResult apply(Map<String, String> keyValueStore, long version) {
+    String current = keyValueStore.get(key);
+    if (FragmentPutAction.isFragment(current)) {
+      return ActionResult.unchanged(current);
+    }
+    keyValueStore.put(key, value);
+    return ActionResult.written(current);
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the value to store.
+   *
+   * @return The value.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  @Override
+  public long getRequestId() {
+    return requestId;
+  }
+
+  @Override
+  public int getOriginId() {
+    return originId;
+  }
+
+  @Override
+  public String toString() {
+    return "GetSetAction [key=" + key + ", value=" + value + ", request=" + requestId + "]";
+  }
+}
@@ -0,0 +1,80 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * Represents an atomic increment (INCR) or, with a negative delta, decrement (DECR) of a key whose
+ * value is a decimal integer. A missing key counts as 0. The key is left unchanged if its value is
+ * not an integer, is erasure coded, or would overflow.
+ */
+public class IncrementAction implements ReadModifyWriteAction {
+  private final String key;
+  private final long delta;
+  private final long requestId;
+  private final int originId;
+
+  /**
+   * Constructs an {@code IncrementAction}.
+   *
+   * @param key       The key holding the counter.
+   * @param delta     The amount to add; negative to decrement.
+   * @param requestId The ID of the client request.
+   * @param originId  The ID of the replica that reports the outcome.
+   */
+  public IncrementAction(String key, long delta, long requestId, int originId) {
+    this.key = key;
+    this.delta = delta;
+    this.requestId = requestId;
+    this.originId = originId;
+  }
+
+  /**
+   * Adds the delta to the key's value.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return A written outcome holding the new value, or an unchanged outcome holding the current value.
+   */
+  @Override
+  public ActionResult apply(Map<String, String> keyValueStore, long version) {
+    String current = keyValueStore.get(key);
+    long updated;
+    try {
+      updated = Math.addExact(current == null ? 0 : Long.parseLong(current), delta);
+    } catch (NumberFormatException | ArithmeticException e) {
+      return ActionResult.unchanged(current);
+    }
+    String value = Long.toString(updated);
+    keyValueStore.put(key, value);
+    return ActionResult.written(value);
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the amount to add.
+   *
+   * @return The delta.
+   */
+  public long getDelta() {
+    return delta;
+  }
+
+  @Override
+  public long getRequestId() {
+    return requestId;
+  }
+
+  @Override
+  public int getOriginId() {
+    return originId;
+  }
+
+  @Override
+  public String toString() {
+    return "IncrementAction [key=" + key + ", delta=" + delta + ", request=" + requestId + "]";
+  }
+}
@@ -41,6 +41,15 @@ public class PutAction implements Action {
     return key;
   }
 
+  /**
+   * Retrieves the value associated with this put action.
+   *
+   * @return The value to be stored.
+   */
+  public String getValue() {
+    return value;
+  }
+
   /**
    * Provides a string representation of the put action.
    *
@@ -0,0 +1,74 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * Represents an atomic PUT_IF_ABSENT: stores a value only if the key has none.
+ */
+public class PutIfAbsentAction implements ReadModifyWriteAction {
+  private final String key;
+  private final String value;
+  private final long requestId;
+  private final int originId;
+
+  /**
+   * Constructs a {@code PutIfAbsentAction}.
+   *
+   * @param key       The key to be inserted.
+   * @param value     The value to store.
+   * @param requestId The ID of the client request.
+   * @param originId  The ID of the replica that reports the outcome.
+   */
+  public PutIfAbsentAction(String key, String value, long requestId, int originId) {
+    this.key = key;
+    this.value = value;
+    this.requestId = requestId;
+    this.originId = originId;
+  }
+
+  /**
+   * Stores the value if the key has none.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return A written outcome holding null, or an unchanged outcome holding the existing value.
+   */
+  @Override
+  public ActionResult apply(Map<String, String> keyValueStore, long version) {
+    String current = keyValueStore.get(key);
+    if (current != null) {
+      return ActionResult.unchanged(current);
+    }
+    keyValueStore.put(key, value);
+    return ActionResult.written(null);
+  }
+
+  @Override
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the value to store.
+   *
+   * @return The value.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  @Override
+  public long getRequestId() {
+    return requestId;
+  }
+
+  @Override
+  public int getOriginId() {
+    return originId;
+  }
+
+  @Override
+  public String toString() {
+    return "PutIfAbsentAction [key=" + key + ", value=" + value + ", request=" + requestId + "]";
+  }
+}
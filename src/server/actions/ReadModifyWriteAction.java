@@ -0,0 +1,71 @@
+package server.actions;
+
+import java.util.Map;
+
+/**
+ * An action whose effect depends on the key's current value or version, such as compare-and-set.
+ * The Learner, or a {@link VersionedStore} on the Raft and chain engines, evaluates it when it
+ * applies the decision, so every replica that applies the same decisions in the same order
+ * reaches the same outcome. Each action carries a request ID, so a
+ * learner applies it at most once even if it is decided again, and the ID of the replica whose
+ * client waits for its {@link ActionResult}.
+ */
+public interface ReadModifyWriteAction extends Action {
+
+  /**
+   * Applies the action to the key-value store.
+   *
+   * @param keyValueStore The key-value store where the action will be applied.
+   * @param version       The key's current version.
+   * @return The outcome, including whether the key was written.
+   */
+  ActionResult apply(Map<String, String> keyValueStore, long version);
+
+  /**
+   * Always fails: a read-modify-write action needs the key's version, so only the Learner or a
+   * {@link VersionedStore} can apply it.
+   *
+   * @param keyValueStore The key-value store.
+   * @throws UnsupportedOperationException Always.
+   */
+  @Override
+  default void execute(Map<String, String> keyValueStore) {
+    throw new UnsupportedOperationException(this + " must be applied with the key's version");
+  }
+
+  /**
+   * Retrieves the ID of the client request, unique across replicas.
+   *
+   * @return The request ID.
+   */
+  long getRequestId();
+
+  /**
+   * Retrieves the ID of the replica that proposed the action and reports its outcome.
+   *
+   * @return The replica ID.
+   */
+  int getOriginId();
+
+  /**
+   * Builds a request ID unique across replicas: the origin replica's ID in the top bits, a
+   * per-replica sequence below.
+   *
+   * @param originId The ID of the replica that proposes the action.
+   * @param sequence The replica's request counter.
+   * @return The request ID.
+   */
+  static long requestId(int originId, long sequence) {
+    return ((long) originId << 48) | sequence;
+  }
+
+  /**
+   * Extracts the origin replica's ID from a request ID built by {@link #requestId(int, long)}.
+   *
+   * @param requestId The request ID.
+   * @return The origin replica's ID.
+   */
+  static int originOf(long requestId) {
+    return (int) (requestId >>> 48);
+  }
+}
@@ -0,0 +1,80 @@
+package server.actions;
+
+import remote.VersionedValue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies actions to a replica's key-value store for the engines that order writes without Paxos
+ * learners, such as Raft and chain replication. Like the Learner, it raises a key's version by one
+ * on every write, evaluates each {@link ReadModifyWriteAction} against the key's current value and
+ * version, and applies each request at most once, keeping recent outcomes by request ID. A request
+ * sent again after a failover is therefore skipped, and its first outcome returned. Not thread-safe:
+ * callers apply actions and read under their own lock.
+ */
+public class VersionedStore {
+  private static final int HISTORY_LIMIT = 10_000;
+
+  private final Map<String, String> keyValueStore;
+  private final Map<String, Long> versions = new HashMap<>();
+  private final Map<Long, ActionResult> results = new LinkedHashMap<Long, ActionResult>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, ActionResult> eldest) {
+      return size() > HISTORY_LIMIT;
+    }
+  };
+
+  /**
+   * Constructs a VersionedStore over a key-value store.
+   *
+   * @param keyValueStore The store actions are applied to.
+   */
+  public VersionedStore(Map<String, String> keyValueStore) {
+    this.keyValueStore = keyValueStore;
+  }
+
+  /**
+   * Applies an action and raises its key's version if it wrote the key.
+   *
+   * @param action The action to apply.
+   */
+  public void apply(Action action) {
+    boolean written = true;
+    if (action instanceof ReadModifyWriteAction) {
+      ReadModifyWriteAction readModifyWrite = (ReadModifyWriteAction) action;
+      if (results.containsKey(readModifyWrite.getRequestId())) {
+        return; // sent again after a failover, and already applied
+      }
+      ActionResult result = readModifyWrite.apply(keyValueStore, versions.getOrDefault(action.getKey(), 0L));
+      results.put(readModifyWrite.getRequestId(), result);
+      written = result.isWritten();
+    } else {
+      action.execute(keyValueStore);
+    }
+    if (written) {
+      versions.merge(action.getKey(), 1L, Long::sum);
+    }
+  }
+
+  /**
+   * Returns a key's value together with its version.
+   *
+   * @param key The key.
+   * @return The value and version; version 0 for a key that was never written.
+   */
+  public VersionedValue getVersioned(String key) {
+    return new VersionedValue(keyValueStore.get(key), versions.getOrDefault(key, 0L));
+  }
+
+  /**
+   * Returns the outcome of a read-modify-write request applied to this store.
+   *
+   * @param requestId The request ID.
+   * @return The outcome, or null if the request was not applied or its outcome was discarded.
+   */
+  public ActionResult getResult(long requestId) {
+    return results.get(requestId);
+  }
+}
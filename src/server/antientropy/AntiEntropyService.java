@@ -0,0 +1,148 @@
+package server.antientropy;
+
+import server.messages.RepairEntry;
+import server.roles.Learner;
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Periodically compares a replica's Merkle tree with a random peer's and repairs the keys
+ * that differ. Hashes are compared top-down, one tree level per exchange, descending only into
+ * subtrees whose hashes differ, and only the entries of differing leaf buckets are shipped.
+ * Each side adopts the other's entry for a key when it reflects a later Paxos instance of the
+ * key, so one round repairs both replicas. The adopted instance counts as applied, so a Learn
+ * message for it that is still in flight is dropped on arrival rather than applied again.
+ */
+public class AntiEntropyService extends Thread implements AntiEntropyServiceMXBean {
+  private static final Logger LOGGER = Logger.getLogger(AntiEntropyService.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private static final long ROUND_INTERVAL_MS = 1000;
+
+  private final int id;
+  private final Learner learner;
+  private volatile List<Learner> peers = Collections.emptyList();
+
+  private final AtomicLong rounds = new AtomicLong();
+  private final AtomicLong hashesCompared = new AtomicLong();
+  private final AtomicLong bucketsExchanged = new AtomicLong();
+  private final AtomicLong keysRepaired = new AtomicLong();
+
+  /**
+   * Constructs an AntiEntropyService.
+   *
+   * @param id      The ID of the owning replica.
+   * @param learner The replica's learner, which owns its store and Merkle tree.
+   */
+  public AntiEntropyService(int id, Learner learner) {
+    this.id = id;
+    this.learner = learner;
+    setName("AntiEntropy-" + id);
+    setDaemon(true);
+  }
+
+  /**
+   * Sets the learners of the other replicas.
+   *
+   * @param peers The peer learners.
+   */
+  public void setPeers(List<Learner> peers) {
+    this.peers = new ArrayList<>(peers);
+  }
+
+  @Override
+  public void run() {
+    LOGGER.info("AntiEntropyService " + id + " is now running.");
+    while (!isInterrupted()) {
+      try {
+        Thread.sleep(ROUND_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        break;
+      }
+      List<Learner> candidates = peers;
+      if (candidates.isEmpty()) {
+        continue;
+      }
+      try {
+        synchronizeWith(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size())));
+      } catch (RuntimeException e) {
+        LOGGER.warning("AntiEntropyService " + id + " round failed: " + e);
+      }
+    }
+  }
+
+  /**
+   * Runs one anti-entropy round against a peer.
+   *
+   * @param peer The peer learner.
+   * @return The number of keys repaired on either side.
+   */
+  public int synchronizeWith(Learner peer) {
+    rounds.incrementAndGet();
+    MerkleTree local = learner.getMerkleTree();
+    MerkleTree remote = peer.getMerkleTree();
+    int leafCount = local.getLeafCount();
+
+    List<Integer> differingBuckets = new ArrayList<>();
+    int[] level = {1};
+    while (level.length > 0) {
+      long[] localHashes = local.getHashes(level);
+      long[] remoteHashes = remote.getHashes(level);
+      hashesCompared.addAndGet(level.length);
+      List<Integer> next = new ArrayList<>();
+      for (int i = 0; i < level.length; i++) {
+        if (localHashes[i] == remoteHashes[i]) {
+          continue;
+        }
+        if (level[i] >= leafCount) {
+          differingBuckets.add(level[i] - leafCount);
+        } else {
+          next.add(2 * level[i]);
+          next.add(2 * level[i] + 1);
+        }
+      }
+      level = next.stream().mapToInt(Integer::intValue).toArray();
+    }
+    if (differingBuckets.isEmpty()) {
+      return 0;
+    }
+
+    bucketsExchanged.addAndGet(differingBuckets.size());
+    List<RepairEntry> theirs = peer.getEntries(differingBuckets);
+    List<RepairEntry> ours = learner.getEntries(differingBuckets);
+    int repaired = learner.repair(theirs) + peer.repair(ours);
+    keysRepaired.addAndGet(repaired);
+    LOGGER.info("AntiEntropyService " + id + " repaired " + repaired + " keys in "
+            + differingBuckets.size() + " buckets with peer.");
+    return repaired;
+  }
+
+  @Override
+  public long getRounds() {
+    return rounds.get();
+  }
+
+  @Override
+  public long getHashesCompared() {
+    return hashesCompared.get();
+  }
+
+  @Override
+  public long getBucketsExchanged() {
+    return bucketsExchanged.get();
+  }
+
+  @Override
+  public long getKeysRepaired() {
+    return keysRepaired.get();
+  }
+}
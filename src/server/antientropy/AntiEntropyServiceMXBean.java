@@ -0,0 +1,14 @@
+package server.antientropy;
+
+/**
+ * The JMX view of an {@link AntiEntropyService}'s counters.
+ */
+public interface AntiEntropyServiceMXBean {
+  long getRounds();
+
+  long getHashesCompared();
+
+  long getBucketsExchanged();
+
+  long getKeysRepaired();
+}
@@ -0,0 +1,148 @@
+package server.antientropy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An incrementally maintained Merkle tree over a key-value store.
+ * Keys are hashed into a fixed number of leaf buckets. A leaf's hash is the XOR of its entries'
+ * hashes, so one update costs one XOR at the leaf plus one hash per level up to the root,
+ * independent of the store size. Nodes are numbered heap-style: the root is 1 and node i has
+ * children 2i and 2i + 1, with the leaves at {@code leafCount .. 2 * leafCount - 1}.
+ */
+public class MerkleTree {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final int leafCount;
+  private final long[] nodes;
+  private final List<Map<String, Long>> buckets;
+
+  /**
+   * Constructs an empty tree.
+   *
+   * @param leafCount The number of leaf buckets, a power of two.
+   * @throws IllegalArgumentException If the leaf count is not a positive power of two.
+   */
+  public MerkleTree(int leafCount) {
+    if (leafCount <= 0 || Integer.bitCount(leafCount) != 1) {
+      throw new IllegalArgumentException("Leaf count must be a power of two: " + leafCount);
+    }
+    this.leafCount = leafCount;
+    this.nodes = new long[leafCount * 2];
+    this.buckets = new ArrayList<>(leafCount);
+    for (int i = 0; i < leafCount; i++) {
+      buckets.add(new HashMap<>());
+    }
+  }
+
+  /**
+   * Records the current digest of a key. A null digest marks a deleted key, which is still
+   * tracked so replicas agree on deletions too.
+   *
+   * @param key    The key.
+   * @param digest The value digest, or null if the key was deleted.
+   */
+  public synchronized void update(String key, String digest) {
+    int bucket = bucketOf(key);
+    long entryHash = entryHash(key, digest);
+    Long previous = buckets.get(bucket).put(key, entryHash);
+    long delta = entryHash ^ (previous == null ? 0 : previous);
+    if (delta == 0) {
+      return;
+    }
+    int node = leafCount + bucket;
+    nodes[node] ^= delta;
+    for (node >>= 1; node >= 1; node >>= 1) {
+      nodes[node] = combine(nodes[2 * node], nodes[2 * node + 1]);
+    }
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public synchronized void clear() {
+    Arrays.fill(nodes, 0);
+    for (Map<String, Long> bucket : buckets) {
+      bucket.clear();
+    }
+  }
+
+  /**
+   * Returns the hashes of the given nodes.
+   *
+   * @param nodeIds Heap-style node numbers.
+   * @return The node hashes, in the same order.
+   */
+  public synchronized long[] getHashes(int[] nodeIds) {
+    long[] hashes = new long[nodeIds.length];
+    for (int i = 0; i < nodeIds.length; i++) {
+      hashes[i] = nodes[nodeIds[i]];
+    }
+    return hashes;
+  }
+
+  /**
+   * Returns the root hash.
+   *
+   * @return The hash of node 1.
+   */
+  public synchronized long getRootHash() {
+    return nodes[1];
+  }
+
+  /**
+   * Returns the keys tracked in a leaf bucket, including deleted keys.
+   *
+   * @param bucket The bucket index, from 0 to leafCount - 1.
+   * @return A copy of the bucket's keys.
+   */
+  public synchronized List<String> getKeys(int bucket) {
+    return new ArrayList<>(buckets.get(bucket).keySet());
+  }
+
+  /**
+   * Returns the number of leaf buckets.
+   *
+   * @return The leaf count.
+   */
+  public int getLeafCount() {
+    return leafCount;
+  }
+
+  /**
+   * Returns the leaf bucket a key hashes to.
+   *
+   * @param key The key.
+   * @return The bucket index.
+   */
+  public int bucketOf(String key) {
+    return (int) (mix(fnv(FNV_OFFSET, key)) & (leafCount - 1));
+  }
+
+  private static long entryHash(String key, String digest) {
+    long hash = fnv(FNV_OFFSET, key);
+    hash = (hash ^ (digest == null ? 0xff : 0xfe)) * FNV_PRIME;
+    return mix(digest == null ? hash : fnv(hash, digest));
+  }
+
+  private static long combine(long left, long right) {
+    return mix(left * 31 + Long.rotateLeft(right, 17) + 1);
+  }
+
+  private static long fnv(long hash, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,139 @@
+package server.chain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable chain layout: the ordered replica IDs from head to tail, tagged with an epoch.
+ * Configurations are agreed on through Paxos and stored as a plain string value,
+ * so they travel through the existing PUT action unchanged.
+ */
+public class ChainConfiguration implements Serializable {
+  private final long epoch;
+  private final List<Integer> members;
+
+  /**
+   * Constructs a ChainConfiguration.
+   *
+   * @param epoch   The configuration epoch; every reconfiguration increments it.
+   * @param members The replica IDs in chain order, head first.
+   */
+  public ChainConfiguration(long epoch, List<Integer> members) {
+    this.epoch = epoch;
+    this.members = Collections.unmodifiableList(new ArrayList<>(members));
+  }
+
+  /**
+   * Returns the configuration epoch.
+   *
+   * @return The epoch.
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * Returns the replica IDs in chain order, head first.
+   *
+   * @return The chain members.
+   */
+  public List<Integer> getMembers() {
+    return members;
+  }
+
+  /**
+   * Returns the ID of the head replica.
+   *
+   * @return The head ID.
+   */
+  public int getHead() {
+    return members.get(0);
+  }
+
+  /**
+   * Returns the ID of the tail replica.
+   *
+   * @return The tail ID.
+   */
+  public int getTail() {
+    return members.get(members.size() - 1);
+  }
+
+  /**
+   * Returns the replica preceding the given one, or -1 if it is the head or not a member.
+   *
+   * @param replicaId The replica ID.
+   * @return The predecessor ID.
+   */
+  public int predecessorOf(int replicaId) {
+    int position = members.indexOf(replicaId);
+    return position > 0 ? members.get(position - 1) : -1;
+  }
+
+  /**
+   * Returns the replica following the given one, or -1 if it is the tail or not a member.
+   *
+   * @param replicaId The replica ID.
+   * @return The successor ID.
+   */
+  public int successorOf(int replicaId) {
+    int position = members.indexOf(replicaId);
+    return position >= 0 && position < members.size() - 1 ? members.get(position + 1) : -1;
+  }
+
+  /**
+   * Returns the next configuration, with the given replica removed.
+   *
+   * @param replicaId The replica to remove.
+   * @return The new configuration.
+   */
+  public ChainConfiguration without(int replicaId) {
+    List<Integer> remaining = new ArrayList<>(members);
+    remaining.remove(Integer.valueOf(replicaId));
+    return new ChainConfiguration(epoch + 1, remaining);
+  }
+
+  /**
+   * Encodes the configuration as {@code epoch|id,id,...} for storage under the config key.
+   *
+   * @return The encoded configuration.
+   */
+  public String encode() {
+    StringBuilder sb = new StringBuilder().append(epoch).append('|');
+    for (int i = 0; i < members.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(members.get(i));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Decodes a configuration produced by {@link #encode()}.
+   *
+   * @param encoded The encoded configuration.
+   * @return The configuration.
+   */
+  public static ChainConfiguration decode(String encoded) {
+    int separator = encoded.indexOf('|');
+    long epoch = Long.parseLong(encoded.substring(0, separator));
+    List<Integer> members = new ArrayList<>();
+    for (String id : encoded.substring(separator + 1).split(",")) {
+      if (!id.isEmpty()) {
+        members.add(Integer.parseInt(id));
+      }
+    }
+    return new ChainConfiguration(epoch, members);
+  }
+
+  @Override
+  public String toString() {
+    return "ChainConfiguration{" +
+            "epoch=" + epoch +
+            ", members=" + members +
+            '}';
+  }
+}
@@ -0,0 +1,55 @@
+package server.chain;
+
+import server.failure.PhiAccrualFailureDetector;
+import util.LoggerUtil;
+
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Watches a chain node's predecessor and successor through the replica's failure detector, and
+ * has the node report a neighbor as failed once the detector suspects it. Writes forwarded
+ * in-process never fail on their own, so this is how a silent node, the head included, gets
+ * removed from the chain. The monitor stays quiet while its own replica is down.
+ */
+public class ChainMonitor extends Thread {
+  private static final Logger LOGGER = Logger.getLogger(ChainMonitor.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final ChainNode chainNode;
+  private final PhiAccrualFailureDetector failureDetector;
+  private final BooleanSupplier alive;
+
+  /**
+   * Constructs a ChainMonitor.
+   *
+   * @param chainNode       The node whose neighbors are watched.
+   * @param failureDetector The detector fed by the other replicas' heartbeats.
+   * @param alive           Reports whether this node's replica is currently up.
+   */
+  public ChainMonitor(ChainNode chainNode, PhiAccrualFailureDetector failureDetector, BooleanSupplier alive) {
+    this.chainNode = chainNode;
+    this.failureDetector = failureDetector;
+    this.alive = alive;
+    setName("ChainMonitor-" + chainNode.getNodeId());
+    setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    LOGGER.info("ChainMonitor " + chainNode.getNodeId() + " is now running.");
+    while (!isInterrupted()) {
+      if (alive.getAsBoolean()) {
+        chainNode.checkNeighbors(id -> !failureDetector.isAvailable(String.valueOf(id)));
+      }
+      try {
+        Thread.sleep(PhiAccrualFailureDetector.HEARTBEAT_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package server.chain;
+
+import remote.VersionedValue;
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.VersionedStore;
+import server.messages.ChainWrite;
+import util.LoggerUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.logging.Logger;
+
+/**
+ * One link of a replication chain. The head orders writes and hands them to its successor,
+ * every node applies them in order and passes them on, and the tail acknowledges them back
+ * up the chain. Because the tail only holds acknowledged writes, reads served there are
+ * linearizable without any coordination.
+ * Each node forwards through its own single-threaded executor, so a write is passed on as soon
+ * as it is applied and several writes are in flight along the chain at once.
+ * Every node applies the writes in the head's order, so read-modify-write actions such as
+ * compare-and-set reach the same outcome on every node.
+ */
+public class ChainNode {
+  private static final Logger LOGGER = Logger.getLogger(ChainNode.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final int id;
+  private final Map<String, String> keyValueStore;
+  private final VersionedStore store;
+  private final ExecutorService forwarder;
+  private final IntConsumer onNeighborFailure;
+
+  private Map<Integer, ChainNode> directory = new HashMap<>();
+  private ChainNode predecessor;
+  private ChainNode successor;
+
+  private long nextSequenceNumber = 0;
+  private long lastAppliedSequenceNumber = 0;
+  // Writes passed downstream that the tail has not yet acknowledged
+  private final NavigableMap<Long, ChainWrite> pending = new TreeMap<>();
+  // Head only: completion signals for writes submitted at this node
+  private final NavigableMap<Long, CompletableFuture<Boolean>> waiting = new TreeMap<>();
+
+  /**
+   * Constructs a ChainNode.
+   *
+   * @param id                The ID of this node (usually the replica/server ID).
+   * @param keyValueStore     The store writes are applied to.
+   * @param onNeighborFailure Called with the ID of a neighbor that cannot be reached or is suspected.
+   */
+  public ChainNode(int id, Map<String, String> keyValueStore, IntConsumer onNeighborFailure) {
+    this.id = id;
+    this.keyValueStore = keyValueStore;
+    this.store = new VersionedStore(keyValueStore);
+    this.onNeighborFailure = onNeighborFailure;
+    this.forwarder = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "ChainForwarder-" + id);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Sets the lookup from replica ID to chain node for the whole cluster.
+   *
+   * @param directory All chain nodes keyed by replica ID.
+   */
+  public synchronized void setDirectory(Map<Integer, ChainNode> directory) {
+    this.directory = new HashMap<>(directory);
+  }
+
+  /**
+   * Returns the ID of this node.
+   *
+   * @return The node ID.
+   */
+  public int getNodeId() {
+    return id;
+  }
+
+  /**
+   * Adopts a new chain layout. Writes not yet acknowledged are re-sent to a new successor,
+   * and a node that has just become the tail acknowledges them itself.
+   *
+   * @param configuration The chain layout to adopt.
+   */
+  public synchronized void reconfigure(ChainConfiguration configuration) {
+    ChainNode oldSuccessor = successor;
+    predecessor = directory.get(configuration.predecessorOf(id));
+    successor = directory.get(configuration.successorOf(id));
+
+    if (predecessor == null) {
+      nextSequenceNumber = Math.max(nextSequenceNumber, lastAppliedSequenceNumber);
+    }
+    if (pending.isEmpty() || successor == oldSuccessor) {
+      return;
+    }
+    if (successor == null) {
+      LOGGER.info("ChainNode " + id + " became tail; acknowledging " + pending.size() + " pending writes.");
+      long last = pending.lastKey();
+      forwarder.execute(() -> acknowledge(last));
+    } else {
+      LOGGER.info("ChainNode " + id + " re-sending " + pending.size() + " pending writes to " + successor.getNodeId());
+      for (ChainWrite write : pending.values()) {
+        forward(successor, write);
+      }
+    }
+  }
+
+  /**
+   * Orders, applies and sends a write down the chain. Must be called on the head.
+   *
+   * @param action PUT/DELETE of a certain key value pair, or a read-modify-write action.
+   * @return A future completed with true once the tail has acknowledged the write.
+   */
+  public synchronized CompletableFuture<Boolean> write(Action action) {
+    CompletableFuture<Boolean> done = new CompletableFuture<>();
+    if (predecessor != null) {
+      done.complete(false); // not the head
+      return done;
+    }
+    ChainWrite write = new ChainWrite(++nextSequenceNumber, action);
+    waiting.put(write.getSequenceNumber(), done);
+    accept(write);
+    return done;
+  }
+
+  /**
+   * Receives a write from the predecessor, applies it and passes it on.
+   *
+   * @param write The write to apply.
+   */
+  public synchronized void propagate(ChainWrite write) {
+    if (write.getSequenceNumber() <= lastAppliedSequenceNumber) {
+      if (successor == null) {
+        // Duplicate re-sent after a reconfiguration; the tail still owes the acknowledgement
+        long sequenceNumber = write.getSequenceNumber();
+        forwarder.execute(() -> acknowledgeUpstream(sequenceNumber));
+      }
+      return;
+    }
+    accept(write);
+  }
+
+  /**
+   * Receives an acknowledgement from the successor: every write up to the sequence number
+   * has reached the tail.
+   *
+   * @param sequenceNumber The highest acknowledged sequence number.
+   */
+  public void acknowledge(long sequenceNumber) {
+    ChainNode upstream;
+    synchronized (this) {
+      pending.headMap(sequenceNumber, true).clear();
+      NavigableMap<Long, CompletableFuture<Boolean>> acknowledged = waiting.headMap(sequenceNumber, true);
+      for (CompletableFuture<Boolean> done : acknowledged.values()) {
+        done.complete(true);
+      }
+      acknowledged.clear();
+      upstream = predecessor;
+    }
+    if (upstream != null) {
+      upstream.acknowledge(sequenceNumber);
+    }
+  }
+
+  /**
+   * Reads a value from this node's local store.
+   *
+   * @param key The key to read.
+   * @return The value, or null if absent.
+   */
+  public String read(String key) {
+    return keyValueStore.get(key);
+  }
+
+  /**
+   * Reads a value from this node's local store together with its version.
+   *
+   * @param key The key to read.
+   * @return The value and version.
+   */
+  public synchronized VersionedValue readVersioned(String key) {
+    return store.getVersioned(key);
+  }
+
+  /**
+   * Returns the outcome of a read-modify-write request this node has applied.
+   *
+   * @param requestId The request ID.
+   * @return The outcome, or null if the request has not been applied here.
+   */
+  public synchronized ActionResult getResult(long requestId) {
+    return store.getResult(requestId);
+  }
+
+  /**
+   * Reports the predecessor and successor as failed if they are suspected. Watching both sides
+   * means a failed head is reported by the node after it, and a failed tail by the node before it.
+   * Called periodically by the {@link ChainMonitor}, outside this node's monitor, since handling a
+   * failure reconfigures the chain.
+   *
+   * @param suspected Tells whether a replica ID is suspected to have failed.
+   * @return The number of neighbors reported as failed.
+   */
+  public int checkNeighbors(IntPredicate suspected) {
+    ChainNode previous;
+    ChainNode next;
+    synchronized (this) {
+      previous = predecessor;
+      next = successor;
+    }
+    int reported = 0;
+    for (ChainNode neighbor : new ChainNode[] {previous, next}) {
+      if (neighbor != null && suspected.test(neighbor.getNodeId())) {
+        LOGGER.warning("ChainNode " + id + " suspects neighbor " + neighbor.getNodeId() + " has failed.");
+        onNeighborFailure.accept(neighbor.getNodeId());
+        reported++;
+      }
+    }
+    return reported;
+  }
+
+  /**
+   * Applies the write and hands it to the successor, or acknowledges it if this is the tail.
+   * Must be called while holding this node's monitor.
+   */
+  private void accept(ChainWrite write) {
+    store.apply(write.getAction());
+    lastAppliedSequenceNumber = write.getSequenceNumber();
+    if (successor == null) {
+      long sequenceNumber = write.getSequenceNumber();
+      forwarder.execute(() -> acknowledge(sequenceNumber));
+      return;
+    }
+    pending.put(write.getSequenceNumber(), write);
+    forward(successor, write);
+  }
+
+  private void acknowledgeUpstream(long sequenceNumber) {
+    ChainNode upstream;
+    synchronized (this) {
+      upstream = predecessor;
+    }
+    if (upstream != null) {
+      upstream.acknowledge(sequenceNumber);
+    }
+  }
+
+  private void forward(ChainNode target, ChainWrite write) {
+    forwarder.execute(() -> {
+      try {
+        target.propagate(write);
+      } catch (RuntimeException e) {
+        LOGGER.warning("ChainNode " + id + " could not reach successor " + target.getNodeId() + ": " + e.getMessage());
+        onNeighborFailure.accept(target.getNodeId());
+      }
+    });
+  }
+}
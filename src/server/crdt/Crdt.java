@@ -0,0 +1,33 @@
+package server.crdt;
+
+import java.io.Serializable;
+
+/**
+ * A state-based conflict-free replicated data type.
+ * Replicas update their own copy locally and exchange states or deltas; merging is
+ * commutative, associative and idempotent, so every replica converges to the same value
+ * regardless of the order or number of times merges happen.
+ */
+public interface Crdt extends Serializable {
+
+  /**
+   * Joins another state (full or delta) of the same type into this one.
+   *
+   * @param other The state to merge in. It is read but never retained.
+   */
+  void merge(Crdt other);
+
+  /**
+   * Returns an independent deep copy of this state.
+   *
+   * @return The copy.
+   */
+  Crdt copy();
+
+  /**
+   * Returns the value clients see for this state.
+   *
+   * @return The value as a string, or null if it has none.
+   */
+  String value();
+}
@@ -0,0 +1,73 @@
+package server.crdt;
+
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Periodically ships a replica's buffered CRDT deltas to every peer. Every few rounds it
+ * sends its full state instead, which repairs any delta a peer missed.
+ */
+public class CrdtGossiper extends Thread {
+  private static final Logger LOGGER = Logger.getLogger(CrdtGossiper.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private static final long GOSSIP_INTERVAL_MS = 50;
+  private static final int FULL_SYNC_ROUNDS = 40;
+
+  private final int id;
+  private final CrdtStore store;
+  private volatile List<CrdtStore> peers = new ArrayList<>();
+
+  /**
+   * Constructs a CrdtGossiper.
+   *
+   * @param id    The ID of the owning replica.
+   * @param store The replica's CRDT store.
+   */
+  public CrdtGossiper(int id, CrdtStore store) {
+    this.id = id;
+    this.store = store;
+    setName("CrdtGossiper-" + id);
+    setDaemon(true);
+  }
+
+  /**
+   * Sets the CRDT stores of all other replicas.
+   *
+   * @param peers The peer stores.
+   */
+  public void setPeers(List<CrdtStore> peers) {
+    this.peers = new ArrayList<>(peers);
+  }
+
+  @Override
+  public void run() {
+    LOGGER.info("CrdtGossiper " + id + " is now running.");
+    long round = 0;
+    while (!isInterrupted()) {
+      try {
+        Thread.sleep(GOSSIP_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        break;
+      }
+      round++;
+      Map<String, Crdt> updates = store.drainDeltas();
+      if (round % FULL_SYNC_ROUNDS == 0) {
+        updates = store.snapshot(); // supersedes the drained deltas
+      }
+      if (updates.isEmpty()) {
+        continue;
+      }
+      for (CrdtStore peer : peers) {
+        peer.mergeAll(updates);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package server.crdt;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides which keys bypass consensus and are stored as CRDTs.
+ * Each rule maps a key prefix to a CRDT type; a full key works as a prefix too, so the
+ * mode can be chosen per key or per namespace. The longest matching prefix wins.
+ */
+public class CrdtNamespaces {
+  private final Map<String, CrdtType> prefixes;
+
+  /**
+   * Constructs CrdtNamespaces from prefix rules.
+   *
+   * @param prefixes The CRDT type for each key prefix.
+   */
+  public CrdtNamespaces(Map<String, CrdtType> prefixes) {
+    this.prefixes = Collections.unmodifiableMap(new LinkedHashMap<>(prefixes));
+  }
+
+  /**
+   * Returns namespaces with no CRDT keys; every key goes through consensus.
+   *
+   * @return The empty namespaces.
+   */
+  public static CrdtNamespaces none() {
+    return new CrdtNamespaces(Collections.emptyMap());
+  }
+
+  /**
+   * Parses rules of the form {@code prefix=type,prefix=type}, e.g.
+   * {@code counter:=pn_counter,tags:=or_set,profile:42=lww_register}.
+   *
+   * @param spec The rules; null or empty means no CRDT keys.
+   * @return The parsed namespaces.
+   * @throws IllegalArgumentException If a rule is malformed or names an unknown type.
+   */
+  public static CrdtNamespaces parse(String spec) {
+    Map<String, CrdtType> prefixes = new LinkedHashMap<>();
+    if (spec != null && !spec.isEmpty()) {
+      for (String rule : spec.split(",")) {
+        int separator = rule.lastIndexOf('=');
+        if (separator <= 0) {
+          throw new IllegalArgumentException("Invalid CRDT rule: " + rule + " (expected prefix=type)");
+        }
+        prefixes.put(rule.substring(0, separator), CrdtType.fromName(rule.substring(separator + 1)));
+      }
+    }
+    return new CrdtNamespaces(prefixes);
+  }
+
+  /**
+   * Returns the CRDT type for a key.
+   *
+   * @param key The key.
+   * @return The type of the longest matching prefix, or null if the key uses consensus.
+   */
+  public CrdtType typeOf(String key) {
+    if (key == null) {
+      return null;
+    }
+    CrdtType match = null;
+    int matchLength = -1;
+    for (Map.Entry<String, CrdtType> rule : prefixes.entrySet()) {
+      if (key.startsWith(rule.getKey()) && rule.getKey().length() > matchLength) {
+        match = rule.getValue();
+        matchLength = rule.getKey().length();
+      }
+    }
+    return match;
+  }
+
+  /**
+   * Returns whether any key is configured as a CRDT.
+   *
+   * @return True if at least one rule exists.
+   */
+  public boolean isEmpty() {
+    return prefixes.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "CrdtNamespaces" + prefixes;
+  }
+}
@@ -0,0 +1,108 @@
+package server.crdt;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A replica's CRDT-backed keys. Updates are applied to local state immediately and their
+ * deltas are buffered until the next gossip round ships them to peers.
+ */
+public class CrdtStore {
+  private final int replicaId;
+  private final Map<String, Crdt> states = new ConcurrentHashMap<>();
+  private final Object deltaLock = new Object();
+  private Map<String, Crdt> pendingDeltas = new HashMap<>();
+
+  /**
+   * Constructs a CrdtStore.
+   *
+   * @param replicaId The ID of the owning replica, used to attribute local updates.
+   */
+  public CrdtStore(int replicaId) {
+    this.replicaId = replicaId;
+  }
+
+  /**
+   * Applies a PUT to a CRDT key.
+   *
+   * @param key   The key.
+   * @param type  The CRDT type of the key.
+   * @param value The PUT value, interpreted per type.
+   * @throws IllegalArgumentException If the value is not valid for the type.
+   */
+  public void put(String key, CrdtType type, String value) {
+    Crdt state = states.computeIfAbsent(key, k -> type.create());
+    bufferDelta(key, type.put(state, replicaId, value));
+  }
+
+  /**
+   * Applies a DELETE to a CRDT key.
+   *
+   * @param key  The key.
+   * @param type The CRDT type of the key.
+   */
+  public void delete(String key, CrdtType type) {
+    Crdt state = states.computeIfAbsent(key, k -> type.create());
+    bufferDelta(key, type.delete(state, replicaId));
+  }
+
+  /**
+   * Returns the current value of a CRDT key.
+   *
+   * @param key The key.
+   * @return The value, or null if the key has never been updated.
+   */
+  public String get(String key) {
+    Crdt state = states.get(key);
+    return state == null ? null : state.value();
+  }
+
+  /**
+   * Merges deltas or full states received from a peer.
+   *
+   * @param updates The states keyed by key.
+   */
+  public void mergeAll(Map<String, Crdt> updates) {
+    updates.forEach((key, update) -> states.compute(key, (k, state) -> {
+      if (state == null) {
+        return update.copy();
+      }
+      state.merge(update);
+      return state;
+    }));
+  }
+
+  /**
+   * Returns the deltas buffered since the last call and starts a new buffer.
+   *
+   * @return The buffered deltas keyed by key.
+   */
+  public Map<String, Crdt> drainDeltas() {
+    synchronized (deltaLock) {
+      Map<String, Crdt> drained = pendingDeltas;
+      pendingDeltas = new HashMap<>();
+      return drained;
+    }
+  }
+
+  /**
+   * Returns a copy of every state, used for periodic full synchronization.
+   *
+   * @return The copied states keyed by key.
+   */
+  public Map<String, Crdt> snapshot() {
+    Map<String, Crdt> copy = new HashMap<>();
+    states.forEach((key, state) -> copy.put(key, state.copy()));
+    return copy;
+  }
+
+  private void bufferDelta(String key, Crdt delta) {
+    synchronized (deltaLock) {
+      pendingDeltas.merge(key, delta, (buffered, next) -> {
+        buffered.merge(next);
+        return buffered;
+      });
+    }
+  }
+}
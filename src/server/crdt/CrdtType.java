@@ -0,0 +1,116 @@
+package server.crdt;
+
+/**
+ * The CRDT-backed key types and how PUT and DELETE map onto each of them.
+ * <ul>
+ *   <li>PN_COUNTER: PUT adds the signed integer value (e.g. "5" or "-2"); DELETE resets to zero,
+ *       keeping updates the reset has not observed.</li>
+ *   <li>OR_SET: PUT "x" or "+x" adds x, PUT "-x" removes x; DELETE removes every element.
+ *       GET returns the sorted elements joined by commas.</li>
+ *   <li>LWW_REGISTER: PUT assigns the value; DELETE clears it. The latest write wins.</li>
+ * </ul>
+ */
+public enum CrdtType {
+  PN_COUNTER {
+    @Override
+    public Crdt create() {
+      return new PNCounter();
+    }
+
+    @Override
+    public Crdt put(Crdt state, int replicaId, String value) {
+      long delta;
+      try {
+        delta = Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Counter update must be an integer: " + value);
+      }
+      return ((PNCounter) state).add(replicaId, delta);
+    }
+
+    @Override
+    public Crdt delete(Crdt state, int replicaId) {
+      return ((PNCounter) state).reset();
+    }
+  },
+  OR_SET {
+    @Override
+    public Crdt create() {
+      return new ORSet();
+    }
+
+    @Override
+    public Crdt put(Crdt state, int replicaId, String value) {
+      ORSet set = (ORSet) state;
+      if (value.startsWith("-")) {
+        return set.remove(value.substring(1));
+      }
+      return set.add(replicaId, value.startsWith("+") ? value.substring(1) : value);
+    }
+
+    @Override
+    public Crdt delete(Crdt state, int replicaId) {
+      return ((ORSet) state).clear();
+    }
+  },
+  LWW_REGISTER {
+    @Override
+    public Crdt create() {
+      return new LWWRegister();
+    }
+
+    @Override
+    public Crdt put(Crdt state, int replicaId, String value) {
+      return ((LWWRegister) state).assign(replicaId, value);
+    }
+
+    @Override
+    public Crdt delete(Crdt state, int replicaId) {
+      return ((LWWRegister) state).assign(replicaId, null);
+    }
+  };
+
+  /**
+   * Creates an empty state of this type.
+   *
+   * @return The new state.
+   */
+  public abstract Crdt create();
+
+  /**
+   * Applies a PUT to the local state.
+   *
+   * @param state     The local state, updated in place.
+   * @param replicaId The replica applying the update.
+   * @param value     The PUT value, interpreted per type.
+   * @return The delta state to gossip to peers.
+   * @throws IllegalArgumentException If the value is not valid for this type.
+   */
+  public abstract Crdt put(Crdt state, int replicaId, String value);
+
+  /**
+   * Applies a DELETE to the local state.
+   *
+   * @param state     The local state, updated in place.
+   * @param replicaId The replica applying the update.
+   * @return The delta state to gossip to peers.
+   */
+  public abstract Crdt delete(Crdt state, int replicaId);
+
+  /**
+   * Looks up a type by its case-insensitive name, accepting '-' in place of '_'.
+   *
+   * @param name The type name, e.g. "pn_counter" or "or-set".
+   * @return The matching type.
+   * @throws IllegalArgumentException If no type has that name.
+   */
+  public static CrdtType fromName(String name) {
+    String normalized = name.trim().replace('-', '_');
+    for (CrdtType type : values()) {
+      if (type.name().equalsIgnoreCase(normalized)) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown CRDT type: " + name);
+  }
+}
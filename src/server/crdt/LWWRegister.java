@@ -0,0 +1,61 @@
+package server.crdt;
+
+/**
+ * A last-writer-wins register. The assignment with the highest timestamp wins,
+ * with the replica ID breaking ties so every replica picks the same winner.
+ */
+public class LWWRegister implements Crdt {
+  private String value;
+  private long timestamp = -1;
+  private int replicaId = -1;
+
+  /**
+   * Assigns a value on behalf of a replica. The timestamp is the wall clock, bumped past
+   * the current one if needed so a local write always supersedes what this replica has seen.
+   *
+   * @param replicaId The replica applying the update.
+   * @param newValue  The value to assign, or null to clear the register.
+   * @return The delta state holding the assignment.
+   */
+  public synchronized LWWRegister assign(int replicaId, String newValue) {
+    long stamp = Math.max(System.currentTimeMillis(), timestamp + 1);
+    LWWRegister change = new LWWRegister();
+    change.value = newValue;
+    change.timestamp = stamp;
+    change.replicaId = replicaId;
+    merge(change);
+    return change;
+  }
+
+  @Override
+  public synchronized void merge(Crdt other) {
+    LWWRegister register = (LWWRegister) other;
+    synchronized (register) {
+      if (register.timestamp > timestamp
+              || (register.timestamp == timestamp && register.replicaId > replicaId)) {
+        value = register.value;
+        timestamp = register.timestamp;
+        replicaId = register.replicaId;
+      }
+    }
+  }
+
+  @Override
+  public synchronized Crdt copy() {
+    LWWRegister copy = new LWWRegister();
+    copy.value = value;
+    copy.timestamp = timestamp;
+    copy.replicaId = replicaId;
+    return copy;
+  }
+
+  @Override
+  public synchronized String value() {
+    return value;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LWWRegister [value=" + value + ", timestamp=" + timestamp + ", replicaId=" + replicaId + "]";
+  }
+}
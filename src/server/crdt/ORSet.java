@@ -0,0 +1,111 @@
+package server.crdt;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An observed-remove set with add-wins semantics. Every add is tagged uniquely; a remove
+ * only tombstones the tags it has observed, so a concurrent add of the same element survives.
+ */
+public class ORSet implements Crdt {
+  private static final AtomicLong TAG_COUNTER = new AtomicLong();
+
+  private final Map<String, Set<String>> addTags = new HashMap<>();
+  private final Set<String> removedTags = new HashSet<>();
+
+  /**
+   * Adds an element on behalf of a replica.
+   *
+   * @param replicaId The replica applying the update.
+   * @param element   The element to add.
+   * @return The delta state holding the new tag.
+   */
+  public synchronized ORSet add(int replicaId, String element) {
+    String tag = replicaId + ":" + TAG_COUNTER.incrementAndGet();
+    addTags.computeIfAbsent(element, e -> new HashSet<>()).add(tag);
+
+    ORSet change = new ORSet();
+    change.addTags.computeIfAbsent(element, e -> new HashSet<>()).add(tag);
+    return change;
+  }
+
+  /**
+   * Removes an element by tombstoning every tag observed for it.
+   *
+   * @param element The element to remove.
+   * @return The delta state holding the tombstones.
+   */
+  public synchronized ORSet remove(String element) {
+    ORSet change = new ORSet();
+    Set<String> observed = addTags.get(element);
+    if (observed != null) {
+      removedTags.addAll(observed);
+      change.removedTags.addAll(observed);
+    }
+    return change;
+  }
+
+  /**
+   * Removes every element currently in the set.
+   *
+   * @return The delta state holding the tombstones.
+   */
+  public synchronized ORSet clear() {
+    ORSet change = new ORSet();
+    for (Set<String> tags : addTags.values()) {
+      removedTags.addAll(tags);
+      change.removedTags.addAll(tags);
+    }
+    return change;
+  }
+
+  /**
+   * Returns the elements currently in the set, sorted.
+   *
+   * @return The live elements.
+   */
+  public synchronized Set<String> elements() {
+    Set<String> live = new TreeSet<>();
+    addTags.forEach((element, tags) -> {
+      for (String tag : tags) {
+        if (!removedTags.contains(tag)) {
+          live.add(element);
+          break;
+        }
+      }
+    });
+    return live;
+  }
+
+  @Override
+  public synchronized void merge(Crdt other) {
+    ORSet set = (ORSet) other;
+    synchronized (set) {
+      set.addTags.forEach((element, tags) ->
+              addTags.computeIfAbsent(element, e -> new HashSet<>()).addAll(tags));
+      removedTags.addAll(set.removedTags);
+    }
+  }
+
+  @Override
+  public synchronized Crdt copy() {
+    ORSet copy = new ORSet();
+    addTags.forEach((element, tags) -> copy.addTags.put(element, new HashSet<>(tags)));
+    copy.removedTags.addAll(removedTags);
+    return copy;
+  }
+
+  @Override
+  public String value() {
+    return String.join(",", elements());
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ORSet [addTags=" + addTags + ", removedTags=" + removedTags + "]";
+  }
+}
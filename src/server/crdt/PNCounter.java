@@ -0,0 +1,112 @@
+package server.crdt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A positive-negative counter. Each replica only ever grows its own increment and
+ * decrement totals; the value is the sum of all increments minus all decrements.
+ * A reset works like an observed remove: it records the totals it has seen as a floor, and
+ * only the amounts above the floor count. Concurrent resets merge to the higher floor, so
+ * they cancel the same updates once instead of each subtracting the count it saw, and an
+ * update a reset did not observe survives it.
+ */
+public class PNCounter implements Crdt {
+  private final Map<Integer, Long> increments = new HashMap<>();
+  private final Map<Integer, Long> decrements = new HashMap<>();
+  private final Map<Integer, Long> resetIncrements = new HashMap<>();
+  private final Map<Integer, Long> resetDecrements = new HashMap<>();
+
+  /**
+   * Adds a signed amount on behalf of a replica.
+   *
+   * @param replicaId The replica applying the update.
+   * @param delta     The amount to add; negative values decrement.
+   * @return The delta state holding this replica's new totals.
+   * @throws IllegalArgumentException If the amount is Long.MIN_VALUE, or the replica's total
+   *                                  would overflow.
+   */
+  public synchronized PNCounter add(int replicaId, long delta) {
+    if (delta == Long.MIN_VALUE) {
+      throw new IllegalArgumentException("Counter update out of range: " + delta);
+    }
+    Map<Integer, Long> totals = delta >= 0 ? increments : decrements;
+    long total;
+    try {
+      total = Math.addExact(totals.getOrDefault(replicaId, 0L), Math.abs(delta));
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Counter total would overflow: " + delta);
+    }
+    totals.put(replicaId, total);
+
+    PNCounter change = new PNCounter();
+    (delta >= 0 ? change.increments : change.decrements).put(replicaId, total);
+    return change;
+  }
+
+  /**
+   * Resets the count to zero by raising the floor to every total this replica has observed.
+   *
+   * @return The delta state holding the observed totals and the new floor.
+   */
+  public synchronized PNCounter reset() {
+    resetIncrements.putAll(increments);
+    resetDecrements.putAll(decrements);
+
+    // The totals travel with the floor so no peer ever holds a floor above its totals
+    PNCounter change = new PNCounter();
+    change.increments.putAll(increments);
+    change.decrements.putAll(decrements);
+    change.resetIncrements.putAll(increments);
+    change.resetDecrements.putAll(decrements);
+    return change;
+  }
+
+  /**
+   * Returns the current count.
+   *
+   * @return The sum of increments minus the sum of decrements made since the last observed reset.
+   */
+  public synchronized long count() {
+    long total = 0;
+    for (Map.Entry<Integer, Long> entry : increments.entrySet()) {
+      total += entry.getValue() - resetIncrements.getOrDefault(entry.getKey(), 0L);
+    }
+    for (Map.Entry<Integer, Long> entry : decrements.entrySet()) {
+      total -= entry.getValue() - resetDecrements.getOrDefault(entry.getKey(), 0L);
+    }
+    return total;
+  }
+
+  @Override
+  public synchronized void merge(Crdt other) {
+    PNCounter counter = (PNCounter) other;
+    synchronized (counter) {
+      counter.increments.forEach((id, value) -> increments.merge(id, value, Math::max));
+      counter.decrements.forEach((id, value) -> decrements.merge(id, value, Math::max));
+      counter.resetIncrements.forEach((id, value) -> resetIncrements.merge(id, value, Math::max));
+      counter.resetDecrements.forEach((id, value) -> resetDecrements.merge(id, value, Math::max));
+    }
+  }
+
+  @Override
+  public synchronized Crdt copy() {
+    PNCounter copy = new PNCounter();
+    copy.increments.putAll(increments);
+    copy.decrements.putAll(decrements);
+    copy.resetIncrements.putAll(resetIncrements);
+    copy.resetDecrements.putAll(resetDecrements);
+    return copy;
+  }
+
+  @Override
+  public String value() {
+    return String.valueOf(count());
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "PNCounter [increments=" + increments + ", decrements=" + decrements
+            + ", resetIncrements=" + resetIncrements + ", resetDecrements=" + resetDecrements + "]";
+  }
+}
@@ -0,0 +1,71 @@
+package server.failure;
+
+/**
+ * An immutable window of the most recent heartbeat inter-arrival times for one node.
+ * Each heartbeat produces a new history, so readers never see a half-updated window.
+ */
+final class HeartbeatHistory {
+  private final long[] intervals;
+  private final int size;
+  private final int next;
+  private final long sum;
+  private final long squaredSum;
+  private final long lastHeartbeatMillis;
+
+  private HeartbeatHistory(long[] intervals, int size, int next, long sum, long squaredSum,
+                           long lastHeartbeatMillis) {
+    this.intervals = intervals;
+    this.size = size;
+    this.next = next;
+    this.sum = sum;
+    this.squaredSum = squaredSum;
+    this.lastHeartbeatMillis = lastHeartbeatMillis;
+  }
+
+  /**
+   * Starts a history from a node's first heartbeat, seeded with an estimated interval so
+   * suspicion is meaningful before real samples arrive.
+   */
+  static HeartbeatHistory first(int windowSize, long nowMillis, long estimatedIntervalMillis) {
+    HeartbeatHistory empty = new HeartbeatHistory(new long[windowSize], 0, 0, 0, 0, nowMillis);
+    HeartbeatHistory seeded = empty.withInterval(estimatedIntervalMillis, nowMillis);
+    // Two samples around the estimate give a non-zero initial deviation
+    return seeded.withInterval(estimatedIntervalMillis + estimatedIntervalMillis / 4, nowMillis);
+  }
+
+  /**
+   * Returns the history after a heartbeat arriving at the given time.
+   */
+  HeartbeatHistory heartbeat(long nowMillis) {
+    return withInterval(nowMillis - lastHeartbeatMillis, nowMillis);
+  }
+
+  private HeartbeatHistory withInterval(long interval, long nowMillis) {
+    long[] copy = intervals.clone();
+    long newSum = sum + interval;
+    long newSquaredSum = squaredSum + interval * interval;
+    int newSize = size;
+    if (size == copy.length) {
+      long evicted = copy[next];
+      newSum -= evicted;
+      newSquaredSum -= evicted * evicted;
+    } else {
+      newSize++;
+    }
+    copy[next] = interval;
+    return new HeartbeatHistory(copy, newSize, (next + 1) % copy.length, newSum, newSquaredSum, nowMillis);
+  }
+
+  double mean() {
+    return (double) sum / size;
+  }
+
+  double variance() {
+    double mean = mean();
+    return Math.max(0, (double) squaredSum / size - mean * mean);
+  }
+
+  long lastHeartbeatMillis() {
+    return lastHeartbeatMillis;
+  }
+}
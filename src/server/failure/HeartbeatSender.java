@@ -0,0 +1,79 @@
+package server.failure;
+
+import server.fault.FaultInjector;
+import server.fault.MessageType;
+import util.LoggerUtil;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Periodically announces that a replica is alive to every failure detector watching it.
+ * Heartbeats stop while the replica reports itself down, e.g. while its acceptor has crashed.
+ */
+public class HeartbeatSender extends Thread {
+  private static final Logger LOGGER = Logger.getLogger(HeartbeatSender.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final int nodeId;
+  private final String nodeName;
+  private final BooleanSupplier alive;
+  private final List<PhiAccrualFailureDetector> detectors = new CopyOnWriteArrayList<>();
+  private volatile FaultInjector faultInjector = FaultInjector.NONE;
+
+  /**
+   * Constructs a HeartbeatSender.
+   *
+   * @param nodeId The ID of the replica sending heartbeats.
+   * @param alive  Reports whether the replica is currently up.
+   */
+  public HeartbeatSender(int nodeId, BooleanSupplier alive) {
+    this.nodeId = nodeId;
+    this.nodeName = String.valueOf(nodeId);
+    this.alive = alive;
+    setName("HeartbeatSender-" + nodeId);
+    setDaemon(true);
+  }
+
+  /**
+   * Adds a failure detector that should receive this replica's heartbeats.
+   *
+   * @param detector The detector.
+   */
+  public void addDetector(PhiAccrualFailureDetector detector) {
+    detectors.add(detector);
+  }
+
+  /**
+   * Sets the fault injector that may drop or delay heartbeats.
+   *
+   * @param faultInjector The fault injector.
+   */
+  public void setFaultInjector(FaultInjector faultInjector) {
+    this.faultInjector = faultInjector;
+  }
+
+  @Override
+  public void run() {
+    LOGGER.info("HeartbeatSender " + nodeId + " is now running.");
+    while (!isInterrupted()) {
+      if (alive.getAsBoolean()) {
+        for (PhiAccrualFailureDetector detector : detectors) {
+          if (FaultInjector.deliver(faultInjector, MessageType.HEARTBEAT, nodeId, detector.getOwnerId())) {
+            detector.heartbeat(nodeName);
+          }
+        }
+      }
+      try {
+        Thread.sleep(PhiAccrualFailureDetector.HEARTBEAT_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+  }
+}
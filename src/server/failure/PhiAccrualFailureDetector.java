@@ -0,0 +1,116 @@
+package server.failure;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A phi-accrual failure detector (Hayashibara et al.). Instead of a yes/no answer, it reports a
+ * suspicion level phi that grows the longer a node stays silent relative to the heartbeat
+ * intervals observed so far: phi = 1 means a ~10% chance the next heartbeat is merely late,
+ * phi = 2 a ~1% chance, and so on. A node is suspected once phi crosses the threshold.
+ *
+ * <p>Heartbeats and queries never lock. Each node's interval statistics are an immutable
+ * {@link HeartbeatHistory} swapped in with compare-and-set, so the Proposer and LoadBalancer
+ * can consult the detector on every request.
+ */
+public class PhiAccrualFailureDetector {
+  public static final double DEFAULT_THRESHOLD = 8.0;
+  public static final long HEARTBEAT_INTERVAL_MS = 100;
+
+  private static final int WINDOW_SIZE = 100;
+  private static final double MIN_STD_DEVIATION_MS = 20;
+  private static final long ACCEPTABLE_PAUSE_MS = 200;
+
+  private final int ownerId;
+  private final double threshold;
+  private final Map<String, AtomicReference<HeartbeatHistory>> histories = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a detector with the default threshold.
+   *
+   * @param ownerId The ID of the node running this detector.
+   */
+  public PhiAccrualFailureDetector(int ownerId) {
+    this(ownerId, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Constructs a detector.
+   *
+   * @param ownerId   The ID of the node running this detector.
+   * @param threshold The phi value from which a node is suspected.
+   */
+  public PhiAccrualFailureDetector(int ownerId, double threshold) {
+    this.ownerId = ownerId;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Returns the ID of the node running this detector, i.e. where heartbeats are delivered.
+   *
+   * @return The owner's node ID.
+   */
+  public int getOwnerId() {
+    return ownerId;
+  }
+
+  /**
+   * Records a heartbeat from a node.
+   *
+   * @param nodeId The ID of the node the heartbeat came from.
+   */
+  public void heartbeat(String nodeId) {
+    long now = System.currentTimeMillis();
+    AtomicReference<HeartbeatHistory> history = histories.get(nodeId);
+    if (history == null) {
+      history = histories.computeIfAbsent(nodeId,
+              id -> new AtomicReference<>(HeartbeatHistory.first(WINDOW_SIZE, now, HEARTBEAT_INTERVAL_MS)));
+    }
+    HeartbeatHistory current;
+    do {
+      current = history.get();
+    } while (current.lastHeartbeatMillis() < now && !history.compareAndSet(current, current.heartbeat(now)));
+  }
+
+  /**
+   * Returns the current suspicion level for a node.
+   *
+   * @param nodeId The node ID.
+   * @return phi, or 0 if no heartbeat was ever received from the node.
+   */
+  public double phi(String nodeId) {
+    AtomicReference<HeartbeatHistory> reference = histories.get(nodeId);
+    if (reference == null) {
+      return 0;
+    }
+    HeartbeatHistory history = reference.get();
+    long elapsed = System.currentTimeMillis() - history.lastHeartbeatMillis();
+    double mean = history.mean() + ACCEPTABLE_PAUSE_MS;
+    double stdDeviation = Math.max(Math.sqrt(history.variance()), MIN_STD_DEVIATION_MS);
+    return phi(elapsed, mean, stdDeviation);
+  }
+
+  /**
+   * Returns whether a node is considered up. Nodes never heard from are not suspected.
+   *
+   * @param nodeId The node ID.
+   * @return False if the node's phi is at or above the threshold.
+   */
+  public boolean isAvailable(String nodeId) {
+    return phi(nodeId) < threshold;
+  }
+
+  /**
+   * Computes phi from a logistic approximation of the normal distribution's tail,
+   * which avoids the error function and stays finite for long silences.
+   */
+  private static double phi(long elapsedMillis, double mean, double stdDeviation) {
+    double y = (elapsedMillis - mean) / stdDeviation;
+    double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+    if (elapsedMillis > mean) {
+      return -Math.log10(e / (1.0 + e));
+    }
+    return -Math.log10(1.0 - 1.0 / (1.0 + e));
+  }
+}
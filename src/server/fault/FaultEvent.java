@@ -0,0 +1,85 @@
+package server.fault;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * One step of a fault schedule, applied at a fixed offset from the start of a run.
+ */
+public class FaultEvent {
+  /**
+   * What the event does.
+   */
+  public enum Kind {
+    /** Crashes the acceptors of the listed replicas, losing their Paxos state. */
+    CRASH,
+    /** Restarts the acceptors of the listed replicas with fresh state. */
+    RESTART,
+    /** Drops a fraction of the messages of one type. */
+    DROP,
+    /** Delays every message of one type. */
+    DELAY,
+    /** Cuts the listed replicas off from every other node. */
+    PARTITION,
+    /** Removes the partition. */
+    HEAL
+  }
+
+  private final long atMillis;
+  private final Kind kind;
+  private final Set<Integer> replicas;
+  private final MessageType messageType;
+  private final double amount;
+
+  /**
+   * Constructs a FaultEvent.
+   *
+   * @param atMillis    The offset from the start of the run.
+   * @param kind        What the event does.
+   * @param replicas    The replicas affected by CRASH, RESTART and PARTITION.
+   * @param messageType The message type affected by DROP and DELAY.
+   * @param amount      The drop probability or the delay in milliseconds.
+   */
+  public FaultEvent(long atMillis, Kind kind, Set<Integer> replicas, MessageType messageType, double amount) {
+    this.atMillis = atMillis;
+    this.kind = kind;
+    this.replicas = Collections.unmodifiableSet(new TreeSet<>(replicas));
+    this.messageType = messageType;
+    this.amount = amount;
+  }
+
+  public long getAtMillis() {
+    return atMillis;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public Set<Integer> getReplicas() {
+    return replicas;
+  }
+
+  public MessageType getMessageType() {
+    return messageType;
+  }
+
+  public double getAmount() {
+    return amount;
+  }
+
+  @Override
+  public String toString() {
+    switch (kind) {
+      case DROP:
+        return atMillis + "ms drop " + messageType + " " + amount;
+      case DELAY:
+        return atMillis + "ms delay " + messageType + " " + (long) amount + "ms";
+      case HEAL:
+        return atMillis + "ms heal";
+      default:
+        return atMillis + "ms " + kind.name().toLowerCase() + " " + replicas;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package server.fault;
+
+/**
+ * Decides the fate of each message a replica sends: deliver it now, deliver it late, or drop it.
+ * Replicas consult the injector right before calling the receiving role.
+ */
+public interface FaultInjector {
+  /**
+   * Returned by {@link #onSend(MessageType, int, int)} for a message that must not be delivered.
+   */
+  long DROP = -1;
+
+  /**
+   * The node ID used for the LoadBalancer, which sits on the client side of every partition.
+   */
+  int LOAD_BALANCER_ID = -1;
+
+  /**
+   * An injector that delivers every message immediately.
+   */
+  FaultInjector NONE = (type, from, to) -> 0;
+
+  /**
+   * Called before a message is delivered.
+   *
+   * @param type The message type.
+   * @param from The sending replica's ID.
+   * @param to   The receiving replica's ID, or {@link #LOAD_BALANCER_ID}.
+   * @return The delay in milliseconds before delivery, or {@link #DROP}.
+   */
+  long onSend(MessageType type, int from, int to);
+
+  /**
+   * Applies a fault injector's verdict: sleeps for the delay and reports whether to deliver.
+   *
+   * @param injector The injector to consult.
+   * @param type     The message type.
+   * @param from     The sending replica's ID.
+   * @param to       The receiving replica's ID.
+   * @return True if the message should be delivered.
+   */
+  static boolean deliver(FaultInjector injector, MessageType type, int from, int to) {
+    long delay = injector.onSend(type, from, to);
+    if (delay == DROP) {
+      return false;
+    }
+    if (delay > 0) {
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+}
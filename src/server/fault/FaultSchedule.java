@@ -0,0 +1,174 @@
+package server.fault;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A reproducible list of fault events. Schedules are written as comma-separated steps of the form
+ * {@code <ms>:<action>[:<args>]}:
+ * <ul>
+ *   <li>{@code crash:<ids>} and {@code restart:<ids>} crash or restart acceptors;</li>
+ *   <li>{@code drop:<type>:<probability>} drops that fraction of PREPARE/ACCEPT/LEARN/HEARTBEAT messages;</li>
+ *   <li>{@code delay:<type>:<ms>} delays every message of that type;</li>
+ *   <li>{@code partition:<ids>} isolates replicas from everyone else, and {@code heal} reconnects them.</li>
+ * </ul>
+ * Replica IDs are joined with {@code +}. {@code ?} picks a random voting replica that is not
+ * already crashed or isolated, and {@code *} in a restart means every crashed replica. Random
+ * picks are resolved once from the seed, so the same spec and seed always give the same schedule.
+ * A few named scenarios can be used in place of a spec; see {@link #PRESETS}.
+ */
+public class FaultSchedule {
+  /**
+   * Named scenarios.
+   */
+  public static final Map<String, String> PRESETS;
+
+  static {
+    Map<String, String> presets = new HashMap<>();
+    presets.put("crash-restart", "500:crash:?,2500:restart:*");
+    presets.put("crash-minority", "500:crash:?,1000:crash:?,3000:restart:*");
+    presets.put("rolling-restart", "500:crash:?,1000:restart:*,1500:crash:?,2000:restart:*,2500:crash:?,3000:restart:*");
+    presets.put("lossy", "0:drop:accept:0.1,0:drop:learn:0.05");
+    presets.put("slow-network", "0:delay:prepare:1,0:delay:accept:1");
+    presets.put("partition", "500:partition:?,2500:heal");
+    presets.put("chaos", "0:drop:learn:0.02,500:crash:?,1000:partition:?,2000:heal,2500:restart:*");
+    PRESETS = Collections.unmodifiableMap(presets);
+  }
+
+  private final List<FaultEvent> events;
+  private final long seed;
+
+  private FaultSchedule(List<FaultEvent> events, long seed) {
+    this.events = Collections.unmodifiableList(events);
+    this.seed = seed;
+  }
+
+  /**
+   * Parses a schedule spec or preset name.
+   *
+   * @param spec        The spec, or the name of a preset.
+   * @param seed        The seed for random replica picks and message drops.
+   * @param voterCount  The number of voting replicas, whose IDs are 0 to voterCount - 1.
+   * @return The resolved schedule, sorted by time.
+   * @throws IllegalArgumentException If the spec is malformed.
+   */
+  public static FaultSchedule parse(String spec, long seed, int voterCount) {
+    String resolvedSpec = PRESETS.getOrDefault(spec.trim(), spec);
+    Random random = new Random(seed);
+    Set<Integer> crashed = new HashSet<>();
+    Set<Integer> isolated = new HashSet<>();
+    List<FaultEvent> events = new ArrayList<>();
+
+    List<String> steps = new ArrayList<>();
+    for (String step : resolvedSpec.split(",")) {
+      if (!step.trim().isEmpty()) {
+        steps.add(step.trim());
+      }
+    }
+    steps.sort(Comparator.comparingLong(FaultSchedule::offsetOf)); // random picks follow schedule order
+
+    for (String step : steps) {
+      String[] parts = step.split(":");
+      if (parts.length < 2) {
+        throw new IllegalArgumentException("Invalid fault step: " + step);
+      }
+      long at = offsetOf(step);
+      FaultEvent.Kind kind = FaultEvent.Kind.valueOf(parts[1].trim().toUpperCase());
+      switch (kind) {
+        case CRASH:
+        case PARTITION: {
+          Set<Integer> unavailable = new HashSet<>(crashed);
+          unavailable.addAll(isolated);
+          Set<Integer> ids = replicaIds(argument(parts, 2, step), unavailable, voterCount, random);
+          (kind == FaultEvent.Kind.CRASH ? crashed : isolated).addAll(ids);
+          events.add(new FaultEvent(at, kind, ids, null, 0));
+          break;
+        }
+        case RESTART: {
+          String arg = argument(parts, 2, step);
+          Set<Integer> ids = arg.equals("*") ? new HashSet<>(crashed) : replicaIds(arg, crashed, voterCount, random);
+          crashed.removeAll(ids);
+          events.add(new FaultEvent(at, kind, ids, null, 0));
+          break;
+        }
+        case DROP:
+        case DELAY:
+          events.add(new FaultEvent(at, kind, Collections.emptySet(),
+                  MessageType.fromName(argument(parts, 2, step)), Double.parseDouble(argument(parts, 3, step))));
+          break;
+        case HEAL:
+          isolated.clear();
+          events.add(new FaultEvent(at, kind, Collections.emptySet(), null, 0));
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid fault step: " + step);
+      }
+    }
+    return new FaultSchedule(events, seed);
+  }
+
+  private static long offsetOf(String step) {
+    try {
+      return Long.parseLong(step.substring(0, step.indexOf(':')).trim());
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid fault step: " + step);
+    }
+  }
+
+  private static String argument(String[] parts, int index, String step) {
+    if (parts.length <= index) {
+      throw new IllegalArgumentException("Missing argument in fault step: " + step);
+    }
+    return parts[index].trim();
+  }
+
+  private static Set<Integer> replicaIds(String arg, Set<Integer> excluded, int voterCount, Random random) {
+    Set<Integer> ids = new HashSet<>();
+    for (String id : arg.split("\\+")) {
+      if (!id.equals("?")) {
+        ids.add(Integer.parseInt(id));
+        continue;
+      }
+      List<Integer> candidates = new ArrayList<>();
+      for (int i = 0; i < voterCount; i++) {
+        if (!excluded.contains(i) && !ids.contains(i)) {
+          candidates.add(i);
+        }
+      }
+      if (!candidates.isEmpty()) {
+        ids.add(candidates.get(random.nextInt(candidates.size())));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the events, sorted by time.
+   *
+   * @return The events.
+   */
+  public List<FaultEvent> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the seed the schedule was resolved with, which also drives message drops.
+   *
+   * @return The seed.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public String toString() {
+    return "FaultSchedule{seed=" + seed + ", events=" + events + '}';
+  }
+}
@@ -0,0 +1,22 @@
+package server.fault;
+
+/**
+ * The kinds of messages replicas exchange, as seen by a {@link FaultInjector}.
+ */
+public enum MessageType {
+  PREPARE,
+  ACCEPT,
+  LEARN,
+  HEARTBEAT;
+
+  /**
+   * Looks up a message type by its case-insensitive name.
+   *
+   * @param name The name, e.g. "accept".
+   * @return The message type.
+   * @throws IllegalArgumentException If no message type has that name.
+   */
+  public static MessageType fromName(String name) {
+    return valueOf(name.trim().toUpperCase());
+  }
+}
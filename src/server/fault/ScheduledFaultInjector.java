@@ -0,0 +1,194 @@
+package server.fault;
+
+import server.IKeyValueServer;
+import server.roles.AcceptorSupervisor;
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A fault injector that follows a {@link FaultSchedule}. A scheduler thread applies each event at
+ * its offset from {@link #start()}. Whether a message is dropped depends only on the seed and on
+ * how many messages of that type the sender already sent to that receiver, so a run drops the
+ * same messages on every channel however the threads interleave.
+ */
+public class ScheduledFaultInjector implements FaultInjector {
+  private static final Logger LOGGER = Logger.getLogger(ScheduledFaultInjector.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final FaultSchedule schedule;
+  private final Map<Integer, IKeyValueServer> replicas = new HashMap<>();
+  private final Map<Long, AtomicLong> channelCounters = new ConcurrentHashMap<>();
+  private final List<String> appliedEvents = new CopyOnWriteArrayList<>();
+
+  private volatile double[] dropRates = new double[MessageType.values().length];
+  private volatile long[] delays = new long[MessageType.values().length];
+  private volatile Set<Integer> isolated = Collections.emptySet();
+  private volatile long startMillis;
+
+  /**
+   * Constructs a ScheduledFaultInjector.
+   *
+   * @param schedule The schedule to follow.
+   */
+  public ScheduledFaultInjector(FaultSchedule schedule) {
+    this.schedule = schedule;
+  }
+
+  /**
+   * Sets the replicas whose acceptors CRASH and RESTART events act on.
+   *
+   * @param cluster Every replica in the cluster.
+   */
+  public void attach(List<IKeyValueServer> cluster) {
+    for (IKeyValueServer replica : cluster) {
+      replicas.put(Integer.parseInt(replica.getServerID()), replica);
+    }
+  }
+
+  /**
+   * Starts applying the schedule on a daemon thread; event offsets count from now.
+   */
+  public void start() {
+    startMillis = System.currentTimeMillis();
+    Thread scheduler = new Thread(() -> {
+      for (FaultEvent event : schedule.getEvents()) {
+        long wait = startMillis + event.getAtMillis() - System.currentTimeMillis();
+        try {
+          if (wait > 0) {
+            Thread.sleep(wait);
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+        apply(event);
+      }
+    }, "FaultScheduler");
+    scheduler.setDaemon(true);
+    scheduler.start();
+    LOGGER.info("Fault injection started: " + schedule);
+  }
+
+  /**
+   * Applies one event immediately.
+   *
+   * @param event The event.
+   */
+  public synchronized void apply(FaultEvent event) {
+    switch (event.getKind()) {
+      case CRASH:
+        for (int id : event.getReplicas()) {
+          for (AcceptorSupervisor supervisor : supervisorsOf(id)) {
+            supervisor.crash();
+          }
+        }
+        break;
+      case RESTART:
+        for (int id : event.getReplicas()) {
+          for (AcceptorSupervisor supervisor : supervisorsOf(id)) {
+            supervisor.restart();
+          }
+        }
+        break;
+      case DROP: {
+        double[] rates = dropRates.clone();
+        rates[event.getMessageType().ordinal()] = event.getAmount();
+        dropRates = rates;
+        break;
+      }
+      case DELAY: {
+        long[] updated = delays.clone();
+        updated[event.getMessageType().ordinal()] = (long) event.getAmount();
+        delays = updated;
+        break;
+      }
+      case PARTITION: {
+        Set<Integer> updated = new HashSet<>(isolated);
+        updated.addAll(event.getReplicas());
+        isolated = Collections.unmodifiableSet(updated);
+        break;
+      }
+      case HEAL:
+        isolated = Collections.emptySet();
+        break;
+      default:
+        break;
+    }
+    String applied = (System.currentTimeMillis() - startMillis) + "ms: " + event;
+    appliedEvents.add(applied);
+    LOGGER.warning("Fault injected at " + applied);
+  }
+
+  @Override
+  public long onSend(MessageType type, int from, int to) {
+    Set<Integer> cut = isolated;
+    if (!cut.isEmpty() && cut.contains(from) != cut.contains(to)) {
+      return DROP;
+    }
+    double dropRate = dropRates[type.ordinal()];
+    if (dropRate > 0) {
+      long channel = ((long) type.ordinal() << 40) | ((long) (from + 1) << 20) | (to + 1);
+      long count = channelCounters.computeIfAbsent(channel, c -> new AtomicLong()).incrementAndGet();
+      if (unitInterval(schedule.getSeed() ^ channel * 0x9e3779b97f4a7c15L, count) < dropRate) {
+        return DROP;
+      }
+    }
+    return delays[type.ordinal()];
+  }
+
+  /**
+   * Returns the events applied so far, each prefixed with the actual time it was applied.
+   *
+   * @return The applied events.
+   */
+  public List<String> getAppliedEvents() {
+    return Collections.unmodifiableList(appliedEvents);
+  }
+
+  /**
+   * Returns the schedule this injector follows.
+   *
+   * @return The schedule.
+   */
+  public FaultSchedule getSchedule() {
+    return schedule;
+  }
+
+  /**
+   * Returns the acceptor supervisors of every shard of a replica.
+   */
+  private List<AcceptorSupervisor> supervisorsOf(int id) {
+    IKeyValueServer replica = replicas.get(id);
+    List<AcceptorSupervisor> supervisors = new ArrayList<>();
+    for (int shard = 0; replica != null && shard < replica.getShardCount(); shard++) {
+      if (replica.getAcceptorSupervisor(shard) != null) {
+        supervisors.add(replica.getAcceptorSupervisor(shard));
+      }
+    }
+    return supervisors;
+  }
+
+  /**
+   * Maps (seed, counter) to a uniformly distributed double in [0, 1).
+   */
+  private static double unitInterval(long seed, long counter) {
+    long z = seed + counter * 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    z ^= z >>> 31;
+    return (z >>> 11) * 0x1.0p-53;
+  }
+}
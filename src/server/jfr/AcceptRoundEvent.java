@@ -0,0 +1,37 @@
+package server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans one Accept round: sending Accept to every live voter and counting acceptances.
+ */
+@Name("paxos.AcceptRound")
+@Label("Accept Round")
+@Category({"Paxos KV Store", "Consensus"})
+@Description("Phase 2 of a Paxos round")
+@Enabled(false)
+public class AcceptRoundEvent extends Event {
+  @Label("Replica")
+  public int replicaId;
+
+  @Label("Ballot")
+  @Description("The proposal number of the round")
+  public long ballot;
+
+  @Label("Key Hash")
+  public int keyHash;
+
+  @Label("Quorum Size")
+  public int quorumSize;
+
+  @Label("Accepted")
+  public int accepted;
+
+  @Label("Voters")
+  public int voters;
+}
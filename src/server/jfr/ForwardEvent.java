@@ -0,0 +1,27 @@
+package server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans the LoadBalancer forwarding one client request to a replica and waiting for its answer.
+ */
+@Name("paxos.Forward")
+@Label("LoadBalancer Forward")
+@Category({"Paxos KV Store", "LoadBalancer"})
+@Description("A client request forwarded by the LoadBalancer")
+@Enabled(false)
+public class ForwardEvent extends Event {
+  @Label("Operation")
+  public String operation;
+
+  @Label("Replica")
+  public String replica;
+
+  @Label("Key Hash")
+  public int keyHash;
+}
@@ -0,0 +1,42 @@
+package server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans a learner applying one decided action to its store, whether it arrived in a Learn
+ * message or was fetched from a peer during catch-up.
+ */
+@Name("paxos.LearnerApply")
+@Label("Learner Apply")
+@Category({"Paxos KV Store", "Storage"})
+@Description("A decided action applied to a replica's store")
+@Enabled(false)
+public class LearnerApplyEvent extends Event {
+  @Label("Replica")
+  public int replicaId;
+
+  @Label("Ballot")
+  public long ballot;
+
+  @Label("Key Hash")
+  public int keyHash;
+
+  @Label("Proposer")
+  public int proposerId;
+
+  @Label("Decision Sequence")
+  public long sequence;
+
+  @Label("Instance")
+  @Description("The Paxos instance of the key, which orders its decisions")
+  public long instance;
+
+  @Label("Catch-Up")
+  @Description("Whether the decision was fetched from a peer rather than received in a Learn message")
+  public boolean catchUp;
+}
@@ -0,0 +1,37 @@
+package server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans one Prepare round: sending Prepare to every live voter and collecting promises.
+ */
+@Name("paxos.PrepareRound")
+@Label("Prepare Round")
+@Category({"Paxos KV Store", "Consensus"})
+@Description("Phase 1 of a Paxos round")
+@Enabled(false)
+public class PrepareRoundEvent extends Event {
+  @Label("Replica")
+  public int replicaId;
+
+  @Label("Ballot")
+  @Description("The proposal number of the round")
+  public long ballot;
+
+  @Label("Key Hash")
+  public int keyHash;
+
+  @Label("Quorum Size")
+  public int quorumSize;
+
+  @Label("Promises")
+  public int promises;
+
+  @Label("Voters")
+  public int voters;
+}
@@ -0,0 +1,32 @@
+package server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Spans one client proposal in a proposer, from the first Prepare to the final outcome,
+ * including retries and rounds overridden by a previously accepted value.
+ */
+@Name("paxos.Proposal")
+@Label("Proposal")
+@Category({"Paxos KV Store", "Consensus"})
+@Description("A client write proposed through Paxos, from start to outcome")
+@Enabled(false)
+public class ProposalEvent extends Event {
+  @Label("Replica")
+  public int replicaId;
+
+  @Label("Key Hash")
+  public int keyHash;
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Chosen")
+  @Description("Whether the client's action was chosen")
+  public boolean chosen;
+}
@@ -6,24 +6,43 @@ import java.io.Serializable;
 
 /**
  * Represents an Accept request message sent by a Proposer to Acceptors in Paxos.
- * Contains the proposal number, proposer ID, and the action to be accepted.
+ * Contains the proposal number, the Paxos instance of the action's key, the proposer ID,
+ * and the action to be accepted.
  */
 public class AcceptRequest implements Serializable {
   private final long proposalNumber;
+  private final long instance;
   private final int proposerId;
   private final Action action;
+  private final long traceId;
 
   /**
-   * Constructs an AcceptRequest with the specified proposal number, proposer ID, and action.
+   * Constructs an AcceptRequest with the specified proposal number, instance, proposer ID, and action.
    *
    * @param proposalNumber The unique proposal number for this round.
+   * @param instance       The Paxos instance of the action's key.
    * @param proposerId     The ID of the proposer (replica server).
    * @param action         The action (PUT/DELETE) to be accepted by the acceptors.
    */
-  public AcceptRequest(long proposalNumber, int proposerId, Action action) {
+  public AcceptRequest(long proposalNumber, long instance, int proposerId, Action action) {
+    this(proposalNumber, instance, proposerId, action, 0);
+  }
+
+  /**
+   * Constructs an AcceptRequest that belongs to a traced client request.
+   *
+   * @param proposalNumber The proposal number being accepted.
+   * @param instance       The Paxos instance of the action's key.
+   * @param proposerId     The ID of the proposer sending the request.
+   * @param action         The action to accept.
+   * @param traceId        The trace of the client request, or 0 if it is not traced.
+   */
+  public AcceptRequest(long proposalNumber, long instance, int proposerId, Action action, long traceId) {
     this.proposalNumber = proposalNumber;
+    this.instance = instance;
     this.proposerId = proposerId;
     this.action = action;
+    this.traceId = traceId;
   }
 
   /**
@@ -35,6 +54,15 @@ public class AcceptRequest implements Serializable {
     return proposalNumber;
   }
 
+  /**
+   * Returns the Paxos instance of the action's key.
+   *
+   * @return The instance.
+   */
+  public long getInstance() {
+    return instance;
+  }
+
   /**
    * Returns the ID of the proposer.
    *
@@ -53,10 +81,20 @@ public class AcceptRequest implements Serializable {
     return action;
   }
 
+  /**
+   * Returns the trace of the client request this round serves.
+   *
+   * @return The trace ID, or 0 if the request is not traced.
+   */
+  public long getTraceId() {
+    return traceId;
+  }
+
   @Override
   public String toString() {
     return "AcceptRequest{" +
             "proposalNumber=" + proposalNumber +
+            ", instance=" + instance +
             ", proposerId=" + proposerId +
             ", action=" + action +
             '}';
@@ -0,0 +1,106 @@
+package server.messages;
+
+import server.raft.RaftLogEntry;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Represents an AppendEntries request sent by a Raft leader to its followers.
+ * Carries a batch of log entries (empty for a heartbeat) together with the
+ * consistency check information and the leader's commit index.
+ */
+public class AppendEntriesRequest implements Serializable {
+  private final long term;
+  private final int leaderId;
+  private final int prevLogIndex;
+  private final long prevLogTerm;
+  private final List<RaftLogEntry> entries;
+  private final int leaderCommit;
+
+  /**
+   * Constructs an AppendEntriesRequest.
+   *
+   * @param term         The leader's current term.
+   * @param leaderId     The ID of the leader (replica server).
+   * @param prevLogIndex The index of the log entry immediately preceding the batch.
+   * @param prevLogTerm  The term of the entry at prevLogIndex.
+   * @param entries      The batch of entries to replicate (empty for a heartbeat).
+   * @param leaderCommit The leader's commit index.
+   */
+  public AppendEntriesRequest(long term, int leaderId, int prevLogIndex, long prevLogTerm,
+                              List<RaftLogEntry> entries, int leaderCommit) {
+    this.term = term;
+    this.leaderId = leaderId;
+    this.prevLogIndex = prevLogIndex;
+    this.prevLogTerm = prevLogTerm;
+    this.entries = entries;
+    this.leaderCommit = leaderCommit;
+  }
+
+  /**
+   * Returns the leader's term.
+   *
+   * @return The term.
+   */
+  public long getTerm() {
+    return term;
+  }
+
+  /**
+   * Returns the ID of the leader sending this request.
+   *
+   * @return The leader ID.
+   */
+  public int getLeaderId() {
+    return leaderId;
+  }
+
+  /**
+   * Returns the index of the entry preceding the batch.
+   *
+   * @return The previous log index.
+   */
+  public int getPrevLogIndex() {
+    return prevLogIndex;
+  }
+
+  /**
+   * Returns the term of the entry preceding the batch.
+   *
+   * @return The previous log term.
+   */
+  public long getPrevLogTerm() {
+    return prevLogTerm;
+  }
+
+  /**
+   * Returns the batch of entries to append.
+   *
+   * @return The log entries, empty for a heartbeat.
+   */
+  public List<RaftLogEntry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * Returns the leader's commit index.
+   *
+   * @return The commit index.
+   */
+  public int getLeaderCommit() {
+    return leaderCommit;
+  }
+
+  @Override
+  public String toString() {
+    return "AppendEntriesRequest{" +
+            "term=" + term +
+            ", leaderId=" + leaderId +
+            ", prevLogIndex=" + prevLogIndex +
+            ", prevLogTerm=" + prevLogTerm +
+            ", entries=" + entries.size() +
+            ", leaderCommit=" + leaderCommit +
+            '}';
+  }
+}
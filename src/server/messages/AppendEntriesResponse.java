@@ -0,0 +1,63 @@
+package server.messages;
+
+import java.io.Serializable;
+
+/**
+ * Represents a follower's reply to an AppendEntries request in Raft.
+ * On success, the match index tells the leader how far the follower's log agrees with its own.
+ * On failure, it hints where the leader should retry from.
+ */
+public class AppendEntriesResponse implements Serializable {
+  private final long term;
+  private final boolean success;
+  private final int matchIndex;
+
+  /**
+   * Constructs an AppendEntriesResponse.
+   *
+   * @param term       The follower's current term.
+   * @param success    True if the follower's log matched and the entries were appended.
+   * @param matchIndex The highest index known to match the leader's log (a retry hint on failure).
+   */
+  public AppendEntriesResponse(long term, boolean success, int matchIndex) {
+    this.term = term;
+    this.success = success;
+    this.matchIndex = matchIndex;
+  }
+
+  /**
+   * Returns the follower's current term.
+   *
+   * @return The term.
+   */
+  public long getTerm() {
+    return term;
+  }
+
+  /**
+   * Returns whether the entries were appended.
+   *
+   * @return True on success.
+   */
+  public boolean isSuccess() {
+    return success;
+  }
+
+  /**
+   * Returns the highest index known to match the leader's log.
+   *
+   * @return The match index.
+   */
+  public int getMatchIndex() {
+    return matchIndex;
+  }
+
+  @Override
+  public String toString() {
+    return "AppendEntriesResponse{" +
+            "term=" + term +
+            ", success=" + success +
+            ", matchIndex=" + matchIndex +
+            '}';
+  }
+}
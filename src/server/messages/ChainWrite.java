@@ -0,0 +1,52 @@
+package server.messages;
+
+import server.actions.Action;
+
+import java.io.Serializable;
+
+/**
+ * Represents a write travelling down a replication chain.
+ * The head stamps every write with a sequence number, and each node applies
+ * writes in that order before passing them on to its successor.
+ */
+public class ChainWrite implements Serializable {
+  private final long sequenceNumber;
+  private final Action action;
+
+  /**
+   * Constructs a ChainWrite.
+   *
+   * @param sequenceNumber The position of the write in the head's order.
+   * @param action         The action (PUT/DELETE) to apply.
+   */
+  public ChainWrite(long sequenceNumber, Action action) {
+    this.sequenceNumber = sequenceNumber;
+    this.action = action;
+  }
+
+  /**
+   * Returns the sequence number assigned by the head.
+   *
+   * @return The sequence number.
+   */
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  /**
+   * Returns the action to apply.
+   *
+   * @return The action.
+   */
+  public Action getAction() {
+    return action;
+  }
+
+  @Override
+  public String toString() {
+    return "ChainWrite{" +
+            "sequenceNumber=" + sequenceNumber +
+            ", action=" + action +
+            '}';
+  }
+}
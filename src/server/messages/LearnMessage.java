@@ -7,23 +7,67 @@ import java.io.Serializable;
 /**
  * Represents a Learn message sent by a Proposer to Learners in Paxos.
  * Contains the final chosen action and the associated proposal metadata.
+ * Each proposer numbers its decisions 1, 2, 3, ... so learners can detect decisions they missed.
+ * Each decision also carries the Paxos instance of its key, which orders the decisions of one key
+ * across all proposers: learners apply instance 1, 2, 3, ... of a key in that order.
+ * The proposer also stamps when the decision was reached, so learners can measure their apply lag;
+ * the stamp is a {@link System#nanoTime()} reading and only meaningful within one JVM.
  */
 public class LearnMessage implements Serializable {
   private final long proposalNumber;
   private final int proposerId;
+  private final long sequenceNumber;
+  private final long instance;
   private final Action action;
+  private final long decidedAtNanos;
+  private final long traceId;
 
   /**
-   * Constructs a LearnMessage with the final agreed-upon action.
+   * Constructs an unsequenced and unordered LearnMessage, which learners apply on arrival
+   * without gap tracking.
    *
    * @param proposalNumber The proposal number associated with the accepted value.
    * @param proposerId     The ID of the proposer sending the learn message.
    * @param action         The action (PUT or DELETE) that has reached consensus.
    */
   public LearnMessage(long proposalNumber, int proposerId, Action action) {
+    this(proposalNumber, proposerId, 0, 0, action);
+  }
+
+  /**
+   * Constructs a LearnMessage with the final agreed-upon action.
+   *
+   * @param proposalNumber The proposal number associated with the accepted value.
+   * @param proposerId     The ID of the proposer sending the learn message.
+   * @param sequenceNumber The proposer's decision sequence number, starting at 1.
+   * @param instance       The Paxos instance of the action's key, starting at 1.
+   * @param action         The action (PUT or DELETE) that has reached consensus.
+   */
+  public LearnMessage(long proposalNumber, int proposerId, long sequenceNumber, long instance, Action action) {
+    this(proposalNumber, proposerId, sequenceNumber, instance, action, 0, 0);
+  }
+
+  /**
+   * Constructs a LearnMessage stamped with the time the decision was reached, which may belong
+   * to a traced client request.
+   *
+   * @param proposalNumber The proposal number associated with the accepted value.
+   * @param proposerId     The ID of the proposer sending the learn message.
+   * @param sequenceNumber The proposer's decision sequence number, starting at 1.
+   * @param instance       The Paxos instance of the action's key, starting at 1.
+   * @param action         The action (PUT or DELETE) that has reached consensus.
+   * @param decidedAtNanos The {@link System#nanoTime()} at which the decision was reached, or 0 if unknown.
+   * @param traceId        The trace of the client request, or 0 if it is not traced.
+   */
+  public LearnMessage(long proposalNumber, int proposerId, long sequenceNumber, long instance, Action action,
+                      long decidedAtNanos, long traceId) {
     this.proposalNumber = proposalNumber;
     this.proposerId = proposerId;
+    this.sequenceNumber = sequenceNumber;
+    this.instance = instance;
     this.action = action;
+    this.decidedAtNanos = decidedAtNanos;
+    this.traceId = traceId;
   }
 
   /**
@@ -44,6 +88,24 @@ public class LearnMessage implements Serializable {
     return proposerId;
   }
 
+  /**
+   * Returns the proposer's decision sequence number.
+   *
+   * @return The sequence number, or 0 if the message is unsequenced.
+   */
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  /**
+   * Returns the Paxos instance of the action's key.
+   *
+   * @return The instance, or 0 if the message is unordered.
+   */
+  public long getInstance() {
+    return instance;
+  }
+
   /**
    * Returns the final chosen action.
    *
@@ -53,11 +115,31 @@ public class LearnMessage implements Serializable {
     return action;
   }
 
+  /**
+   * Returns when the decision was reached.
+   *
+   * @return The {@link System#nanoTime()} of the decision, or 0 if unknown.
+   */
+  public long getDecidedAtNanos() {
+    return decidedAtNanos;
+  }
+
+  /**
+   * Returns the trace of the client request that produced this decision.
+   *
+   * @return The trace ID, or 0 if the request is not traced.
+   */
+  public long getTraceId() {
+    return traceId;
+  }
+
   @Override
   public String toString() {
     return "LearnMessage{" +
             "proposalNumber=" + proposalNumber +
             ", proposerId=" + proposerId +
+            ", sequenceNumber=" + sequenceNumber +
+            ", instance=" + instance +
             ", action=" + action +
             '}';
   }
@@ -4,24 +4,43 @@ import java.io.Serializable;
 
 /**
  * Represents a Prepare request message sent from a Proposer to Acceptors in Paxos.
- * Contains the proposal number, the key being proposed on, and the ID of the proposer.
+ * Contains the proposal number, the key being proposed on, the key's Paxos instance the proposal
+ * competes for, and the ID of the proposer.
  */
 public class PrepareRequest implements Serializable {
   private final long proposalNumber;
   private final String key;
+  private final long instance;
   private final int proposerId;
+  private final long traceId;
 
   /**
-   * Constructs a PrepareRequest with the specified proposal number, key, and proposer ID.
+   * Constructs a PrepareRequest with the specified proposal number, key, instance and proposer ID.
    *
    * @param proposalNumber The unique proposal number for this Paxos round.
    * @param key            The key this proposal is attempting to coordinate consensus for.
+   * @param instance       The key's Paxos instance, starting at 1.
    * @param proposerId     The ID of the proposer (replica server).
    */
-  public PrepareRequest(long proposalNumber, String key, int proposerId) {
+  public PrepareRequest(long proposalNumber, String key, long instance, int proposerId) {
+    this(proposalNumber, key, instance, proposerId, 0);
+  }
+
+  /**
+   * Constructs a PrepareRequest that belongs to a traced client request.
+   *
+   * @param proposalNumber The unique proposal number for this Paxos round.
+   * @param key            The key this proposal is attempting to coordinate consensus for.
+   * @param instance       The key's Paxos instance, starting at 1.
+   * @param proposerId     The ID of the proposer (replica server).
+   * @param traceId        The trace of the client request, or 0 if it is not traced.
+   */
+  public PrepareRequest(long proposalNumber, String key, long instance, int proposerId, long traceId) {
     this.proposalNumber = proposalNumber;
     this.key = key;
+    this.instance = instance;
     this.proposerId = proposerId;
+    this.traceId = traceId;
   }
 
   /**
@@ -42,6 +61,15 @@ public class PrepareRequest implements Serializable {
     return key;
   }
 
+  /**
+   * Returns the key's Paxos instance this proposal competes for.
+   *
+   * @return The instance.
+   */
+  public long getInstance() {
+    return instance;
+  }
+
   /**
    * Returns the ID of the proposer who initiated this request.
    *
@@ -51,11 +79,21 @@ public class PrepareRequest implements Serializable {
     return proposerId;
   }
 
+  /**
+   * Returns the trace of the client request this round serves.
+   *
+   * @return The trace ID, or 0 if the request is not traced.
+   */
+  public long getTraceId() {
+    return traceId;
+  }
+
   @Override
   public String toString() {
     return "PrepareRequest{" +
             "proposalNumber=" + proposalNumber +
             ", key='" + key + '\'' +
+            ", instance=" + instance +
             ", proposerId=" + proposerId +
             '}';
   }
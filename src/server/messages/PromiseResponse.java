@@ -5,13 +5,17 @@ import server.actions.Action;
 import java.io.Serializable;
 
 /**
- * Represents a Promise response sent by an Acceptor in response to a Prepare request.
- * Contains information about the highest accepted proposal and the associated action (if any).
+ * Represents an Acceptor's answer to a Prepare request.
+ * A promise carries the proposal the acceptor accepted earlier in the same instance and its action
+ * (if any). A rejection carries the highest instance the acceptor knows to be decided for the key,
+ * so a proposer that is behind can move on to the next instance instead of retrying a decided one.
  */
 public class PromiseResponse implements Serializable {
+  private final boolean promised;
   private final long promisedProposalNumber;
   private final long previouslyAcceptedProposalNumber;
   private final Action previouslyAcceptedAction;
+  private final long decidedInstance;
 
   /**
    * Constructs a PromiseResponse with the promised proposal number,
@@ -24,9 +28,36 @@ public class PromiseResponse implements Serializable {
   public PromiseResponse(long promisedProposalNumber,
                          long previouslyAcceptedProposalNumber,
                          Action previouslyAcceptedAction) {
+    this(true, promisedProposalNumber, previouslyAcceptedProposalNumber, previouslyAcceptedAction, 0);
+  }
+
+  private PromiseResponse(boolean promised, long promisedProposalNumber, long previouslyAcceptedProposalNumber,
+                          Action previouslyAcceptedAction, long decidedInstance) {
+    this.promised = promised;
     this.promisedProposalNumber = promisedProposalNumber;
     this.previouslyAcceptedProposalNumber = previouslyAcceptedProposalNumber;
     this.previouslyAcceptedAction = previouslyAcceptedAction;
+    this.decidedInstance = decidedInstance;
+  }
+
+  /**
+   * Constructs the response of an acceptor that refused to promise.
+   *
+   * @param promisedProposalNumber The proposal number the acceptor already promised.
+   * @param decidedInstance        The highest instance the acceptor knows to be decided for the key.
+   * @return The rejection.
+   */
+  public static PromiseResponse rejected(long promisedProposalNumber, long decidedInstance) {
+    return new PromiseResponse(false, promisedProposalNumber, -1, null, decidedInstance);
+  }
+
+  /**
+   * Returns whether the acceptor promised.
+   *
+   * @return True for a promise, false for a rejection.
+   */
+  public boolean isPromised() {
+    return promised;
   }
 
   /**
@@ -56,12 +87,23 @@ public class PromiseResponse implements Serializable {
     return previouslyAcceptedAction;
   }
 
+  /**
+   * Returns the highest instance the rejecting acceptor knows to be decided for the key.
+   *
+   * @return The decided instance, or 0 for a promise.
+   */
+  public long getDecidedInstance() {
+    return decidedInstance;
+  }
+
   @Override
   public String toString() {
     return "PromiseResponse{" +
-            "promisedProposalNumber=" + promisedProposalNumber +
+            "promised=" + promised +
+            ", promisedProposalNumber=" + promisedProposalNumber +
             ", previouslyAcceptedProposalNumber=" + previouslyAcceptedProposalNumber +
             ", previouslyAcceptedAction=" + previouslyAcceptedAction +
+            ", decidedInstance=" + decidedInstance +
             '}';
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package server.messages;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Represents one key's state as exchanged during anti-entropy repair.
+ */
+public class RepairEntry implements Serializable {
+  private final String key;
+  private final String value;
+  private final long instance;
+  private final long version;
+  private final List<Long> requestIds;
+
+  /**
+   * Constructs a RepairEntry.
+   *
+   * @param key            The key.
+   * @param value          The stored value, or null if the key was deleted.
+   * @param instance       The Paxos instance of the key's last applied decision.
+   * @param version        The key's version in this state.
+   * @param requestIds     The read-modify-write requests recently applied to the key.
+   */
+  public RepairEntry(String key, String value, long instance, long version, List<Long> requestIds) {
+    this.key = key;
+    this.value = value;
+    this.instance = instance;
+    this.version = version;
+    this.requestIds = requestIds;
+  }
+
+  /**
+   * Returns the key.
+   *
+   * @return The key.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the stored value.
+   *
+   * @return The value, or null if the key was deleted.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the Paxos instance of the key's last applied decision.
+   *
+   * @return The instance.
+   */
+  public long getInstance() {
+    return instance;
+  }
+
+  /**
+   * Returns the key's version in this state.
+   *
+   * @return The version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the read-modify-write requests recently applied to the key, whose effects this state includes.
+   *
+   * @return The request IDs.
+   */
+  public List<Long> getRequestIds() {
+    return requestIds;
+  }
+
+  @Override
+  public String toString() {
+    return "RepairEntry{" +
+            "key='" + key + '\'' +
+            ", value='" + value + '\'' +
+            ", instance=" + instance +
+            ", version=" + version +
+            '}';
+  }
+}
@@ -0,0 +1,76 @@
+package server.messages;
+
+import java.io.Serializable;
+
+/**
+ * Represents a RequestVote message sent by a Raft candidate during leader election.
+ * Contains the candidate's term and a summary of its log so voters can refuse
+ * candidates that are missing committed entries.
+ */
+public class RequestVoteRequest implements Serializable {
+  private final long term;
+  private final int candidateId;
+  private final int lastLogIndex;
+  private final long lastLogTerm;
+
+  /**
+   * Constructs a RequestVoteRequest.
+   *
+   * @param term         The candidate's term.
+   * @param candidateId  The ID of the candidate (replica server).
+   * @param lastLogIndex The index of the candidate's last log entry.
+   * @param lastLogTerm  The term of the candidate's last log entry.
+   */
+  public RequestVoteRequest(long term, int candidateId, int lastLogIndex, long lastLogTerm) {
+    this.term = term;
+    this.candidateId = candidateId;
+    this.lastLogIndex = lastLogIndex;
+    this.lastLogTerm = lastLogTerm;
+  }
+
+  /**
+   * Returns the candidate's term.
+   *
+   * @return The term.
+   */
+  public long getTerm() {
+    return term;
+  }
+
+  /**
+   * Returns the ID of the candidate requesting the vote.
+   *
+   * @return The candidate ID.
+   */
+  public int getCandidateId() {
+    return candidateId;
+  }
+
+  /**
+   * Returns the index of the candidate's last log entry.
+   *
+   * @return The last log index.
+   */
+  public int getLastLogIndex() {
+    return lastLogIndex;
+  }
+
+  /**
+   * Returns the term of the candidate's last log entry.
+   *
+   * @return The last log term.
+   */
+  public long getLastLogTerm() {
+    return lastLogTerm;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestVoteRequest{" +
+            "term=" + term +
+            ", candidateId=" + candidateId +
+            ", lastLogIndex=" + lastLogIndex +
+            ", lastLogTerm=" + lastLogTerm +
+            '}';
+  }
+}
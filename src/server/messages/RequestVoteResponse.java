@@ -0,0 +1,48 @@
+package server.messages;
+
+import java.io.Serializable;
+
+/**
+ * Represents a voter's reply to a RequestVote message in Raft.
+ */
+public class RequestVoteResponse implements Serializable {
+  private final long term;
+  private final boolean voteGranted;
+
+  /**
+   * Constructs a RequestVoteResponse.
+   *
+   * @param term        The voter's current term.
+   * @param voteGranted True if the voter granted its vote to the candidate.
+   */
+  public RequestVoteResponse(long term, boolean voteGranted) {
+    this.term = term;
+    this.voteGranted = voteGranted;
+  }
+
+  /**
+   * Returns the voter's current term.
+   *
+   * @return The term.
+   */
+  public long getTerm() {
+    return term;
+  }
+
+  /**
+   * Returns whether the vote was granted.
+   *
+   * @return True if granted.
+   */
+  public boolean isVoteGranted() {
+    return voteGranted;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestVoteResponse{" +
+            "term=" + term +
+            ", voteGranted=" + voteGranted +
+            '}';
+  }
+}
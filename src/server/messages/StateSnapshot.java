@@ -0,0 +1,106 @@
+package server.messages;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a full copy of a learner's state, sent to a learner that is too far behind
+ * to catch up decision by decision.
+ */
+public class StateSnapshot implements Serializable {
+  private final Map<String, String> keyValues;
+  private final Map<String, Long> instances;
+  private final Map<Integer, Long> appliedSequences;
+  private final Map<String, Long> versions;
+  private final Map<Long, String> appliedRequests;
+  private final List<LearnMessage> heldBack;
+
+  /**
+   * Constructs a StateSnapshot. The maps are copied.
+   *
+   * @param keyValues        The key-value store contents.
+   * @param instances        The Paxos instance last applied for each key.
+   * @param appliedSequences The highest decision sequence applied without gaps, per proposer.
+   * @param versions         The version of each key.
+   * @param appliedRequests  The key of each recently applied read-modify-write request, by request ID.
+   * @param heldBack         The decisions received but not applied yet because an earlier instance
+   *                         of their key is missing. They count as applied in the sequences.
+   */
+  public StateSnapshot(Map<String, String> keyValues, Map<String, Long> instances,
+                       Map<Integer, Long> appliedSequences, Map<String, Long> versions,
+                       Map<Long, String> appliedRequests, List<LearnMessage> heldBack) {
+    this.keyValues = new HashMap<>(keyValues);
+    this.instances = new HashMap<>(instances);
+    this.appliedSequences = new HashMap<>(appliedSequences);
+    this.versions = new HashMap<>(versions);
+    this.appliedRequests = new LinkedHashMap<>(appliedRequests);
+    this.heldBack = new ArrayList<>(heldBack);
+  }
+
+  /**
+   * Returns the key-value store contents.
+   *
+   * @return The key-value pairs.
+   */
+  public Map<String, String> getKeyValues() {
+    return keyValues;
+  }
+
+  /**
+   * Returns the Paxos instance last applied for each key.
+   *
+   * @return The applied instances keyed by key.
+   */
+  public Map<String, Long> getInstances() {
+    return instances;
+  }
+
+  /**
+   * Returns the highest decision sequence applied without gaps, per proposer.
+   *
+   * @return The applied sequence numbers keyed by proposer ID.
+   */
+  public Map<Integer, Long> getAppliedSequences() {
+    return appliedSequences;
+  }
+
+  /**
+   * Returns the version of each key.
+   *
+   * @return The versions keyed by key.
+   */
+  public Map<String, Long> getVersions() {
+    return versions;
+  }
+
+  /**
+   * Returns the key of each recently applied read-modify-write request, oldest first.
+   *
+   * @return The keys keyed by request ID.
+   */
+  public Map<Long, String> getAppliedRequests() {
+    return appliedRequests;
+  }
+
+  /**
+   * Returns the decisions held back until an earlier instance of their key is applied.
+   *
+   * @return The held-back decisions.
+   */
+  public List<LearnMessage> getHeldBack() {
+    return heldBack;
+  }
+
+  @Override
+  public String toString() {
+    return "StateSnapshot{" +
+            "keys=" + keyValues.size() +
+            ", heldBack=" + heldBack.size() +
+            ", appliedSequences=" + appliedSequences +
+            '}';
+  }
+}
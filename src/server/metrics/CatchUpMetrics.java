@@ -0,0 +1,108 @@
+package server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and gauges describing how a learner detects and repairs missed decisions.
+ */
+public class CatchUpMetrics implements CatchUpMetricsMXBean {
+  private final AtomicLong gapsDetected = new AtomicLong();
+  private final AtomicLong decisionsFetched = new AtomicLong();
+  private final AtomicLong batchesFetched = new AtomicLong();
+  private final AtomicLong snapshotsInstalled = new AtomicLong();
+  private final AtomicLong catchUpNanos = new AtomicLong();
+  private final AtomicLong lag = new AtomicLong();
+  private volatile double lastThroughput;
+
+  /**
+   * Records that a catch-up round found missing decisions.
+   */
+  public void recordGap() {
+    gapsDetected.incrementAndGet();
+  }
+
+  /**
+   * Records one batch of decisions fetched from a peer.
+   *
+   * @param decisions The number of decisions in the batch.
+   */
+  public void recordBatch(int decisions) {
+    batchesFetched.incrementAndGet();
+    decisionsFetched.addAndGet(decisions);
+  }
+
+  /**
+   * Records a full snapshot transfer.
+   */
+  public void recordSnapshot() {
+    snapshotsInstalled.incrementAndGet();
+  }
+
+  /**
+   * Records the duration of a catch-up round and its throughput.
+   *
+   * @param decisions The number of decisions repaired in the round.
+   * @param nanos     The duration of the round in nanoseconds.
+   */
+  public void recordRound(long decisions, long nanos) {
+    catchUpNanos.addAndGet(nanos);
+    if (nanos > 0) {
+      lastThroughput = decisions * 1e9 / nanos;
+    }
+  }
+
+  /**
+   * Sets the number of decisions the learner currently knows it is missing.
+   *
+   * @param missing The current lag in decisions.
+   */
+  public void setLag(long missing) {
+    lag.set(missing);
+  }
+
+  public long getGapsDetected() {
+    return gapsDetected.get();
+  }
+
+  public long getDecisionsFetched() {
+    return decisionsFetched.get();
+  }
+
+  public long getBatchesFetched() {
+    return batchesFetched.get();
+  }
+
+  public long getSnapshotsInstalled() {
+    return snapshotsInstalled.get();
+  }
+
+  public long getCatchUpMillis() {
+    return catchUpNanos.get() / 1_000_000;
+  }
+
+  public long getLag() {
+    return lag.get();
+  }
+
+  /**
+   * Returns the decisions repaired per second in the most recent catch-up round.
+   *
+   * @return The throughput in decisions per second.
+   */
+  public double getLastThroughput() {
+    return lastThroughput;
+  }
+
+  @Override
+  public String toString() {
+    return "CatchUpMetrics{" +
+            "lag=" + getLag() +
+            ", gapsDetected=" + getGapsDetected() +
+            ", decisionsFetched=" + getDecisionsFetched() +
+            ", batchesFetched=" + getBatchesFetched() +
+            ", snapshotsInstalled=" + getSnapshotsInstalled() +
+            ", catchUpMillis=" + getCatchUpMillis() +
+            ", lastThroughput=" + String.format("%.0f/s", lastThroughput) +
+            '}';
+  }
+}
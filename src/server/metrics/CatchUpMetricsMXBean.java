@@ -0,0 +1,20 @@
+package server.metrics;
+
+/**
+ * The JMX view of a learner's {@link CatchUpMetrics}.
+ */
+public interface CatchUpMetricsMXBean {
+  long getGapsDetected();
+
+  long getDecisionsFetched();
+
+  long getBatchesFetched();
+
+  long getSnapshotsInstalled();
+
+  long getCatchUpMillis();
+
+  long getLag();
+
+  double getLastThroughput();
+}
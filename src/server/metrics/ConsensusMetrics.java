@@ -0,0 +1,264 @@
+package server.metrics;
+
+import util.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and per-phase latency histograms describing where a proposer's write time goes:
+ * Prepare, Accept and Learn rounds, retries and overridden proposals, plus the response time
+ * of each acceptor. Every record method is allocation-free so it can sit on the write path.
+ */
+public class ConsensusMetrics implements ConsensusMetricsMXBean {
+  private final AtomicLong proposals = new AtomicLong();
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong rounds = new AtomicLong();
+  private final AtomicLong promises = new AtomicLong();
+  private final AtomicLong prepareRejections = new AtomicLong();
+  private final AtomicLong accepts = new AtomicLong();
+  private final AtomicLong acceptRejections = new AtomicLong();
+  private final AtomicLong skippedAcceptors = new AtomicLong();
+  private final AtomicLong aborts = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong overrides = new AtomicLong();
+
+  private final LatencyHistogram proposalLatency = new LatencyHistogram();
+  private final LatencyHistogram prepareLatency = new LatencyHistogram();
+  private final LatencyHistogram acceptLatency = new LatencyHistogram();
+  private final LatencyHistogram learnLatency = new LatencyHistogram();
+
+  private volatile List<String> acceptorIds = Collections.emptyList();
+  private volatile LatencyHistogram[] acceptorLatency = new LatencyHistogram[0];
+
+  /**
+   * Sets the acceptors whose response times are tracked, in the proposer's voter order.
+   *
+   * @param ids The replica IDs of the voting replicas.
+   */
+  public void setAcceptors(List<String> ids) {
+    LatencyHistogram[] histograms = new LatencyHistogram[ids.size()];
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+    this.acceptorLatency = histograms;
+    this.acceptorIds = List.copyOf(ids);
+  }
+
+  /**
+   * Records a client proposal from start to its final outcome, including retries and overrides.
+   *
+   * @param nanos   The time taken in nanoseconds.
+   * @param success Whether the client's action was chosen.
+   */
+  public void recordProposal(long nanos, boolean success) {
+    proposals.incrementAndGet();
+    (success ? succeeded : failed).incrementAndGet();
+    proposalLatency.record(nanos);
+  }
+
+  /**
+   * Records one Prepare round.
+   *
+   * @param nanos     The duration of the round in nanoseconds.
+   * @param promised  The number of promises received.
+   * @param rejected  The number of acceptors that answered without a promise.
+   * @param skipped   The number of acceptors not contacted because they were down or suspected.
+   */
+  public void recordPrepare(long nanos, int promised, int rejected, int skipped) {
+    rounds.incrementAndGet();
+    promises.addAndGet(promised);
+    prepareRejections.addAndGet(rejected);
+    skippedAcceptors.addAndGet(skipped);
+    prepareLatency.record(nanos);
+  }
+
+  /**
+   * Records one Accept round.
+   *
+   * @param nanos    The duration of the round in nanoseconds.
+   * @param accepted The number of acceptors that accepted.
+   * @param rejected The number of acceptors that refused.
+   * @param skipped  The number of acceptors not contacted because they were down or suspected.
+   */
+  public void recordAccept(long nanos, int accepted, int rejected, int skipped) {
+    accepts.addAndGet(accepted);
+    acceptRejections.addAndGet(rejected);
+    skippedAcceptors.addAndGet(skipped);
+    acceptLatency.record(nanos);
+  }
+
+  /**
+   * Records the delivery of a decision to every learner.
+   *
+   * @param nanos The duration of the Learn phase in nanoseconds.
+   */
+  public void recordLearn(long nanos) {
+    learnLatency.record(nanos);
+  }
+
+  /**
+   * Records how long one acceptor took to answer a Prepare or Accept request.
+   *
+   * @param voterIndex The acceptor's index in the order given to {@link #setAcceptors(List)}.
+   * @param nanos      The response time in nanoseconds.
+   */
+  public void recordAcceptorResponse(int voterIndex, long nanos) {
+    LatencyHistogram[] histograms = acceptorLatency;
+    if (voterIndex < histograms.length) {
+      histograms[voterIndex].record(nanos);
+    }
+  }
+
+  /**
+   * Records a round abandoned because too few acceptors promised.
+   */
+  public void recordAbort() {
+    aborts.incrementAndGet();
+  }
+
+  /**
+   * Records a proposal retried after a failed Accept round.
+   */
+  public void recordRetry() {
+    retries.incrementAndGet();
+  }
+
+  /**
+   * Records a round that chose a previously accepted value instead of the client's.
+   */
+  public void recordOverride() {
+    overrides.incrementAndGet();
+  }
+
+  @Override
+  public long getProposals() {
+    return proposals.get();
+  }
+
+  @Override
+  public long getSucceeded() {
+    return succeeded.get();
+  }
+
+  @Override
+  public long getFailed() {
+    return failed.get();
+  }
+
+  @Override
+  public long getRounds() {
+    return rounds.get();
+  }
+
+  @Override
+  public long getPromises() {
+    return promises.get();
+  }
+
+  @Override
+  public long getPrepareRejections() {
+    return prepareRejections.get();
+  }
+
+  @Override
+  public long getAccepts() {
+    return accepts.get();
+  }
+
+  @Override
+  public long getAcceptRejections() {
+    return acceptRejections.get();
+  }
+
+  @Override
+  public long getSkippedAcceptors() {
+    return skippedAcceptors.get();
+  }
+
+  @Override
+  public long getAborts() {
+    return aborts.get();
+  }
+
+  @Override
+  public long getRetries() {
+    return retries.get();
+  }
+
+  @Override
+  public long getOverrides() {
+    return overrides.get();
+  }
+
+  @Override
+  public LatencySummary getProposalLatency() {
+    return LatencySummary.of(proposalLatency);
+  }
+
+  @Override
+  public LatencySummary getPrepareLatency() {
+    return LatencySummary.of(prepareLatency);
+  }
+
+  @Override
+  public LatencySummary getAcceptLatency() {
+    return LatencySummary.of(acceptLatency);
+  }
+
+  @Override
+  public LatencySummary getLearnLatency() {
+    return LatencySummary.of(learnLatency);
+  }
+
+  @Override
+  public Map<String, LatencySummary> getAcceptorLatency() {
+    List<String> ids = acceptorIds;
+    LatencyHistogram[] histograms = acceptorLatency;
+    Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+    for (int i = 0; i < Math.min(ids.size(), histograms.length); i++) {
+      summaries.put(ids.get(i), LatencySummary.of(histograms[i]));
+    }
+    return summaries;
+  }
+
+  @Override
+  public void reset() {
+    for (AtomicLong counter : new AtomicLong[] {proposals, succeeded, failed, rounds, promises, prepareRejections,
+            accepts, acceptRejections, skippedAcceptors, aborts, retries, overrides}) {
+      counter.set(0);
+    }
+    for (LatencyHistogram histogram : new LatencyHistogram[] {proposalLatency, prepareLatency, acceptLatency,
+            learnLatency}) {
+      histogram.reset();
+    }
+    for (LatencyHistogram histogram : acceptorLatency) {
+      histogram.reset();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ConsensusMetrics{" +
+            "proposals=" + getProposals() +
+            ", succeeded=" + getSucceeded() +
+            ", failed=" + getFailed() +
+            ", rounds=" + getRounds() +
+            ", promises=" + getPromises() +
+            ", prepareRejections=" + getPrepareRejections() +
+            ", accepts=" + getAccepts() +
+            ", acceptRejections=" + getAcceptRejections() +
+            ", skippedAcceptors=" + getSkippedAcceptors() +
+            ", aborts=" + getAborts() +
+            ", retries=" + getRetries() +
+            ", overrides=" + getOverrides() +
+            ", prepare=[" + getPrepareLatency() + "]" +
+            ", accept=[" + getAcceptLatency() + "]" +
+            ", learn=[" + getLearnLatency() + "]" +
+            '}';
+  }
+}
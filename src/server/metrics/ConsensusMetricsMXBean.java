@@ -0,0 +1,52 @@
+package server.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of a proposer's {@link ConsensusMetrics}.
+ */
+public interface ConsensusMetricsMXBean {
+  long getProposals();
+
+  long getSucceeded();
+
+  long getFailed();
+
+  long getRounds();
+
+  long getPromises();
+
+  long getPrepareRejections();
+
+  long getAccepts();
+
+  long getAcceptRejections();
+
+  long getSkippedAcceptors();
+
+  long getAborts();
+
+  long getRetries();
+
+  long getOverrides();
+
+  LatencySummary getProposalLatency();
+
+  LatencySummary getPrepareLatency();
+
+  LatencySummary getAcceptLatency();
+
+  LatencySummary getLearnLatency();
+
+  /**
+   * Returns the Prepare and Accept response times of each acceptor, keyed by replica ID.
+   *
+   * @return The per-acceptor latency summaries.
+   */
+  Map<String, LatencySummary> getAcceptorLatency();
+
+  /**
+   * Clears every counter and histogram.
+   */
+  void reset();
+}
@@ -0,0 +1,71 @@
+package server.metrics;
+
+import util.LatencyHistogram;
+
+/**
+ * An immutable snapshot of a {@link LatencyHistogram}, in microseconds, as exposed over JMX.
+ * MXBeans map it to a composite value with one item per getter.
+ */
+public class LatencySummary {
+  private final long count;
+  private final double meanMicros;
+  private final double p50Micros;
+  private final double p99Micros;
+  private final double p999Micros;
+  private final double maxMicros;
+
+  private LatencySummary(long count, double meanMicros, double p50Micros, double p99Micros,
+                         double p999Micros, double maxMicros) {
+    this.count = count;
+    this.meanMicros = meanMicros;
+    this.p50Micros = p50Micros;
+    this.p99Micros = p99Micros;
+    this.p999Micros = p999Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  /**
+   * Summarizes a histogram of nanosecond values.
+   *
+   * @param histogram The histogram to read.
+   * @return The summary.
+   */
+  public static LatencySummary of(LatencyHistogram histogram) {
+    return new LatencySummary(histogram.getCount(),
+            histogram.getMean() / 1000.0,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMax() / 1000.0);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getMeanMicros() {
+    return meanMicros;
+  }
+
+  public double getP50Micros() {
+    return p50Micros;
+  }
+
+  public double getP99Micros() {
+    return p99Micros;
+  }
+
+  public double getP999Micros() {
+    return p999Micros;
+  }
+
+  public double getMaxMicros() {
+    return maxMicros;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            count, meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+  }
+}
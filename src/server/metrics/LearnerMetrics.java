@@ -0,0 +1,46 @@
+package server.metrics;
+
+import util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how far a learner's state trails consensus: the time from the moment a proposer
+ * reached a decision to the moment this learner applied it, whether it arrived in a Learn
+ * message or was fetched later during catch-up. Recording never allocates.
+ */
+public class LearnerMetrics implements LearnerMetricsMXBean {
+  private final AtomicLong applied = new AtomicLong();
+  private final LatencyHistogram applyLag = new LatencyHistogram();
+
+  /**
+   * Records one applied decision.
+   *
+   * @param lagNanos Nanoseconds between the decision and its application.
+   */
+  public void recordApply(long lagNanos) {
+    applied.incrementAndGet();
+    applyLag.record(lagNanos);
+  }
+
+  @Override
+  public long getApplied() {
+    return applied.get();
+  }
+
+  @Override
+  public LatencySummary getApplyLag() {
+    return LatencySummary.of(applyLag);
+  }
+
+  @Override
+  public void reset() {
+    applied.set(0);
+    applyLag.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "LearnerMetrics{applied=" + getApplied() + ", applyLag=" + getApplyLag() + '}';
+  }
+}
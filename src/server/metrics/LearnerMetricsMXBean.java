@@ -0,0 +1,15 @@
+package server.metrics;
+
+/**
+ * The JMX view of a learner's {@link LearnerMetrics}.
+ */
+public interface LearnerMetricsMXBean {
+  long getApplied();
+
+  LatencySummary getApplyLag();
+
+  /**
+   * Clears the apply counter and lag histogram.
+   */
+  void reset();
+}
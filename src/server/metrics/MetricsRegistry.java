@@ -0,0 +1,76 @@
+package server.metrics;
+
+import util.LoggerUtil;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+/**
+ * Registers replica metrics with the platform MBean server under
+ * {@code paxos.kvstore:type=<type>,replica=<id>}, plus {@code ,shard=<n>} when the keyspace is
+ * sharded, so they can be read with JConsole or any JMX client.
+ * Registering a name that is already taken replaces the old bean, as happens when one JVM
+ * builds several clusters in turn.
+ */
+public final class MetricsRegistry {
+  private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private static final String DOMAIN = "paxos.kvstore";
+
+  private MetricsRegistry() {
+  }
+
+  /**
+   * Registers an MBean for a replica. Failures are logged and otherwise ignored, since metrics
+   * must never stop a replica from starting.
+   *
+   * @param type      The kind of metrics, e.g. "Consensus".
+   * @param replicaId The ID of the replica they belong to.
+   * @param mbean     The MBean or MXBean implementation.
+   */
+  public static void register(String type, int replicaId, Object mbean) {
+    register(type, ",replica=" + replicaId, mbean);
+  }
+
+  /**
+   * Registers an MBean for one shard of a replica.
+   *
+   * @param type      The kind of metrics, e.g. "Consensus".
+   * @param replicaId The ID of the replica they belong to.
+   * @param shard     The shard they belong to.
+   * @param mbean     The MBean or MXBean implementation.
+   */
+  public static void register(String type, int replicaId, int shard, Object mbean) {
+    register(type, ",replica=" + replicaId + ",shard=" + shard, mbean);
+  }
+
+  /**
+   * Registers an MBean that belongs to no replica, such as the LoadBalancer's, under
+   * {@code paxos.kvstore:type=<type>}.
+   *
+   * @param type  The kind of metrics, e.g. "Hedging".
+   * @param mbean The MBean or MXBean implementation.
+   */
+  public static void register(String type, Object mbean) {
+    register(type, "", mbean);
+  }
+
+  private static void register(String type, String keys, Object mbean) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(DOMAIN + ":type=" + type + keys);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(mbean, name);
+    } catch (Exception e) {
+      LOGGER.warning("Could not register " + type + " metrics" + keys + ": " + e);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package server.raft;
+
+import server.actions.Action;
+
+import java.io.Serializable;
+
+/**
+ * Represents a single entry in a Raft replicated log.
+ * Each entry records the term in which the leader created it, its position in the log,
+ * and the action to apply once the entry is committed. A null action marks the no-op entry
+ * a new leader appends to commit entries from earlier terms.
+ */
+public class RaftLogEntry implements Serializable {
+  private final long term;
+  private final int index;
+  private final Action action;
+
+  /**
+   * Constructs a RaftLogEntry.
+   *
+   * @param term   The leader term in which the entry was created.
+   * @param index  The 1-based position of the entry in the log.
+   * @param action The action (PUT/DELETE) carried by the entry, or null for a no-op.
+   */
+  public RaftLogEntry(long term, int index, Action action) {
+    this.term = term;
+    this.index = index;
+    this.action = action;
+  }
+
+  /**
+   * Returns the term in which this entry was created.
+   *
+   * @return The entry term.
+   */
+  public long getTerm() {
+    return term;
+  }
+
+  /**
+   * Returns the position of this entry in the log.
+   *
+   * @return The 1-based log index.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the action carried by this entry.
+   *
+   * @return The action to apply, or null for a no-op entry.
+   */
+  public Action getAction() {
+    return action;
+  }
+
+  @Override
+  public String toString() {
+    return "RaftLogEntry{" +
+            "term=" + term +
+            ", index=" + index +
+            ", action=" + action +
+            '}';
+  }
+}
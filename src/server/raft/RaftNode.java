@@ -0,0 +1,472 @@
+package server.raft;
+
+import remote.VersionedValue;
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.VersionedStore;
+import server.messages.AppendEntriesRequest;
+import server.messages.AppendEntriesResponse;
+import server.messages.RequestVoteRequest;
+import server.messages.RequestVoteResponse;
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * A single Raft replica. Handles leader election, replicates the log to followers in
+ * batched AppendEntries rounds, and applies entries to the local key-value store once
+ * the commit index covers them. Read-modify-write entries such as compare-and-set are
+ * evaluated when applied, in log order, so every node reaches the same outcome.
+ * Peers call each other directly, mirroring how the Paxos roles talk to each other.
+ * The node never holds its own monitor while calling a peer, so two nodes calling
+ * each other at the same time cannot deadlock.
+ */
+public class RaftNode extends Thread {
+  private static final Logger LOGGER = Logger.getLogger(RaftNode.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  /**
+   * The role a Raft node currently plays.
+   */
+  public enum Role { FOLLOWER, CANDIDATE, LEADER }
+
+  private static final long HEARTBEAT_INTERVAL_MS = 50;
+  private static final long ELECTION_TIMEOUT_MIN_MS = 150;
+  private static final long ELECTION_TIMEOUT_MAX_MS = 300;
+  private static final long SUBMIT_TIMEOUT_MS = 2000;
+  private static final int MAX_BATCH_SIZE = 64;
+
+  private final int id;
+  private final VersionedStore store;
+  private final Random random = new Random();
+
+  // Persistent Raft state. The log is 1-based: entry i lives at log.get(i - 1).
+  private final List<RaftLogEntry> log = new ArrayList<>();
+  private long currentTerm = 0;
+  private int votedFor = -1;
+
+  // Volatile Raft state
+  private Role role = Role.FOLLOWER;
+  private int leaderId = -1;
+  private int commitIndex = 0;
+  private int lastApplied = 0;
+  private long electionDeadline;
+
+  // Leader state, keyed by peer ID
+  private final Map<Integer, Integer> nextIndex = new HashMap<>();
+  private final Map<Integer, Integer> matchIndex = new HashMap<>();
+
+  private volatile List<RaftNode> peers = new ArrayList<>();
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a RaftNode with a unique ID.
+   *
+   * @param id            The ID of this node (usually the replica/server ID).
+   * @param keyValueStore The store committed entries are applied to.
+   */
+  public RaftNode(int id, Map<String, String> keyValueStore) {
+    this.id = id;
+    this.store = new VersionedStore(keyValueStore);
+    this.electionDeadline = nextElectionDeadline();
+    setName("RaftNode-" + id);
+    setDaemon(true);
+  }
+
+  /**
+   * Sets the other nodes of the cluster. Must be called before the node is started.
+   *
+   * @param peers All other Raft nodes in the cluster.
+   */
+  public void setPeers(List<RaftNode> peers) {
+    this.peers = new ArrayList<>(peers);
+  }
+
+  /**
+   * Returns the ID of this node.
+   *
+   * @return The node ID.
+   */
+  public int getNodeId() {
+    return id;
+  }
+
+  /**
+   * Returns whether this node currently believes it is the leader.
+   *
+   * @return True if this node is the leader.
+   */
+  public synchronized boolean isLeader() {
+    return role == Role.LEADER;
+  }
+
+  /**
+   * Returns the leader this node last heard from, which may be itself.
+   *
+   * @return The leader node, or null if no leader is known.
+   */
+  public synchronized RaftNode getKnownLeader() {
+    if (role == Role.LEADER) {
+      return this;
+    }
+    for (RaftNode peer : peers) {
+      if (peer.getNodeId() == leaderId) {
+        return peer;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a key's value in this node's store together with its version.
+   *
+   * @param key The key.
+   * @return The value and version.
+   */
+  public synchronized VersionedValue getVersioned(String key) {
+    return store.getVersioned(key);
+  }
+
+  /**
+   * Returns the outcome of a read-modify-write request this node has applied.
+   *
+   * @param requestId The request ID.
+   * @return The outcome, or null if the request has not been applied here.
+   */
+  public synchronized ActionResult getResult(long requestId) {
+    return store.getResult(requestId);
+  }
+
+  /**
+   * Appends an action to the leader's log and waits until it is committed and applied.
+   *
+   * @param action PUT/DELETE of a certain key value pair, or a read-modify-write action.
+   * @return true if the action was committed in the term it was submitted, false otherwise
+   *         (not the leader, leadership lost, or timeout).
+   */
+  public synchronized boolean submit(Action action) {
+    if (role != Role.LEADER) {
+      return false;
+    }
+
+    long term = currentTerm;
+    int index = log.size() + 1;
+    log.add(new RaftLogEntry(term, index, action));
+    notifyAll(); // wake the replicator so the entry joins the next batch
+
+    long deadline = System.currentTimeMillis() + SUBMIT_TIMEOUT_MS;
+    while (lastApplied < index && currentTerm == term) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        LOGGER.warning("RaftNode " + id + " timed out waiting for index " + index + " to commit.");
+        return false;
+      }
+      try {
+        wait(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return lastApplied >= index && termAt(index) == term;
+  }
+
+  /**
+   * Handles an AppendEntries request from a leader.
+   *
+   * @param req The AppendEntries request.
+   * @return The follower's response.
+   */
+  public synchronized AppendEntriesResponse appendEntries(AppendEntriesRequest req) {
+    if (req.getTerm() < currentTerm) {
+      return new AppendEntriesResponse(currentTerm, false, 0);
+    }
+    if (req.getTerm() > currentTerm || role != Role.FOLLOWER) {
+      becomeFollower(req.getTerm());
+    }
+    leaderId = req.getLeaderId();
+    electionDeadline = nextElectionDeadline();
+
+    int prevIndex = req.getPrevLogIndex();
+    if (prevIndex > log.size() || termAt(prevIndex) != req.getPrevLogTerm()) {
+      // Tell the leader where our log is known to end so it can skip back in one step
+      return new AppendEntriesResponse(currentTerm, false, Math.min(log.size(), prevIndex - 1));
+    }
+
+    int index = prevIndex;
+    for (RaftLogEntry entry : req.getEntries()) {
+      index++;
+      if (index <= log.size()) {
+        if (termAt(index) == entry.getTerm()) {
+          continue;
+        }
+        log.subList(index - 1, log.size()).clear(); // drop the conflicting suffix
+      }
+      log.add(entry);
+    }
+
+    if (req.getLeaderCommit() > commitIndex) {
+      commitIndex = Math.min(req.getLeaderCommit(), index);
+      applyCommitted();
+    }
+    return new AppendEntriesResponse(currentTerm, true, index);
+  }
+
+  /**
+   * Handles a RequestVote message from a candidate.
+   *
+   * @param req The RequestVote message.
+   * @return The vote response.
+   */
+  public synchronized RequestVoteResponse requestVote(RequestVoteRequest req) {
+    if (req.getTerm() < currentTerm) {
+      return new RequestVoteResponse(currentTerm, false);
+    }
+    if (req.getTerm() > currentTerm) {
+      becomeFollower(req.getTerm());
+    }
+
+    long lastTerm = termAt(log.size());
+    boolean upToDate = req.getLastLogTerm() > lastTerm
+            || (req.getLastLogTerm() == lastTerm && req.getLastLogIndex() >= log.size());
+    if ((votedFor == -1 || votedFor == req.getCandidateId()) && upToDate) {
+      votedFor = req.getCandidateId();
+      electionDeadline = nextElectionDeadline();
+      LOGGER.info("RaftNode " + id + " voted for " + req.getCandidateId() + " in term " + currentTerm);
+      return new RequestVoteResponse(currentTerm, true);
+    }
+    return new RequestVoteResponse(currentTerm, false);
+  }
+
+  /**
+   * Stops the node's election and replication loop.
+   */
+  public void shutdown() {
+    running = false;
+    interrupt();
+  }
+
+  @Override
+  public void run() {
+    LOGGER.info("RaftNode " + id + " is now running.");
+    while (running) {
+      try {
+        Role current;
+        synchronized (this) {
+          current = role;
+        }
+        if (current == Role.LEADER) {
+          replicateToPeers();
+          synchronized (this) {
+            if (role == Role.LEADER && !hasPendingEntries()) {
+              wait(HEARTBEAT_INTERVAL_MS);
+            }
+          }
+        } else {
+          boolean electionDue;
+          synchronized (this) {
+            long remaining = electionDeadline - System.currentTimeMillis();
+            electionDue = remaining <= 0;
+            if (!electionDue) {
+              wait(remaining);
+            }
+          }
+          if (electionDue) {
+            startElection();
+          }
+        }
+      } catch (InterruptedException e) {
+        if (!running) {
+          break;
+        }
+      }
+    }
+    LOGGER.info("RaftNode " + id + " stopped.");
+  }
+
+  /**
+   * Runs one election round as a candidate for the next term.
+   */
+  private void startElection() {
+    RequestVoteRequest request;
+    synchronized (this) {
+      currentTerm++;
+      role = Role.CANDIDATE;
+      votedFor = id;
+      leaderId = -1;
+      electionDeadline = nextElectionDeadline();
+      request = new RequestVoteRequest(currentTerm, id, log.size(), termAt(log.size()));
+    }
+    LOGGER.info("RaftNode " + id + " starting election for term " + request.getTerm());
+
+    int votes = 1;
+    for (RaftNode peer : peers) {
+      RequestVoteResponse response = peer.requestVote(request);
+      synchronized (this) {
+        if (response.getTerm() > currentTerm) {
+          becomeFollower(response.getTerm());
+          return;
+        }
+        if (role != Role.CANDIDATE || currentTerm != request.getTerm()) {
+          return;
+        }
+      }
+      if (response.isVoteGranted()) {
+        votes++;
+      }
+    }
+
+    synchronized (this) {
+      if (role == Role.CANDIDATE && currentTerm == request.getTerm() && votes >= majority()) {
+        becomeLeader();
+      }
+    }
+  }
+
+  /**
+   * Sends one AppendEntries batch (or heartbeat) to every peer and advances the commit index.
+   */
+  private void replicateToPeers() {
+    for (RaftNode peer : peers) {
+      AppendEntriesRequest request;
+      synchronized (this) {
+        if (role != Role.LEADER) {
+          return;
+        }
+        int next = nextIndex.getOrDefault(peer.getNodeId(), log.size() + 1);
+        int prevIndex = next - 1;
+        int end = Math.min(log.size(), prevIndex + MAX_BATCH_SIZE);
+        List<RaftLogEntry> batch = new ArrayList<>(log.subList(prevIndex, end));
+        request = new AppendEntriesRequest(currentTerm, id, prevIndex, termAt(prevIndex), batch, commitIndex);
+      }
+
+      AppendEntriesResponse response = peer.appendEntries(request);
+
+      synchronized (this) {
+        if (response.getTerm() > currentTerm) {
+          becomeFollower(response.getTerm());
+          return;
+        }
+        if (role != Role.LEADER || currentTerm != request.getTerm()) {
+          return;
+        }
+        int peerId = peer.getNodeId();
+        if (response.isSuccess()) {
+          matchIndex.put(peerId, Math.max(matchIndex.getOrDefault(peerId, 0), response.getMatchIndex()));
+          nextIndex.put(peerId, matchIndex.get(peerId) + 1);
+        } else {
+          int retryFrom = Math.min(request.getPrevLogIndex(), response.getMatchIndex() + 1);
+          nextIndex.put(peerId, Math.max(1, retryFrom));
+        }
+      }
+    }
+
+    synchronized (this) {
+      if (role == Role.LEADER) {
+        advanceCommitIndex();
+      }
+    }
+  }
+
+  /**
+   * Moves the commit index to the highest current-term entry stored on a majority.
+   * Must be called while holding this node's monitor.
+   */
+  private void advanceCommitIndex() {
+    for (int n = log.size(); n > commitIndex; n--) {
+      if (termAt(n) != currentTerm) {
+        break; // only entries from the current term are committed by counting replicas
+      }
+      int replicas = 1;
+      for (int match : matchIndex.values()) {
+        if (match >= n) {
+          replicas++;
+        }
+      }
+      if (replicas >= majority()) {
+        commitIndex = n;
+        applyCommitted();
+        break;
+      }
+    }
+  }
+
+  /**
+   * Applies every committed but not yet applied entry to the key-value store.
+   * Must be called while holding this node's monitor.
+   */
+  private void applyCommitted() {
+    while (lastApplied < commitIndex) {
+      RaftLogEntry entry = log.get(lastApplied);
+      if (entry.getAction() != null) {
+        store.apply(entry.getAction());
+      }
+      lastApplied++;
+    }
+    notifyAll(); // release submitters waiting on their index
+  }
+
+  /**
+   * Steps down to follower in the given term. Must be called while holding this node's monitor.
+   */
+  private void becomeFollower(long term) {
+    if (term > currentTerm) {
+      currentTerm = term;
+      votedFor = -1;
+    }
+    if (role != Role.FOLLOWER) {
+      LOGGER.info("RaftNode " + id + " stepping down to follower in term " + currentTerm);
+    }
+    role = Role.FOLLOWER;
+    electionDeadline = nextElectionDeadline();
+    notifyAll();
+  }
+
+  /**
+   * Takes over leadership and appends a no-op so entries from earlier terms can commit.
+   * Must be called while holding this node's monitor.
+   */
+  private void becomeLeader() {
+    role = Role.LEADER;
+    leaderId = id;
+    nextIndex.clear();
+    matchIndex.clear();
+    for (RaftNode peer : peers) {
+      nextIndex.put(peer.getNodeId(), log.size() + 1);
+      matchIndex.put(peer.getNodeId(), 0);
+    }
+    log.add(new RaftLogEntry(currentTerm, log.size() + 1, null));
+    LOGGER.info("RaftNode " + id + " became LEADER for term " + currentTerm);
+    notifyAll();
+  }
+
+  private boolean hasPendingEntries() {
+    for (RaftNode peer : peers) {
+      if (nextIndex.getOrDefault(peer.getNodeId(), log.size() + 1) <= log.size()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long termAt(int index) {
+    return index == 0 ? 0 : log.get(index - 1).getTerm();
+  }
+
+  private int majority() {
+    return (peers.size() + 1) / 2 + 1;
+  }
+
+  private long nextElectionDeadline() {
+    long spread = ELECTION_TIMEOUT_MAX_MS - ELECTION_TIMEOUT_MIN_MS;
+    return System.currentTimeMillis() + ELECTION_TIMEOUT_MIN_MS + (long) (random.nextDouble() * spread);
+  }
+}
@@ -2,6 +2,7 @@ package server.roles;
 
 import server.messages.*;
 import server.actions.Action;
+import server.tracing.Tracer;
 import util.LoggerUtil;
 
 import java.util.Map;
@@ -11,6 +12,10 @@ import java.util.logging.Logger;
 /**
  * The Acceptor role in Paxos. Acceptors respond to Prepare and Accept requests,
  * maintain per-key Paxos state, and simulate crash-recovery by periodically restarting.
+ * Each key runs a sequence of Paxos instances 1, 2, 3, ..., one per decision. An acceptor votes in
+ * one instance of a key at a time: a Prepare or Accept for a later instance moves it on and drops
+ * the state of the earlier one, which must have been decided for a proposer to reach the later one,
+ * and requests for an instance known to be decided are rejected.
  */
 public class Acceptor extends Thread {
   private static final Logger LOGGER = Logger.getLogger(Acceptor.class.getName());
@@ -21,10 +26,13 @@ public class Acceptor extends Thread {
 
   private final int id;
 
-  // Paxos state per key
+  // Paxos state per key, all of it for the instance in promisedInstances
+  private final Map<String, Long> promisedInstances = new ConcurrentHashMap<>();
   private final Map<String, Long> promisedProposals = new ConcurrentHashMap<>();
   private final Map<String, Long> acceptedProposals = new ConcurrentHashMap<>();
   private final Map<String, Action> acceptedActions = new ConcurrentHashMap<>();
+  // Highest instance per key that this replica's learner applied
+  private final Map<String, Long> decidedInstances = new ConcurrentHashMap<>();
 
   /**
    * Constructs an Acceptor with a unique ID.
@@ -43,29 +51,42 @@ public class Acceptor extends Thread {
 
   /**
    * Handles a Prepare request from a proposer.
-   * Returns a Promise if the proposal number is valid.
+   * Promises if the instance is not known to be decided and the proposal number is the highest
+   * seen in that instance. Only a value accepted in the same instance is reported back.
    *
    * @param req The Prepare request.
-   * @return A PromiseResponse or null if rejected.
+   * @return A promise, or a rejection carrying the highest instance known to be decided.
    */
   public synchronized PromiseResponse receivePrepare(PrepareRequest req) {
     String key = req.getKey();
     long proposalNumber = req.getProposalNumber();
+    long instance = req.getInstance();
+    long start = req.getTraceId() != 0 ? System.nanoTime() : 0;
 
-    long promised = promisedProposals.getOrDefault(key, -1L);
-    if (proposalNumber > promised) {
-      promisedProposals.put(key, proposalNumber);
-      LOGGER.info("Acceptor " + id + " promised proposal " + proposalNumber + " for key [" + key + "]");
-      return new PromiseResponse(proposalNumber,
-              acceptedProposals.getOrDefault(key, -1L),
-              acceptedActions.get(key));
+    long decided = knownDecided(key);
+    long promised = promisedIn(key, instance);
+    boolean promise = instance > decided && proposalNumber > promised;
+    if (req.getTraceId() != 0) {
+      Tracer.record(req.getTraceId(), "acceptor.prepare", id, start, System.nanoTime(),
+              "#" + proposalNumber + "/" + instance + (promise ? " promised" : rejection(instance, decided, promised)));
     }
-    return null;
+    if (!promise) {
+      return PromiseResponse.rejected(promised, decided);
+    }
+    moveTo(key, instance);
+    promisedProposals.put(key, proposalNumber);
+    if (LoggerUtil.isRequestLoggable(LOGGER)) {
+      LOGGER.info("Acceptor " + id + " promised proposal " + proposalNumber + " for key [" + key + "] instance " + instance);
+    }
+    return new PromiseResponse(proposalNumber,
+            acceptedProposals.getOrDefault(key, -1L),
+            acceptedActions.get(key));
   }
 
   /**
    * Handles an Accept request from a proposer.
-   * Returns an AcceptResponse if the proposal is accepted.
+   * Accepts unless the instance is known to be decided, or a higher proposal number was promised
+   * in the same instance.
    *
    * @param req The Accept request.
    * @return An AcceptResponse or null if rejected.
@@ -73,25 +94,80 @@ public class Acceptor extends Thread {
   public synchronized AcceptResponse receiveAccept(AcceptRequest req) {
     String key = req.getAction().getKey();
     long proposalNumber = req.getProposalNumber();
+    long instance = req.getInstance();
 
-    long promised = promisedProposals.getOrDefault(key, -1L);
-    if (proposalNumber >= promised) {
+    long start = req.getTraceId() != 0 ? System.nanoTime() : 0;
+    long decided = knownDecided(key);
+    long promised = promisedIn(key, instance);
+    if (instance > decided && proposalNumber >= promised) {
+      moveTo(key, instance);
+      promisedProposals.put(key, proposalNumber);
       acceptedProposals.put(key, proposalNumber);
       acceptedActions.put(key, req.getAction());
-      LOGGER.info("Acceptor " + id + " accepted proposal " + proposalNumber + " for key [" + key + "]");
+      if (req.getTraceId() != 0) {
+        Tracer.record(req.getTraceId(), "acceptor.accept", id, start, System.nanoTime(),
+                "#" + proposalNumber + "/" + instance + " accepted");
+      }
+      if (LoggerUtil.isRequestLoggable(LOGGER)) {
+        LOGGER.info("Acceptor " + id + " accepted proposal " + proposalNumber + " for key [" + key + "] instance " + instance);
+      }
       return new AcceptResponse(proposalNumber, req.getAction());
     }
+    if (req.getTraceId() != 0) {
+      Tracer.record(req.getTraceId(), "acceptor.accept", id, start, System.nanoTime(),
+              "#" + proposalNumber + "/" + instance + rejection(instance, decided, promised));
+    }
     return null;
   }
 
   /**
-   * Clear state for a key once a value is learned.
-   * @param key key state to be cleared.
+   * Records that an instance of a key was decided and applied, and drops the key's Paxos state
+   * if it belongs to that instance or an earlier one.
+   *
+   * @param key      The key.
+   * @param instance The decided instance.
+   */
+  public synchronized void markDecided(String key, long instance) {
+    decidedInstances.merge(key, instance, Math::max);
+    if (promisedInstances.getOrDefault(key, 0L) <= instance) {
+      promisedInstances.remove(key);
+      promisedProposals.remove(key);
+      acceptedProposals.remove(key);
+      acceptedActions.remove(key);
+    }
+    if (LoggerUtil.isRequestLoggable(LOGGER)) {
+      LOGGER.info("Acceptor " + id + " marked instance " + instance + " decided for key: " + key);
+    }
+  }
+
+  /**
+   * Returns the highest instance of a key known to be decided: the one this replica applied, or
+   * the one before the instance a proposer already moved on to.
+   */
+  private long knownDecided(String key) {
+    return Math.max(decidedInstances.getOrDefault(key, 0L), promisedInstances.getOrDefault(key, 0L) - 1);
+  }
+
+  /**
+   * Returns the proposal number promised in an instance of a key, or -1 if none was.
+   */
+  private long promisedIn(String key, long instance) {
+    return instance == promisedInstances.getOrDefault(key, 0L) ? promisedProposals.getOrDefault(key, -1L) : -1L;
+  }
+
+  /**
+   * Starts voting in a later instance of a key, forgetting the earlier instance's state.
    */
-  public synchronized void clearStateForKey(String key) {
-    promisedProposals.remove(key);
-    acceptedProposals.remove(key);
-    acceptedActions.remove(key);
-    LOGGER.info("Acceptor " + id + " cleared Paxos state for key: " + key);
+  private void moveTo(String key, long instance) {
+    if (instance > promisedInstances.getOrDefault(key, 0L)) {
+      promisedInstances.put(key, instance);
+      promisedProposals.remove(key);
+      acceptedProposals.remove(key);
+      acceptedActions.remove(key);
+    }
+  }
+
+  private static String rejection(long instance, long decided, long promised) {
+    return instance <= decided ? " rejected, decided " + decided : " rejected, promised #" + promised;
   }
 }
@@ -6,7 +6,10 @@ import java.util.Random;
 import java.util.logging.Logger;
 
 /**
- * Supervises a single Acceptor instance. Simulates periodic failure and automatic recovery.
+ * Supervises a single Acceptor instance.
+ * With failure simulation enabled (a test mode), the acceptor fails after a random number of
+ * checks and restarts automatically. Otherwise the acceptor stays up, and the live acceptor is
+ * read without locking.
  */
 public class AcceptorSupervisor {
   private static final Logger LOGGER = Logger.getLogger(AcceptorSupervisor.class.getName());
@@ -16,22 +19,50 @@ public class AcceptorSupervisor {
   }
 
   private final int id;
+  private final boolean simulateFailures;
   private final Random random = new Random();
 
-  private Acceptor currentAcceptor;
+  private volatile Acceptor currentAcceptor;
+  private volatile boolean crashed;
   private int remainingChecks = 0;
 
+  /**
+   * Constructs a supervisor whose acceptor never fails on its own.
+   *
+   * @param id The ID of the supervised acceptor.
+   */
   public AcceptorSupervisor(int id) {
+    this(id, false);
+  }
+
+  /**
+   * Constructs a supervisor.
+   *
+   * @param id               The ID of the supervised acceptor.
+   * @param simulateFailures True to fail the acceptor after a random 1 to 6 checks.
+   */
+  public AcceptorSupervisor(int id, boolean simulateFailures) {
     this.id = id;
+    this.simulateFailures = simulateFailures;
     resetAcceptor();
   }
 
   /**
    * Returns a live acceptor if available.
    * If the acceptor has failed, returns null.
-   * If cooldown has passed, restarts automatically.
+   * Under failure simulation, if cooldown has passed, restarts automatically.
    */
-  public synchronized Acceptor getLiveAcceptor() {
+  public Acceptor getLiveAcceptor() {
+    if (crashed) {
+      return null;
+    }
+    if (!simulateFailures) {
+      return currentAcceptor;
+    }
+    return getSimulatedLiveAcceptor();
+  }
+
+  private synchronized Acceptor getSimulatedLiveAcceptor() {
     if (remainingChecks <= 0) {
       if (currentAcceptor != null) {
         LOGGER.warning("Acceptor " + id + " FAILED.");
@@ -42,7 +73,9 @@ public class AcceptorSupervisor {
     }
 
     remainingChecks--;
-    LOGGER.info("Acceptor " + id + " responding (checks left: " + remainingChecks + ")");
+    if (LoggerUtil.isRequestLoggable(LOGGER)) {
+      LOGGER.info("Acceptor " + id + " responding (checks left: " + remainingChecks + ")");
+    }
     return currentAcceptor;
   }
 
@@ -50,16 +83,55 @@ public class AcceptorSupervisor {
    * Returns the current acceptor.
    * @return Acceptor
    */
-  public synchronized Acceptor getCurrentAcceptor() {
+  public Acceptor getCurrentAcceptor() {
     return currentAcceptor;
   }
 
+  /**
+   * Returns whether the acceptor is currently up.
+   * @return true unless the acceptor has failed and not yet restarted.
+   */
+  public boolean isAcceptorUp() {
+    return !crashed && currentAcceptor != null;
+  }
+
+  /**
+   * Crashes the acceptor until {@link #restart()} is called. Its Paxos state is lost.
+   */
+  public synchronized void crash() {
+    crashed = true;
+    currentAcceptor = null;
+    LOGGER.warning("Acceptor " + id + " CRASHED.");
+  }
+
+  /**
+   * Restarts a crashed acceptor with fresh state. Does nothing if it is running.
+   */
+  public synchronized void restart() {
+    if (crashed) {
+      crashed = false;
+      resetAcceptor();
+    }
+  }
+
+  /**
+   * Returns whether this supervisor simulates acceptor failures.
+   * @return true in failure simulation mode.
+   */
+  public boolean isSimulatingFailures() {
+    return simulateFailures;
+  }
+
   /**
    * Immediately resets the Acceptor with a new failure threshold.
    */
   public synchronized void resetAcceptor() {
     currentAcceptor = new Acceptor(id);
-    remainingChecks = 1 + random.nextInt(6); // 1 to 6 checks before failure
-    LOGGER.info("Acceptor " + id + " STARTED (new checks: " + remainingChecks + ")");
+    if (simulateFailures) {
+      remainingChecks = 1 + random.nextInt(6); // 1 to 6 checks before failure
+      LOGGER.info("Acceptor " + id + " STARTED (new checks: " + remainingChecks + ")");
+    } else {
+      LOGGER.info("Acceptor " + id + " STARTED");
+    }
   }
 }
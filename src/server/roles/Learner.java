@@ -1,15 +1,56 @@
 package server.roles;
 
+import server.antientropy.MerkleTree;
 import server.messages.LearnMessage;
+import server.messages.RepairEntry;
+import server.messages.StateSnapshot;
+import server.jfr.LearnerApplyEvent;
+import server.metrics.CatchUpMetrics;
+import server.metrics.LearnerMetrics;
+import server.tracing.Tracer;
 import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.FragmentPutAction;
+import server.actions.ReadModifyWriteAction;
+import remote.VersionedValue;
 import util.LoggerUtil;
+import util.ReedSolomon;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
 /**
  * The Learner role in Paxos. Learners apply agreed-upon actions to their local key-value store.
- * Ensures that each Paxos decision is applied exactly once per key and proposal number.
+ * Each decision belongs to one Paxos instance of its key, and a key's decisions are applied exactly
+ * once and in instance order, whichever proposers reached them and whatever order their Learn
+ * messages arrive in: a decision that arrives ahead of an earlier instance is held back until the
+ * gap is filled.
+ *
+ * <p>Every write applied to a key raises the key's version by one. A {@link ReadModifyWriteAction}
+ * such as compare-and-set is evaluated against the key's current value and version when it is
+ * applied, at most once per request, and the learner of the proposing replica keeps its outcome
+ * for the waiting client.
+ *
+ * <p>Each proposer numbers its decisions, so a learner that missed a Learn message sees a gap
+ * in that proposer's sequence. Gaps that outlive a short grace period are repaired by fetching
+ * the missing decisions from a peer learner in batches; a learner that is too far behind, or
+ * whose peers no longer hold the decisions it needs, installs a full snapshot from a peer instead.
+ *
+ * <p>Every change to the store is also recorded in a {@link MerkleTree}, which anti-entropy uses
+ * to find and repair keys that differ between replicas.
+ *
+ * <p>With erasure coding, each replica stores its own fragment index of a value. State taken from a
+ * peer holds the peer's fragment, so this learner rebuilds the value from k fragments held by its
+ * peers and keeps its own fragment instead.
  */
 public class Learner extends Thread {
   private static final Logger LOGGER = Logger.getLogger(Learner.class.getName());
@@ -18,9 +59,39 @@ public class Learner extends Thread {
     LoggerUtil.setupCustomLogger(LOGGER);
   }
 
+  private static final long CATCH_UP_INTERVAL_MS = 100;
+  private static final long GAP_GRACE_MS = 200;
+  private static final int HISTORY_LIMIT = 10_000;
+  private static final int MAX_BATCH = 256;
+  private static final long SNAPSHOT_THRESHOLD = 1_000;
+  private static final int MERKLE_LEAVES = 1024;
+
   private final int id;
   private final Map<String, String> keyValueStore;
   private final AcceptorSupervisor acceptorSupervisor;
+  private final CatchUpMetrics catchUpMetrics = new CatchUpMetrics();
+  private final LearnerMetrics learnerMetrics = new LearnerMetrics();
+  private final MerkleTree merkleTree = new MerkleTree(MERKLE_LEAVES);
+
+  // Guarded by this
+  private final Map<String, Long> instances = new HashMap<>();
+  private final Map<String, NavigableMap<Long, LearnMessage>> pending = new HashMap<>();
+  private final Map<Integer, Long> appliedSequences = new HashMap<>();
+  private final Map<Integer, Long> highestSequences = new HashMap<>();
+  private final Map<Integer, TreeSet<Long>> appliedAhead = new HashMap<>();
+  private final Map<Integer, NavigableMap<Long, LearnMessage>> history = new HashMap<>();
+  private int historySize;
+  private final Map<String, Long> versions = new HashMap<>();
+  private final Map<Long, String> appliedRequests = bounded(HISTORY_LIMIT);
+  private final Map<Long, ActionResult> results = bounded(HISTORY_LIMIT);
+
+  // Only touched by the learner thread
+  private final Map<Integer, Long> gapSince = new HashMap<>();
+
+  private volatile List<Learner> peers = Collections.emptyList();
+  private volatile boolean catchingUp;
+  private volatile int fragmentIndex = -1;
+  private volatile int fragmentCount;
 
   /**
    * Constructs a Learner with a unique ID.
@@ -32,24 +103,769 @@ public class Learner extends Thread {
     this.keyValueStore = keyValueStore;
     this.acceptorSupervisor = acceptorSupervisor;
     setName("Learner-" + id);
+    setDaemon(true);
   }
 
   /**
-   * Applies a learned action to the key-value store, if it hasn't been applied for this proposal number.
+   * Sets the peer learners this learner catches up from.
+   *
+   * @param peers The learners of the other replicas.
+   */
+  public void setPeers(List<Learner> peers) {
+    this.peers = new ArrayList<>(peers);
+  }
+
+  /**
+   * Sets the erasure-coded fragment this learner stores, as the proposers assign it.
+   *
+   * @param fragmentIndex The index of this replica's fragment.
+   * @param fragmentCount The number of fragments each value is split into (n).
+   */
+  public void setFragmentIndex(int fragmentIndex, int fragmentCount) {
+    this.fragmentCount = fragmentCount;
+    this.fragmentIndex = fragmentIndex;
+  }
+
+  /**
+   * Applies a learned action to the key-value store. A sequenced decision that catch-up already
+   * fetched and applied, because its Learn message arrived after the grace period, is ignored.
    *
    * @param message The LearnMessage containing the action and metadata.
    */
   public synchronized void learn(LearnMessage message) {
     Action action = message.getAction();
-    action.execute(keyValueStore);
-    if (acceptorSupervisor.getCurrentAcceptor() != null) {
-      acceptorSupervisor.getCurrentAcceptor().clearStateForKey(action.getKey());
+    if (message.getSequenceNumber() > 0 && isApplied(message)) {
+      return;
+    }
+    offer(message, false);
+    if (message.getSequenceNumber() > 0) {
+      record(message);
+    }
+    if (LoggerUtil.isRequestLoggable(LOGGER)) {
+      LOGGER.info("Learner " + id + " learned proposal " + message.getProposalNumber()
+              + " instance " + message.getInstance() + ": " + action);
+    }
+  }
+
+  /**
+   * Returns the first instance of a key this learner has neither applied nor holds back, which is
+   * where the next proposal for the key should start.
+   *
+   * @param key The key.
+   * @return The next instance, starting at 1.
+   */
+  public synchronized long nextInstance(String key) {
+    long next = instances.getOrDefault(key, 0L) + 1;
+    NavigableMap<Long, LearnMessage> held = pending.get(key);
+    return held == null || held.isEmpty() ? next : Math.max(next, held.lastKey() + 1);
+  }
+
+  /**
+   * Returns the highest decision sequence number seen from each proposer.
+   *
+   * @return A copy of the highest sequence numbers keyed by proposer ID.
+   */
+  public synchronized Map<Integer, Long> getHighestSequences() {
+    return new HashMap<>(highestSequences);
+  }
+
+  /**
+   * Returns, for each proposer, the sequence number up to which this learner holds every decision.
+   *
+   * @return A copy of the gap-free sequence watermarks keyed by proposer ID.
+   */
+  public synchronized Map<Integer, Long> getAppliedSequences() {
+    return new HashMap<>(appliedSequences);
+  }
+
+  /**
+   * Returns the decisions this learner holds for a proposer, starting at a sequence number.
+   *
+   * @param proposerId   The proposer whose decisions are requested.
+   * @param fromSequence The first sequence number wanted.
+   * @param limit        The maximum number of decisions to return.
+   * @return The decisions in sequence order, or null if the history no longer reaches back
+   *         to {@code fromSequence}.
+   */
+  public synchronized List<LearnMessage> getDecisions(int proposerId, long fromSequence, int limit) {
+    NavigableMap<Long, LearnMessage> decisions = history.get(proposerId);
+    if (decisions == null || decisions.isEmpty()) {
+      return highestSequences.getOrDefault(proposerId, 0L) < fromSequence ? new ArrayList<>() : null;
     }
-    LOGGER.info("Learner " + id + " applied proposal " + message.getProposalNumber() + ": " + action);
+    if (decisions.firstKey() > fromSequence) {
+      return null;
+    }
+    List<LearnMessage> batch = new ArrayList<>();
+    for (LearnMessage message : decisions.tailMap(fromSequence, true).values()) {
+      if (batch.size() == limit) {
+        break;
+      }
+      batch.add(message);
+    }
+    return batch;
+  }
+
+  /**
+   * Takes a snapshot of this learner's state for a peer that is too far behind.
+   *
+   * @return The snapshot.
+   */
+  public synchronized StateSnapshot getSnapshot() {
+    List<LearnMessage> heldBack = new ArrayList<>();
+    pending.values().forEach(messages -> heldBack.addAll(messages.values()));
+    return new StateSnapshot(keyValueStore, instances, appliedSequences, versions, appliedRequests, heldBack);
+  }
+
+  /**
+   * Returns the Merkle tree summarizing this learner's store.
+   *
+   * @return MerkleTree
+   */
+  public MerkleTree getMerkleTree() {
+    return merkleTree;
+  }
+
+  /**
+   * Returns the state of every key tracked in the given Merkle tree buckets, deleted keys included.
+   *
+   * @param buckets The leaf bucket indices.
+   * @return The entries, each with the instance of the key's last applied decision and the
+   *         read-modify-write requests its state includes.
+   */
+  public synchronized List<RepairEntry> getEntries(List<Integer> buckets) {
+    Map<String, List<Long>> requestIds = new HashMap<>();
+    for (int bucket : buckets) {
+      for (String key : merkleTree.getKeys(bucket)) {
+        requestIds.put(key, new ArrayList<>());
+      }
+    }
+    for (Map.Entry<Long, String> request : appliedRequests.entrySet()) {
+      List<Long> ids = requestIds.get(request.getValue());
+      if (ids != null) {
+        ids.add(request.getKey());
+      }
+    }
+    List<RepairEntry> entries = new ArrayList<>();
+    for (Map.Entry<String, List<Long>> entry : requestIds.entrySet()) {
+      String key = entry.getKey();
+      entries.add(new RepairEntry(key, keyValueStore.get(key), instances.getOrDefault(key, 0L),
+              versions.getOrDefault(key, 0L), entry.getValue()));
+    }
+    return entries;
+  }
+
+  /**
+   * Adopts a peer's state for each key where the peer applied a later instance. The adopted
+   * instances count as applied, so their Learn messages, and decisions held back for them, are
+   * dropped when they arrive instead of being applied a second time; the peer's read-modify-write
+   * requests on the key are marked as applied too. A key is not adopted while the peer's state
+   * includes a request this replica proposed but has not applied: its decision is on the way, and
+   * applying it here is the only way to report its outcome. An erasure-coded value is adopted as
+   * this replica's own fragment.
+   *
+   * @param entries The peer's entries.
+   * @return The number of keys repaired.
+   */
+  public int repair(List<RepairEntry> entries) {
+    List<RepairEntry> own = new ArrayList<>(entries.size());
+    for (RepairEntry entry : entries) {
+      if (FragmentPutAction.isFragment(entry.getValue()) && entry.getInstance() > instanceOf(entry.getKey())) {
+        entry = new RepairEntry(entry.getKey(), ownFragment(entry.getKey(), entry.getValue()), entry.getInstance(),
+                entry.getVersion(), entry.getRequestIds());
+      }
+      own.add(entry);
+    }
+    return adoptEntries(own);
+  }
+
+  private synchronized int adoptEntries(List<RepairEntry> entries) {
+    int repaired = 0;
+    for (RepairEntry entry : entries) {
+      String key = entry.getKey();
+      if (entry.getInstance() <= instances.getOrDefault(key, 0L) || awaitsOwnRequest(entry)) {
+        continue;
+      }
+      for (long requestId : entry.getRequestIds()) {
+        appliedRequests.putIfAbsent(requestId, key);
+      }
+      adopt(key, entry.getValue(), entry.getInstance(), entry.getVersion());
+      drain(key, true);
+      repaired++;
+    }
+    return repaired;
+  }
+
+  /**
+   * Returns whether this learner is repairing a gap and may serve stale reads.
+   *
+   * @return True while the learner is behind its peers.
+   */
+  public boolean isCatchingUp() {
+    return catchingUp;
+  }
+
+  /**
+   * Returns the number of decisions this learner knows it is missing.
+   *
+   * @return The current lag in decisions.
+   */
+  public long getLag() {
+    return catchUpMetrics.getLag();
+  }
+
+  /**
+   * Returns the gap detection and catch-up metrics of this learner.
+   *
+   * @return CatchUpMetrics
+   */
+  public CatchUpMetrics getCatchUpMetrics() {
+    return catchUpMetrics;
+  }
+
+  /**
+   * Returns the apply count and apply lag histogram of this learner.
+   *
+   * @return LearnerMetrics
+   */
+  public LearnerMetrics getLearnerMetrics() {
+    return learnerMetrics;
   }
 
   @Override
   public void run() {
     LOGGER.info("Learner " + id + " is now running.");
+    while (!isInterrupted()) {
+      try {
+        Thread.sleep(CATCH_UP_INTERVAL_MS);
+        catchUp(false);
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        LOGGER.warning("Learner " + id + " catch-up failed: " + e);
+      }
+    }
+  }
+
+  /**
+   * Catches up from the peers right away, without waiting out the grace period of new gaps. For
+   * deterministic simulations and tests, which drive a learner whose thread is not started.
+   */
+  public void catchUpNow() {
+    catchUp(true);
+  }
+
+  /**
+   * Compares this learner's progress with its peers and repairs gaps that outlived the grace period.
+   * Each proposer's missing decisions are fetched from the peer that holds the longest gap-free run
+   * of them, since a peer that merely saw a later decision may be missing the same ones.
+   * Peers are only called while this learner's monitor is not held, so two learners catching up
+   * from each other cannot deadlock.
+   */
+  private void catchUp(boolean immediate) {
+    Map<Integer, Long> targets = new HashMap<>();
+    Map<Integer, Long> watermarks = new HashMap<>();
+    Map<Integer, Learner> sources = new HashMap<>();
+    for (Learner peer : peers) {
+      for (Map.Entry<Integer, Long> entry : peer.getHighestSequences().entrySet()) {
+        targets.merge(entry.getKey(), entry.getValue(), Math::max);
+      }
+      for (Map.Entry<Integer, Long> entry : peer.getAppliedSequences().entrySet()) {
+        if (entry.getValue() > watermarks.getOrDefault(entry.getKey(), -1L)) {
+          watermarks.put(entry.getKey(), entry.getValue());
+          sources.put(entry.getKey(), peer);
+        }
+      }
+    }
+
+    long lag = 0;
+    long now = System.currentTimeMillis();
+    List<Integer> overdue = new ArrayList<>();
+    for (Map.Entry<Integer, Long> target : targets.entrySet()) {
+      long missing = target.getValue() - appliedSequence(target.getKey());
+      if (missing <= 0) {
+        gapSince.remove(target.getKey());
+        continue;
+      }
+      lag += missing;
+      long since = gapSince.computeIfAbsent(target.getKey(), k -> now);
+      if (immediate || now - since >= GAP_GRACE_MS) {
+        overdue.add(target.getKey());
+      }
+    }
+    catchUpMetrics.setLag(lag);
+    catchingUp = !overdue.isEmpty();
+    if (overdue.isEmpty()) {
+      return;
+    }
+
+    catchUpMetrics.recordGap();
+    long begin = System.nanoTime();
+    long repaired = 0;
+    for (int proposerId : overdue) {
+      Learner source = sources.get(proposerId);
+      long target = targets.get(proposerId);
+      if (target - appliedSequence(proposerId) > SNAPSHOT_THRESHOLD) {
+        installSnapshot(source);
+        break;
+      }
+      long fetched = fetchDecisions(source, proposerId, target);
+      if (fetched < 0) {
+        installSnapshot(source);
+        break;
+      }
+      repaired += fetched;
+    }
+    catchUpMetrics.recordRound(repaired, System.nanoTime() - begin);
+    long caughtUp = repaired;
+    LOGGER.info(() -> "Learner " + id + " caught up " + caughtUp + " decisions: " + catchUpMetrics);
+  }
+
+  /**
+   * Fetches and applies a proposer's missing decisions from a peer in batches.
+   *
+   * @return The number of decisions applied, or -1 if the peer no longer holds them.
+   */
+  private long fetchDecisions(Learner source, int proposerId, long target) {
+    long applied = 0;
+    long from = appliedSequence(proposerId) + 1;
+    while (from <= target) {
+      List<LearnMessage> batch = source.getDecisions(proposerId, from, MAX_BATCH);
+      if (batch == null) {
+        return -1;
+      }
+      if (batch.isEmpty()) {
+        break;
+      }
+      catchUpMetrics.recordBatch(batch.size());
+      applied += applyFetched(ownFragments(batch));
+      long next = appliedSequence(proposerId) + 1;
+      if (next <= from) {
+        break; // the peer is missing the same decision, another peer will be asked next round
+      }
+      from = next;
+    }
+    return applied;
+  }
+
+  /**
+   * Applies fetched decisions, or holds them back until the instances before them are applied.
+   */
+  private synchronized int applyFetched(List<LearnMessage> batch) {
+    int applied = 0;
+    for (LearnMessage message : batch) {
+      if (isApplied(message)) {
+        continue;
+      }
+      applied += offer(message, true);
+      record(message);
+    }
+    return applied;
+  }
+
+  /**
+   * Merges a peer's snapshot into this learner's state: every key the peer applied a later instance
+   * of takes the peer's state, and keys this learner is further along on keep their own. Then the
+   * decisions the peer held back, and those this learner held back, are applied in instance order.
+   * Erasure-coded values and decisions are taken as this replica's own fragments.
+   */
+  private void installSnapshot(Learner source) {
+    StateSnapshot snapshot = source.getSnapshot();
+    Map<String, String> keyValues = new HashMap<>(snapshot.getKeyValues());
+    for (Map.Entry<String, Long> entry : snapshot.getInstances().entrySet()) {
+      String key = entry.getKey();
+      if (entry.getValue() > instanceOf(key)) {
+        keyValues.computeIfPresent(key, this::ownFragment);
+      }
+    }
+    List<LearnMessage> heldBack = ownFragments(snapshot.getHeldBack());
+    synchronized (this) {
+      for (Map.Entry<String, Long> entry : snapshot.getInstances().entrySet()) {
+        String key = entry.getKey();
+        if (entry.getValue() > instances.getOrDefault(key, 0L)) {
+          adopt(key, keyValues.get(key), entry.getValue(), snapshot.getVersions().getOrDefault(key, 0L));
+        }
+      }
+      snapshot.getAppliedRequests().forEach(appliedRequests::putIfAbsent);
+      for (Map.Entry<Integer, Long> entry : snapshot.getAppliedSequences().entrySet()) {
+        int proposerId = entry.getKey();
+        if (entry.getValue() > appliedSequence(proposerId)) {
+          appliedSequences.put(proposerId, entry.getValue());
+          highestSequences.merge(proposerId, entry.getValue(), Math::max);
+          TreeSet<Long> ahead = appliedAhead.get(proposerId);
+          if (ahead != null) {
+            ahead.headSet(entry.getValue(), true).clear();
+          }
+          advance(proposerId);
+        }
+      }
+      for (LearnMessage message : heldBack) {
+        offer(message, true);
+      }
+      for (String key : new ArrayList<>(pending.keySet())) {
+        drain(key, true);
+      }
+    }
+    catchUpMetrics.recordSnapshot();
+    LOGGER.warning("Learner " + id + " installed " + snapshot);
+  }
+
+  /**
+   * Applies a decision if it is the next instance of its key, followed by any held-back decisions
+   * it unblocks; holds it back if an earlier instance is missing; drops it if its instance was
+   * already applied. Unordered decisions are applied on arrival.
+   *
+   * @return The number of decisions applied.
+   */
+  private int offer(LearnMessage message, boolean catchUp) {
+    String key = message.getAction().getKey();
+    long instance = message.getInstance();
+    if (instance == 0) {
+      applyDecision(message, catchUp);
+      return 1;
+    }
+    long applied = instances.getOrDefault(key, 0L);
+    if (instance <= applied) {
+      return 0;
+    }
+    if (instance > applied + 1) {
+      pending.computeIfAbsent(key, k -> new TreeMap<>()).putIfAbsent(instance, message);
+      return 0;
+    }
+    applyDecision(message, catchUp);
+    instances.put(key, instance);
+    return 1 + drain(key, catchUp);
+  }
+
+  /**
+   * Replaces a key's state with the state a peer reached at a later instance.
+   */
+  private void adopt(String key, String value, long instance, long version) {
+    if (value == null) {
+      keyValueStore.remove(key);
+    } else {
+      keyValueStore.put(key, value);
+    }
+    instances.put(key, instance);
+    versions.put(key, version);
+    merkleTree.update(key, digestOf(key));
+    Acceptor acceptor = acceptorSupervisor.getCurrentAcceptor();
+    if (acceptor != null) {
+      acceptor.markDecided(key, instance);
+    }
+  }
+
+  /**
+   * Applies the held-back decisions of a key that are next in instance order.
+   */
+  private int drain(String key, boolean catchUp) {
+    NavigableMap<Long, LearnMessage> held = pending.get(key);
+    int applied = 0;
+    while (held != null && !held.isEmpty()) {
+      long next = instances.getOrDefault(key, 0L) + 1;
+      Map.Entry<Long, LearnMessage> first = held.firstEntry();
+      if (first.getKey() > next) {
+        return applied;
+      }
+      held.pollFirstEntry();
+      if (first.getKey() == next) {
+        applyDecision(first.getValue(), catchUp);
+        instances.put(key, next);
+        applied++;
+      }
+    }
+    pending.remove(key);
+    return applied;
+  }
+
+  private void apply(LearnMessage message) {
+    Action action = message.getAction();
+    boolean written = true;
+    if (action instanceof ReadModifyWriteAction) {
+      written = applyReadModifyWrite((ReadModifyWriteAction) action);
+    } else {
+      action.execute(keyValueStore);
+    }
+    String key = action.getKey();
+    if (written) {
+      versions.merge(key, 1L, Long::sum);
+    }
+    merkleTree.update(key, digestOf(key));
+    Acceptor acceptor = acceptorSupervisor.getCurrentAcceptor();
+    if (acceptor != null && message.getInstance() > 0) {
+      acceptor.markDecided(action.getKey(), message.getInstance());
+    }
+  }
+
+  /**
+   * Evaluates a read-modify-write action against the key's current version, unless this learner
+   * already applied the same request, and keeps the outcome if this replica proposed it.
+   *
+   * @return Whether the action wrote its key.
+   */
+  private boolean applyReadModifyWrite(ReadModifyWriteAction action) {
+    if (appliedRequests.putIfAbsent(action.getRequestId(), action.getKey()) != null) {
+      return false; // decided again after another proposal adopted it
+    }
+    ActionResult result = action.apply(keyValueStore, versions.getOrDefault(action.getKey(), 0L));
+    if (action.getOriginId() == id) {
+      results.put(action.getRequestId(), result);
+      notifyAll();
+    }
+    return result.isWritten();
+  }
+
+  /**
+   * Returns whether a peer's entry includes a read-modify-write request this replica proposed
+   * but has not applied yet.
+   */
+  private boolean awaitsOwnRequest(RepairEntry entry) {
+    for (long requestId : entry.getRequestIds()) {
+      if (ReadModifyWriteAction.originOf(requestId) == id && !appliedRequests.containsKey(requestId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the fragment this learner holds of an erasure-coded write, from its store or from the
+   * decisions it keeps for catch-up.
+   *
+   * @param key            The key.
+   * @param proposalNumber The proposal the value was encoded for.
+   * @return The fragment, or null if this learner holds none of that write.
+   */
+  public synchronized FragmentPutAction getFragment(String key, long proposalNumber) {
+    String stored = keyValueStore.get(key);
+    if (FragmentPutAction.isFragment(stored)) {
+      FragmentPutAction fragment = FragmentPutAction.parse(key, stored);
+      if (fragment.getProposalNumber() == proposalNumber) {
+        return fragment;
+      }
+    }
+    for (NavigableMap<Long, LearnMessage> decisions : history.values()) {
+      for (LearnMessage message : decisions.values()) {
+        if (message.getAction() instanceof FragmentPutAction) {
+          FragmentPutAction fragment = (FragmentPutAction) message.getAction();
+          if (fragment.getProposalNumber() == proposalNumber && fragment.getKey().equals(key)) {
+            return fragment;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns this replica's fragment of the write a peer's fragment belongs to, re-encoded from k
+   * fragments of the same write held by the peers. Calls the peers, so it must not be called while
+   * holding this learner's monitor. Falls back to the peer's fragment when too few are found; a read
+   * then counts that index once.
+   */
+  private FragmentPutAction ownFragment(FragmentPutAction fragment) {
+    int index = fragmentIndex;
+    if (index < 0 || fragment.getFragmentIndex() == index) {
+      return fragment;
+    }
+    Map<Integer, byte[]> fragments = new HashMap<>();
+    fragments.put(fragment.getFragmentIndex(), fragment.getFragment());
+    for (Learner peer : peers) {
+      if (fragments.containsKey(index) || fragments.size() >= fragment.getDataShards()) {
+        break;
+      }
+      FragmentPutAction held = peer.getFragment(fragment.getKey(), fragment.getProposalNumber());
+      if (held != null) {
+        fragments.putIfAbsent(held.getFragmentIndex(), held.getFragment());
+      }
+    }
+    byte[] own = fragments.get(index);
+    if (own == null) {
+      if (fragments.size() < fragment.getDataShards()) {
+        LOGGER.warning("Learner " + id + " kept fragment " + fragment.getFragmentIndex() + " of key ["
+                + fragment.getKey() + "]: only " + fragments.size() + "/" + fragment.getDataShards() + " found");
+        return fragment;
+      }
+      ReedSolomon coder = new ReedSolomon(fragment.getDataShards(), fragmentCount);
+      own = coder.encode(coder.decode(fragments, fragment.getValueLength()))[index];
+    }
+    return new FragmentPutAction(fragment.getKey(), fragment.getProposalNumber(), index,
+            fragment.getDataShards(), fragment.getValueLength(), own);
+  }
+
+  /**
+   * Returns decisions fetched from a peer with each erasure-coded write not yet applied here
+   * replaced by this replica's own fragment of it.
+   */
+  private List<LearnMessage> ownFragments(List<LearnMessage> messages) {
+    if (fragmentIndex < 0) {
+      return messages;
+    }
+    List<LearnMessage> own = new ArrayList<>(messages.size());
+    for (LearnMessage message : messages) {
+      String key = message.getAction().getKey();
+      if (message.getAction() instanceof FragmentPutAction && message.getInstance() > instanceOf(key)) {
+        FragmentPutAction fragment = ownFragment((FragmentPutAction) message.getAction());
+        message = new LearnMessage(message.getProposalNumber(), message.getProposerId(), message.getSequenceNumber(),
+                message.getInstance(), fragment, message.getDecidedAtNanos(), message.getTraceId());
+      }
+      own.add(message);
+    }
+    return own;
+  }
+
+  /**
+   * Returns a peer's stored value as this replica would store it: its own fragment of an
+   * erasure-coded value, or the value itself.
+   */
+  private String ownFragment(String key, String storedValue) {
+    if (!FragmentPutAction.isFragment(storedValue)) {
+      return storedValue;
+    }
+    Map<String, String> store = new HashMap<>(1);
+    ownFragment(FragmentPutAction.parse(key, storedValue)).execute(store);
+    return store.get(key);
+  }
+
+  /**
+   * Returns a key's value together with its version.
+   *
+   * @param key The key.
+   * @return The stored value, which may be an erasure-coded fragment, and the key's version.
+   */
+  public synchronized VersionedValue getVersioned(String key) {
+    return new VersionedValue(keyValueStore.get(key), versions.getOrDefault(key, 0L));
+  }
+
+  /**
+   * Waits for this learner to apply a read-modify-write action proposed by this replica.
+   *
+   * @param requestId The action's request ID.
+   * @param timeoutMs How long to wait.
+   * @return The action's outcome, or null if it was not applied in time.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public synchronized ActionResult awaitResult(long requestId, long timeoutMs) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (!results.containsKey(requestId)) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return null;
+      }
+      wait(remaining);
+    }
+    return results.remove(requestId);
+  }
+
+  /**
+   * Applies a decision and records its apply lag, trace span and Flight Recorder event.
+   */
+  private void applyDecision(LearnMessage message, boolean catchUp) {
+    LearnerApplyEvent event = new LearnerApplyEvent();
+    event.begin();
+    long start = message.getTraceId() != 0 ? System.nanoTime() : 0;
+    apply(message);
+    long end = System.nanoTime();
+    if (message.getTraceId() != 0) {
+      Tracer.record(message.getTraceId(), catchUp ? "learner.catchUpApply" : "learner.apply", id, start, end,
+              message.getAction().toString());
+    }
+    if (message.getDecidedAtNanos() != 0) {
+      learnerMetrics.recordApply(end - message.getDecidedAtNanos());
+    }
+    if (event.shouldCommit()) {
+      event.replicaId = id;
+      event.ballot = message.getProposalNumber();
+      event.keyHash = Objects.hashCode(message.getAction().getKey());
+      event.proposerId = message.getProposerId();
+      event.sequence = message.getSequenceNumber();
+      event.instance = message.getInstance();
+      event.catchUp = catchUp;
+      event.commit();
+    }
+  }
+
+  /**
+   * Tracks a sequenced decision: keeps it for peers that may ask for it and advances the
+   * proposer's gap-free watermark.
+   */
+  private void record(LearnMessage message) {
+    int proposerId = message.getProposerId();
+    long sequence = message.getSequenceNumber();
+    highestSequences.merge(proposerId, sequence, Math::max);
+    if (history.computeIfAbsent(proposerId, k -> new TreeMap<>()).put(sequence, message) == null) {
+      historySize++;
+    }
+    while (historySize > HISTORY_LIMIT) {
+      evictOldestDecision();
+    }
+    if (sequence > appliedSequence(proposerId)) {
+      appliedAhead.computeIfAbsent(proposerId, k -> new TreeSet<>()).add(sequence);
+      advance(proposerId);
+    }
+  }
+
+  private void advance(int proposerId) {
+    TreeSet<Long> ahead = appliedAhead.get(proposerId);
+    long watermark = appliedSequence(proposerId);
+    while (ahead != null && !ahead.isEmpty() && ahead.first() == watermark + 1) {
+      watermark = ahead.pollFirst();
+    }
+    appliedSequences.put(proposerId, watermark);
+  }
+
+  private void evictOldestDecision() {
+    NavigableMap<Long, LearnMessage> longest = null;
+    for (NavigableMap<Long, LearnMessage> decisions : history.values()) {
+      if (longest == null || decisions.size() > longest.size()) {
+        longest = decisions;
+      }
+    }
+    longest.pollFirstEntry();
+    historySize--;
+  }
+
+  /**
+   * Returns what the Merkle tree hashes for a key: its value's digest and its version.
+   */
+  private String digestOf(String key) {
+    return digest(keyValueStore.get(key)) + "@" + versions.getOrDefault(key, 0L);
+  }
+
+  /**
+   * Returns a map that keeps only its most recently inserted entries.
+   */
+  private static <K, V> Map<K, V> bounded(int limit) {
+    return new LinkedHashMap<K, V>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > limit;
+      }
+    };
+  }
+
+  /**
+   * Returns what the Merkle tree hashes for a stored value. Each replica holds a different
+   * erasure-coded fragment of the same write, so fragments are compared by proposal number.
+   */
+  private static String digest(String value) {
+    if (FragmentPutAction.isFragment(value)) {
+      return "EC|" + FragmentPutAction.parse("", value).getProposalNumber();
+    }
+    return value;
+  }
+
+  private boolean isApplied(LearnMessage message) {
+    int proposerId = message.getProposerId();
+    long sequence = message.getSequenceNumber();
+    TreeSet<Long> ahead = appliedAhead.get(proposerId);
+    return sequence <= appliedSequence(proposerId) || (ahead != null && ahead.contains(sequence));
+  }
+
+  private synchronized long instanceOf(String key) {
+    return instances.getOrDefault(key, 0L);
+  }
+
+  private synchronized long appliedSequence(int proposerId) {
+    return appliedSequences.getOrDefault(proposerId, 0L);
   }
 }
@@ -2,16 +2,38 @@ package server.roles;
 
 import server.IKeyValueServer;
 import server.actions.Action;
+import server.actions.FragmentPutAction;
+import server.actions.PutAction;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
+import server.fault.MessageType;
 import server.messages.*;
+import server.jfr.AcceptRoundEvent;
+import server.jfr.PrepareRoundEvent;
+import server.jfr.ProposalEvent;
+import server.metrics.ConsensusMetrics;
+import server.tracing.Tracer;
 import util.ProposalNumberGenerator;
 import util.LoggerUtil;
+import util.ReedSolomon;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
  * The Proposer role in Paxos. It initiates consensus by communicating with active Acceptors.
+ * Each key is decided in its own sequence of Paxos instances, which every learner applies in order.
  */
 public class Proposer extends Thread {
   private static final Logger LOGGER = Logger.getLogger(Proposer.class.getName());
@@ -20,33 +42,340 @@ public class Proposer extends Thread {
     LoggerUtil.setupCustomLogger(LOGGER);
   }
 
+  private static final int KEY_LOCK_STRIPES = 256;
+  private static final int MAX_INSTANCE_HOPS = 3;
+
   private final int id;
+  private final int shard;
   private final ProposalNumberGenerator proposalNumberGenerator;
+  private final AtomicLong decisionSequence = new AtomicLong();
+  private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_LOCK_STRIPES];
   private List<IKeyValueServer> allReplicas;
+  private List<IKeyValueServer> voters;
+  private IKeyValueServer self;
+  private int majority = 3; // For 5 voting replicas
+  private PhiAccrualFailureDetector failureDetector;
+  private FaultInjector faultInjector = FaultInjector.NONE;
+  private final ConsensusMetrics metrics = new ConsensusMetrics();
 
-  private static final int MAJORITY = 3; // For 5 replicas
+  // Erasure coding (RS-Paxos); disabled while erasureCoder is null
+  private int erasureDataShards;
+  private int erasureThresholdBytes;
+  private ReedSolomon erasureCoder;
+  private int erasureQuorum;
 
   public Proposer(int id) {
+    this(id, 0);
+  }
+
+  /**
+   * Constructs the proposer of one shard.
+   * @param id    The ID of the replica hosting the proposer.
+   * @param shard The shard whose acceptors and learners it talks to.
+   */
+  public Proposer(int id, int shard) {
     this.id = id;
+    this.shard = shard;
     this.proposalNumberGenerator = new ProposalNumberGenerator(id);
+    for (int i = 0; i < keyLocks.length; i++) {
+      keyLocks[i] = new ReentrantLock();
+    }
     setName("Proposer-" + id);
   }
 
   /**
-   * Set all replicas for our proposer to call out to all acceptors
+   * Set all replicas for our proposer to call out to all acceptors (voting replicas)
+   * and all learners (every replica).
    * @param allReplicas Replica Servers.
    */
   public void setAllReplicas(List<IKeyValueServer> allReplicas) {
+    List<IKeyValueServer> voting = new ArrayList<>();
+    List<String> votingIds = new ArrayList<>();
+    for (IKeyValueServer replica : allReplicas) {
+      if (replica.getServerID().equals(String.valueOf(id))) {
+        self = replica;
+      }
+      if (replica.isVoter()) {
+        voting.add(replica);
+        votingIds.add(replica.getServerID());
+      }
+    }
+    metrics.setAcceptors(votingIds);
     this.allReplicas = allReplicas;
+    this.voters = voting;
+    this.majority = voting.size() / 2 + 1;
+    this.erasureQuorum = majority;
+    if (erasureDataShards > 0) {
+      this.erasureCoder = new ReedSolomon(erasureDataShards, voting.size());
+      this.erasureQuorum = (voting.size() + erasureDataShards + 1) / 2;
+    }
   }
 
   /**
-   * Propose a new action to all acceptors
+   * Sets the failure detector consulted before contacting each acceptor.
+   * @param failureDetector The detector fed by the other replicas' heartbeats.
+   */
+  public void setFailureDetector(PhiAccrualFailureDetector failureDetector) {
+    this.failureDetector = failureDetector;
+  }
+
+  /**
+   * Sets the fault injector consulted before each Prepare, Accept and Learn message.
+   * @param faultInjector The fault injector.
+   */
+  public void setFaultInjector(FaultInjector faultInjector) {
+    this.faultInjector = faultInjector;
+  }
+
+  /**
+   * Enables erasure-coded writes for large values. Must be called before {@link #setAllReplicas(List)}.
+   * Each voter then receives only its own fragment, and quorums grow to ceil((n + k) / 2) so any two
+   * quorums share at least k fragments.
+   * @param dataShards Number of fragments needed to rebuild a value (k).
+   * @param thresholdBytes PUT values of at least this many characters are erasure coded.
+   */
+  public void setErasureCoding(int dataShards, int thresholdBytes) {
+    this.erasureDataShards = dataShards;
+    this.erasureThresholdBytes = thresholdBytes;
+  }
+
+  /**
+   * Returns the per-phase latency histograms and counters of this proposer.
+   * @return ConsensusMetrics
+   */
+  public ConsensusMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Propose a new action to all acceptors. A lock per key keeps this proposer's own proposals for a
+   * key from competing for one instance; a value that loses its instance to another proposer is
+   * proposed again in the next one, or reported as not chosen.
    * @param action PUT/DELETE of a certain key value pair
    * @return true or false
    */
   public boolean propose(Action action) {
-    return propose(action, false);
+    ProposalEvent event = new ProposalEvent();
+    event.begin();
+    long start = System.nanoTime();
+    boolean success;
+    ReentrantLock lock = keyLocks[stripeOf(action.getKey())];
+    lock.lock();
+    try {
+      success = propose(action, false);
+    } finally {
+      lock.unlock();
+    }
+    long end = System.nanoTime();
+    if (event.shouldCommit()) {
+      event.replicaId = id;
+      event.keyHash = Objects.hashCode(action.getKey());
+      event.operation = action.getClass().getSimpleName();
+      event.chosen = success;
+      event.commit();
+    }
+    metrics.recordProposal(end - start, success);
+    long traceId = Tracer.currentTraceId();
+    if (traceId != 0) {
+      Tracer.record(traceId, "propose", id, start, end, action + (success ? " chosen" : " failed"));
+    }
+    return success;
+  }
+
+  /**
+   * Proposes a batch of PUT and DELETE actions, each in its own Paxos instance of its key, so every
+   * key is ordered with the other writes to it exactly as a single write would be. The lock of every
+   * key is held for the whole batch. The instances share one proposal number, and the phases of all
+   * keys travel together: one Prepare, one Accept and one Learn exchange per replica. A key that
+   * cannot be decided in that shared round, because an acceptor holds an earlier value for it, it
+   * repeats a key, or too few acceptors answered, is then proposed on its own. The batch is not
+   * atomic: each key is chosen or not independently.
+   *
+   * @param actions The actions, in order.
+   * @return Whether each action was chosen, in the order of {@code actions}.
+   */
+  public boolean[] proposeBatch(List<Action> actions) {
+    ProposalEvent event = new ProposalEvent();
+    event.begin();
+    long start = System.nanoTime();
+    boolean[] chosen;
+    Set<Integer> stripes = new TreeSet<>(); // taken in ascending order, so overlapping batches cannot deadlock
+    for (Action action : actions) {
+      stripes.add(stripeOf(action.getKey()));
+    }
+    List<ReentrantLock> held = new ArrayList<>(stripes.size());
+    try {
+      for (int stripe : stripes) {
+        keyLocks[stripe].lock();
+        held.add(keyLocks[stripe]);
+      }
+      chosen = proposeTogether(actions);
+    } finally {
+      for (int i = held.size() - 1; i >= 0; i--) {
+        held.get(i).unlock();
+      }
+    }
+    long end = System.nanoTime();
+    int chosenCount = 0;
+    for (boolean c : chosen) {
+      chosenCount += c ? 1 : 0;
+    }
+    boolean success = chosenCount == actions.size();
+    if (event.shouldCommit()) {
+      event.replicaId = id;
+      event.keyHash = actions.isEmpty() ? 0 : Objects.hashCode(actions.get(0).getKey());
+      event.operation = "Batch";
+      event.chosen = success;
+      event.commit();
+    }
+    metrics.recordProposal(end - start, success);
+    long traceId = Tracer.currentTraceId();
+    if (traceId != 0) {
+      Tracer.record(traceId, "propose.batch", id, start, end, chosenCount + "/" + actions.size() + " chosen");
+    }
+    return chosen;
+  }
+
+  /**
+   * Runs the shared round of a batch under its keys' locks, then proposes the keys it left undecided
+   * one by one. Batched values are replicated in full, never erasure coded.
+   */
+  private boolean[] proposeTogether(List<Action> actions) {
+    boolean[] chosen = new boolean[actions.size()];
+    long[] knownDecided = new long[actions.size()];
+    List<Integer> round = new ArrayList<>(actions.size());
+    Set<String> keys = new HashSet<>();
+    for (int i = 0; i < actions.size(); i++) {
+      if (keys.add(actions.get(i).getKey())) {
+        round.add(i); // a repeated key needs the next instance, so it waits for the first one
+      }
+    }
+    boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+    long traceId = Tracer.currentTraceId();
+    long proposalNumber = proposalNumberGenerator.next();
+    int size = round.size();
+    long[] instances = new long[size];
+    for (int j = 0; j < size; j++) {
+      String key = actions.get(round.get(j)).getKey();
+      instances[j] = self != null ? self.getLearner(shard).nextInstance(key) : 1;
+    }
+    if (logged) {
+      LOGGER.info("Proposer " + id + " proposing a batch of " + size + " keys with proposal #" + proposalNumber);
+    }
+
+    // Phase 1: Prepare every key's instance; a key some acceptor already accepted a value for is left to a round of its own
+    int prepareQuorum = erasureCoder != null ? erasureQuorum : majority;
+    int[] promises = new int[size];
+    boolean[] contended = new boolean[size];
+    int fullPromises = 0;
+    int skipped = 0;
+    long prepareStart = System.nanoTime();
+    for (int i = 0; i < voters.size(); i++) {
+      IKeyValueServer replica = voters.get(i);
+      Acceptor acceptor = isSuspected(replica) ? null : replica.getAcceptorSupervisor(shard).getLiveAcceptor();
+      if (acceptor == null || !deliver(MessageType.PREPARE, replica)) {
+        skipped++;
+        continue;
+      }
+      long sent = System.nanoTime();
+      int promised = 0;
+      for (int j = 0; j < size; j++) {
+        Action action = actions.get(round.get(j));
+        PromiseResponse response = acceptor.receivePrepare(
+                new PrepareRequest(proposalNumber, action.getKey(), instances[j], id, traceId));
+        if (response.isPromised()) {
+          promises[j]++;
+          promised++;
+          contended[j] |= response.getPreviouslyAcceptedAction() != null;
+        } else {
+          knownDecided[round.get(j)] = Math.max(knownDecided[round.get(j)], response.getDecidedInstance());
+        }
+      }
+      metrics.recordAcceptorResponse(i, System.nanoTime() - sent);
+      fullPromises += promised == size ? 1 : 0;
+    }
+    long prepareEnd = System.nanoTime();
+    metrics.recordPrepare(prepareEnd - prepareStart, fullPromises, voters.size() - skipped - fullPromises, skipped);
+    if (traceId != 0) {
+      Tracer.record(traceId, "prepare", id, prepareStart, prepareEnd,
+              "#" + proposalNumber + " " + size + " keys, " + fullPromises + "/" + voters.size() + " promised all");
+    }
+
+    // Phase 2: Accept the keys that gathered a quorum of clean promises
+    int[] accepts = new int[size];
+    int fullAccepts = 0;
+    skipped = 0;
+    long acceptStart = System.nanoTime();
+    for (int i = 0; i < voters.size(); i++) {
+      IKeyValueServer replica = voters.get(i);
+      Acceptor acceptor = isSuspected(replica) ? null : replica.getAcceptorSupervisor(shard).getLiveAcceptor();
+      if (acceptor == null || !deliver(MessageType.ACCEPT, replica)) {
+        skipped++;
+        continue;
+      }
+      long sent = System.nanoTime();
+      int accepted = 0;
+      int sentCount = 0;
+      for (int j = 0; j < size; j++) {
+        if (promises[j] < prepareQuorum || contended[j]) {
+          continue;
+        }
+        sentCount++;
+        if (acceptor.receiveAccept(new AcceptRequest(proposalNumber, instances[j], id,
+                actions.get(round.get(j)), traceId)) != null) {
+          accepts[j]++;
+          accepted++;
+        }
+      }
+      metrics.recordAcceptorResponse(i, System.nanoTime() - sent);
+      fullAccepts += accepted == sentCount ? 1 : 0;
+    }
+    long acceptEnd = System.nanoTime();
+    metrics.recordAccept(acceptEnd - acceptStart, fullAccepts, voters.size() - skipped - fullAccepts, skipped);
+    if (traceId != 0) {
+      Tracer.record(traceId, "accept", id, acceptStart, acceptEnd,
+              "#" + proposalNumber + " " + fullAccepts + "/" + voters.size() + " accepted all");
+    }
+
+    // Phase 3: Notify all learners of the chosen keys, each decision with its own sequence number
+    List<Integer> decided = new ArrayList<>(size);
+    for (int j = 0; j < size; j++) {
+      if (accepts[j] >= majority) {
+        decided.add(j);
+        chosen[round.get(j)] = true;
+      }
+    }
+    if (!decided.isEmpty()) {
+      long learnStart = System.nanoTime();
+      long[] sequenceNumbers = new long[size];
+      for (int j : decided) {
+        sequenceNumbers[j] = decisionSequence.incrementAndGet();
+      }
+      for (IKeyValueServer replica : allReplicas) {
+        if (replica != self && !deliver(MessageType.LEARN, replica)) continue;
+        Learner learner = replica.getLearner(shard);
+        for (int j : decided) {
+          learner.learn(new LearnMessage(proposalNumber, id, sequenceNumbers[j], instances[j],
+                  actions.get(round.get(j)), learnStart, traceId));
+        }
+      }
+      long learnEnd = System.nanoTime();
+      metrics.recordLearn(learnEnd - learnStart);
+      if (traceId != 0) {
+        Tracer.record(traceId, "learn", id, learnStart, learnEnd, "#" + proposalNumber + " " + decided.size() + " decisions");
+      }
+    }
+    if (logged) {
+      LOGGER.info("Batch proposal #" + proposalNumber + " chose " + decided.size() + "/" + size + " keys in one round");
+    }
+
+    // Keys left undecided, and repeated keys, are proposed on their own, in batch order
+    for (int i = 0; i < actions.size(); i++) {
+      if (!chosen[i]) {
+        chosen[i] = propose(actions.get(i), false, knownDecided[i]);
+      }
+    }
+    return chosen;
   }
 
   /**
@@ -55,82 +384,278 @@ public class Proposer extends Thread {
    * @return true or false
    */
   public boolean propose(Action action, boolean hasRetried) {
-    String key = action.getKey();
-    long proposalNumber = proposalNumberGenerator.next();
-
-    LOGGER.info("Proposer " + id + " proposing for key [" + key + "] with proposal #" + proposalNumber);
+    return propose(action, hasRetried, 0);
+  }
 
-    PrepareRequest prepareRequest = new PrepareRequest(proposalNumber, key, id);
+  /**
+   * Proposes an action in the first instance of its key that is not known to be decided: the
+   * local learner's next instance, or a later one if acceptors report that instance as decided.
+   *
+   * @param knownDecided An instance of the key already known to be decided.
+   */
+  private boolean propose(Action action, boolean hasRetried, long knownDecided) {
+    String key = action.getKey();
+    long instance = Math.max(self != null ? self.getLearner(shard).nextInstance(key) : 1, knownDecided + 1);
+    long proposalNumber;
+    boolean logged = LoggerUtil.isRequestLoggable(LOGGER);
+    long traceId = Tracer.currentTraceId();
     List<PromiseResponse> promises = new ArrayList<>();
 
-    // Phase 1: Prepare
-    for (IKeyValueServer replica : allReplicas) {
-      Acceptor acceptor = replica.getAcceptorSupervisor().getLiveAcceptor();
-      if (acceptor == null) continue;
+    // With erasure coding on, every prepare quorum must overlap an erasure-coded accept quorum in k acceptors
+    int prepareQuorum = erasureCoder != null ? erasureQuorum : majority;
 
-      PromiseResponse response = acceptor.receivePrepare(prepareRequest);
-      if (response != null) {
-        promises.add(response);
+    // Phase 1: Prepare, moving on to a later instance while acceptors report ours as decided
+    PrepareRoundEvent prepareEvent = new PrepareRoundEvent();
+    prepareEvent.begin();
+    for (int hops = 0; ; hops++) {
+      proposalNumber = proposalNumberGenerator.next();
+      if (logged) {
+        LOGGER.info("Proposer " + id + " proposing for key [" + key + "] instance " + instance
+                + " with proposal #" + proposalNumber);
+      }
+      PrepareRequest prepareRequest = new PrepareRequest(proposalNumber, key, instance, id, traceId);
+      promises.clear();
+      long decided = 0;
+      long prepareStart = System.nanoTime();
+      int skipped = 0;
+      for (int i = 0; i < voters.size(); i++) {
+        IKeyValueServer replica = voters.get(i);
+        Acceptor acceptor = isSuspected(replica) ? null : replica.getAcceptorSupervisor(shard).getLiveAcceptor();
+        if (acceptor == null || !deliver(MessageType.PREPARE, replica)) {
+          skipped++;
+          continue;
+        }
+
+        long sent = System.nanoTime();
+        PromiseResponse response = acceptor.receivePrepare(prepareRequest);
+        metrics.recordAcceptorResponse(i, System.nanoTime() - sent);
+        if (response.isPromised()) {
+          promises.add(response);
+        } else {
+          decided = Math.max(decided, response.getDecidedInstance());
+        }
+      }
+      long prepareEnd = System.nanoTime();
+      metrics.recordPrepare(prepareEnd - prepareStart, promises.size(),
+              voters.size() - skipped - promises.size(), skipped);
+      if (traceId != 0) {
+        Tracer.record(traceId, "prepare", id, prepareStart, prepareEnd,
+                "#" + proposalNumber + "/" + instance + " " + promises.size() + "/" + voters.size() + " promises");
+      }
+      if (decided < instance || hops == MAX_INSTANCE_HOPS || promises.size() >= prepareQuorum) {
+        break;
       }
+      instance = decided + 1; // this replica has not learned the decisions up to there yet
     }
 
-    if (promises.size() < MAJORITY) {
-      LOGGER.warning("Not enough promises + " + promises.size() + "/" + 5 + ". Aborting proposal #" + proposalNumber);
+    prepareEvent.end();
+    if (prepareEvent.shouldCommit()) {
+      prepareEvent.replicaId = id;
+      prepareEvent.ballot = proposalNumber;
+      prepareEvent.keyHash = Objects.hashCode(key);
+      prepareEvent.quorumSize = prepareQuorum;
+      prepareEvent.promises = promises.size();
+      prepareEvent.voters = voters.size();
+      prepareEvent.commit();
+    }
+    if (promises.size() < prepareQuorum) {
+      LOGGER.warning("Not enough promises + " + promises.size() + "/" + voters.size() + ". Aborting proposal #" + proposalNumber
+              + " for instance " + instance);
+      metrics.recordAbort();
       return false;
     }
 
     // Use highest previously accepted value if present - Piggybacking
     Action toPropose = action;
-    long highestAccepted = -1;
-    for (PromiseResponse p : promises) {
-      if (p.getPreviouslyAcceptedAction() != null &&
-              p.getPreviouslyAcceptedProposalNumber() > highestAccepted) {
-        toPropose = p.getPreviouslyAcceptedAction();
-        highestAccepted = p.getPreviouslyAcceptedProposalNumber();
-      }
+    Action previouslyAccepted = recoverAcceptedAction(promises);
+    if (previouslyAccepted != null) {
+      toPropose = previouslyAccepted;
     }
 
     // Phase 2: Accept
-    AcceptRequest acceptRequest = new AcceptRequest(proposalNumber, id, toPropose);
+    List<Action> replicaActions = actionsPerReplica(toPropose, proposalNumber);
+    int acceptQuorum = isErasureCoded(toPropose) ? erasureQuorum : majority;
     int acceptedCount = 0;
+    AcceptRoundEvent acceptEvent = new AcceptRoundEvent();
+    acceptEvent.begin();
+    long acceptStart = System.nanoTime();
+    int skipped = 0;
 
-    for (IKeyValueServer replica : allReplicas) {
-      Acceptor acceptor = replica.getAcceptorSupervisor().getLiveAcceptor();
-      if (acceptor == null) continue;
+    for (int i = 0; i < voters.size(); i++) {
+      IKeyValueServer replica = voters.get(i);
+      Acceptor acceptor = isSuspected(replica) ? null : replica.getAcceptorSupervisor(shard).getLiveAcceptor();
+      if (acceptor == null || !deliver(MessageType.ACCEPT, replica)) {
+        skipped++;
+        continue;
+      }
 
-      AcceptResponse response = acceptor.receiveAccept(acceptRequest);
+      long sent = System.nanoTime();
+      AcceptResponse response = acceptor.receiveAccept(
+              new AcceptRequest(proposalNumber, instance, id, replicaActions.get(i), traceId));
+      metrics.recordAcceptorResponse(i, System.nanoTime() - sent);
       if (response != null) {
         acceptedCount++;
       }
     }
+    long acceptEnd = System.nanoTime();
+    acceptEvent.end();
+    if (acceptEvent.shouldCommit()) {
+      acceptEvent.replicaId = id;
+      acceptEvent.ballot = proposalNumber;
+      acceptEvent.keyHash = Objects.hashCode(key);
+      acceptEvent.quorumSize = acceptQuorum;
+      acceptEvent.accepted = acceptedCount;
+      acceptEvent.voters = voters.size();
+      acceptEvent.commit();
+    }
+    metrics.recordAccept(acceptEnd - acceptStart, acceptedCount,
+            voters.size() - skipped - acceptedCount, skipped);
+    if (traceId != 0) {
+      Tracer.record(traceId, "accept", id, acceptStart, acceptEnd,
+              "#" + proposalNumber + " " + acceptedCount + "/" + voters.size() + " accepted");
+    }
 
-    if (acceptedCount < MAJORITY) {
-      LOGGER.warning("Accept phase failed " + acceptedCount + "/" + 5 + " acceptors. Proposal #" + proposalNumber + " was rejected.");
+    if (acceptedCount < acceptQuorum) {
+      LOGGER.warning("Accept phase failed " + acceptedCount + "/" + voters.size() + " acceptors. Proposal #" + proposalNumber + " was rejected.");
       if (!hasRetried) {
-        LOGGER.info("Retrying proposal once Proposal #" + proposalNumber + " for key [" + key + "]");
-        return propose(action, true);  // Retry only once
+        if (logged) {
+          LOGGER.info("Retrying proposal once Proposal #" + proposalNumber + " for key [" + key + "]");
+        }
+        metrics.recordRetry();
+        return propose(action, true, instance - 1);  // Retry only once
       }
+      return false; // the value may not be chosen, so learners must not apply it
     }
 
-    LOGGER.info("Accept phase succeeded " + acceptedCount + "/" + 5 + ". Proposal #" + proposalNumber);
+    if (logged) {
+      LOGGER.info("Accept phase succeeded " + acceptedCount + "/" + voters.size() + ". Proposal #" + proposalNumber);
+    }
     // Phase 3: Notify all learners
-    LearnMessage learnMessage = new LearnMessage(proposalNumber, id, toPropose);
-    for (IKeyValueServer replica : allReplicas) {
-      Learner learner = replica.getLearner();
-      learner.learn(learnMessage);
+    long learnStart = System.nanoTime();
+    long sequenceNumber = decisionSequence.incrementAndGet();
+    // Learner-only replicas hold a copy of some voter's fragment, so reads there can still rebuild the value.
+    // The local learner always learns the decision, so at least one replica holds it for the others to catch up from.
+    for (int i = 0; i < allReplicas.size(); i++) {
+      IKeyValueServer replica = allReplicas.get(i);
+      int voterIndex = voters.indexOf(replica);
+      Action learned = replicaActions.get(voterIndex >= 0 ? voterIndex : i % replicaActions.size());
+      if (replica != self && !deliver(MessageType.LEARN, replica)) continue;
+      replica.getLearner(shard).learn(
+              new LearnMessage(proposalNumber, id, sequenceNumber, instance, learned, learnStart, traceId));
+    }
+    long learnEnd = System.nanoTime();
+    metrics.recordLearn(learnEnd - learnStart);
+    if (traceId != 0) {
+      Tracer.record(traceId, "learn", id, learnStart, learnEnd,
+              "#" + proposalNumber + "/" + instance + " decision " + sequenceNumber);
     }
 
-    LOGGER.info("Learn phase completed. Proposal #" + proposalNumber);
+    if (logged) {
+      LOGGER.info("Learn phase completed. Proposal #" + proposalNumber);
+    }
 
     if (!toPropose.equals(action)) {
       LOGGER.warning("Client's action was overridden. Chosen action: " + toPropose);
-      return propose(action);
+      metrics.recordOverride();
+      return propose(action, false, instance);
     }
 
-    LOGGER.info("Consensus achieved for key [" + key + "] — Action applied: " + toPropose);
+    if (logged) {
+      LOGGER.info("Consensus achieved for key [" + key + "] — Action applied: " + toPropose);
+    }
     return true;
   }
 
+  /**
+   * Finds the value accepted under the highest proposal number among the promises.
+   * An erasure-coded value is rebuilt from the fragments accepted under that proposal number;
+   * if fewer than k of them are present, it cannot have been chosen and is ignored.
+   *
+   * @param promises The promises gathered in phase 1.
+   * @return The previously accepted action, or null if there is none to adopt.
+   */
+  private Action recoverAcceptedAction(List<PromiseResponse> promises) {
+    Action highestAction = null;
+    long highestAccepted = -1;
+    for (PromiseResponse p : promises) {
+      if (p.getPreviouslyAcceptedAction() != null &&
+              p.getPreviouslyAcceptedProposalNumber() > highestAccepted) {
+        highestAction = p.getPreviouslyAcceptedAction();
+        highestAccepted = p.getPreviouslyAcceptedProposalNumber();
+      }
+    }
+    if (!(highestAction instanceof FragmentPutAction)) {
+      return highestAction;
+    }
+
+    FragmentPutAction sample = (FragmentPutAction) highestAction;
+    Map<Integer, byte[]> fragments = new HashMap<>();
+    for (PromiseResponse p : promises) {
+      if (p.getPreviouslyAcceptedProposalNumber() == highestAccepted
+              && p.getPreviouslyAcceptedAction() instanceof FragmentPutAction) {
+        FragmentPutAction fragment = (FragmentPutAction) p.getPreviouslyAcceptedAction();
+        fragments.put(fragment.getFragmentIndex(), fragment.getFragment());
+      }
+    }
+    if (erasureCoder == null || fragments.size() < sample.getDataShards()) {
+      LOGGER.info("Proposer " + id + " ignoring unrecoverable fragments " + fragments.size() + "/" + sample.getDataShards()
+              + " for key [" + sample.getKey() + "]");
+      return null;
+    }
+    byte[] value = erasureCoder.decode(fragments, sample.getValueLength());
+    return new PutAction(sample.getKey(), new String(value, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the index of the lock stripe that serializes proposals for a key.
+   */
+  private int stripeOf(String key) {
+    return Math.floorMod(Objects.hashCode(key), keyLocks.length);
+  }
+
+  /**
+   * Consults the fault injector for a message to a replica, sleeping out any injected delay.
+   */
+  private boolean deliver(MessageType type, IKeyValueServer replica) {
+    return faultInjector == FaultInjector.NONE
+            || FaultInjector.deliver(faultInjector, type, id, Integer.parseInt(replica.getServerID()));
+  }
+
+  /**
+   * Returns whether the failure detector currently suspects a replica.
+   */
+  private boolean isSuspected(IKeyValueServer replica) {
+    return failureDetector != null && !failureDetector.isAvailable(replica.getServerID());
+  }
+
+  /**
+   * Returns whether an action will be erasure coded rather than fully replicated.
+   */
+  private boolean isErasureCoded(Action action) {
+    if (erasureCoder == null || !(action instanceof PutAction)) {
+      return false;
+    }
+    String value = ((PutAction) action).getValue();
+    return value != null && value.length() >= erasureThresholdBytes;
+  }
+
+  /**
+   * Returns the action to send to each voting replica, in voter order: the action itself,
+   * or one Reed-Solomon fragment per voter for erasure-coded values.
+   */
+  private List<Action> actionsPerReplica(Action action, long proposalNumber) {
+    if (!isErasureCoded(action)) {
+      return Collections.nCopies(voters.size(), action);
+    }
+    byte[] value = ((PutAction) action).getValue().getBytes(StandardCharsets.UTF_8);
+    byte[][] fragments = erasureCoder.encode(value);
+    List<Action> actions = new ArrayList<>(fragments.length);
+    for (int i = 0; i < fragments.length; i++) {
+      actions.add(new FragmentPutAction(action.getKey(), proposalNumber, i, erasureDataShards, value.length, fragments[i]));
+    }
+    return actions;
+  }
+
   @Override
   public void run() {
     LOGGER.info("Proposer " + id + " is running.");
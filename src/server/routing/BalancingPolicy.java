@@ -0,0 +1,133 @@
+package server.routing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * How the LoadBalancer picks a replica for a read among the eligible ones (not suspected by the
+ * failure detector and not catching up). Every policy works from the {@link ReplicaStats} the
+ * LoadBalancer keeps per replica, so a replica that slows down loses traffic on the next request.
+ */
+public enum BalancingPolicy {
+  /**
+   * Rotates over the replicas, ignoring their load. The original behaviour.
+   */
+  ROUND_ROBIN("round-robin") {
+    @Override
+    public int select(ReplicaStats[] stats, IntPredicate eligible, int start) {
+      for (int i = 0; i < stats.length; i++) {
+        int index = (start + i) % stats.length;
+        if (eligible.test(index)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+  },
+  /**
+   * Picks the replica with the fewest requests in flight; ties rotate.
+   */
+  LEAST_OUTSTANDING("least-outstanding") {
+    @Override
+    public int select(ReplicaStats[] stats, IntPredicate eligible, int start) {
+      int best = -1;
+      for (int i = 0; i < stats.length; i++) {
+        int index = (start + i) % stats.length;
+        if (eligible.test(index) && (best < 0 || stats[index].getInFlight() < stats[best].getInFlight())) {
+          best = index;
+        }
+      }
+      return best;
+    }
+  },
+  /**
+   * Picks the replica with the lowest {@link ReplicaStats#cost()}: moving average response time
+   * times requests in flight. Scans every replica on every request.
+   */
+  EWMA("ewma") {
+    @Override
+    public int select(ReplicaStats[] stats, IntPredicate eligible, int start) {
+      int best = -1;
+      double bestCost = Double.MAX_VALUE;
+      for (int i = 0; i < stats.length; i++) {
+        int index = (start + i) % stats.length;
+        if (!eligible.test(index)) {
+          continue;
+        }
+        double cost = stats[index].cost();
+        if (cost < bestCost) {
+          best = index;
+          bestCost = cost;
+        }
+      }
+      return best;
+    }
+  },
+  /**
+   * Power of two choices: samples two eligible replicas at random and picks the one with the lower
+   * {@link ReplicaStats#cost()}. Nearly as good as {@link #EWMA} at avoiding slow replicas, without
+   * sending every request to the same momentarily fastest one.
+   */
+  P2C("p2c") {
+    @Override
+    public int select(ReplicaStats[] stats, IntPredicate eligible, int start) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int first = firstEligible(stats.length, eligible, random.nextInt(stats.length), -1);
+      if (first < 0) {
+        return -1;
+      }
+      int second = firstEligible(stats.length, eligible, random.nextInt(stats.length), first);
+      if (second < 0) {
+        return first;
+      }
+      return stats[second].cost() < stats[first].cost() ? second : first;
+    }
+  };
+
+  private final String optionName;
+
+  BalancingPolicy(String optionName) {
+    this.optionName = optionName;
+  }
+
+  /**
+   * Picks a replica.
+   *
+   * @param stats    The statistics of every replica, indexed like the replica list.
+   * @param eligible Whether the replica at an index may serve the request.
+   * @param start    A rotating start index, used to spread ties.
+   * @return The index of the chosen replica, or -1 if none is eligible.
+   */
+  public abstract int select(ReplicaStats[] stats, IntPredicate eligible, int start);
+
+  private static int firstEligible(int size, IntPredicate eligible, int start, int excluded) {
+    for (int i = 0; i < size; i++) {
+      int index = (start + i) % size;
+      if (index != excluded && eligible.test(index)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Looks up a policy by its option name.
+   *
+   * @param name "round-robin", "least-outstanding", "ewma" or "p2c", in any case.
+   * @return The matching policy.
+   * @throws IllegalArgumentException If no policy has that name.
+   */
+  public static BalancingPolicy fromName(String name) {
+    for (BalancingPolicy policy : values()) {
+      if (policy.optionName.equalsIgnoreCase(name) || policy.name().equalsIgnoreCase(name)) {
+        return policy;
+      }
+    }
+    throw new IllegalArgumentException("Unknown balancing policy: " + name);
+  }
+
+  @Override
+  public String toString() {
+    return optionName;
+  }
+}
@@ -0,0 +1,207 @@
+package server.routing;
+
+import util.LoggerUtil;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A circuit breaker guarding one replica in the LoadBalancer.
+ *
+ * <ul>
+ *   <li><b>Closed</b>: the replica takes its full share of traffic. After
+ *       {@value #FAILURE_THRESHOLD} consecutive failed requests or health probes, the breaker opens.</li>
+ *   <li><b>Open</b>: the replica gets no traffic. Once it has been open for a second, the next
+ *       successful health probe moves it to half-open.</li>
+ *   <li><b>Half-open</b>: the replica is warming up. Its share of reads grows from 10% to 100%
+ *       over five seconds. Any failure opens the breaker again. Once warm-up is over and enough
+ *       requests have succeeded, it closes.</li>
+ * </ul>
+ *
+ * <p>Checking a closed breaker is a single volatile read, so it can be consulted on every request.
+ */
+public class CircuitBreaker implements CircuitBreakerMXBean {
+  private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  /**
+   * The states of a circuit breaker.
+   */
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  static final int FAILURE_THRESHOLD = 3;
+  private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(5);
+  private static final double MIN_SHARE = 0.1;
+  private static final int SUCCESSES_TO_CLOSE = 10;
+
+  private final String replicaId;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+  private final AtomicLong timesOpened = new AtomicLong();
+  private volatile State state = State.CLOSED;
+  private volatile long stateSince = System.nanoTime();
+
+  /**
+   * Constructs a closed breaker.
+   *
+   * @param replicaId The ID of the replica it guards.
+   */
+  public CircuitBreaker(String replicaId) {
+    this.replicaId = replicaId;
+  }
+
+  /**
+   * Returns whether the replica may take a request that could go to another replica instead.
+   * A warming-up replica admits a growing random share of such requests.
+   *
+   * @return True to send the request to this replica.
+   */
+  public boolean admits() {
+    State current = state;
+    if (current == State.CLOSED) {
+      return true;
+    }
+    return current == State.HALF_OPEN && ThreadLocalRandom.current().nextDouble() < getTrafficShare();
+  }
+
+  /**
+   * Returns whether the replica may take a request that it alone should serve, such as a write
+   * to a key it owns.
+   *
+   * @return True unless the breaker is open.
+   */
+  public boolean isAvailable() {
+    return state != State.OPEN;
+  }
+
+  /**
+   * Records a request the replica answered.
+   */
+  public void recordSuccess() {
+    if (consecutiveFailures.get() != 0) {
+      consecutiveFailures.set(0);
+    }
+    if (state == State.HALF_OPEN) {
+      halfOpenSuccesses.incrementAndGet();
+      maybeClose();
+    }
+  }
+
+  /**
+   * Records a request that failed to reach the replica or was not answered.
+   */
+  public void recordFailure() {
+    int failures = consecutiveFailures.incrementAndGet();
+    State current = state;
+    if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= FAILURE_THRESHOLD)) {
+      open(current);
+    }
+  }
+
+  /**
+   * Records a health probe the replica answered. An open breaker that has waited long enough
+   * starts warming up.
+   */
+  public void probeSucceeded() {
+    State current = state;
+    if (current == State.OPEN) {
+      if (System.nanoTime() - stateSince >= OPEN_NANOS) {
+        halfOpen();
+      }
+    } else {
+      recordSuccess();
+    }
+  }
+
+  /**
+   * Records a health probe that failed.
+   */
+  public void probeFailed() {
+    if (state != State.OPEN) {
+      recordFailure();
+    }
+  }
+
+  private synchronized void open(State from) {
+    if (state != from) {
+      return;
+    }
+    state = State.OPEN;
+    stateSince = System.nanoTime();
+    timesOpened.incrementAndGet();
+    LOGGER.warning("Circuit breaker for replica " + replicaId + " OPEN after " + consecutiveFailures.get()
+            + " consecutive failures");
+  }
+
+  private synchronized void halfOpen() {
+    if (state != State.OPEN) {
+      return;
+    }
+    halfOpenSuccesses.set(0);
+    consecutiveFailures.set(0);
+    state = State.HALF_OPEN;
+    stateSince = System.nanoTime();
+    LOGGER.info("Circuit breaker for replica " + replicaId + " HALF_OPEN, warming up");
+  }
+
+  private void maybeClose() {
+    if (halfOpenSuccesses.get() < SUCCESSES_TO_CLOSE || System.nanoTime() - stateSince < WARMUP_NANOS) {
+      return;
+    }
+    synchronized (this) {
+      if (state == State.HALF_OPEN) {
+        state = State.CLOSED;
+        stateSince = System.nanoTime();
+        LOGGER.info("Circuit breaker for replica " + replicaId + " CLOSED");
+      }
+    }
+  }
+
+  /**
+   * Returns the breaker's current state.
+   *
+   * @return The state.
+   */
+  public State currentState() {
+    return state;
+  }
+
+  @Override
+  public String getState() {
+    return state.name();
+  }
+
+  @Override
+  public double getTrafficShare() {
+    State current = state;
+    if (current != State.HALF_OPEN) {
+      return current == State.CLOSED ? 1.0 : 0.0;
+    }
+    double warmed = (double) (System.nanoTime() - stateSince) / WARMUP_NANOS;
+    return Math.min(1.0, MIN_SHARE + (1 - MIN_SHARE) * warmed);
+  }
+
+  @Override
+  public int getConsecutiveFailures() {
+    return consecutiveFailures.get();
+  }
+
+  @Override
+  public long getTimesOpened() {
+    return timesOpened.get();
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker{replica=" + replicaId + ", state=" + state + ", share=" + getTrafficShare() + '}';
+  }
+}
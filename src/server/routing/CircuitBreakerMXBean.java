@@ -0,0 +1,14 @@
+package server.routing;
+
+/**
+ * The JMX view of the LoadBalancer's {@link CircuitBreaker} for one replica.
+ */
+public interface CircuitBreakerMXBean {
+  String getState();
+
+  double getTrafficShare();
+
+  int getConsecutiveFailures();
+
+  long getTimesOpened();
+}
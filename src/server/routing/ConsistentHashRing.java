@@ -0,0 +1,134 @@
+package server.routing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A consistent-hash ring mapping each key to an owning replica. Every replica is placed on the
+ * ring at many points (virtual nodes), so keys spread evenly and, when a replica is unavailable,
+ * its keys fall to the next replicas clockwise while every other key keeps its owner.
+ *
+ * <p>The ring is immutable and lookups are a binary search, so it can be shared by any number
+ * of request threads without locking. Availability is checked at lookup time, so the ring
+ * rebalances as soon as a replica is suspected and returns to the old layout when it recovers.
+ *
+ * <p>Replicas are placed by ID alone, so a LoadBalancer and a client that build rings over the
+ * same replica IDs agree on every key's owner.
+ *
+ * @param <T> The type of the replicas, or of the handles used to reach them.
+ */
+public class ConsistentHashRing<T> {
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private final List<? extends T> replicas;
+  private final long[] points;
+  private final int[] owners;
+
+  /**
+   * Builds a ring with {@link #DEFAULT_VIRTUAL_NODES} points per replica.
+   *
+   * @param replicas The replicas that can own keys.
+   * @param idOf     The ID of a replica.
+   */
+  public ConsistentHashRing(List<? extends T> replicas, Function<? super T, String> idOf) {
+    this(replicas, idOf, DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Builds a ring.
+   *
+   * @param replicas     The replicas that can own keys.
+   * @param idOf         The ID of a replica.
+   * @param virtualNodes The number of points each replica is placed at.
+   */
+  public ConsistentHashRing(List<? extends T> replicas, Function<? super T, String> idOf, int virtualNodes) {
+    if (replicas.isEmpty() || replicas.size() > 0xFFFF || virtualNodes < 1) {
+      throw new IllegalArgumentException("A ring needs at least one replica and one virtual node");
+    }
+    this.replicas = replicas;
+    int size = replicas.size() * virtualNodes;
+    long[] placed = new long[size];
+    for (int r = 0; r < replicas.size(); r++) {
+      String id = idOf.apply(replicas.get(r));
+      for (int v = 0; v < virtualNodes; v++) {
+        // The replica index sits in the low bits, so equal hashes still sort deterministically
+        placed[r * virtualNodes + v] = (hash(id + "#" + v) & ~0xFFFFL) | r;
+      }
+    }
+    Arrays.sort(placed);
+    this.points = new long[size];
+    this.owners = new int[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = placed[i];
+      owners[i] = (int) (placed[i] & 0xFFFF);
+    }
+  }
+
+  /**
+   * Returns the replica that owns a key: the first available replica clockwise from the key.
+   *
+   * @param key       The key.
+   * @param available Whether a replica may currently own keys.
+   * @return The owner, or the key's first replica if none is available.
+   */
+  public T owner(String key, Predicate<? super T> available) {
+    int start = indexOf(key == null ? 0 : hash(key));
+    int first = owners[start];
+    if (available.test(replicas.get(first))) {
+      return replicas.get(first);
+    }
+    boolean[] rejected = new boolean[replicas.size()];
+    rejected[first] = true;
+    int remaining = replicas.size() - 1;
+    for (int i = 1; i < points.length && remaining > 0; i++) {
+      int owner = owners[(start + i) % points.length];
+      if (rejected[owner]) {
+        continue;
+      }
+      if (available.test(replicas.get(owner))) {
+        return replicas.get(owner);
+      }
+      rejected[owner] = true;
+      remaining--;
+    }
+    return replicas.get(first);
+  }
+
+  /**
+   * Returns the replica that owns a key when every replica is available.
+   *
+   * @param key The key.
+   * @return The owner.
+   */
+  public T primaryOwner(String key) {
+    return replicas.get(owners[indexOf(key == null ? 0 : hash(key))]);
+  }
+
+  private int indexOf(long hash) {
+    int index = Arrays.binarySearch(points, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return index == points.length ? 0 : index;
+  }
+
+  /**
+   * 64-bit FNV-1a over the key's characters, finished with a SplitMix64 mix so nearby keys
+   * land far apart on the ring.
+   */
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h ^= key.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,73 @@
+package server.routing;
+
+import server.IKeyValueServer;
+import util.LoggerUtil;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Probes every replica on a fixed interval and reports the outcome to its {@link CircuitBreaker},
+ * so a replica that stops answering leaves the rotation even when no request is sent to it, and
+ * one that recovers is noticed without risking client requests. Each replica is probed on its
+ * own thread, so a probe that hangs on one replica does not delay the others.
+ */
+public class HealthProber {
+  private static final Logger LOGGER = Logger.getLogger(HealthProber.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  public static final long PROBE_INTERVAL_MS = 250;
+
+  private final List<? extends IKeyValueServer> replicas;
+  private final CircuitBreaker[] breakers;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Constructs a prober.
+   *
+   * @param replicas The replicas to probe.
+   * @param breakers Their circuit breakers, in the same order.
+   */
+  public HealthProber(List<? extends IKeyValueServer> replicas, CircuitBreaker[] breakers) {
+    this.replicas = replicas;
+    this.breakers = breakers;
+    this.scheduler = Executors.newScheduledThreadPool(replicas.size(), task -> {
+      Thread thread = new Thread(task, "health-prober");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts probing every replica.
+   */
+  public void start() {
+    for (int i = 0; i < replicas.size(); i++) {
+      int index = i;
+      scheduler.scheduleWithFixedDelay(() -> probe(index), PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+    LOGGER.info("Probing " + replicas.size() + " replicas every " + PROBE_INTERVAL_MS + " ms");
+  }
+
+  /**
+   * Stops probing.
+   */
+  public void stop() {
+    scheduler.shutdownNow();
+  }
+
+  private void probe(int index) {
+    try {
+      replicas.get(index).ping();
+      breakers[index].probeSucceeded();
+    } catch (Exception e) {
+      breakers[index].probeFailed();
+    }
+  }
+}
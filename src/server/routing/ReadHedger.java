@@ -0,0 +1,170 @@
+package server.routing;
+
+import util.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when the LoadBalancer sends a second copy of a slow GET to another replica.
+ * A read is hedged once it has waited longer than a percentile of recent read latency, and only
+ * while the hedge budget allows: every read adds {@code budget} to a token bucket and every
+ * hedge spends one token, so hedges never exceed that fraction of reads, plus a small burst.
+ *
+ * <p>The delay is recomputed once a second from the latencies of that second. Until the first
+ * second with enough reads has passed, nothing is hedged. Recording never locks or allocates.
+ */
+public class ReadHedger implements ReadHedgerMXBean {
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int MIN_SAMPLES = 20;
+  private static final long TOKEN = 1000;
+  private static final long MAX_TOKENS = 10 * TOKEN;
+
+  private final double percentile;
+  private final double budget;
+  private final long tokensPerRead;
+  private final LatencyHistogram window = new LatencyHistogram();
+  private final AtomicLong windowEnd = new AtomicLong(System.nanoTime() + WINDOW_NANOS);
+  private final AtomicLong tokens = new AtomicLong();
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+  private final AtomicLong budgetDenied = new AtomicLong();
+  private volatile long delayNanos = Long.MAX_VALUE;
+
+  /**
+   * Constructs a hedger.
+   *
+   * @param percentile The percentile of recent read latency after which a read is hedged, e.g. 95.
+   * @param budget     The largest fraction of reads that may be hedged, e.g. 0.05.
+   */
+  public ReadHedger(double percentile, double budget) {
+    if (percentile <= 0 || percentile >= 100 || budget <= 0 || budget > 1) {
+      throw new IllegalArgumentException("Hedging needs a percentile in (0, 100) and a budget in (0, 1]");
+    }
+    this.percentile = percentile;
+    this.budget = budget;
+    this.tokensPerRead = Math.max(1, Math.round(budget * TOKEN));
+  }
+
+  /**
+   * Records a new read and earns its share of the hedge budget.
+   */
+  public void recordRead() {
+    reads.incrementAndGet();
+    long current;
+    do {
+      current = tokens.get();
+      if (current >= MAX_TOKENS) {
+        return;
+      }
+    } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerRead)));
+  }
+
+  /**
+   * Records how long one replica took to answer a read, and recomputes the hedge delay when the
+   * current window has ended.
+   *
+   * @param nanos The response time.
+   */
+  public void recordLatency(long nanos) {
+    window.record(nanos);
+    long now = System.nanoTime();
+    long end = windowEnd.get();
+    if (now >= end && windowEnd.compareAndSet(end, now + WINDOW_NANOS)) {
+      if (window.getCount() >= MIN_SAMPLES) {
+        delayNanos = window.getValueAtPercentile(percentile);
+      }
+      window.reset();
+    }
+  }
+
+  /**
+   * Returns how long a read may take before it is hedged.
+   *
+   * @return The delay in nanoseconds, or {@link Long#MAX_VALUE} until enough reads were seen.
+   */
+  public long getDelayNanos() {
+    return delayNanos;
+  }
+
+  /**
+   * Spends one token for a hedge, if the budget has one left.
+   *
+   * @return True if the read may be hedged.
+   */
+  public boolean tryAcquire() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        budgetDenied.incrementAndGet();
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    hedges.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Records that a hedge answered before the original read.
+   */
+  public void recordHedgeWin() {
+    hedgeWins.incrementAndGet();
+  }
+
+  @Override
+  public double getPercentile() {
+    return percentile;
+  }
+
+  @Override
+  public double getBudget() {
+    return budget;
+  }
+
+  @Override
+  public double getDelayMicros() {
+    long delay = delayNanos;
+    return delay == Long.MAX_VALUE ? -1 : delay / 1000.0;
+  }
+
+  @Override
+  public long getReads() {
+    return reads.get();
+  }
+
+  @Override
+  public long getHedges() {
+    return hedges.get();
+  }
+
+  @Override
+  public long getHedgeWins() {
+    return hedgeWins.get();
+  }
+
+  @Override
+  public long getBudgetDenied() {
+    return budgetDenied.get();
+  }
+
+  @Override
+  public void reset() {
+    reads.set(0);
+    hedges.set(0);
+    hedgeWins.set(0);
+    budgetDenied.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "ReadHedger{p" + percentile +
+            ", delayMicros=" + getDelayMicros() +
+            ", reads=" + getReads() +
+            ", hedges=" + getHedges() +
+            ", hedgeWins=" + getHedgeWins() +
+            ", budgetDenied=" + getBudgetDenied() +
+            '}';
+  }
+}
@@ -0,0 +1,25 @@
+package server.routing;
+
+/**
+ * The JMX view of the LoadBalancer's {@link ReadHedger}.
+ */
+public interface ReadHedgerMXBean {
+  double getPercentile();
+
+  double getBudget();
+
+  double getDelayMicros();
+
+  long getReads();
+
+  long getHedges();
+
+  long getHedgeWins();
+
+  long getBudgetDenied();
+
+  /**
+   * Clears the counters. The hedge delay and the budget are kept.
+   */
+  void reset();
+}
@@ -0,0 +1,145 @@
+package server.routing;
+
+import server.metrics.LatencySummary;
+import util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What the LoadBalancer has seen of one replica: requests in flight, an exponentially weighted
+ * moving average (EWMA) of response time, request and error counts, and a latency histogram.
+ * The average decays while a replica receives no responses, so a replica that was avoided for
+ * being slow is tried again after a while instead of being shunned forever.
+ * Balancing policies read the in-flight count and the EWMA on every request, so both are single
+ * atomic reads, and recording never locks or allocates.
+ */
+public class ReplicaStats implements ReplicaStatsMXBean {
+  /** Weight of the newest sample; about the last ten responses dominate the average. */
+  private static final double ALPHA = 0.2;
+  /** Time constant of the idle decay: an idle replica's average falls by e every half second. */
+  private static final double DECAY_NANOS = 500_000_000.0;
+
+  private final String replicaId;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong ewmaNanos = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private volatile long lastResponseNanos = System.nanoTime();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Constructs empty statistics for a replica.
+   *
+   * @param replicaId The replica's server ID.
+   */
+  public ReplicaStats(String replicaId) {
+    this.replicaId = replicaId;
+  }
+
+  /**
+   * Records that a request was sent to the replica.
+   *
+   * @return The {@link System#nanoTime()} the request started, to pass to {@link #end(long, boolean)}.
+   */
+  public long begin() {
+    inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records that a request to the replica finished.
+   *
+   * @param startNanos The value returned by {@link #begin()}.
+   * @param failed     True if the request threw.
+   */
+  public void end(long startNanos, boolean failed) {
+    long elapsed = System.nanoTime() - startNanos;
+    inFlight.decrementAndGet();
+    requests.incrementAndGet();
+    if (failed) {
+      errors.incrementAndGet();
+    }
+    latency.record(elapsed);
+    double decay = decay(System.nanoTime() - lastResponseNanos);
+    long current;
+    long next;
+    do {
+      current = ewmaNanos.get();
+      next = current == 0 ? elapsed : (long) (current * decay + ALPHA * (elapsed - current * decay));
+    } while (!ewmaNanos.compareAndSet(current, next));
+    lastResponseNanos = System.nanoTime();
+  }
+
+  /**
+   * Returns the expected cost of sending one more request: the moving average response time
+   * scaled by the requests already waiting, so a replica that slows down or piles up work is
+   * avoided as soon as either shows.
+   *
+   * @return The cost in nanoseconds; lower is better.
+   */
+  public double cost() {
+    double ewma = ewmaNanos.get() * decay(System.nanoTime() - lastResponseNanos);
+    return (ewma + 1.0) * (inFlight.get() + 1);
+  }
+
+  /**
+   * Returns how much of the average is left after a replica has been idle; short gaps between
+   * responses, as on a busy replica, leave it untouched.
+   */
+  private static double decay(long idleNanos) {
+    return idleNanos < DECAY_NANOS / 10 ? 1.0 : Math.exp(-idleNanos / DECAY_NANOS);
+  }
+
+  /**
+   * Returns the replica's server ID.
+   *
+   * @return The replica ID.
+   */
+  public String getReplicaId() {
+    return replicaId;
+  }
+
+  @Override
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  @Override
+  public double getEwmaMicros() {
+    return ewmaNanos.get() / 1000.0;
+  }
+
+  @Override
+  public long getRequests() {
+    return requests.get();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.get();
+  }
+
+  @Override
+  public LatencySummary getLatency() {
+    return LatencySummary.of(latency);
+  }
+
+  @Override
+  public void reset() {
+    ewmaNanos.set(0);
+    requests.set(0);
+    errors.set(0);
+    latency.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "ReplicaStats{replica=" + replicaId +
+            ", inFlight=" + getInFlight() +
+            ", ewmaMicros=" + String.format("%.1f", getEwmaMicros()) +
+            ", requests=" + getRequests() +
+            ", errors=" + getErrors() +
+            '}';
+  }
+}
@@ -0,0 +1,23 @@
+package server.routing;
+
+import server.metrics.LatencySummary;
+
+/**
+ * The JMX view of the LoadBalancer's {@link ReplicaStats} for one replica.
+ */
+public interface ReplicaStatsMXBean {
+  int getInFlight();
+
+  double getEwmaMicros();
+
+  long getRequests();
+
+  long getErrors();
+
+  LatencySummary getLatency();
+
+  /**
+   * Clears the counters, the moving average and the latency histogram.
+   */
+  void reset();
+}
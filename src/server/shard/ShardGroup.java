@@ -0,0 +1,199 @@
+package server.shard;
+
+import server.IKeyValueServer;
+import server.ServerConfig;
+import server.antientropy.AntiEntropyService;
+import server.failure.PhiAccrualFailureDetector;
+import server.fault.FaultInjector;
+import server.metrics.MetricsRegistry;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+import server.roles.Proposer;
+import util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * One shard of the keyspace on one replica: a store and the Acceptor, Learner, Proposer and
+ * anti-entropy task that keep it consistent with the same shard on the other replicas.
+ * Each shard is an independent Paxos group, so requests for different shards never wait on
+ * each other's locks, proposal numbers or catch-up.
+ */
+public class ShardGroup {
+  private static final Logger LOGGER = Logger.getLogger(ShardGroup.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  private final int serverId;
+  private final int shard;
+  private final boolean sharded;
+  private final Map<String, String> keyValueStore = new ConcurrentHashMap<>();
+  private final AcceptorSupervisor acceptorSupervisor;
+  private final Learner learner;
+  private final Proposer proposer;
+  private final AntiEntropyService antiEntropyService;
+  private final boolean erasureCoded;
+
+  /**
+   * Creates and starts the roles of one shard.
+   *
+   * @param serverId        The ID of the replica hosting the shard.
+   * @param shard           The shard index.
+   * @param config          The cluster configuration.
+   * @param failureDetector The replica's failure detector, consulted by the proposer.
+   */
+  public ShardGroup(int serverId, int shard, ServerConfig config, PhiAccrualFailureDetector failureDetector) {
+    this.serverId = serverId;
+    this.shard = shard;
+    this.sharded = config.getShardCount() > 1;
+    this.acceptorSupervisor = new AcceptorSupervisor(serverId, config.isSimulatingFailures());
+    this.learner = new Learner(serverId, keyValueStore, acceptorSupervisor);
+    this.proposer = new Proposer(serverId, shard);
+    this.antiEntropyService = new AntiEntropyService(serverId, learner);
+    this.proposer.setFailureDetector(failureDetector);
+    this.erasureCoded = config.isErasureCodingEnabled();
+    if (erasureCoded) {
+      this.proposer.setErasureCoding(config.getErasureDataShards(), config.getErasureThresholdBytes());
+    }
+    if (sharded) {
+      for (Thread thread : new Thread[]{learner, proposer, antiEntropyService}) {
+        thread.setName(thread.getName() + "-shard-" + shard);
+      }
+    }
+
+    this.learner.start();
+    this.proposer.start();
+  }
+
+  /**
+   * Returns the shard a key belongs to. Every replica must use the same shard count,
+   * so a key maps to the same Paxos group everywhere.
+   *
+   * @param key        The key.
+   * @param shardCount The number of shards.
+   * @return The shard index, between 0 and {@code shardCount - 1}.
+   */
+  public static int shardOf(String key, int shardCount) {
+    if (shardCount == 1 || key == null) {
+      return 0;
+    }
+    int hash = key.hashCode();
+    hash ^= hash >>> 16; // String hashes of similar keys differ mostly in the low bits
+    return Math.floorMod(hash * 0x9e3779b9, shardCount);
+  }
+
+  /**
+   * Registers the shard's metrics over JMX. With a single shard, the names carry no shard
+   * key, as before sharding.
+   */
+  public void registerMetrics() {
+    register("Consensus", proposer.getMetrics());
+    register("Learner", learner.getLearnerMetrics());
+    register("CatchUp", learner.getCatchUpMetrics());
+    register("AntiEntropy", antiEntropyService);
+  }
+
+  private void register(String type, Object mbean) {
+    if (sharded) {
+      MetricsRegistry.register(type, serverId, shard, mbean);
+    } else {
+      MetricsRegistry.register(type, serverId, mbean);
+    }
+  }
+
+  /**
+   * Wires the shard with the same shard on every replica and starts anti-entropy.
+   *
+   * @param self     The replica hosting this shard.
+   * @param replicas Every replica in the cluster, this one included.
+   */
+  public void setAllReplicas(IKeyValueServer self, List<IKeyValueServer> replicas) {
+    proposer.setAllReplicas(replicas);
+    List<Learner> peerLearners = new ArrayList<>();
+    for (IKeyValueServer replica : replicas) {
+      if (replica != self && replica.getLearner(shard) != null) {
+        peerLearners.add(replica.getLearner(shard));
+      }
+    }
+    learner.setPeers(peerLearners);
+    if (erasureCoded) {
+      // Proposers send voter i fragment i, and a learner-only replica a copy of fragment (position mod n)
+      List<IKeyValueServer> voters = new ArrayList<>();
+      for (IKeyValueServer replica : replicas) {
+        if (replica.isVoter()) {
+          voters.add(replica);
+        }
+      }
+      int voterIndex = voters.indexOf(self);
+      learner.setFragmentIndex(voterIndex >= 0 ? voterIndex : replicas.indexOf(self) % voters.size(), voters.size());
+    }
+    antiEntropyService.setPeers(peerLearners);
+    antiEntropyService.start();
+    LOGGER.fine("[Replica " + serverId + "] shard " + shard + " wired with " + peerLearners.size() + " peers.");
+  }
+
+  /**
+   * Sets the fault injector consulted by the shard's proposer.
+   *
+   * @param faultInjector The fault injector.
+   */
+  public void setFaultInjector(FaultInjector faultInjector) {
+    proposer.setFaultInjector(faultInjector);
+  }
+
+  /**
+   * Returns the raw value this shard stores for a key, which may be an erasure-coded fragment.
+   *
+   * @param key The key.
+   * @return The locally stored value, or null if absent.
+   */
+  public String get(String key) {
+    return keyValueStore.get(key);
+  }
+
+  /**
+   * Get the index of this shard.
+   * @return The shard index.
+   */
+  public int getShard() {
+    return shard;
+  }
+
+  /**
+   * Get the acceptor supervisor of this shard.
+   * @return AcceptorSupervisor
+   */
+  public AcceptorSupervisor getAcceptorSupervisor() {
+    return acceptorSupervisor;
+  }
+
+  /**
+   * Get the learner applying this shard's decisions.
+   * @return Learner
+   */
+  public Learner getLearner() {
+    return learner;
+  }
+
+  /**
+   * Get the proposer for writes to this shard.
+   * @return Proposer
+   */
+  public Proposer getProposer() {
+    return proposer;
+  }
+
+  /**
+   * Get the anti-entropy task that repairs this shard against its peers.
+   * @return AntiEntropyService
+   */
+  public AntiEntropyService getAntiEntropyService() {
+    return antiEntropyService;
+  }
+}
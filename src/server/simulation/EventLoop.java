@@ -0,0 +1,76 @@
+package server.simulation;
+
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A single-threaded discrete-event loop with a virtual clock in microseconds.
+ * Events run in time order; events scheduled for the same instant run in the order they were
+ * scheduled, so a run is fully determined by its inputs.
+ */
+public class EventLoop {
+  private final PriorityQueue<Event> queue = new PriorityQueue<>();
+  private long now;
+  private long sequence;
+  private long processed;
+
+  /**
+   * Returns the current virtual time.
+   *
+   * @return Microseconds since the start of the simulation.
+   */
+  public long now() {
+    return now;
+  }
+
+  /**
+   * Schedules an action to run after a virtual delay.
+   *
+   * @param delayMicros The delay in microseconds.
+   * @param action      The action to run.
+   */
+  public void schedule(long delayMicros, Runnable action) {
+    queue.add(new Event(now + Math.max(0, delayMicros), sequence++, action));
+  }
+
+  /**
+   * Runs events until none are left or the stop condition holds.
+   *
+   * @param stop Checked after every event.
+   */
+  public void run(BooleanSupplier stop) {
+    while (!queue.isEmpty() && !stop.getAsBoolean()) {
+      Event event = queue.poll();
+      now = event.time;
+      processed++;
+      event.action.run();
+    }
+  }
+
+  /**
+   * Returns the number of events run so far.
+   *
+   * @return The event count.
+   */
+  public long getEventsProcessed() {
+    return processed;
+  }
+
+  private static final class Event implements Comparable<Event> {
+    private final long time;
+    private final long sequence;
+    private final Runnable action;
+
+    private Event(long time, long sequence, Runnable action) {
+      this.time = time;
+      this.sequence = sequence;
+      this.action = action;
+    }
+
+    @Override
+    public int compareTo(Event other) {
+      int byTime = Long.compare(time, other.time);
+      return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package server.simulation;
+
+import server.actions.PutAction;
+import server.fault.FaultEvent;
+import server.fault.FaultInjector;
+import server.fault.FaultSchedule;
+import server.fault.ScheduledFaultInjector;
+import server.roles.Learner;
+import util.LatencyHistogram;
+import util.ValidationUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the Paxos roles as a deterministic, single-threaded discrete-event simulation.
+ * The real {@link server.roles.Acceptor} and {@link server.roles.Learner} handle every message;
+ * only the Proposer's phases are re-expressed as message handlers, and time is virtual. The same
+ * seed always produces the same message orderings, latencies and results, so different seeds
+ * explore different interleavings, and protocol costs can be measured without wall-clock noise.
+ * Learners catch up from each other every {@code catchUpMillis} of virtual time, and once more
+ * after the messages still in flight at the end have been delivered, before replicas are compared.
+ *
+ * <p>Usage: {@code java server.simulation.PaxosSimulation [--replicas=5] [--clients=16]
+ * [--ops=100000] [--keys=1000] [--seed=1] [--seeds=1] [--latencyMicros=100] [--jitterMicros=50]
+ * [--timeoutMicros=5000] [--catchUpMillis=10] [--faults=schedule]}. Fault schedules use the same
+ * syntax as {@code server.Main}, with offsets in virtual milliseconds.
+ */
+public class PaxosSimulation {
+  // Held strongly so the level stays in effect for every server logger
+  private static final Logger SERVER_LOGGER = Logger.getLogger("server");
+
+  private final int replicaCount;
+  private final int clientCount;
+  private final long operations;
+  private final int keyCount;
+  private final long latencyMicros;
+  private final long jitterMicros;
+  private final long timeoutMicros;
+  private final long catchUpMicros;
+  private final String faults;
+
+  /**
+   * Constructs a simulation from parsed command-line options.
+   *
+   * @param options The options keyed by name.
+   */
+  public PaxosSimulation(Map<String, String> options) {
+    this.replicaCount = Integer.parseInt(options.getOrDefault("replicas", "5"));
+    this.clientCount = Integer.parseInt(options.getOrDefault("clients", "16"));
+    this.operations = Long.parseLong(options.getOrDefault("ops", "100000"));
+    this.keyCount = Integer.parseInt(options.getOrDefault("keys", "1000"));
+    this.latencyMicros = Long.parseLong(options.getOrDefault("latencyMicros", "100"));
+    this.jitterMicros = Long.parseLong(options.getOrDefault("jitterMicros", "50"));
+    this.timeoutMicros = Long.parseLong(options.getOrDefault("timeoutMicros", "5000"));
+    this.catchUpMicros = Long.parseLong(options.getOrDefault("catchUpMillis", "10")) * 1000;
+    this.faults = options.get("faults");
+  }
+
+  public static void main(String[] args) {
+    Map<String, String> options = ValidationUtil.parseOptions(args, 0);
+    long firstSeed = Long.parseLong(options.getOrDefault("seed", "1"));
+    int seeds = Integer.parseInt(options.getOrDefault("seeds", "1"));
+
+    SERVER_LOGGER.setLevel(Level.WARNING); // per-message logging would dominate the run
+
+    PaxosSimulation simulation = new PaxosSimulation(options);
+    for (long seed = firstSeed; seed < firstSeed + seeds; seed++) {
+      System.out.println(simulation.run(seed));
+    }
+  }
+
+  /**
+   * Runs the simulation once.
+   *
+   * @param seed The seed for the workload, the network and the fault schedule.
+   * @return The results.
+   */
+  public Result run(long seed) {
+    Random random = new Random(seed);
+    EventLoop loop = new EventLoop();
+    List<SimulatedReplica> replicas = new ArrayList<>();
+    for (int i = 0; i < replicaCount; i++) {
+      replicas.add(new SimulatedReplica(i));
+    }
+    for (SimulatedReplica replica : replicas) {
+      List<Learner> peers = new ArrayList<>();
+      replicas.stream().filter(peer -> peer != replica).forEach(peer -> peers.add(peer.getLearner()));
+      replica.getLearner().setPeers(peers);
+    }
+    FaultInjector faultInjector = FaultInjector.NONE;
+    if (faults != null) {
+      ScheduledFaultInjector scheduled = new ScheduledFaultInjector(FaultSchedule.parse(faults, seed, replicaCount));
+      scheduleFaults(loop, scheduled, replicas);
+      faultInjector = scheduled;
+    }
+    SimulatedNetwork network = new SimulatedNetwork(loop, random, latencyMicros, jitterMicros, faultInjector);
+
+    Result result = new Result(seed);
+    long wallStart = System.nanoTime();
+    for (int client = 0; client < clientCount && result.issued < operations; client++) {
+      issue(loop, network, replicas, random, result);
+    }
+    scheduleCatchUp(loop, replicas, result);
+    loop.run(() -> result.completed == operations);
+    result.virtualMicros = loop.now();
+
+    loop.run(() -> false); // deliver what is still in flight
+    replicas.forEach(replica -> replica.getLearner().catchUpNow());
+    result.wallNanos = System.nanoTime() - wallStart;
+    result.events = loop.getEventsProcessed();
+    result.messageCounts = network.getMessageCounts();
+    result.dropped = network.getDropped();
+    result.divergentKeys = countDivergentKeys(replicas);
+    result.fingerprint = fingerprint(replicas, result);
+    return result;
+  }
+
+  /**
+   * Starts one client request; its completion starts the next, so each client is a closed loop.
+   */
+  private void issue(EventLoop loop, SimulatedNetwork network, List<SimulatedReplica> replicas,
+                     Random random, Result result) {
+    long operation = result.issued++;
+    long start = loop.now();
+    SimulatedReplica proposer = replicas.get(random.nextInt(replicas.size()));
+    PutAction action = new PutAction("key-" + random.nextInt(keyCount), "value-" + operation);
+    new SimulatedProposal(loop, network, replicas, proposer, action, timeoutMicros, random, success -> {
+      result.completed++;
+      if (!success) {
+        result.failed++;
+      }
+      result.latency.record(loop.now() - start);
+      if (result.issued < operations) {
+        issue(loop, network, replicas, random, result);
+      }
+    }).start();
+  }
+
+  /**
+   * Lets every learner catch up from its peers at a fixed virtual interval until the run completes.
+   */
+  private void scheduleCatchUp(EventLoop loop, List<SimulatedReplica> replicas, Result result) {
+    loop.schedule(catchUpMicros, () -> {
+      replicas.forEach(replica -> replica.getLearner().catchUpNow());
+      if (result.completed < operations) {
+        scheduleCatchUp(loop, replicas, result);
+      }
+    });
+  }
+
+  /**
+   * Schedules a fault schedule's events in virtual time. Crashes and restarts act on the
+   * simulated replicas; everything else changes how the injector treats messages.
+   */
+  private static void scheduleFaults(EventLoop loop, ScheduledFaultInjector injector,
+                                     List<SimulatedReplica> replicas) {
+    for (FaultEvent event : injector.getSchedule().getEvents()) {
+      loop.schedule(event.getAtMillis() * 1000, () -> {
+        if (event.getKind() == FaultEvent.Kind.CRASH) {
+          event.getReplicas().forEach(id -> replicas.get(id).getAcceptorSupervisor().crash());
+        } else if (event.getKind() == FaultEvent.Kind.RESTART) {
+          event.getReplicas().forEach(id -> replicas.get(id).getAcceptorSupervisor().restart());
+        } else {
+          injector.apply(event);
+        }
+      });
+    }
+  }
+
+  private static int countDivergentKeys(List<SimulatedReplica> replicas) {
+    Map<String, String> reference = replicas.get(0).getKeyValueStore();
+    Set<String> keys = new HashSet<>();
+    for (SimulatedReplica replica : replicas) {
+      keys.addAll(replica.getKeyValueStore().keySet());
+    }
+    int divergent = 0;
+    for (String key : keys) {
+      String value = reference.get(key);
+      for (SimulatedReplica replica : replicas) {
+        if (!Objects.equals(value, replica.getKeyValueStore().get(key))) {
+          divergent++;
+          break;
+        }
+      }
+    }
+    return divergent;
+  }
+
+  private static long fingerprint(List<SimulatedReplica> replicas, Result result) {
+    long hash = result.virtualMicros * 31 + result.events;
+    for (SimulatedReplica replica : replicas) {
+      hash = hash * 31 + new TreeMap<>(replica.getKeyValueStore()).hashCode();
+    }
+    return hash * 31 + result.messageCounts.hashCode();
+  }
+
+  /**
+   * The outcome of one simulation run.
+   */
+  public static class Result {
+    private final long seed;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long issued;
+    private long completed;
+    private long failed;
+    private long events;
+    private long virtualMicros;
+    private long wallNanos;
+    private long dropped;
+    private int divergentKeys;
+    private long fingerprint;
+    private Map<String, Long> messageCounts;
+
+    private Result(long seed) {
+      this.seed = seed;
+    }
+
+    public long getCompleted() {
+      return completed;
+    }
+
+    public long getFailed() {
+      return failed;
+    }
+
+    public int getDivergentKeys() {
+      return divergentKeys;
+    }
+
+    public Map<String, Long> getMessageCounts() {
+      return messageCounts;
+    }
+
+    public long getFingerprint() {
+      return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+      double wallSeconds = wallNanos / 1e9;
+      StringBuilder messages = new StringBuilder();
+      messageCounts.forEach((label, count) ->
+              messages.append(String.format(" %s=%.2f", label, (double) count / completed)));
+      return String.format("[seed %d] %d ops (%d failed) in %.3fs virtual / %.2fs wall -> %.0f ops/min, %d events%n"
+                      + "  latency(virtual) p50=%dus p99=%dus max=%dus%n"
+                      + "  messages/op:%s dropped=%d%n"
+                      + "  divergent keys=%d fingerprint=%016x",
+              seed, completed, failed, virtualMicros / 1e6, wallSeconds, completed / wallSeconds * 60, events,
+              latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMax(),
+              messages, dropped, divergentKeys, fingerprint);
+    }
+  }
+}
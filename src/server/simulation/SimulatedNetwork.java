@@ -0,0 +1,82 @@
+package server.simulation;
+
+import server.fault.FaultInjector;
+import server.fault.MessageType;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Delivers messages between simulated replicas through the event loop. Each message gets a
+ * latency drawn from a seeded distribution (a fixed base plus exponential jitter), so messages
+ * overtake each other as they would on a real network, and passes through a {@link FaultInjector}
+ * that may drop or delay it. Injected delays are applied in virtual time.
+ */
+public class SimulatedNetwork {
+  private final EventLoop loop;
+  private final Random random;
+  private final long latencyMicros;
+  private final long jitterMicros;
+  private final FaultInjector faultInjector;
+  private final Map<String, long[]> messageCounts = new TreeMap<>();
+  private long dropped;
+
+  /**
+   * Constructs a SimulatedNetwork.
+   *
+   * @param loop          The event loop delivering messages.
+   * @param random        The seeded source of latency samples.
+   * @param latencyMicros The minimum one-way latency.
+   * @param jitterMicros  The mean of the exponential jitter added to the minimum.
+   * @param faultInjector The fault injector consulted for every message.
+   */
+  public SimulatedNetwork(EventLoop loop, Random random, long latencyMicros, long jitterMicros,
+                          FaultInjector faultInjector) {
+    this.loop = loop;
+    this.random = random;
+    this.latencyMicros = latencyMicros;
+    this.jitterMicros = jitterMicros;
+    this.faultInjector = faultInjector;
+  }
+
+  /**
+   * Sends a message.
+   *
+   * @param type     The message type the fault injector sees; replies use their request's type.
+   * @param label    The name the message is counted under, e.g. "promise".
+   * @param from     The sending replica's ID.
+   * @param to       The receiving replica's ID.
+   * @param delivery What the receiver does when the message arrives.
+   */
+  public void send(MessageType type, String label, int from, int to, Runnable delivery) {
+    messageCounts.computeIfAbsent(label, l -> new long[1])[0]++;
+    long injectedMillis = faultInjector.onSend(type, from, to);
+    if (injectedMillis == FaultInjector.DROP) {
+      dropped++;
+      return;
+    }
+    long jitter = (long) (-Math.log(1 - random.nextDouble()) * jitterMicros);
+    loop.schedule(latencyMicros + jitter + injectedMillis * 1000, delivery);
+  }
+
+  /**
+   * Returns how many messages were sent, by label.
+   *
+   * @return The message counts.
+   */
+  public Map<String, Long> getMessageCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    messageCounts.forEach((label, count) -> counts.put(label, count[0]));
+    return counts;
+  }
+
+  /**
+   * Returns how many messages the fault injector dropped.
+   *
+   * @return The drop count.
+   */
+  public long getDropped() {
+    return dropped;
+  }
+}
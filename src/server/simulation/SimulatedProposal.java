@@ -0,0 +1,213 @@
+package server.simulation;
+
+import server.actions.Action;
+import server.fault.MessageType;
+import server.messages.AcceptRequest;
+import server.messages.AcceptResponse;
+import server.messages.LearnMessage;
+import server.messages.PrepareRequest;
+import server.messages.PromiseResponse;
+import server.roles.Acceptor;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * One client request driven through Paxos as messages on the simulated network.
+ * It follows the same rules as {@link server.roles.Proposer#propose(Action, boolean)}: the proposal
+ * starts in the proposer's next instance of the key and moves on to a later one while acceptors
+ * report it as decided, a failed Prepare phase fails the request, a failed Accept phase is retried
+ * once with a new proposal number, and if a previously accepted value had to be adopted, the
+ * client's own action is proposed again in the next instance. The proposer's own learner learns
+ * each decision directly; every other Learn message crosses the network. Because messages are asynchronous here, a phase also fails when
+ * its replies do not arrive within the timeout, and rejections are sent back explicitly.
+ */
+class SimulatedProposal {
+  private enum Phase { PREPARE, ACCEPT, DONE }
+
+  private static final int MAX_INSTANCE_HOPS = 3;
+
+  private final EventLoop loop;
+  private final SimulatedNetwork network;
+  private final List<SimulatedReplica> replicas;
+  private final SimulatedReplica proposer;
+  private final Action action;
+  private final long timeoutMicros;
+  private final Random random;
+  private final Consumer<Boolean> onComplete;
+  private final int majority;
+
+  private Attempt current;
+
+  SimulatedProposal(EventLoop loop, SimulatedNetwork network, List<SimulatedReplica> replicas,
+                    SimulatedReplica proposer, Action action, long timeoutMicros, Random random,
+                    Consumer<Boolean> onComplete) {
+    this.loop = loop;
+    this.network = network;
+    this.replicas = replicas;
+    this.proposer = proposer;
+    this.action = action;
+    this.timeoutMicros = timeoutMicros;
+    this.random = random;
+    this.onComplete = onComplete;
+    this.majority = replicas.size() / 2 + 1;
+  }
+
+  /**
+   * Starts the first attempt.
+   */
+  void start() {
+    begin(false, 0, 0);
+  }
+
+  private void begin(boolean hasRetried, long knownDecided, int hops) {
+    long instance = Math.max(proposer.getLearner().nextInstance(action.getKey()), knownDecided + 1);
+    Attempt attempt = new Attempt(proposer.nextProposalNumber(), instance, hasRetried, hops);
+    current = attempt;
+    PrepareRequest request = new PrepareRequest(attempt.proposalNumber, action.getKey(), instance, proposer.getId());
+    for (SimulatedReplica replica : replicas) {
+      network.send(MessageType.PREPARE, "prepare", proposer.getId(), replica.getId(), () -> {
+        Acceptor acceptor = replica.getAcceptorSupervisor().getLiveAcceptor();
+        if (acceptor == null) {
+          return; // a crashed acceptor does not answer
+        }
+        PromiseResponse promise = acceptor.receivePrepare(request);
+        network.send(MessageType.PREPARE, promise.isPromised() ? "promise" : "reject", replica.getId(), proposer.getId(),
+                () -> onPromise(attempt, promise));
+      });
+    }
+    loop.schedule(timeoutMicros, () -> onTimeout(attempt, Phase.PREPARE));
+  }
+
+  private void onPromise(Attempt attempt, PromiseResponse promise) {
+    if (attempt != current || attempt.phase != Phase.PREPARE) {
+      return;
+    }
+    attempt.replies++;
+    if (promise.isPromised()) {
+      attempt.promises++;
+      if (promise.getPreviouslyAcceptedAction() != null
+              && promise.getPreviouslyAcceptedProposalNumber() > attempt.highestAccepted) {
+        attempt.highestAccepted = promise.getPreviouslyAcceptedProposalNumber();
+        attempt.toPropose = promise.getPreviouslyAcceptedAction();
+      }
+    } else {
+      attempt.decided = Math.max(attempt.decided, promise.getDecidedInstance());
+    }
+    if (attempt.promises >= majority) {
+      startAccept(attempt);
+    } else if (attempt.replies == replicas.size()) {
+      prepareFailed(attempt);
+    }
+  }
+
+  private void prepareFailed(Attempt attempt) {
+    attempt.phase = Phase.DONE;
+    if (attempt.decided >= attempt.instance && attempt.hops < MAX_INSTANCE_HOPS) {
+      begin(attempt.hasRetried, attempt.decided, attempt.hops + 1); // this replica has not learned them yet
+    } else {
+      finish(false);
+    }
+  }
+
+  private void startAccept(Attempt attempt) {
+    attempt.phase = Phase.ACCEPT;
+    attempt.replies = 0;
+    AcceptRequest request = new AcceptRequest(attempt.proposalNumber, attempt.instance, proposer.getId(),
+            attempt.toPropose);
+    for (SimulatedReplica replica : replicas) {
+      network.send(MessageType.ACCEPT, "accept", proposer.getId(), replica.getId(), () -> {
+        Acceptor acceptor = replica.getAcceptorSupervisor().getLiveAcceptor();
+        if (acceptor == null) {
+          return;
+        }
+        AcceptResponse accepted = acceptor.receiveAccept(request);
+        network.send(MessageType.ACCEPT, accepted != null ? "accepted" : "reject", replica.getId(), proposer.getId(),
+                () -> onAccepted(attempt, accepted));
+      });
+    }
+    loop.schedule(timeoutMicros, () -> onTimeout(attempt, Phase.ACCEPT));
+  }
+
+  private void onAccepted(Attempt attempt, AcceptResponse accepted) {
+    if (attempt != current || attempt.phase != Phase.ACCEPT) {
+      return;
+    }
+    attempt.replies++;
+    if (accepted != null) {
+      attempt.accepted++;
+    }
+    if (attempt.accepted >= majority) {
+      attempt.phase = Phase.DONE;
+      learn(attempt);
+    } else if (attempt.replies == replicas.size()) {
+      acceptFailed(attempt);
+    }
+  }
+
+  private void onTimeout(Attempt attempt, Phase phase) {
+    if (attempt != current || attempt.phase != phase) {
+      return;
+    }
+    attempt.phase = Phase.DONE;
+    if (phase == Phase.PREPARE) {
+      prepareFailed(attempt);
+    } else {
+      acceptFailed(attempt);
+    }
+  }
+
+  private void acceptFailed(Attempt attempt) {
+    attempt.phase = Phase.DONE;
+    if (attempt.hasRetried) {
+      finish(false);
+      return;
+    }
+    // Back off a little so dueling proposers for the same key do not collide again
+    loop.schedule((long) (random.nextDouble() * timeoutMicros / 4), () -> begin(true, attempt.instance - 1, 0));
+  }
+
+  private void learn(Attempt attempt) {
+    LearnMessage message = new LearnMessage(attempt.proposalNumber, proposer.getId(),
+            proposer.nextDecisionSequence(), attempt.instance, attempt.toPropose);
+    proposer.getLearner().learn(message);
+    for (SimulatedReplica replica : replicas) {
+      if (replica != proposer) {
+        network.send(MessageType.LEARN, "learn", proposer.getId(), replica.getId(),
+                () -> replica.getLearner().learn(message));
+      }
+    }
+    if (!attempt.toPropose.equals(action)) {
+      begin(false, attempt.instance, 0); // an earlier value was completed; now propose the client's own action
+    } else {
+      finish(true);
+    }
+  }
+
+  private void finish(boolean success) {
+    current = null;
+    onComplete.accept(success);
+  }
+
+  private final class Attempt {
+    private final long proposalNumber;
+    private final long instance;
+    private final boolean hasRetried;
+    private final int hops;
+    private Phase phase = Phase.PREPARE;
+    private int replies;
+    private int promises;
+    private int accepted;
+    private long highestAccepted = -1;
+    private long decided;
+    private Action toPropose = action;
+
+    private Attempt(long proposalNumber, long instance, boolean hasRetried, int hops) {
+      this.proposalNumber = proposalNumber;
+      this.instance = instance;
+      this.hasRetried = hasRetried;
+      this.hops = hops;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package server.simulation;
+
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+import util.ProposalNumberGenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A replica in the simulation: the real Acceptor (through its supervisor) and Learner, plus the
+ * proposer-side state that {@link SimulatedProposal} needs. The learner thread is never started;
+ * the simulation calls it directly from the event loop.
+ */
+public class SimulatedReplica {
+  private final int id;
+  private final Map<String, String> keyValueStore = new HashMap<>();
+  private final AcceptorSupervisor acceptorSupervisor;
+  private final Learner learner;
+  private final ProposalNumberGenerator proposalNumberGenerator;
+  private long decisionSequence;
+
+  /**
+   * Constructs a SimulatedReplica.
+   *
+   * @param id The replica ID.
+   */
+  public SimulatedReplica(int id) {
+    this.id = id;
+    this.acceptorSupervisor = new AcceptorSupervisor(id);
+    this.learner = new Learner(id, keyValueStore, acceptorSupervisor);
+    this.proposalNumberGenerator = new ProposalNumberGenerator(id, 0);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public AcceptorSupervisor getAcceptorSupervisor() {
+    return acceptorSupervisor;
+  }
+
+  public Learner getLearner() {
+    return learner;
+  }
+
+  public Map<String, String> getKeyValueStore() {
+    return keyValueStore;
+  }
+
+  /**
+   * Returns the next proposal number for a proposal started at this replica.
+   *
+   * @return The proposal number.
+   */
+  long nextProposalNumber() {
+    return proposalNumberGenerator.next();
+  }
+
+  /**
+   * Returns the next decision sequence number for a Learn message sent by this replica.
+   *
+   * @return The sequence number.
+   */
+  long nextDecisionSequence() {
+    return ++decisionSequence;
+  }
+}
@@ -0,0 +1,243 @@
+package server.tracing;
+
+import util.LoggerUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Records spans for a sample of client requests as they pass through the LoadBalancer, a replica,
+ * the proposer's phases, every acceptor and every learner, and exports them as Chrome trace-event
+ * JSON, which chrome://tracing, Perfetto and Speedscope can open.
+ *
+ * <p>The LoadBalancer starts a trace for a sampled request and the trace ID follows the request on
+ * its thread; Prepare, Accept and Learn messages carry it to the acceptors and learners. Each replica
+ * appears as its own process in the viewer, and the LoadBalancer as process 0. When tracing is off,
+ * or a request is not sampled, every check is a single volatile or thread-local read.
+ *
+ * <p>Spans are buffered in memory, up to {@value #MAX_SPANS}, and written to the trace file when the
+ * JVM exits or {@link #export()} is called.
+ */
+public final class Tracer {
+  private static final Logger LOGGER = Logger.getLogger(Tracer.class.getName());
+
+  static {
+    LoggerUtil.setupCustomLogger(LOGGER);
+  }
+
+  /** The process ID spans of the LoadBalancer are recorded under. */
+  public static final int LOAD_BALANCER = -1;
+  private static final int MAX_SPANS = 500_000;
+
+  private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[1]);
+  private static final Queue<Span> SPANS = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger SPAN_COUNT = new AtomicInteger();
+  private static final AtomicLong DROPPED = new AtomicLong();
+  private static final long ORIGIN_NANOS = System.nanoTime();
+
+  private static volatile boolean enabled;
+  private static volatile double sampleRate;
+  private static volatile Path traceFile;
+  private static boolean shutdownHookAdded;
+
+  private Tracer() {
+  }
+
+  /**
+   * Turns tracing on. The trace file is written when the JVM exits.
+   *
+   * @param file       Where to write the Chrome trace-event JSON.
+   * @param sampleRate The fraction of requests to trace, between 0 and 1.
+   */
+  public static synchronized void enable(Path file, double sampleRate) {
+    Tracer.traceFile = file;
+    Tracer.sampleRate = sampleRate;
+    Tracer.enabled = true;
+    if (!shutdownHookAdded) {
+      Runtime.getRuntime().addShutdownHook(new Thread(Tracer::export, "trace-export"));
+      shutdownHookAdded = true;
+    }
+    LOGGER.info("Tracing " + (sampleRate * 100) + "% of requests to " + file);
+  }
+
+  /**
+   * Returns whether tracing is on.
+   *
+   * @return True once {@link #enable(Path, double)} was called.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Decides whether to trace the request about to run on this thread and, if so, makes a new
+   * trace current. Every call that returns non-zero must be paired with {@link #endTrace()}.
+   *
+   * @return The new trace ID, or 0 if the request is not traced.
+   */
+  public static long startTrace() {
+    if (!enabled || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return 0;
+    }
+    long traceId;
+    do {
+      traceId = ThreadLocalRandom.current().nextLong();
+    } while (traceId == 0);
+    CURRENT.get()[0] = traceId;
+    return traceId;
+  }
+
+  /**
+   * Clears the trace current on this thread.
+   */
+  public static void endTrace() {
+    CURRENT.get()[0] = 0;
+  }
+
+  /**
+   * Returns the trace current on this thread.
+   *
+   * @return The trace ID, or 0 if this thread is not serving a traced request.
+   */
+  public static long currentTraceId() {
+    return enabled ? CURRENT.get()[0] : 0;
+  }
+
+  /**
+   * Records a finished span, if it belongs to a trace.
+   *
+   * @param traceId    The trace the span belongs to; 0 records nothing.
+   * @param name       The span name, e.g. "prepare".
+   * @param process    The replica ID, or {@link #LOAD_BALANCER}.
+   * @param startNanos The {@link System#nanoTime()} when the span started.
+   * @param endNanos   The {@link System#nanoTime()} when the span ended.
+   * @param detail     Free text shown with the span, e.g. the key; may be null.
+   */
+  public static void record(long traceId, String name, int process, long startNanos, long endNanos, String detail) {
+    if (traceId == 0) {
+      return;
+    }
+    if (SPAN_COUNT.incrementAndGet() > MAX_SPANS) {
+      SPAN_COUNT.decrementAndGet();
+      DROPPED.incrementAndGet();
+      return;
+    }
+    Thread thread = Thread.currentThread();
+    SPANS.add(new Span(traceId, name, process, thread.getId(), thread.getName(), startNanos, endNanos, detail));
+  }
+
+  /**
+   * Writes every recorded span to the trace file.
+   */
+  public static synchronized void export() {
+    Path file = traceFile;
+    if (file == null) {
+      return;
+    }
+    List<Span> spans = new ArrayList<>(SPANS);
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeJson(out, spans);
+      LOGGER.info("Wrote " + spans.size() + " spans to " + file
+              + (DROPPED.get() > 0 ? " (" + DROPPED.get() + " dropped)" : ""));
+    } catch (IOException e) {
+      LOGGER.warning("Could not write trace file " + file + ": " + e.getMessage());
+    }
+  }
+
+  private static void writeJson(Writer out, List<Span> spans) throws IOException {
+    out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+    boolean first = true;
+    Set<Integer> processes = new HashSet<>();
+    Set<String> threads = new HashSet<>();
+    for (Span span : spans) {
+      int pid = span.process + 1; // keeps the LoadBalancer at pid 0
+      if (processes.add(pid)) {
+        first = separate(out, first);
+        out.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"args\":{\"name\":\""
+                + (span.process == LOAD_BALANCER ? "LoadBalancer" : "Replica " + span.process) + "\"}}");
+        first = separate(out, first);
+        out.write("{\"name\":\"process_sort_index\",\"ph\":\"M\",\"pid\":" + pid
+                + ",\"args\":{\"sort_index\":" + pid + "}}");
+      }
+      if (threads.add(pid + ":" + span.threadId)) {
+        first = separate(out, first);
+        out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"tid\":" + span.threadId
+                + ",\"args\":{\"name\":" + quote(span.threadName) + "}}");
+      }
+      first = separate(out, first);
+      out.write("{\"name\":" + quote(span.name)
+              + ",\"cat\":\"paxos\",\"ph\":\"X\""
+              + ",\"ts\":" + micros(span.startNanos - ORIGIN_NANOS)
+              + ",\"dur\":" + micros(span.endNanos - span.startNanos)
+              + ",\"pid\":" + pid
+              + ",\"tid\":" + span.threadId
+              + ",\"args\":{\"trace\":\"" + Long.toHexString(span.traceId) + "\""
+              + (span.detail != null ? ",\"detail\":" + quote(span.detail) : "")
+              + "}}");
+    }
+    out.write("\n]}\n");
+  }
+
+  private static boolean separate(Writer out, boolean first) throws IOException {
+    if (!first) {
+      out.write(",\n");
+    }
+    return false;
+  }
+
+  private static String micros(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+  }
+
+  private static String quote(String text) {
+    StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  private static final class Span {
+    private final long traceId;
+    private final String name;
+    private final int process;
+    private final long threadId;
+    private final String threadName;
+    private final long startNanos;
+    private final long endNanos;
+    private final String detail;
+
+    private Span(long traceId, String name, int process, long threadId, String threadName,
+                 long startNanos, long endNanos, String detail) {
+      this.traceId = traceId;
+      this.name = name;
+      this.process = process;
+      this.threadId = threadId;
+      this.threadName = threadName;
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+      this.detail = detail;
+    }
+  }
+}
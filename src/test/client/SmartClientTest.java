@@ -0,0 +1,166 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+import remote.KeyValueService;
+import remote.Topology;
+import server.routing.ConsistentHashRing;
+
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmartClientTest {
+  private static final List<String> VOTERS = List.of("1", "2", "3");
+
+  private final Map<String, List<String>> calls = new ConcurrentHashMap<>();
+  private final Set<String> down = ConcurrentHashMap.newKeySet();
+
+  @Test
+  void writesGoToTheKeysOwnerOnTheLoadBalancersRing() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(VOTERS, Function.identity());
+    for (int i = 0; i < 50; i++) {
+      String key = "key" + i;
+      client.put(key, "v");
+      client.put(key, "w");
+      assertEquals(List.of("put:" + key, "put:" + key), calls.get(ring.primaryOwner(key)), key);
+      calls.clear();
+    }
+  }
+
+  @Test
+  void readsRotateOverEveryReplica() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    for (int i = 0; i < 8; i++) {
+      client.get("k");
+    }
+    assertEquals(Set.of("1", "2", "3", "4"), calls.keySet(), "the learner-only replica takes reads too");
+    calls.values().forEach(received -> assertEquals(2, received.size()));
+  }
+
+  @Test
+  void failedWriteIsRetriedOnAnotherReplicaWhichThenTakesOverTheKey() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    String owner = new ConsistentHashRing<>(VOTERS, Function.identity()).primaryOwner("k");
+    down.add(owner);
+
+    assertTrue(client.put("k", "v"));
+    client.put("k", "w");
+    assertEquals(List.of("put:k"), calls.get(owner), "the failed replica was not skipped");
+    assertEquals(3, calls.values().stream().mapToInt(List::size).sum());
+  }
+
+  @Test
+  void compareAndSetAndAtomicOperationsAreNotRetried() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    String owner = new ConsistentHashRing<>(VOTERS, Function.identity()).primaryOwner("k");
+    down.add(owner);
+
+    assertThrows(RemoteException.class, () -> client.compareAndSet("k", 0, "v"));
+    SmartClient fresh = new SmartClient(this::topology); // has not skipped the owner yet
+    assertThrows(RemoteException.class, () -> fresh.increment("k", 1));
+    assertEquals(List.of("compareAndSet:k", "increment:k"), calls.get(owner));
+    assertEquals(1, calls.size());
+  }
+
+  @Test
+  void batchWriteIsSplitByOwner() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(VOTERS, Function.identity());
+    Map<String, String> entries = new LinkedHashMap<>();
+    Map<String, Set<String>> expected = new HashMap<>();
+    for (int i = 0; i < 30; i++) {
+      entries.put("key" + i, "v");
+      expected.computeIfAbsent(ring.primaryOwner("key" + i), owner -> new HashSet<>()).add("multiPut:key" + i);
+    }
+
+    Map<String, Boolean> results = client.multiPut(entries);
+    assertEquals(new ArrayList<>(entries.keySet()), new ArrayList<>(results.keySet()));
+    assertTrue(results.values().stream().allMatch(ok -> ok));
+    Map<String, Set<String>> received = new HashMap<>();
+    calls.forEach((id, made) -> received.put(id, new HashSet<>(made)));
+    assertEquals(expected, received);
+    assertNotEquals(1, received.size());
+  }
+
+  @Test
+  void failedBatchPartIsSplitAgainByEachKeysNextOwner() throws RemoteException {
+    SmartClient client = new SmartClient(this::topology);
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(VOTERS, Function.identity());
+    Map<String, String> entries = new LinkedHashMap<>();
+    Map<String, Set<String>> expected = new HashMap<>();
+    for (int i = 0; entries.size() < 20; i++) {
+      String key = "key" + i;
+      if (ring.primaryOwner(key).equals("1")) {
+        entries.put(key, "v");
+        String next = ring.owner(key, replica -> !replica.equals("1"));
+        expected.computeIfAbsent(next, id -> new HashSet<>()).add("multiPut:" + key);
+      }
+    }
+    down.add("1");
+
+    assertTrue(client.multiPut(entries).values().stream().allMatch(ok -> ok));
+    calls.remove("1");
+    Map<String, Set<String>> received = new HashMap<>();
+    calls.forEach((id, made) -> received.put(id, new HashSet<>(made)));
+    assertEquals(expected, received);
+    assertTrue(expected.size() > 1, "every key had the same next owner");
+  }
+
+  /**
+   * Returns three voting replicas and one learner-only replica, all answering in memory.
+   */
+  private Topology topology() {
+    List<Topology.Replica> replicas = new ArrayList<>();
+    for (String id : VOTERS) {
+      replicas.add(new Topology.Replica(id, true, true, endpoint(id)));
+    }
+    replicas.add(new Topology.Replica("4", false, true, endpoint("4")));
+    return new Topology(replicas);
+  }
+
+  /**
+   * Returns an endpoint that records every call, fails while its replica is down, and otherwise
+   * reports success.
+   */
+  @SuppressWarnings("unchecked")
+  private KeyValueService endpoint(String id) {
+    return (KeyValueService) Proxy.newProxyInstance(KeyValueService.class.getClassLoader(),
+            new Class<?>[]{KeyValueService.class}, (proxy, method, args) -> {
+              List<String> made = calls.computeIfAbsent(id, replica -> new ArrayList<>());
+              if (args[0] instanceof Map) {
+                ((Map<String, String>) args[0]).keySet().forEach(key -> made.add(method.getName() + ":" + key));
+              } else {
+                made.add(method.getName() + ":" + args[0]);
+              }
+              if (down.contains(id)) {
+                throw new RemoteException("replica " + id + " is down");
+              }
+              if (method.getReturnType() == boolean.class) {
+                return true;
+              }
+              if (method.getReturnType() == long.class) {
+                return 0L;
+              }
+              if (method.getReturnType() == Map.class) {
+                Map<String, Boolean> results = new LinkedHashMap<>();
+                ((Map<String, String>) args[0]).keySet().forEach(key -> results.put(key, true));
+                return results;
+              }
+              return null;
+            });
+  }
+}
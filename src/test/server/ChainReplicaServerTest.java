@@ -0,0 +1,140 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import server.failure.PhiAccrualFailureDetector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChainReplicaServerTest {
+
+  @Test
+  void compareAndSetIsEvaluatedInTheHeadsOrder() throws Exception {
+    List<ChainReplicaServer> replicas = cluster(3);
+    assertTrue(replicas.get(0).put("k", "a"));
+    assertEquals(1, replicas.get(1).getWithVersion("k").getVersion());
+
+    assertTrue(replicas.get(1).compareAndSet("k", 1, "b"));
+    assertFalse(replicas.get(2).compareAndSet("k", 1, "c"));
+
+    for (ChainReplicaServer replica : replicas) {
+      assertEquals("b", replica.getWithVersion("k").getValue());
+      assertEquals(2, replica.getWithVersion("k").getVersion());
+      assertEquals(2, replica.getChainNode().readVersioned("k").getVersion());
+    }
+  }
+
+  @Test
+  void atomicOperationsReturnTheirOutcome() throws Exception {
+    List<ChainReplicaServer> replicas = cluster(3);
+    assertEquals(5, replicas.get(0).increment("counter", 5));
+    assertEquals(3, replicas.get(1).decrement("counter", 2));
+    assertEquals("ab", replicas.get(2).append("log", "ab"));
+    assertEquals("abcd", replicas.get(0).append("log", "cd"));
+    assertNull(replicas.get(1).putIfAbsent("once", "first"));
+    assertEquals("first", replicas.get(2).putIfAbsent("once", "second"));
+    assertEquals("first", replicas.get(0).getAndSet("once", "third"));
+    assertThrows(IllegalArgumentException.class, () -> replicas.get(1).increment("log", 1));
+
+    for (ChainReplicaServer replica : replicas) {
+      RaftReplicaServerTest.awaitVersion(replica, "once", 2);
+      assertEquals("third", replica.get("once"));
+      assertEquals("3", replica.get("counter"));
+    }
+  }
+
+  @Test
+  void silentSuccessorIsRemovedFromTheChain() throws Exception {
+    List<ChainReplicaServer> replicas = cluster(3);
+    assertTrue(replicas.get(0).put("k", "before"));
+    awaitHeartbeats();
+    replicas.get(1).getAcceptorSupervisor().crash(); // replica 2 stops sending heartbeats
+
+    awaitMembers(replicas.get(0), List.of(1, 3));
+    awaitMembers(replicas.get(2), List.of(1, 3));
+    assertTrue(replicas.get(2).put("k", "after"));
+    assertEquals("after", replicas.get(2).getChainNode().read("k"));
+  }
+
+  @Test
+  void silentHeadIsRemovedFromTheChain() throws Exception {
+    List<ChainReplicaServer> replicas = cluster(3);
+    assertTrue(replicas.get(1).put("k", "before"));
+    awaitHeartbeats();
+    replicas.get(0).getAcceptorSupervisor().crash(); // the head stops sending heartbeats
+
+    awaitMembers(replicas.get(1), List.of(2, 3));
+    awaitMembers(replicas.get(2), List.of(2, 3));
+    assertEquals("before", replicas.get(1).getChainNode().read("k"));
+    assertTrue(replicas.get(2).put("k", "after"));
+    assertEquals("after", replicas.get(1).get("k"));
+    assertEquals("after", replicas.get(1).getChainNode().read("k"));
+  }
+
+  @Test
+  void concurrentRemovalsAreBothKept() throws Exception {
+    List<ChainReplicaServer> replicas = cluster(5);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger removed = new AtomicInteger();
+    List<Thread> removers = new ArrayList<>();
+    for (int[] removal : new int[][] {{0, 2}, {4, 4}}) {
+      Thread remover = new Thread(() -> {
+        try {
+          start.await();
+          if (replicas.get(removal[0]).removeReplica(removal[1])) {
+            removed.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      remover.start();
+      removers.add(remover);
+    }
+    start.countDown();
+    for (Thread remover : removers) {
+      remover.join();
+    }
+    assertEquals(2, removed.get());
+
+    for (int index : new int[] {0, 2, 4}) {
+      awaitMembers(replicas.get(index), List.of(1, 3, 5));
+      assertEquals(2, replicas.get(index).currentConfiguration().getEpoch());
+    }
+    assertTrue(replicas.get(2).put("k", "v"));
+    assertEquals("v", replicas.get(4).get("k"));
+  }
+
+  /**
+   * Lets every detector hear from every replica; a replica never heard from is never suspected.
+   */
+  private static void awaitHeartbeats() throws InterruptedException {
+    Thread.sleep(5 * PhiAccrualFailureDetector.HEARTBEAT_INTERVAL_MS);
+  }
+
+  private static void awaitMembers(ChainReplicaServer replica, List<Integer> members) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!replica.currentConfiguration().getMembers().equals(members) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(members, replica.currentConfiguration().getMembers());
+  }
+
+  static List<ChainReplicaServer> cluster(int count) throws Exception {
+    List<ChainReplicaServer> replicas = new ArrayList<>();
+    for (int id = 1; id <= count; id++) {
+      replicas.add(new ChainReplicaServer(id));
+    }
+    List<IKeyValueServer> all = List.copyOf(replicas);
+    replicas.forEach(replica -> replica.setAllReplicas(all));
+    return replicas;
+  }
+}
@@ -0,0 +1,131 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import server.routing.ConsistentHashRing;
+
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerTest {
+  private final Map<String, List<String>> calls = new ConcurrentHashMap<>();
+  private final Set<String> down = ConcurrentHashMap.newKeySet();
+
+  @Test
+  void failedBatchPartIsRegroupedByEachKeysNextOwner() throws RemoteException {
+    List<IKeyValueServer> replicas = replicas(5);
+    LoadBalancer loadBalancer = new LoadBalancer(replicas, healthChecked());
+    ConsistentHashRing<IKeyValueServer> ring = new ConsistentHashRing<>(replicas, IKeyValueServer::getServerID);
+    IKeyValueServer failed = replicas.get(0);
+    Map<String, String> entries = new LinkedHashMap<>();
+    Map<String, List<String>> expected = new HashMap<>();
+    for (int i = 0; entries.size() < 20; i++) {
+      String key = "key" + i;
+      if (ring.primaryOwner(key) == failed) {
+        entries.put(key, "v");
+        String next = ring.owner(key, replica -> replica != failed).getServerID();
+        expected.computeIfAbsent(next, id -> new ArrayList<>()).add("multiPut:" + key);
+      }
+    }
+    down.add(failed.getServerID());
+
+    Map<String, Boolean> results = loadBalancer.multiPut(entries);
+    assertEquals(new ArrayList<>(entries.keySet()), new ArrayList<>(results.keySet()));
+    assertTrue(results.values().stream().allMatch(ok -> ok));
+    calls.remove(failed.getServerID());
+    assertEquals(expected, calls);
+    assertTrue(expected.size() > 1, "every key had the same next owner");
+
+    calls.clear();
+    loadBalancer.multiDelete(new ArrayList<>(entries.keySet()));
+    Map<String, List<String>> deletes = new HashMap<>();
+    expected.forEach((id, made) -> made.forEach(call -> deletes.computeIfAbsent(id, k -> new ArrayList<>())
+            .add(call.replace("multiPut", "multiDelete"))));
+    calls.remove(failed.getServerID());
+    assertEquals(deletes, calls);
+  }
+
+  @Test
+  void compareAndSetAndAtomicOperationsAreNotRetried() throws RemoteException {
+    List<IKeyValueServer> replicas = replicas(5);
+    LoadBalancer loadBalancer = new LoadBalancer(replicas, healthChecked());
+    IKeyValueServer owner = new ConsistentHashRing<>(replicas, IKeyValueServer::getServerID).primaryOwner("k");
+    down.add(owner.getServerID());
+
+    assertThrows(RemoteException.class, () -> loadBalancer.compareAndSet("k", 0, "v"));
+    assertThrows(RemoteException.class, () -> loadBalancer.increment("k", 1));
+    assertEquals(Map.of(owner.getServerID(), List.of("compareAndSet:k", "increment:k")), calls);
+
+    assertTrue(loadBalancer.put("k", "v"), "a PUT fails over");
+  }
+
+  private static ServerConfig healthChecked() {
+    return ServerConfig.fromOptions(Map.of("healthChecks", "true"));
+  }
+
+  /**
+   * Returns voting replicas that record every key they are asked to write, fail while they are
+   * down, and otherwise report success.
+   */
+  @SuppressWarnings("unchecked")
+  private List<IKeyValueServer> replicas(int count) {
+    List<IKeyValueServer> replicas = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      String id = String.valueOf(i);
+      replicas.add((IKeyValueServer) Proxy.newProxyInstance(IKeyValueServer.class.getClassLoader(),
+              new Class<?>[]{IKeyValueServer.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "getServerID":
+                    return id;
+                  case "isVoter":
+                    return true;
+                  case "isCatchingUp":
+                    return false;
+                  case "addFailureDetector":
+                    return null;
+                  case "hashCode":
+                    return System.identityHashCode(proxy);
+                  case "equals":
+                    return proxy == args[0];
+                  case "toString":
+                    return "replica " + id;
+                  default:
+                    break;
+                }
+                if (args != null) {
+                  List<String> made = calls.computeIfAbsent(id, replica -> new ArrayList<>());
+                  Iterable<?> keys = args[0] instanceof Map ? ((Map<String, ?>) args[0]).keySet()
+                          : args[0] instanceof List ? (List<?>) args[0] : List.of(args[0]);
+                  keys.forEach(key -> made.add(method.getName() + ":" + key));
+                }
+                if (down.contains(id)) {
+                  throw new RemoteException("replica " + id + " is down");
+                }
+                if (method.getReturnType() == boolean.class) {
+                  return true;
+                }
+                if (method.getReturnType() == long.class) {
+                  return 0L;
+                }
+                if (method.getReturnType() == Map.class) {
+                  Map<String, Boolean> results = new LinkedHashMap<>();
+                  Iterable<?> keys = args[0] instanceof Map ? ((Map<String, ?>) args[0]).keySet() : (List<?>) args[0];
+                  keys.forEach(key -> results.put((String) key, true));
+                  return results;
+                }
+                return null;
+              }));
+    }
+    return replicas;
+  }
+}
@@ -0,0 +1,71 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RaftReplicaServerTest {
+  private final List<RaftReplicaServer> replicas = new ArrayList<>();
+
+  @AfterEach
+  void stopNodes() {
+    replicas.forEach(replica -> replica.getRaftNode().shutdown());
+  }
+
+  @Test
+  void compareAndSetIsDecidedOnceInLogOrder() throws Exception {
+    startCluster(3);
+    assertTrue(replicas.get(0).put("k", "a"));
+
+    assertTrue(replicas.get(1).compareAndSet("k", 1, "b"));
+    assertFalse(replicas.get(2).compareAndSet("k", 1, "c"));
+
+    for (RaftReplicaServer replica : replicas) {
+      awaitVersion(replica, "k", 2);
+      assertEquals("b", replica.getWithVersion("k").getValue());
+    }
+  }
+
+  @Test
+  void atomicOperationsReturnTheirOutcome() throws Exception {
+    startCluster(3);
+    assertEquals(5, replicas.get(0).increment("counter", 5));
+    assertEquals(3, replicas.get(1).decrement("counter", 2));
+    assertEquals("ab", replicas.get(2).append("log", "ab"));
+    assertEquals("abcd", replicas.get(0).append("log", "cd"));
+    assertNull(replicas.get(1).putIfAbsent("once", "first"));
+    assertEquals("first", replicas.get(2).putIfAbsent("once", "second"));
+    assertEquals("first", replicas.get(0).getAndSet("once", "third"));
+    assertThrows(IllegalArgumentException.class, () -> replicas.get(1).increment("log", 1));
+
+    for (RaftReplicaServer replica : replicas) {
+      awaitVersion(replica, "once", 2);
+      assertEquals("third", replica.get("once"));
+      assertEquals("3", replica.get("counter"));
+    }
+  }
+
+  private void startCluster(int count) {
+    for (int id = 1; id <= count; id++) {
+      replicas.add(new RaftReplicaServer(id));
+    }
+    List<IKeyValueServer> all = List.copyOf(replicas);
+    replicas.forEach(replica -> replica.setAllReplicas(all));
+  }
+
+  static void awaitVersion(IKeyValueServer replica, String key, long version) throws Exception {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (replica.getWithVersion(key).getVersion() < version && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(version, replica.getWithVersion(key).getVersion());
+  }
+}
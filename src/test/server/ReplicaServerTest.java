@@ -0,0 +1,58 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaServerTest {
+
+  @Test
+  void concurrentIncrementsAreEachAppliedOnce() throws Exception {
+    List<ReplicaServer> replicas = cluster(5);
+    ExecutorService clients = Executors.newFixedThreadPool(20);
+    AtomicInteger unknown = new AtomicInteger();
+    Set<Long> returned = ConcurrentHashMap.newKeySet();
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ReplicaServer replica = replicas.get(i % replicas.size());
+      calls.add(clients.submit(() -> {
+        try {
+          returned.add(replica.increment("counter", 1));
+        } catch (RemoteException e) {
+          unknown.incrementAndGet();
+        }
+      }));
+    }
+    for (Future<?> call : calls) {
+      call.get();
+    }
+    clients.shutdown();
+
+    assertEquals(0, unknown.get());
+    assertEquals(200, returned.size());
+    for (ReplicaServer replica : replicas) {
+      RaftReplicaServerTest.awaitVersion(replica, "counter", 200);
+      assertEquals("200", replica.get("counter"));
+    }
+  }
+
+  static List<ReplicaServer> cluster(int count) throws Exception {
+    List<ReplicaServer> replicas = new ArrayList<>();
+    for (int id = 1; id <= count; id++) {
+      replicas.add(new ReplicaServer(id));
+    }
+    List<IKeyValueServer> all = List.copyOf(replicas);
+    replicas.forEach(replica -> replica.setAllReplicas(all));
+    return replicas;
+  }
+}
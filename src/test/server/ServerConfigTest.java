@@ -0,0 +1,58 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ServerConfigTest {
+
+  @Test
+  void defaultsToFiveVotingReplicas() {
+    ServerConfig config = ServerConfig.defaults();
+    assertEquals(5, config.getReplicaCount());
+    assertEquals(0, config.getReadReplicaCount());
+    assertEquals(1, config.getShardCount());
+  }
+
+  @Test
+  void acceptsSixteenReplicasInTotal() {
+    ServerConfig config = ServerConfig.fromOptions(Map.of("replicas", "11", "readReplicas", "5"));
+    assertEquals(11, config.getReplicaCount());
+    assertEquals(5, config.getReadReplicaCount());
+  }
+
+  @Test
+  void rejectsMoreReplicasThanProposalNumbersCanEncode() {
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("replicas", "17")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("replicas", "12", "readReplicas", "5")));
+  }
+
+  @Test
+  void rejectsEmptyOrNegativeCounts() {
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("replicas", "0")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("readReplicas", "-1")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("shards", "0")));
+  }
+
+  @Test
+  void rejectsErasureCodingThatOneFailureWouldBlock() {
+    ServerConfig config = ServerConfig.fromOptions(Map.of("ecThreshold", "1024", "ecDataShards", "3"));
+    assertEquals(3, config.getErasureDataShards());
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("ecThreshold", "1024", "ecDataShards", "6")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("ecThreshold", "1024", "ecDataShards", "0")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("ecThreshold", "1024", "ecDataShards", "4")));
+    assertThrows(IllegalArgumentException.class,
+            () -> ServerConfig.fromOptions(Map.of("replicas", "3", "ecThreshold", "1024", "ecDataShards", "2")));
+  }
+}
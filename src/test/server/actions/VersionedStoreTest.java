@@ -0,0 +1,49 @@
+package server.actions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedStoreTest {
+
+  @Test
+  void everyWriteRaisesTheVersion() {
+    VersionedStore store = new VersionedStore(new HashMap<>());
+    assertEquals(0, store.getVersioned("k").getVersion());
+    store.apply(new PutAction("k", "a"));
+    store.apply(new DeleteAction("k"));
+    assertNull(store.getVersioned("k").getValue());
+    assertEquals(2, store.getVersioned("k").getVersion());
+  }
+
+  @Test
+  void compareAndSetIsEvaluatedAgainstTheCurrentVersion() {
+    VersionedStore store = new VersionedStore(new HashMap<>());
+    store.apply(new PutAction("k", "a"));
+    store.apply(new CompareAndSetAction("k", 1, "b", 1, 1));
+    store.apply(new CompareAndSetAction("k", 1, "c", 2, 1));
+
+    assertTrue(store.getResult(1).isWritten());
+    assertFalse(store.getResult(2).isWritten());
+    assertEquals("b", store.getVersioned("k").getValue());
+    assertEquals(2, store.getVersioned("k").getVersion());
+  }
+
+  @Test
+  void resubmittedRequestIsAppliedOnce() {
+    VersionedStore store = new VersionedStore(new HashMap<>());
+    CompareAndSetAction swap = new CompareAndSetAction("k", 0, "a", 7, 1);
+    store.apply(swap);
+    store.apply(new PutAction("k", "b"));
+    store.apply(swap); // sent again after a leader change
+
+    assertTrue(store.getResult(7).isWritten());
+    assertEquals("b", store.getVersioned("k").getValue());
+    assertEquals(2, store.getVersioned("k").getVersion());
+  }
+}
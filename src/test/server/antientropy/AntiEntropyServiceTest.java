@@ -0,0 +1,88 @@
+package server.antientropy;
+
+import org.junit.jupiter.api.Test;
+import server.actions.FragmentPutAction;
+import server.actions.PutAction;
+import server.messages.LearnMessage;
+import server.roles.AcceptorSupervisor;
+import server.roles.Learner;
+import util.ReedSolomon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AntiEntropyServiceTest {
+
+  @Test
+  void learnInFlightDuringRepairIsNotAppliedAgain() {
+    Learner ahead = learner(1);
+    Learner behind = learner(2);
+    LearnMessage first = new LearnMessage(10, 1, 1, 1, new PutAction("k", "first"));
+    LearnMessage second = new LearnMessage(20, 1, 2, 2, new PutAction("k", "second"));
+    ahead.learn(first);
+    ahead.learn(second);
+    behind.learn(first);
+
+    assertEquals(1, new AntiEntropyService(2, behind).synchronizeWith(ahead));
+    assertEquals("second", behind.getVersioned("k").getValue());
+
+    behind.learn(second); // the Learn repair overtook finally arrives
+    assertEquals(2, behind.getVersioned("k").getVersion());
+    assertEquals(3, behind.nextInstance("k"));
+  }
+
+  @Test
+  void repairDropsDecisionsHeldBackForAdoptedInstances() {
+    Learner ahead = learner(1);
+    Learner behind = learner(2);
+    for (long instance = 1; instance <= 3; instance++) {
+      ahead.learn(new LearnMessage(instance, 1, instance, instance, new PutAction("k", "v" + instance)));
+    }
+    behind.learn(new LearnMessage(3, 1, 3, 3, new PutAction("k", "v3"))); // held back, 1 and 2 missing
+
+    new AntiEntropyService(2, behind).synchronizeWith(ahead);
+    assertEquals("v3", behind.getVersioned("k").getValue());
+    assertEquals(3, behind.getVersioned("k").getVersion());
+    assertEquals(4, behind.nextInstance("k"));
+  }
+
+  @Test
+  void repairedErasureCodedValueKeepsTheReplicasOwnFragment() {
+    byte[] value = "a value split across five replicas".getBytes(StandardCharsets.UTF_8);
+    byte[][] fragments = new ReedSolomon(3, 5).encode(value);
+    List<Learner> learners = new ArrayList<>();
+    List<Map<String, String>> stores = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Map<String, String> store = new ConcurrentHashMap<>();
+      Learner learner = new Learner(i + 1, store, new AcceptorSupervisor(i + 1));
+      learner.setFragmentIndex(i, 5);
+      learners.add(learner);
+      stores.add(store);
+    }
+    for (Learner learner : learners) {
+      List<Learner> peers = new ArrayList<>(learners);
+      peers.remove(learner);
+      learner.setPeers(peers);
+    }
+    for (int i = 0; i < 4; i++) { // the fifth replica missed the write
+      learners.get(i).learn(new LearnMessage(7, 1, 1, 1,
+              new FragmentPutAction("k", 7, i, 3, value.length, fragments[i])));
+    }
+
+    assertEquals(1, new AntiEntropyService(5, learners.get(4)).synchronizeWith(learners.get(0)));
+    FragmentPutAction repaired = FragmentPutAction.parse("k", stores.get(4).get("k"));
+    assertEquals(4, repaired.getFragmentIndex());
+    assertArrayEquals(fragments[4], repaired.getFragment());
+    assertEquals(1, learners.get(4).getVersioned("k").getVersion());
+  }
+
+  private static Learner learner(int id) {
+    return new Learner(id, new ConcurrentHashMap<>(), new AcceptorSupervisor(id));
+  }
+}
@@ -0,0 +1,85 @@
+package server.antientropy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MerkleTreeTest {
+
+  @Test
+  void sameEntriesGiveTheSameRootInAnyOrder() {
+    MerkleTree first = new MerkleTree(16);
+    MerkleTree second = new MerkleTree(16);
+    for (int i = 0; i < 100; i++) {
+      first.update("k" + i, "v" + i);
+      second.update("k" + (99 - i), "v" + (99 - i));
+    }
+    second.update("k5", "stale");
+    second.update("k5", "v5"); // overwriting back restores the hash
+
+    assertEquals(first.getRootHash(), second.getRootHash());
+    int[] all = new int[32];
+    for (int node = 1; node < all.length; node++) {
+      all[node] = node;
+    }
+    assertArrayEquals(first.getHashes(all), second.getHashes(all));
+  }
+
+  @Test
+  void differingKeyChangesOnlyThePathFromItsLeafToTheRoot() {
+    MerkleTree first = new MerkleTree(16);
+    MerkleTree second = new MerkleTree(16);
+    for (int i = 0; i < 50; i++) {
+      first.update("k" + i, "v" + i);
+      second.update("k" + i, "v" + i);
+    }
+    second.update("k7", "changed");
+
+    Set<Integer> path = new HashSet<>();
+    for (int node = 16 + first.bucketOf("k7"); node >= 1; node >>= 1) {
+      path.add(node);
+    }
+    for (int node = 1; node < 32; node++) {
+      long left = first.getHashes(new int[]{node})[0];
+      long right = second.getHashes(new int[]{node})[0];
+      if (path.contains(node)) {
+        assertNotEquals(left, right, "node " + node);
+      } else {
+        assertEquals(left, right, "node " + node);
+      }
+    }
+    assertTrue(first.getKeys(first.bucketOf("k7")).contains("k7"));
+  }
+
+  @Test
+  void deletedKeyDiffersFromAbsentKeyAndFromItsValue() {
+    MerkleTree deleted = new MerkleTree(4);
+    MerkleTree absent = new MerkleTree(4);
+    MerkleTree present = new MerkleTree(4);
+    deleted.update("k", "v");
+    deleted.update("k", null);
+    present.update("k", "v");
+
+    assertNotEquals(absent.getRootHash(), deleted.getRootHash());
+    assertNotEquals(present.getRootHash(), deleted.getRootHash());
+    assertTrue(deleted.getKeys(deleted.bucketOf("k")).contains("k"));
+
+    deleted.clear();
+    assertEquals(absent.getRootHash(), deleted.getRootHash());
+    assertEquals(0, deleted.getKeys(deleted.bucketOf("k")).size());
+  }
+
+  @Test
+  void leafCountMustBeAPowerOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new MerkleTree(0));
+    assertThrows(IllegalArgumentException.class, () -> new MerkleTree(12));
+    assertEquals(8, new MerkleTree(8).getLeafCount());
+  }
+}
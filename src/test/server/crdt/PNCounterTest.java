@@ -0,0 +1,61 @@
+package server.crdt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PNCounterTest {
+
+  @Test
+  void concurrentDeletesCancelTheCountOnce() {
+    CrdtStore first = new CrdtStore(1);
+    CrdtStore second = new CrdtStore(2);
+    first.put("views", CrdtType.PN_COUNTER, "5");
+    second.mergeAll(first.drainDeltas());
+
+    first.delete("views", CrdtType.PN_COUNTER);
+    second.delete("views", CrdtType.PN_COUNTER);
+    first.mergeAll(second.drainDeltas());
+    second.mergeAll(first.drainDeltas());
+
+    assertEquals("0", first.get("views"));
+    assertEquals("0", second.get("views"));
+  }
+
+  @Test
+  void updateConcurrentWithDeleteSurvives() {
+    PNCounter first = new PNCounter();
+    PNCounter second = new PNCounter();
+    second.merge(first.add(1, 4));
+
+    PNCounter reset = first.reset();
+    PNCounter update = second.add(2, 3);
+    first.merge(update);
+    second.merge(reset);
+
+    assertEquals(3, first.count());
+    assertEquals(3, second.count());
+  }
+
+  @Test
+  void deleteReachingAPeerBeforeTheUpdatesItCancelled() {
+    PNCounter first = new PNCounter();
+    PNCounter second = new PNCounter();
+    first.add(1, 7);
+    first.add(1, -2);
+
+    second.merge(first.reset());
+
+    assertEquals(0, second.count());
+  }
+
+  @Test
+  void outOfRangeUpdatesAreRejected() {
+    PNCounter counter = new PNCounter();
+    assertThrows(IllegalArgumentException.class, () -> counter.add(1, Long.MIN_VALUE));
+    counter.add(1, Long.MAX_VALUE);
+    assertThrows(IllegalArgumentException.class, () -> counter.add(1, 1));
+    assertEquals(Long.MAX_VALUE, counter.count());
+  }
+}
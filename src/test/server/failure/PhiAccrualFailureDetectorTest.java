@@ -0,0 +1,53 @@
+package server.failure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhiAccrualFailureDetectorTest {
+
+  @Test
+  void nodeNeverHeardFromIsNotSuspected() {
+    PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(1);
+    assertEquals(0, detector.phi("2"));
+    assertTrue(detector.isAvailable("2"));
+  }
+
+  @Test
+  void silentNodeIsSuspectedAndRecoversOnItsNextHeartbeat() throws InterruptedException {
+    PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(1);
+    for (int i = 0; i < 10; i++) {
+      detector.heartbeat("2");
+      Thread.sleep(20);
+    }
+    assertTrue(detector.isAvailable("2"));
+
+    double early = detector.phi("2");
+    Thread.sleep(300);
+    double later = detector.phi("2");
+    assertTrue(later > early, "phi did not grow with silence: " + early + " -> " + later);
+
+    Thread.sleep(500);
+    assertFalse(detector.isAvailable("2"), "phi after 800 ms of silence: " + detector.phi("2"));
+    assertTrue(detector.isAvailable("3"), "suspecting one node affected another");
+
+    detector.heartbeat("2");
+    assertTrue(detector.isAvailable("2"));
+  }
+
+  @Test
+  void lowerThresholdSuspectsSooner() throws InterruptedException {
+    PhiAccrualFailureDetector strict = new PhiAccrualFailureDetector(1, 1.0);
+    PhiAccrualFailureDetector lenient = new PhiAccrualFailureDetector(1, 1_000.0);
+    for (int i = 0; i < 10; i++) {
+      strict.heartbeat("2");
+      lenient.heartbeat("2");
+      Thread.sleep(20);
+    }
+    Thread.sleep(400);
+    assertFalse(strict.isAvailable("2"));
+    assertTrue(lenient.isAvailable("2"));
+  }
+}
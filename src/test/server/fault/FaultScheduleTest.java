@@ -0,0 +1,110 @@
+package server.fault;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FaultScheduleTest {
+
+  @Test
+  void stepsAreSortedByTimeAndParsed() {
+    FaultSchedule schedule = FaultSchedule.parse("900:heal, 100:crash:1+2, 0:delay:accept:5, 500:restart:2", 1, 5);
+    List<FaultEvent> events = schedule.getEvents();
+
+    assertEquals(4, events.size());
+    assertEquals(FaultEvent.Kind.DELAY, events.get(0).getKind());
+    assertEquals(MessageType.ACCEPT, events.get(0).getMessageType());
+    assertEquals(5, events.get(0).getAmount());
+    assertEquals(Set.of(1, 2), events.get(1).getReplicas());
+    assertEquals(500, events.get(2).getAtMillis());
+    assertEquals(Set.of(2), events.get(2).getReplicas());
+    assertEquals(FaultEvent.Kind.HEAL, events.get(3).getKind());
+  }
+
+  @Test
+  void sameSeedResolvesTheSameRandomPicks() {
+    for (long seed = 0; seed < 20; seed++) {
+      assertEquals(FaultSchedule.parse("chaos", seed, 5).getEvents().toString(),
+              FaultSchedule.parse("chaos", seed, 5).getEvents().toString());
+    }
+  }
+
+  @Test
+  void randomPicksSkipUnavailableReplicasAndRestartAllBringsThemBack() {
+    for (long seed = 0; seed < 20; seed++) {
+      List<FaultEvent> events = FaultSchedule.parse("0:crash:?+?,10:partition:?,20:crash:?,30:restart:*", seed, 5).getEvents();
+      Set<Integer> picked = new HashSet<>();
+      for (FaultEvent event : events.subList(0, 3)) {
+        for (int id : event.getReplicas()) {
+          assertTrue(id >= 0 && id < 5, "not a voter: " + id);
+          assertTrue(picked.add(id), "picked twice: " + events);
+        }
+      }
+      assertEquals(4, picked.size());
+      Set<Integer> crashed = new HashSet<>(events.get(0).getReplicas());
+      crashed.addAll(events.get(2).getReplicas());
+      assertEquals(crashed, events.get(3).getReplicas());
+    }
+  }
+
+  @Test
+  void malformedStepsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> FaultSchedule.parse("soon:crash:1", 1, 5));
+    assertThrows(IllegalArgumentException.class, () -> FaultSchedule.parse("100", 1, 5));
+    assertThrows(IllegalArgumentException.class, () -> FaultSchedule.parse("100:explode:1", 1, 5));
+    assertThrows(IllegalArgumentException.class, () -> FaultSchedule.parse("100:drop:accept", 1, 5));
+    assertThrows(IllegalArgumentException.class, () -> FaultSchedule.parse("100:delay:gossip:5", 1, 5));
+  }
+
+  @Test
+  void partitionCutsOnlyMessagesCrossingIt() {
+    ScheduledFaultInjector injector = new ScheduledFaultInjector(FaultSchedule.parse("0:partition:1+2", 1, 5));
+    injector.apply(injector.getSchedule().getEvents().get(0));
+
+    assertEquals(FaultInjector.DROP, injector.onSend(MessageType.ACCEPT, 1, 3));
+    assertEquals(FaultInjector.DROP, injector.onSend(MessageType.LEARN, 3, 2));
+    assertEquals(FaultInjector.DROP, injector.onSend(MessageType.ACCEPT, FaultInjector.LOAD_BALANCER_ID, 1));
+    assertEquals(0, injector.onSend(MessageType.ACCEPT, 1, 2));
+    assertEquals(0, injector.onSend(MessageType.ACCEPT, 3, 4));
+
+    injector.apply(new FaultEvent(0, FaultEvent.Kind.HEAL, Set.of(), null, 0));
+    assertEquals(0, injector.onSend(MessageType.ACCEPT, 1, 3));
+  }
+
+  @Test
+  void dropsDependOnlyOnTheSeedAndChannel() {
+    List<Boolean> first = drops(7);
+    assertEquals(first, drops(7));
+    assertNotEquals(first, drops(8));
+    long dropped = first.stream().filter(drop -> drop).count();
+    assertTrue(dropped > 300 && dropped < 700, "dropped " + dropped + " of 1000 at rate 0.5");
+  }
+
+  @Test
+  void delayIsReturnedForItsMessageTypeOnly() {
+    ScheduledFaultInjector injector = new ScheduledFaultInjector(FaultSchedule.parse("slow-network", 1, 5));
+    injector.getSchedule().getEvents().forEach(injector::apply);
+    assertEquals(1, injector.onSend(MessageType.PREPARE, 1, 2));
+    assertEquals(0, injector.onSend(MessageType.LEARN, 1, 2));
+    assertFalse(injector.getAppliedEvents().isEmpty());
+  }
+
+  private static List<Boolean> drops(long seed) {
+    ScheduledFaultInjector injector = new ScheduledFaultInjector(FaultSchedule.parse("0:drop:accept:0.5", seed, 5));
+    injector.apply(injector.getSchedule().getEvents().get(0));
+    List<Boolean> drops = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      drops.add(injector.onSend(MessageType.ACCEPT, i % 3, 4) == FaultInjector.DROP);
+    }
+    return drops;
+  }
+}
@@ -0,0 +1,65 @@
+package server.roles;
+
+import org.junit.jupiter.api.Test;
+import server.actions.PutAction;
+import server.messages.AcceptRequest;
+import server.messages.PrepareRequest;
+import server.messages.PromiseResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptorTest {
+  private final Acceptor acceptor = new Acceptor(0);
+
+  @Test
+  void promisesOnlyHigherProposalNumbersWithinAnInstance() {
+    assertTrue(acceptor.receivePrepare(new PrepareRequest(20, "k", 1, 0)).isPromised());
+    assertFalse(acceptor.receivePrepare(new PrepareRequest(10, "k", 1, 1)).isPromised());
+    assertNull(acceptor.receiveAccept(new AcceptRequest(10, 1, 1, new PutAction("k", "v"))));
+    assertNotNull(acceptor.receiveAccept(new AcceptRequest(20, 1, 0, new PutAction("k", "v"))));
+  }
+
+  @Test
+  void reportsTheValueAcceptedInTheSameInstance() {
+    PutAction accepted = new PutAction("k", "v");
+    acceptor.receiveAccept(new AcceptRequest(10, 1, 0, accepted));
+
+    PromiseResponse sameInstance = acceptor.receivePrepare(new PrepareRequest(30, "k", 1, 1));
+    assertTrue(sameInstance.isPromised());
+    assertEquals(accepted, sameInstance.getPreviouslyAcceptedAction());
+    assertEquals(10, sameInstance.getPreviouslyAcceptedProposalNumber());
+
+    // A proposer in instance 2 has learned instance 1, so its value is no longer reported
+    PromiseResponse nextInstance = acceptor.receivePrepare(new PrepareRequest(5, "k", 2, 2));
+    assertTrue(nextInstance.isPromised());
+    assertNull(nextInstance.getPreviouslyAcceptedAction());
+  }
+
+  @Test
+  void rejectsDecidedInstancesWithTheDecidedInstance() {
+    acceptor.markDecided("k", 3);
+    PromiseResponse stale = acceptor.receivePrepare(new PrepareRequest(100, "k", 2, 0));
+    assertFalse(stale.isPromised());
+    assertEquals(3, stale.getDecidedInstance());
+    assertNull(acceptor.receiveAccept(new AcceptRequest(100, 3, 0, new PutAction("k", "v"))));
+    assertTrue(acceptor.receivePrepare(new PrepareRequest(1, "k", 4, 0)).isPromised());
+  }
+
+  @Test
+  void laterInstanceRejectsEarlierOnes() {
+    assertTrue(acceptor.receivePrepare(new PrepareRequest(1, "k", 5, 0)).isPromised());
+    PromiseResponse earlier = acceptor.receivePrepare(new PrepareRequest(100, "k", 4, 1));
+    assertFalse(earlier.isPromised());
+    assertEquals(4, earlier.getDecidedInstance());
+  }
+
+  @Test
+  void keysAreIndependent() {
+    acceptor.markDecided("a", 7);
+    assertTrue(acceptor.receivePrepare(new PrepareRequest(1, "b", 1, 0)).isPromised());
+  }
+}
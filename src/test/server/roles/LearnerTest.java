@@ -0,0 +1,178 @@
+package server.roles;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import server.actions.FragmentPutAction;
+import server.actions.PutAction;
+import server.messages.LearnMessage;
+import util.ReedSolomon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LearnerTest {
+  private final List<Learner> started = new ArrayList<>();
+
+  @AfterEach
+  void stopLearners() throws InterruptedException {
+    for (Learner learner : started) {
+      learner.interrupt();
+      learner.join();
+    }
+  }
+
+  @Test
+  void duplicateLearnIsAppliedOnce() {
+    Learner learner = learner(1);
+    LearnMessage message = new LearnMessage(17, 2, 1, 1, new PutAction("k", "v"));
+    learner.learn(message);
+    learner.learn(message);
+    assertEquals(1, learner.getVersioned("k").getVersion());
+  }
+
+  @Test
+  void learnDelayedPastCatchUpIsNotAppliedAgain() throws InterruptedException {
+    Learner source = learner(1);
+    Learner lagging = learner(2);
+    lagging.setPeers(List.of(source));
+    LearnMessage message = new LearnMessage(17, 1, 1, 1, new PutAction("k", "v"));
+    source.learn(message);
+
+    start(lagging);
+    awaitVersion(lagging, "k", 1);
+
+    lagging.learn(message); // the delayed Learn finally arrives
+    assertEquals(1, lagging.getVersioned("k").getVersion());
+    assertEquals("v", lagging.getVersioned("k").getValue());
+  }
+
+  @Test
+  void laterInstanceWinsOverHigherProposalNumber() {
+    Learner learner = learner(1);
+    // Proposal numbers of different proposers are not ordered in time; instances are
+    learner.learn(new LearnMessage(5, 2, 1, 2, new PutAction("k", "second")));
+    assertEquals(0, learner.getVersioned("k").getVersion());
+    learner.learn(new LearnMessage(99, 3, 1, 1, new PutAction("k", "first")));
+    assertEquals("second", learner.getVersioned("k").getValue());
+    assertEquals(2, learner.getVersioned("k").getVersion());
+    assertEquals(3, learner.nextInstance("k"));
+  }
+
+  @Test
+  void heldBackDecisionIsAppliedOnceCatchUpFillsTheGap() {
+    Learner source = learner(1);
+    Learner lagging = learner(2);
+    lagging.setPeers(List.of(source));
+    LearnMessage first = new LearnMessage(99, 3, 1, 1, new PutAction("k", "first"));
+    LearnMessage second = new LearnMessage(5, 4, 1, 2, new PutAction("k", "second"));
+    source.learn(first);
+    source.learn(second);
+
+    lagging.learn(second); // the Learn for instance 1 was lost
+    assertEquals(null, lagging.getVersioned("k").getValue());
+    assertEquals(3, lagging.nextInstance("k"));
+
+    lagging.catchUpNow();
+    assertEquals("second", lagging.getVersioned("k").getValue());
+    assertEquals(2, lagging.getVersioned("k").getVersion());
+  }
+
+  @Test
+  void catchUpSkipsPeersMissingTheSameDecision() {
+    Learner proposing = learner(1);
+    Learner holey = learner(2);
+    Learner lagging = learner(3);
+    lagging.setPeers(List.of(holey, proposing));
+    LearnMessage first = new LearnMessage(10, 1, 1, 1, new PutAction("k", "first"));
+    LearnMessage second = new LearnMessage(20, 1, 2, 2, new PutAction("k", "second"));
+    proposing.learn(first);
+    proposing.learn(second);
+    holey.learn(second); // saw the later decision but not the earlier one, like lagging
+
+    lagging.learn(second);
+    lagging.catchUpNow();
+    assertEquals("second", lagging.getVersioned("k").getValue());
+  }
+
+  @Test
+  void caughtUpErasureCodedDecisionIsStoredAsOwnFragment() {
+    List<Map<String, String>> stores = new ArrayList<>();
+    List<Learner> learners = codedLearners(5, stores);
+    byte[] value = "an erasure-coded value".getBytes(StandardCharsets.UTF_8);
+    byte[][] fragments = new ReedSolomon(3, 5).encode(value);
+    for (int i = 0; i < 4; i++) { // the Learn to the fifth replica was lost
+      learners.get(i).learn(new LearnMessage(7, 1, 1, 1, new FragmentPutAction("k", 7, i, 3, value.length, fragments[i])));
+    }
+
+    learners.get(4).catchUpNow();
+    FragmentPutAction caughtUp = FragmentPutAction.parse("k", stores.get(4).get("k"));
+    assertEquals(4, caughtUp.getFragmentIndex());
+    assertArrayEquals(fragments[4], caughtUp.getFragment());
+    assertEquals(1, learners.get(4).getVersioned("k").getVersion());
+  }
+
+  @Test
+  void snapshotOfErasureCodedValueIsInstalledAsOwnFragment() {
+    List<Map<String, String>> stores = new ArrayList<>();
+    List<Learner> learners = codedLearners(5, stores);
+    byte[] value = "an erasure-coded value".getBytes(StandardCharsets.UTF_8);
+    byte[][] fragments = new ReedSolomon(3, 5).encode(value);
+    for (int i = 0; i < 4; i++) {
+      Learner learner = learners.get(i);
+      learner.learn(new LearnMessage(7, 1, 1, 1, new FragmentPutAction("k", 7, i, 3, value.length, fragments[i])));
+      for (long sequence = 2; sequence <= 1_100; sequence++) { // too far behind to fetch decisions
+        learner.learn(new LearnMessage(sequence, 1, sequence, sequence - 1, new PutAction("other", "v" + sequence)));
+      }
+    }
+
+    learners.get(4).catchUpNow();
+    FragmentPutAction installed = FragmentPutAction.parse("k", stores.get(4).get("k"));
+    assertEquals(4, installed.getFragmentIndex());
+    assertArrayEquals(fragments[4], installed.getFragment());
+    assertEquals("v1100", learners.get(4).getVersioned("other").getValue());
+  }
+
+  /**
+   * Creates learners that each store the fragment at their position, with the others as peers.
+   */
+  private static List<Learner> codedLearners(int count, List<Map<String, String>> stores) {
+    List<Learner> learners = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Map<String, String> store = new ConcurrentHashMap<>();
+      Learner learner = new Learner(i + 1, store, new AcceptorSupervisor(i + 1));
+      learner.setFragmentIndex(i, count);
+      learners.add(learner);
+      stores.add(store);
+    }
+    for (Learner learner : learners) {
+      List<Learner> peers = new ArrayList<>(learners);
+      peers.remove(learner);
+      learner.setPeers(peers);
+    }
+    return learners;
+  }
+
+  static Learner learner(int id) {
+    return new Learner(id, new ConcurrentHashMap<>(), new AcceptorSupervisor(id));
+  }
+
+  private void start(Learner learner) {
+    started.add(learner);
+    learner.start();
+  }
+
+  static void awaitVersion(Learner learner, String key, long version) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (learner.getVersioned(key).getVersion() < version && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    assertTrue(learner.getVersioned(key).getVersion() >= version, "catch-up did not apply " + key);
+  }
+}
@@ -0,0 +1,136 @@
+package server.roles;
+
+import org.junit.jupiter.api.Test;
+import server.actions.Action;
+import server.actions.ActionResult;
+import server.actions.CompareAndSetAction;
+import server.actions.DeleteAction;
+import server.actions.PutAction;
+import server.actions.ReadModifyWriteAction;
+import server.fault.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProposerTest {
+
+  @Test
+  void batchDecidesEveryKeyInItsOwnInstance() {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    assertTrue(replicas.get(1).proposer.propose(new PutAction("b", "single")));
+
+    boolean[] chosen = replicas.get(0).proposer.proposeBatch(List.of(
+            new PutAction("a", "1"), new PutAction("b", "2"), new PutAction("c", "3")));
+
+    assertArrayEquals(new boolean[] {true, true, true}, chosen);
+    for (TestReplica replica : replicas) {
+      assertEquals("2", replica.get("b"));
+      assertEquals(2, replica.learner.getVersioned("b").getVersion());
+      assertEquals(3, replica.learner.nextInstance("b"));
+      assertEquals(2, replica.learner.nextInstance("a"));
+    }
+  }
+
+  @Test
+  void batchMovesPastInstancesItsReplicaHasNotLearned() {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    // Replica 1 misses the Learn of another proposer's write, so it starts the batch in a decided instance
+    replicas.get(1).proposer.setFaultInjector((type, from, to) -> type == MessageType.LEARN && to == 1 ? -1 : 0);
+    assertTrue(replicas.get(1).proposer.propose(new PutAction("k", "single")));
+
+    boolean[] chosen = replicas.get(0).proposer.proposeBatch(List.of(new PutAction("k", "batch")));
+
+    assertArrayEquals(new boolean[] {true}, chosen);
+    for (TestReplica replica : replicas.subList(1, 3)) {
+      assertEquals("batch", replica.get("k"));
+      assertEquals(2, replica.learner.getVersioned("k").getVersion());
+    }
+    assertEquals(3, replicas.get(0).learner.nextInstance("k"));
+    replicas.get(0).learner.catchUpNow();
+    assertEquals("batch", replicas.get(0).get("k"));
+  }
+
+  @Test
+  void repeatedKeyInBatchIsAppliedInOrder() {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    boolean[] chosen = replicas.get(0).proposer.proposeBatch(List.of(
+            new PutAction("k", "first"), new DeleteAction("k"), new PutAction("k", "last")));
+
+    assertArrayEquals(new boolean[] {true, true, true}, chosen);
+    for (TestReplica replica : replicas) {
+      assertEquals("last", replica.get("k"));
+      assertEquals(3, replica.learner.getVersioned("k").getVersion());
+    }
+  }
+
+  @Test
+  void overlappingBatchesFromOneProposerDoNotDeadlock() throws InterruptedException {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    Proposer proposer = replicas.get(0).proposer;
+    List<Action> forward = new ArrayList<>();
+    List<Action> backward = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      forward.add(new PutAction("key" + i, "f"));
+      backward.add(0, new PutAction("key" + i, "b"));
+    }
+    CountDownLatch done = new CountDownLatch(2);
+    for (List<Action> batch : List.of(forward, backward)) {
+      Thread thread = new Thread(() -> {
+        for (int round = 0; round < 20; round++) {
+          proposer.proposeBatch(batch);
+        }
+        done.countDown();
+      });
+      thread.setDaemon(true);
+      thread.start();
+    }
+    assertTrue(done.await(30, TimeUnit.SECONDS), "batches deadlocked");
+    for (int i = 0; i < 50; i++) {
+      String key = "key" + i;
+      assertEquals(41, replicas.get(0).learner.nextInstance(key));
+      assertEquals(replicas.get(0).get(key), replicas.get(2).get(key));
+    }
+  }
+
+  @Test
+  void compareAndSetFromTwoProposersHasOneOutcomeEverywhere() throws InterruptedException {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    assertTrue(replicas.get(0).proposer.propose(new PutAction("k", "v1")));
+    // Both replicas swap against version 1; replica 3 never hears of the first swap in time
+    replicas.get(0).proposer.setFaultInjector((type, from, to) -> type == MessageType.LEARN && to == 3 ? -1 : 0);
+    long first = ReadModifyWriteAction.requestId(1, 1);
+    long second = ReadModifyWriteAction.requestId(3, 1);
+    assertTrue(replicas.get(0).proposer.propose(new CompareAndSetAction("k", 1, "from-1", first, 1)));
+    assertTrue(replicas.get(2).proposer.propose(new CompareAndSetAction("k", 1, "from-3", second, 3)));
+
+    ActionResult firstResult = replicas.get(0).learner.awaitResult(first, 1_000);
+    replicas.get(2).learner.catchUpNow();
+    ActionResult secondResult = replicas.get(2).learner.awaitResult(second, 1_000);
+    assertTrue(firstResult.isWritten());
+    assertFalse(secondResult.isWritten());
+    for (TestReplica replica : replicas) {
+      assertEquals("from-1", replica.get("k"));
+      assertEquals(2, replica.learner.getVersioned("k").getVersion());
+    }
+  }
+
+  @Test
+  void keysWithoutAQuorumAreNotChosen() {
+    List<TestReplica> replicas = TestReplica.cluster(3);
+    replicas.get(1).acceptorSupervisor.crash();
+    replicas.get(2).acceptorSupervisor.crash();
+
+    boolean[] chosen = replicas.get(0).proposer.proposeBatch(List.of(new PutAction("a", "1"), new PutAction("b", "2")));
+
+    assertArrayEquals(new boolean[] {false, false}, chosen);
+    assertNull(replicas.get(0).get("a"));
+  }
+}
@@ -0,0 +1,86 @@
+package server.roles;
+
+import server.IKeyValueServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-process Paxos replica with just the roles a proposer talks to.
+ */
+class TestReplica implements IKeyValueServer {
+  final int id;
+  final AcceptorSupervisor acceptorSupervisor;
+  final Learner learner;
+  final Proposer proposer;
+
+  TestReplica(int id) {
+    this.id = id;
+    this.acceptorSupervisor = new AcceptorSupervisor(id);
+    this.learner = new Learner(id, new ConcurrentHashMap<>(), acceptorSupervisor);
+    this.proposer = new Proposer(id);
+  }
+
+  /**
+   * Creates replicas 1 to {@code count}, all voting, and wires their proposers and learners.
+   */
+  static List<TestReplica> cluster(int count) {
+    List<TestReplica> replicas = new ArrayList<>();
+    for (int id = 1; id <= count; id++) {
+      replicas.add(new TestReplica(id));
+    }
+    List<IKeyValueServer> all = List.copyOf(replicas);
+    for (TestReplica replica : replicas) {
+      replica.setAllReplicas(all);
+    }
+    return replicas;
+  }
+
+  @Override
+  public String get(String key) {
+    return learner.getVersioned(key).getValue();
+  }
+
+  @Override
+  public boolean put(String key, String value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean delete(String key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String getServerID() {
+    return String.valueOf(id);
+  }
+
+  @Override
+  public AcceptorSupervisor getAcceptorSupervisor() {
+    return acceptorSupervisor;
+  }
+
+  @Override
+  public Learner getLearner() {
+    return learner;
+  }
+
+  @Override
+  public boolean isVoter() {
+    return true;
+  }
+
+  @Override
+  public void setAllReplicas(List<IKeyValueServer> replicas) {
+    proposer.setAllReplicas(replicas);
+    List<Learner> peers = new ArrayList<>();
+    for (IKeyValueServer replica : replicas) {
+      if (replica != this) {
+        peers.add(replica.getLearner());
+      }
+    }
+    learner.setPeers(peers);
+  }
+}
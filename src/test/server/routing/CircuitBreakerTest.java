@@ -0,0 +1,76 @@
+package server.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+  @Test
+  void opensAfterConsecutiveFailuresOnly() {
+    CircuitBreaker breaker = new CircuitBreaker("1");
+    for (int i = 1; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+      breaker.recordFailure();
+    }
+    breaker.recordSuccess(); // breaks the run
+    for (int i = 1; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+      breaker.probeFailed();
+    }
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.currentState());
+    assertTrue(breaker.admits());
+
+    breaker.recordFailure();
+    assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+    assertFalse(breaker.admits());
+    assertFalse(breaker.isAvailable());
+    assertEquals(0.0, breaker.getTrafficShare());
+    assertEquals(1, breaker.getTimesOpened());
+  }
+
+  @Test
+  void openBreakerWarmsUpAfterItsWaitAndReopensOnFailure() throws InterruptedException {
+    CircuitBreaker breaker = opened();
+    breaker.probeSucceeded(); // too early
+    assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+
+    Thread.sleep(1_100);
+    breaker.probeSucceeded();
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.currentState());
+    assertTrue(breaker.isAvailable());
+    double share = breaker.getTrafficShare();
+    assertTrue(share >= 0.1 && share < 0.2, "share right after half-opening: " + share);
+    int admitted = 0;
+    for (int i = 0; i < 10_000; i++) {
+      admitted += breaker.admits() ? 1 : 0;
+    }
+    assertTrue(admitted > 500 && admitted < 3_000, "admitted " + admitted + " of 10000");
+
+    for (int i = 0; i < 20; i++) {
+      breaker.recordSuccess();
+    }
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.currentState(), "closed before warm-up was over");
+
+    breaker.recordFailure();
+    assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+    assertEquals(2, breaker.getTimesOpened());
+  }
+
+  @Test
+  void failedProbesKeepAnOpenBreakerOpen() throws InterruptedException {
+    CircuitBreaker breaker = opened();
+    Thread.sleep(1_100);
+    breaker.probeFailed();
+    assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+    assertEquals(1, breaker.getTimesOpened());
+  }
+
+  private static CircuitBreaker opened() {
+    CircuitBreaker breaker = new CircuitBreaker("1");
+    for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+      breaker.recordFailure();
+    }
+    return breaker;
+  }
+}
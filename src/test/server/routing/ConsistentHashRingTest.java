@@ -0,0 +1,70 @@
+package server.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+  private static final List<String> REPLICAS = List.of("1", "2", "3", "4", "5");
+
+  @Test
+  void ringsOverTheSameIdsAgreeOnEveryOwner() {
+    ConsistentHashRing<String> first = new ConsistentHashRing<>(REPLICAS, Function.identity());
+    ConsistentHashRing<String> second = new ConsistentHashRing<>(List.of("5", "3", "1", "4", "2"), Function.identity());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(first.primaryOwner("key" + i), second.primaryOwner("key" + i));
+      assertEquals(first.primaryOwner("key" + i), first.owner("key" + i, replica -> true));
+    }
+  }
+
+  @Test
+  void keysSpreadEvenlyOverTheReplicas() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, Function.identity());
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 50_000; i++) {
+      counts.merge(ring.primaryOwner("key" + i), 1, Integer::sum);
+    }
+    assertEquals(5, counts.size());
+    for (Map.Entry<String, Integer> count : counts.entrySet()) {
+      assertTrue(count.getValue() > 7_000 && count.getValue() < 13_000, "replica " + count.getKey() + " owns " + count.getValue());
+    }
+  }
+
+  @Test
+  void onlyAnUnavailableReplicasKeysMove() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, Function.identity());
+    for (int i = 0; i < 5_000; i++) {
+      String key = "key" + i;
+      String primary = ring.primaryOwner(key);
+      String owner = ring.owner(key, replica -> !replica.equals("3"));
+      if (primary.equals("3")) {
+        assertNotEquals("3", owner);
+      } else {
+        assertEquals(primary, owner, key + " moved although its owner is up");
+      }
+      assertEquals(primary, ring.owner(key, replica -> true), "the old layout returns on recovery");
+    }
+  }
+
+  @Test
+  void keyFallsToItsPrimaryOwnerWhenNoReplicaIsAvailable() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, Function.identity());
+    assertEquals(ring.primaryOwner("k"), ring.owner("k", replica -> false));
+    assertEquals("4", ring.owner("k", replica -> replica.equals("4")));
+    assertEquals(ring.primaryOwner(null), ring.owner(null, replica -> true));
+  }
+
+  @Test
+  void emptyRingIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(List.<String>of(), Function.identity()));
+    assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(REPLICAS, Function.identity(), 0));
+  }
+}
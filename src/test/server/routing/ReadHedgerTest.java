@@ -0,0 +1,69 @@
+package server.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadHedgerTest {
+
+  @Test
+  void hedgesStayWithinTheBudget() {
+    ReadHedger hedger = new ReadHedger(95, 0.05);
+    assertFalse(hedger.tryAcquire(), "hedged before any read earned budget");
+
+    int hedged = 0;
+    for (int i = 0; i < 1_000; i++) {
+      hedger.recordRead();
+      hedged += hedger.tryAcquire() ? 1 : 0;
+    }
+    assertEquals(50, hedged);
+    assertEquals(50, hedger.getHedges());
+    assertEquals(951, hedger.getBudgetDenied()); // the first try, and every read that did not earn a whole token
+  }
+
+  @Test
+  void unusedBudgetOnlyBuildsASmallBurst() {
+    ReadHedger hedger = new ReadHedger(95, 0.05);
+    for (int i = 0; i < 100_000; i++) {
+      hedger.recordRead();
+    }
+    int burst = 0;
+    while (hedger.tryAcquire()) {
+      burst++;
+    }
+    assertEquals(10, burst);
+  }
+
+  @Test
+  void delayFollowsThePercentileOfTheLastWindow() throws InterruptedException {
+    ReadHedger hedger = new ReadHedger(90, 0.05);
+    for (int i = 1; i <= 10; i++) {
+      hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    Thread.sleep(1_100);
+    hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+    assertEquals(Long.MAX_VALUE, hedger.getDelayNanos(), "hedging started from too few reads");
+    assertEquals(-1, hedger.getDelayMicros());
+
+    for (int i = 1; i <= 100; i++) {
+      hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    Thread.sleep(1_100);
+    hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+    double delayMillis = hedger.getDelayNanos() / 1e6;
+    assertTrue(delayMillis > 85 && delayMillis < 95, "p90 of 1..100 ms was " + delayMillis + " ms");
+  }
+
+  @Test
+  void invalidSettingsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new ReadHedger(0, 0.05));
+    assertThrows(IllegalArgumentException.class, () -> new ReadHedger(100, 0.05));
+    assertThrows(IllegalArgumentException.class, () -> new ReadHedger(95, 0));
+    assertThrows(IllegalArgumentException.class, () -> new ReadHedger(95, 1.5));
+  }
+}
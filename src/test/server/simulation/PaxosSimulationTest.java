@@ -0,0 +1,38 @@
+package server.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaxosSimulationTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "0:drop:learn:0.2", "0:delay:learn:3", "lossy", "chaos"})
+  void replicasConvergeUnderFaults(String faults) {
+    for (long seed = 1; seed <= 3; seed++) {
+      PaxosSimulation.Result result = simulation(faults).run(seed);
+      assertEquals(2000, result.getCompleted());
+      assertEquals(0, result.getDivergentKeys(), faults + " with seed " + seed + ": " + result);
+    }
+  }
+
+  @Test
+  void sameSeedGivesSameRun() {
+    assertEquals(simulation("chaos").run(5).getFingerprint(), simulation("chaos").run(5).getFingerprint());
+  }
+
+  private static PaxosSimulation simulation(String faults) {
+    Map<String, String> options = new HashMap<>();
+    options.put("ops", "2000");
+    options.put("keys", "20");
+    if (!faults.equals("none")) {
+      options.put("faults", faults);
+    }
+    return new PaxosSimulation(options);
+  }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyDistributionTest {
+
+  @Test
+  void indexesStayWithinTheKeyspace() {
+    for (String name : new String[]{"uniform", "zipfian"}) {
+      KeyDistribution distribution = KeyDistribution.fromName(name, 1000);
+      Random random = new Random(1);
+      for (int i = 0; i < 100_000; i++) {
+        long index = distribution.next(random);
+        assertTrue(index >= 0 && index < 1000, name + " produced " + index);
+      }
+    }
+  }
+
+  @Test
+  void zipfianFavoursTheFirstKeys() {
+    KeyDistribution distribution = KeyDistribution.zipfian(1000);
+    Random random = new Random(1);
+    int head = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (distribution.next(random) < 10) {
+        head++;
+      }
+    }
+    assertTrue(head > 20_000, "1% of the keys drew only " + head + " of 100000 requests");
+  }
+
+  @Test
+  void sameSeedGivesSameSequence() {
+    KeyDistribution distribution = KeyDistribution.zipfian(1000);
+    Random first = new Random(7);
+    Random second = new Random(7);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(distribution.next(first), distribution.next(second));
+    }
+  }
+
+  @Test
+  void unknownNameIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> KeyDistribution.fromName("pareto", 10));
+  }
+}
@@ -0,0 +1,80 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReedSolomonTest {
+
+  @Test
+  void anyKOfNFragmentsRebuildTheData() {
+    ReedSolomon coder = new ReedSolomon(3, 5);
+    byte[] data = "a value long enough to span several fragments".getBytes(StandardCharsets.UTF_8);
+    byte[][] fragments = coder.encode(data);
+    // Every choice of 3 fragments out of 5, i.e. any 2 missing
+    for (int mask = 0; mask < 1 << 5; mask++) {
+      if (Integer.bitCount(mask) != 3) {
+        continue;
+      }
+      Map<Integer, byte[]> present = new HashMap<>();
+      for (int i = 0; i < 5; i++) {
+        if ((mask & 1 << i) != 0) {
+          present.put(i, fragments[i]);
+        }
+      }
+      assertArrayEquals(data, coder.decode(present, data.length), "fragments " + present.keySet());
+    }
+  }
+
+  @Test
+  void roundTripsRandomDataForEveryShape() {
+    Random random = new Random(1);
+    for (int total = 1; total <= 8; total++) {
+      for (int dataShards = 1; dataShards <= total; dataShards++) {
+        ReedSolomon coder = new ReedSolomon(dataShards, total);
+        byte[] data = new byte[random.nextInt(100)];
+        random.nextBytes(data);
+        byte[][] fragments = coder.encode(data);
+
+        Map<Integer, byte[]> present = new HashMap<>();
+        for (int index : shuffled(random, total)) {
+          if (present.size() == dataShards) {
+            break;
+          }
+          present.put(index, fragments[index]);
+        }
+        assertArrayEquals(data, coder.decode(present, data.length), "k=" + dataShards + ", n=" + total);
+      }
+    }
+  }
+
+  @Test
+  void rejectsTooFewFragmentsAndInvalidShapes() {
+    ReedSolomon coder = new ReedSolomon(3, 5);
+    byte[][] fragments = coder.encode(new byte[10]);
+    assertThrows(IllegalArgumentException.class, () -> coder.decode(Map.of(0, fragments[0], 4, fragments[4]), 10));
+    assertThrows(IllegalArgumentException.class, () -> new ReedSolomon(0, 5));
+    assertThrows(IllegalArgumentException.class, () -> new ReedSolomon(6, 5));
+    assertThrows(IllegalArgumentException.class, () -> new ReedSolomon(3, 257));
+  }
+
+  private static int[] shuffled(Random random, int count) {
+    int[] indices = new int[count];
+    for (int i = 0; i < count; i++) {
+      indices[i] = i;
+    }
+    for (int i = count - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = indices[i];
+      indices[i] = indices[j];
+      indices[j] = swap;
+    }
+    return indices;
+  }
+}
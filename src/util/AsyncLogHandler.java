@@ -0,0 +1,185 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A log handler that hands records to a background writer through a bounded, lock-free ring buffer,
+ * so logging threads never format, lock or wait on the console. When the buffer is full, records are
+ * dropped rather than blocking the caller, and the writer reports how many were lost.
+ *
+ * <p>The writer formats records as {@code [dd MMM yyyy HH:mm:ss.SSS] [LEVEL] [logger] message} to
+ * standard error, as the console handler did before. The date and time are formatted once per
+ * second and reused, and one output buffer is flushed whenever the ring buffer runs empty.
+ * Pending records are written out when the JVM shuts down.
+ */
+public class AsyncLogHandler extends Handler {
+  private static final int CAPACITY = 8192; // must be a power of two
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long FLUSH_TIMEOUT_MS = 1000;
+  private static final DateTimeFormatter SECOND_FORMAT =
+          DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm:ss", Locale.ENGLISH).withZone(ZoneId.systemDefault());
+
+  private static final class Holder {
+    private static final AsyncLogHandler INSTANCE = new AsyncLogHandler();
+  }
+
+  // Bounded MPSC queue: a producer claims a slot by advancing tail, and the slot's sequence
+  // tells the writer when the record is published and producers when the slot is free again
+  private final AtomicReferenceArray<LogRecord> slots = new AtomicReferenceArray<>(CAPACITY);
+  private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile long head; // written only by the writer thread
+  private volatile long flushedHead; // every record before this position has reached the stream
+
+  private final PrintStream out = new PrintStream(
+          new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), 1 << 16), false, StandardCharsets.UTF_8);
+  private final StringBuilder line = new StringBuilder(256);
+  private long cachedSecond = Long.MIN_VALUE;
+  private String cachedSecondText;
+  private long reportedDrops;
+
+  private AsyncLogHandler() {
+    for (int i = 0; i < CAPACITY; i++) {
+      sequences.set(i, i);
+    }
+    setLevel(Level.ALL);
+    Thread writer = new Thread(this::drainLoop, "log-writer");
+    writer.setDaemon(true);
+    writer.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+  }
+
+  /**
+   * Returns the handler shared by every logger, starting its writer thread on first use.
+   *
+   * @return The shared handler.
+   */
+  public static AsyncLogHandler getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Queues a record for the writer thread, or counts it as dropped if the buffer is full.
+   *
+   * @param record The record to write.
+   */
+  @Override
+  public void publish(LogRecord record) {
+    if (!isLoggable(record)) {
+      return;
+    }
+    while (true) {
+      long position = tail.get();
+      int index = (int) (position & (CAPACITY - 1));
+      long available = sequences.get(index) - position;
+      if (available < 0) {
+        dropped.incrementAndGet();
+        return;
+      }
+      if (available == 0 && tail.compareAndSet(position, position + 1)) {
+        slots.set(index, record);
+        sequences.set(index, position + 1);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of records dropped because the buffer was full.
+   *
+   * @return The drop count.
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Waits, for up to a second, until every queued record has been written and flushed.
+   */
+  @Override
+  public void flush() {
+    long target = tail.get();
+    long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+    while (flushedHead < target && System.currentTimeMillis() < deadline) {
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+  }
+
+  @Override
+  public void close() {
+    flush();
+  }
+
+  private void drainLoop() {
+    while (true) {
+      LogRecord record = poll();
+      if (record != null) {
+        write(record);
+        continue;
+      }
+      long drops = dropped.get();
+      if (drops > reportedDrops) {
+        out.println("[AsyncLogHandler] " + (drops - reportedDrops) + " log records dropped (buffer full)");
+        reportedDrops = drops;
+      }
+      out.flush();
+      flushedHead = head;
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+  }
+
+  private LogRecord poll() {
+    long position = head;
+    int index = (int) (position & (CAPACITY - 1));
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    LogRecord record = slots.get(index);
+    slots.set(index, null);
+    sequences.set(index, position + CAPACITY);
+    head = position + 1;
+    return record;
+  }
+
+  private void write(LogRecord record) {
+    long millis = record.getMillis();
+    long second = Math.floorDiv(millis, 1000);
+    if (second != cachedSecond) {
+      cachedSecond = second;
+      cachedSecondText = SECOND_FORMAT.format(Instant.ofEpochSecond(second));
+    }
+    long fraction = Math.floorMod(millis, 1000);
+
+    line.setLength(0);
+    line.append('[').append(cachedSecondText).append('.');
+    if (fraction < 100) {
+      line.append('0');
+    }
+    if (fraction < 10) {
+      line.append('0');
+    }
+    line.append(fraction).append("] [").append(record.getLevel()).append("] [")
+            .append(record.getLoggerName()).append("] ").append(record.getMessage()).append(' ');
+    out.println(line);
+    if (record.getThrown() != null) {
+      record.getThrown().printStackTrace(out);
+    }
+  }
+}
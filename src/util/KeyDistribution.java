@@ -0,0 +1,122 @@
+package util;
+
+import java.util.Random;
+
+/**
+ * Picks key indices in [0, keyCount) with a chosen skew, for benchmarks and load generation.
+ * Zipfian picks follow the YCSB generator (Gray et al., "Quickly Generating Billion-Record
+ * Synthetic Databases"), with item 0 the most popular. Instances are immutable and can be
+ * shared between threads; each thread passes its own {@link Random}.
+ */
+public class KeyDistribution {
+  /** The YCSB default skew. */
+  public static final double DEFAULT_ZIPFIAN_CONSTANT = 0.99;
+
+  private final long keyCount;
+  private final boolean zipfian;
+  private final double theta;
+  private final double alpha;
+  private final double zetaN;
+  private final double eta;
+
+  private KeyDistribution(long keyCount, boolean zipfian, double theta) {
+    if (keyCount <= 0) {
+      throw new IllegalArgumentException("Key count must be positive: " + keyCount);
+    }
+    this.keyCount = keyCount;
+    this.zipfian = zipfian;
+    this.theta = theta;
+    if (zipfian) {
+      double zeta2 = zeta(2, theta);
+      this.alpha = 1.0 / (1.0 - theta);
+      this.zetaN = zeta(keyCount, theta);
+      this.eta = (1 - Math.pow(2.0 / keyCount, 1 - theta)) / (1 - zeta2 / zetaN);
+    } else {
+      this.alpha = 0;
+      this.zetaN = 0;
+      this.eta = 0;
+    }
+  }
+
+  /**
+   * Returns a distribution where every key is equally likely.
+   *
+   * @param keyCount The number of keys.
+   * @return The distribution.
+   */
+  public static KeyDistribution uniform(long keyCount) {
+    return new KeyDistribution(keyCount, false, 0);
+  }
+
+  /**
+   * Returns a zipfian distribution with the YCSB default skew.
+   *
+   * @param keyCount The number of keys.
+   * @return The distribution.
+   */
+  public static KeyDistribution zipfian(long keyCount) {
+    return new KeyDistribution(keyCount, true, DEFAULT_ZIPFIAN_CONSTANT);
+  }
+
+  /**
+   * Looks up a distribution by name.
+   *
+   * @param name     "uniform" or "zipfian".
+   * @param keyCount The number of keys.
+   * @return The distribution.
+   * @throws IllegalArgumentException If the name is unknown.
+   */
+  public static KeyDistribution fromName(String name, long keyCount) {
+    switch (name.toLowerCase()) {
+      case "uniform":
+        return uniform(keyCount);
+      case "zipfian":
+        return zipfian(keyCount);
+      default:
+        throw new IllegalArgumentException("Unknown key distribution: " + name);
+    }
+  }
+
+  /**
+   * Picks the next key index.
+   *
+   * @param random The calling thread's random source.
+   * @return A key index in [0, keyCount).
+   */
+  public long next(Random random) {
+    if (!zipfian) {
+      return (long) (random.nextDouble() * keyCount);
+    }
+    double u = random.nextDouble();
+    double uz = u * zetaN;
+    if (uz < 1.0) {
+      return 0;
+    }
+    if (uz < 1.0 + Math.pow(0.5, theta)) {
+      return Math.min(1, keyCount - 1);
+    }
+    return Math.min(keyCount - 1, (long) (keyCount * Math.pow(eta * u - eta + 1, alpha)));
+  }
+
+  /**
+   * Returns the number of keys.
+   *
+   * @return The key count.
+   */
+  public long getKeyCount() {
+    return keyCount;
+  }
+
+  private static double zeta(long n, double theta) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return (zipfian ? "zipfian(" + theta + ")" : "uniform") + " over " + keyCount + " keys";
+  }
+}
@@ -0,0 +1,123 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe, fixed-size latency histogram with log-linear buckets.
+ * Values below 64 get exact buckets; larger values are grouped into 32 sub-buckets per
+ * power of two, bounding the relative error of any percentile to about 3%.
+ * Recording never allocates, so it is safe to call on hot paths.
+ */
+public class LatencyHistogram {
+  private static final int LINEAR_LIMIT = 64;
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int FIRST_EXPONENT = 6; // 2^6 == LINEAR_LIMIT
+  private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong totalCount = new AtomicLong();
+  private final AtomicLong totalValue = new AtomicLong();
+  private final AtomicLong maxValue = new AtomicLong();
+
+  /**
+   * Records a single value, typically a latency in nanoseconds.
+   * Negative values are recorded as zero.
+   *
+   * @param value The value to record.
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(v));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(v);
+    long max;
+    while (v > (max = maxValue.get()) && !maxValue.compareAndSet(max, v)) {
+      // retry until the max reflects v or a larger value
+    }
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return The count.
+   */
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * Returns the mean of all recorded values.
+   *
+   * @return The mean, or 0 if nothing was recorded.
+   */
+  public double getMean() {
+    long count = totalCount.get();
+    return count == 0 ? 0 : (double) totalValue.get() / count;
+  }
+
+  /**
+   * Returns the largest recorded value.
+   *
+   * @return The maximum, or 0 if nothing was recorded.
+   */
+  public long getMax() {
+    return maxValue.get();
+  }
+
+  /**
+   * Returns the value at the given percentile.
+   * The result is the upper bound of the bucket holding that percentile, capped at the maximum.
+   *
+   * @param percentile The percentile between 0 and 100, e.g. 99.9.
+   * @return The value at the percentile, or 0 if nothing was recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = totalCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, percentile) / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= target) {
+        return Math.min(upperBoundOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Clears all recorded values.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    totalValue.set(0);
+    maxValue.set(0);
+  }
+
+  private static int bucketOf(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBoundOf(int bucket) {
+    if (bucket < LINEAR_LIMIT) {
+      return bucket;
+    }
+    int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + FIRST_EXPONENT;
+    long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lowerBound = (1L << exponent) + subBucket * width;
+    return lowerBound + width - 1;
+  }
+}
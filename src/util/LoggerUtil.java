@@ -1,60 +1,58 @@
 package util;
 
-import java.io.PrintStream;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.logging.ConsoleHandler;
-import java.util.logging.Formatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Handler;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 /**
  * LoggerUtil provides a utility to configure custom logging behavior for the application.
- * It sets up a console logger with timestamped messages formatted for readability.
+ * Every configured logger writes through one shared {@link AsyncLogHandler}, which formats
+ * timestamped messages on a background thread.
+ *
+ * <p>Per-request messages should be guarded with {@link #isRequestLoggable(Logger)}, which is
+ * cheap when INFO is off and logs only a sample of requests when {@code -Dkvstore.log.sample=N}
+ * is set. {@code -Dkvstore.log.level=WARNING} (or any level name) sets the level of every
+ * configured logger at startup.
  */
 public interface LoggerUtil {
 
   /**
-   * Configures the given logger with a custom console handler.
-   * The handler formats logs with timestamps and message details.
+   * Log one in this many requests; 1 logs every request.
+   */
+  int REQUEST_SAMPLE = Math.max(1, Integer.getInteger("kvstore.log.sample", 1));
+
+  /**
+   * Configures the given logger to write through the shared asynchronous handler.
    * It also disables parent handlers to avoid duplicate logs.
    *
    * @param logger The logger instance to configure.
    */
   static void setupCustomLogger(Logger logger) {
     logger.setUseParentHandlers(false); // Disable default handlers to prevent duplicate logs
-    logger.addHandler(getDateHandler()); // Attach a custom date-formatted handler
-    System.setOut(new PrintStream(System.out, true)); // Ensure System.out uses auto flush
+    AsyncLogHandler handler = AsyncLogHandler.getInstance();
+    for (Handler existing : logger.getHandlers()) {
+      if (existing == handler) {
+        return;
+      }
+    }
+    logger.addHandler(handler);
+    String level = System.getProperty("kvstore.log.level");
+    if (level != null) {
+      logger.setLevel(Level.parse(level.toUpperCase()));
+    }
   }
 
   /**
-   * Creates a ConsoleHandler with a custom log message formatter.
-   * The log messages are formatted with:
-   * - A timestamp (HH:mm:ss.SSS)
-   * - Log level (INFO, WARNING, ERROR, etc.)
-   * - Logger name
-   * - The actual log message
+   * Returns whether a per-request INFO message should be logged: INFO must be enabled for the
+   * logger, and the request must fall in the configured sample. Call it once per request and
+   * reuse the answer, so a sampled request logs all of its lines.
    *
-   * @return A ConsoleHandler with custom formatting.
+   * @param logger The logger the message would go to.
+   * @return True if the message should be built and logged.
    */
-  private static ConsoleHandler getDateHandler() {
-    ConsoleHandler handler = new ConsoleHandler();
-
-    // Define a custom formatter for log messages
-    handler.setFormatter(new Formatter() {
-      @Override
-      public String format(LogRecord record) {
-        String timestamp = new SimpleDateFormat("dd MMM yyyy HH:mm:ss.SSS").format(new Date(record.getMillis()));
-        return String.format("[%s] [%s] [%s] %s %n",
-                timestamp,
-                record.getLevel(),
-                record.getLoggerName(),
-                record.getMessage());
-      }
-    });
-
-    handler.setLevel(Level.ALL);
-    return handler;
+  static boolean isRequestLoggable(Logger logger) {
+    return logger.isLoggable(Level.INFO)
+            && (REQUEST_SAMPLE == 1 || ThreadLocalRandom.current().nextInt(REQUEST_SAMPLE) == 0);
   }
 }
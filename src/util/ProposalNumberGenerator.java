@@ -11,6 +11,8 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class ProposalNumberGenerator {
   private static final int ID_SHIFT = 4; // allows up to 16 replicas (0-15)
+  /** The number of distinct server IDs a proposal number can encode. */
+  public static final int MAX_SERVERS = 1 << ID_SHIFT;
   private final int serverId;
   private final AtomicLong counter;
 
@@ -20,8 +22,23 @@ public class ProposalNumberGenerator {
    * @param serverId The unique ID of the replica server acting as proposer.
    */
   public ProposalNumberGenerator(int serverId) {
+    this(serverId, System.currentTimeMillis());
+  }
+
+  /**
+   * Constructs a ProposalNumberGenerator starting from a fixed counter value,
+   * which makes the sequence of proposal numbers reproducible.
+   *
+   * @param serverId     The unique ID of the replica server acting as proposer.
+   * @param initialValue The logical counter value before the first proposal.
+   * @throws IllegalArgumentException If the ID does not fit in the proposal number.
+   */
+  public ProposalNumberGenerator(int serverId, long initialValue) {
+    if (serverId < 0 || serverId >= MAX_SERVERS) {
+      throw new IllegalArgumentException("Server ID must be in [0, " + MAX_SERVERS + "): " + serverId);
+    }
     this.serverId = serverId;
-    this.counter = new AtomicLong(System.currentTimeMillis());
+    this.counter = new AtomicLong(initialValue);
   }
 
   /**
@@ -0,0 +1,204 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A systematic Reed-Solomon erasure code over GF(2^8).
+ * Data is split into k data shards and extended with n - k parity shards built from a Cauchy
+ * matrix, so the original bytes can be rebuilt from any k of the n shards.
+ */
+public class ReedSolomon {
+  private static final int FIELD_SIZE = 256;
+  private static final int GENERATOR_POLYNOMIAL = 0x11d;
+  private static final int[] EXP = new int[FIELD_SIZE * 2];
+  private static final int[] LOG = new int[FIELD_SIZE];
+
+  static {
+    int x = 1;
+    for (int i = 0; i < FIELD_SIZE - 1; i++) {
+      EXP[i] = x;
+      LOG[x] = i;
+      x <<= 1;
+      if (x >= FIELD_SIZE) {
+        x ^= GENERATOR_POLYNOMIAL;
+      }
+    }
+    for (int i = FIELD_SIZE - 1; i < EXP.length; i++) {
+      EXP[i] = EXP[i - (FIELD_SIZE - 1)];
+    }
+  }
+
+  private final int dataShards;
+  private final int totalShards;
+  private final int[][] encodingMatrix;
+
+  /**
+   * Constructs a code with the given number of data and total shards.
+   *
+   * @param dataShards  The number of shards needed to rebuild the data (k).
+   * @param totalShards The number of shards produced (n).
+   * @throws IllegalArgumentException If 0 &lt; k &lt;= n &lt;= 256 does not hold.
+   */
+  public ReedSolomon(int dataShards, int totalShards) {
+    if (dataShards <= 0 || totalShards < dataShards || totalShards > FIELD_SIZE) {
+      throw new IllegalArgumentException("Invalid shard counts: k=" + dataShards + ", n=" + totalShards);
+    }
+    this.dataShards = dataShards;
+    this.totalShards = totalShards;
+    this.encodingMatrix = new int[totalShards][dataShards];
+    for (int row = 0; row < totalShards; row++) {
+      for (int col = 0; col < dataShards; col++) {
+        if (row < dataShards) {
+          encodingMatrix[row][col] = row == col ? 1 : 0;
+        } else {
+          encodingMatrix[row][col] = inverse(row ^ col); // Cauchy entry 1 / (x_row + y_col)
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of shards needed to rebuild the data.
+   *
+   * @return k
+   */
+  public int getDataShards() {
+    return dataShards;
+  }
+
+  /**
+   * Returns the number of shards produced by {@link #encode(byte[])}.
+   *
+   * @return n
+   */
+  public int getTotalShards() {
+    return totalShards;
+  }
+
+  /**
+   * Splits data into n equally sized shards, zero-padding the last data shard.
+   *
+   * @param data The bytes to encode.
+   * @return The shards, indexed 0 to n - 1; the first k hold the data itself.
+   */
+  public byte[][] encode(byte[] data) {
+    int shardSize = Math.max(1, (data.length + dataShards - 1) / dataShards);
+    byte[][] shards = new byte[totalShards][shardSize];
+    for (int i = 0; i < dataShards; i++) {
+      int from = i * shardSize;
+      if (from < data.length) {
+        System.arraycopy(data, from, shards[i], 0, Math.min(shardSize, data.length - from));
+      }
+    }
+    for (int row = dataShards; row < totalShards; row++) {
+      for (int col = 0; col < dataShards; col++) {
+        multiplyAdd(encodingMatrix[row][col], shards[col], shards[row]);
+      }
+    }
+    return shards;
+  }
+
+  /**
+   * Rebuilds the original data from any k shards.
+   *
+   * @param shards The available shards keyed by shard index.
+   * @param length The length of the original data.
+   * @return The original bytes.
+   * @throws IllegalArgumentException If fewer than k shards are available.
+   */
+  public byte[] decode(Map<Integer, byte[]> shards, int length) {
+    if (shards.size() < dataShards) {
+      throw new IllegalArgumentException("Need " + dataShards + " shards, got " + shards.size());
+    }
+    int[] indices = new int[dataShards];
+    int found = 0;
+    for (int index : shards.keySet()) {
+      if (found == dataShards) {
+        break;
+      }
+      indices[found++] = index;
+    }
+    Arrays.sort(indices);
+    int shardSize = shards.get(indices[0]).length;
+
+    int[][] decodingMatrix = new int[dataShards][dataShards];
+    for (int i = 0; i < dataShards; i++) {
+      decodingMatrix[i] = Arrays.copyOf(encodingMatrix[indices[i]], dataShards);
+    }
+    decodingMatrix = invert(decodingMatrix);
+
+    byte[] data = new byte[shardSize * dataShards];
+    byte[] rebuilt = new byte[shardSize];
+    for (int row = 0; row < dataShards; row++) {
+      Arrays.fill(rebuilt, (byte) 0);
+      for (int col = 0; col < dataShards; col++) {
+        multiplyAdd(decodingMatrix[row][col], shards.get(indices[col]), rebuilt);
+      }
+      System.arraycopy(rebuilt, 0, data, row * shardSize, shardSize);
+    }
+    return Arrays.copyOf(data, length);
+  }
+
+  private static void multiplyAdd(int coefficient, byte[] input, byte[] output) {
+    if (coefficient == 0) {
+      return;
+    }
+    for (int i = 0; i < input.length; i++) {
+      output[i] ^= (byte) multiply(coefficient, input[i] & 0xff);
+    }
+  }
+
+  private static int multiply(int a, int b) {
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+    return EXP[LOG[a] + LOG[b]];
+  }
+
+  private static int inverse(int a) {
+    return EXP[FIELD_SIZE - 1 - LOG[a]];
+  }
+
+  /**
+   * Inverts a square matrix over GF(2^8) with Gauss-Jordan elimination.
+   */
+  private static int[][] invert(int[][] matrix) {
+    int size = matrix.length;
+    int[][] work = new int[size][size * 2];
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(matrix[i], 0, work[i], 0, size);
+      work[i][size + i] = 1;
+    }
+    for (int col = 0; col < size; col++) {
+      int pivot = col;
+      while (pivot < size && work[pivot][col] == 0) {
+        pivot++;
+      }
+      if (pivot == size) {
+        throw new IllegalStateException("Singular decoding matrix");
+      }
+      int[] swap = work[col];
+      work[col] = work[pivot];
+      work[pivot] = swap;
+
+      int scale = inverse(work[col][col]);
+      for (int j = 0; j < size * 2; j++) {
+        work[col][j] = multiply(work[col][j], scale);
+      }
+      for (int row = 0; row < size; row++) {
+        int factor = work[row][col];
+        if (row != col && factor != 0) {
+          for (int j = 0; j < size * 2; j++) {
+            work[row][j] ^= multiply(factor, work[col][j]);
+          }
+        }
+      }
+    }
+    int[][] inverse = new int[size][size];
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(work[i], size, inverse[i], 0, size);
+    }
+    return inverse;
+  }
+}
@@ -1,5 +1,8 @@
 package util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * The ValidationUtil interface provides utility methods to validate server and client command-line arguments.
  * It ensures that valid port numbers and required parameters are provided before execution.
@@ -8,15 +11,16 @@ public interface ValidationUtil {
 
   /**
    * Validates the server's command-line arguments.
-   * Ensures that exactly one argument (port number) is provided and that it is valid.
+   * Ensures that the first argument is a valid port number; any further arguments
+   * are options checked by {@link #parseServerOptions(String[])}.
    * If the validation fails, the program terminates with an error message.
    *
    * @param args The command-line arguments passed to the server.
    * @return The validated port number.
    */
   static int validateServerArgs(String[] args) {
-    if (args.length != 1) {
-      System.err.println("Usage: java <KeyValueStoreServer.java> <port: Number>");
+    if (args.length < 1) {
+      System.err.println("Usage: java <KeyValueStoreServer.java> <port: Number> [--option=value ...]");
       System.exit(1);
     }
 
@@ -30,6 +34,40 @@ public interface ValidationUtil {
     return Integer.parseInt(args[0]); // Return validated port number
   }
 
+  /**
+   * Parses the server options that follow the port number.
+   * Each option must have the form {@code --name=value}, e.g. {@code --engine=raft}.
+   * If an option is malformed, the program terminates with an error message.
+   *
+   * @param args The command-line arguments passed to the server.
+   * @return The options keyed by name.
+   */
+  static Map<String, String> parseServerOptions(String[] args) {
+    return parseOptions(args, 1);
+  }
+
+  /**
+   * Parses {@code --name=value} options starting at the given argument index.
+   * If an option is malformed, the program terminates with an error message.
+   *
+   * @param args       The command-line arguments.
+   * @param firstIndex The index of the first option.
+   * @return The options keyed by name.
+   */
+  static Map<String, String> parseOptions(String[] args, int firstIndex) {
+    Map<String, String> options = new HashMap<>();
+    for (int i = firstIndex; i < args.length; i++) {
+      String arg = args[i];
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator <= 2) {
+        System.err.println("Invalid option: " + arg + " (expected --name=value)");
+        System.exit(1);
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    return options;
+  }
+
   /**
    * Validates the client's command-line arguments.
    * Ensures that exactly two arguments (hostname and port number) are provided and that the port is valid.
@@ -51,6 +89,28 @@ public interface ValidationUtil {
     }
   }
 
+  /**
+   * Validates the load generator's command-line arguments.
+   * Ensures that a hostname and a valid port number come first; any further arguments
+   * are options checked by {@link #parseOptions(String[], int)}.
+   * If the validation fails, the program terminates with an error message.
+   *
+   * @param args The command-line arguments passed to the load generator.
+   */
+  static void validateLoadGeneratorArgs(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Usage: java <LoadGenerator.java> <hostname: String> <port number: Integer> [--option=value ...]");
+      System.exit(1);
+    }
+
+    try {
+      validatePort(args, 1); // Validate the provided port number
+    } catch (NumberFormatException e) {
+      System.err.println("Invalid port number.");
+      System.exit(1);
+    }
+  }
+
   /**
    * Validates a port number by checking if it is within the valid range (1-65535).
    * If the port number is invalid, the program terminates with an error message.